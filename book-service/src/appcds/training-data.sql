@@ -0,0 +1,15 @@
+-- Runs on every new connection to the training database, so it must be repeatable.
+CREATE SCHEMA IF NOT EXISTS books_schema;
+
+CREATE TABLE IF NOT EXISTS books_schema.books (
+    id SERIAL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    isbn VARCHAR(20) UNIQUE,
+    published_year INTEGER
+);
+
+MERGE INTO books_schema.books (id, title, author, isbn, published_year) KEY (id) VALUES
+    (1, 'The Pragmatic Programmer', 'Andrew Hunt', '9780201616224', 1999),
+    (2, 'Refactoring', 'Martin Fowler', '9780201485677', 1999),
+    (3, 'The Mythical Man-Month', 'Frederick Brooks', '9780201835953', 1975);
@@ -6,27 +6,103 @@ import io.dropwizard.configuration.SubstitutingSourceProvider;
 import io.dropwizard.core.Application;
 import io.dropwizard.core.setup.Environment;
 import io.dropwizard.hibernate.HibernateBundle;
-import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.db.PooledDataSourceFactory;
+import com.example.bookcatalog.bookservice.cache.SerializedCacheConfiguration;
+import com.example.bookcatalog.bookservice.cache.SerializedResponseCache;
+import com.example.bookcatalog.bookservice.cascade.BookDeletion;
+import com.example.bookcatalog.bookservice.cascade.ReviewCascade;
+import com.example.bookcatalog.bookservice.cascade.ReviewCascadeConfiguration;
+import com.example.bookcatalog.bookservice.core.Author;
 import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.db.AuthorDAO;
 import com.example.bookcatalog.bookservice.db.BookDAO;
+import com.example.bookcatalog.bookservice.db.ConnectionPoolGovernor;
+import com.example.bookcatalog.bookservice.db.MigrateCommand;
+import com.example.bookcatalog.bookservice.db.ReadReplicaConfiguration;
+import com.example.bookcatalog.bookservice.db.ReadReplicaRoutingFilter;
+import com.example.bookcatalog.bookservice.db.ReplicaLagMonitor;
+import com.example.bookcatalog.bookservice.db.ReplicaRoutingDataSourceFactory;
+import com.example.bookcatalog.bookservice.db.SchemaMigrator;
+import com.example.bookcatalog.bookservice.db.SingleFlight;
 import com.example.bookcatalog.bookservice.health.DatabaseHealthCheck;
+import com.example.bookcatalog.bookservice.health.SnapshotHealthCheck;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyConfiguration;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyDAO;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyRecord;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyStore;
+import com.example.bookcatalog.bookservice.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.bookcatalog.bookservice.ratelimit.RateLimitConfiguration;
+import com.example.bookcatalog.bookservice.ratelimit.RateLimitFilter;
+import com.example.bookcatalog.bookservice.ratelimit.RateLimiter;
+import com.example.bookcatalog.bookservice.resources.AuthorResource;
+import com.example.bookcatalog.bookservice.resources.BookBulkResource;
 import com.example.bookcatalog.bookservice.resources.BookResource;
+import com.example.bookcatalog.bookservice.resources.SnapshotBookResource;
+import com.example.bookcatalog.bookservice.snapshot.CatalogSnapshotConfiguration;
+import com.example.bookcatalog.bookservice.snapshot.SnapshotCatalog;
+import com.example.bookcatalog.bookservice.snapshot.SnapshotCommand;
+import com.example.bookcatalog.bookservice.startup.CheckpointHooks;
+import com.example.bookcatalog.bookservice.startup.StartupTimer;
+import com.example.bookcatalog.bookservice.startup.TrainCommand;
+import com.example.bookcatalog.bookservice.startup.WarmUp;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.jakarta.rs.smile.JacksonSmileProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.dropwizard.jackson.Jackson;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.dropwizard.DropwizardExports;
 import io.prometheus.client.exporter.MetricsServlet;
-import org.flywaydb.core.Flyway;
-import org.flywaydb.core.api.output.MigrateResult;
 import org.slf4j.Logger;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
 public class BookServiceApplication extends Application<BookServiceConfiguration> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BookServiceApplication.class);
 
-    private final HibernateBundle<BookServiceConfiguration> hibernate = new HibernateBundle<>(Book.class) {
+    private final StartupTimer startup = new StartupTimer();
+
+    // Flyway runs on its own thread while Hibernate builds the SessionFactory.
+    private CompletableFuture<Void> migration;
+
+    // Set when readReplica is enabled; the bundle then builds its pool over primary and replica.
+    private ReplicaRoutingDataSourceFactory replicaRouting;
+
+    // Registered with CRaC, which only holds it weakly.
+    private CheckpointHooks checkpointHooks;
+
+    private final HibernateBundle<BookServiceConfiguration> hibernate = new HibernateBundle<>(Book.class, Author.class, IdempotencyRecord.class, BookDeletion.class) {
+        @Override
+        public PooledDataSourceFactory getDataSourceFactory(BookServiceConfiguration configuration) {
+            ReadReplicaConfiguration readReplica = configuration.getReadReplica();
+            if (!readReplica.isEnabled()) {
+                return configuration.getDataSourceFactory();
+            }
+            if (replicaRouting == null) {
+                replicaRouting = new ReplicaRoutingDataSourceFactory(configuration.getDataSourceFactory(),
+                        readReplica.getDatabase());
+            }
+            return replicaRouting;
+        }
+
         @Override
-        public DataSourceFactory getDataSourceFactory(BookServiceConfiguration configuration) {
-            return configuration.getDataSourceFactory();
+        public void run(BookServiceConfiguration configuration, Environment environment) throws Exception {
+            if (configuration.getCatalogSnapshot().isServe()) {
+                return; // Read-only replica: no Postgres, so no SessionFactory or migrations
+            }
+            migration = startMigration(configuration);
+            startup.next("hibernate");
+            super.run(configuration, environment);
+            startup.next("application");
         }
     };
 
@@ -49,14 +125,18 @@ public class BookServiceApplication extends Application<BookServiceConfiguration
                 )
         );
         bootstrap.addBundle(hibernate);
+        bootstrap.addCommand(new MigrateCommand());
+        bootstrap.addCommand(new SnapshotCommand());
+        bootstrap.addCommand(new TrainCommand<>(this, List.of(
+                "/books/1", "/books/1?fields=id,title", "/books/search?title=the&page=1&size=20", "/metrics")));
     }
 
     /**
      * Start the application.
      *
      * This method is called by the Dropwizard framework once the application is started.
-     * It creates a BookDAO using the Hibernate bundle, runs Flyway migrations on the database, and registers the
-     * BookResource with the Jersey client and Book Service URL.
+     * It creates a BookDAO using the Hibernate bundle, waits for the Flyway migrations started alongside the
+     * Hibernate bootstrap, and registers the BookResource with the Jersey client and Book Service URL.
      *
      * @param configuration the configuration object used to configure the application
      * @param environment the environment object used to register resources and health checks
@@ -64,7 +144,12 @@ public class BookServiceApplication extends Application<BookServiceConfiguration
      */
     @Override
     public void run(BookServiceConfiguration configuration, Environment environment) throws Exception {
-        final BookDAO dao = new BookDAO(hibernate.getSessionFactory());
+        // Optionally swap Jackson's reflection for generated accessors when (de)serializing.
+        configureObjectMapper(environment.getObjectMapper(), configuration);
+
+        // Content negotiation for the binary Smile format used by service-to-service calls.
+        final ObjectMapper smileMapper = configureObjectMapper(Jackson.newObjectMapper(new SmileFactory()), configuration);
+        environment.jersey().register(new JacksonSmileProvider(smileMapper));
 
         // Add CORS filter
         configureCors(environment);
@@ -73,6 +158,21 @@ public class BookServiceApplication extends Application<BookServiceConfiguration
         environment.servlets().addFilter("JwtAuth", new com.example.bookcatalog.bookservice.auth.JwtAuthFilter(configuration.getClerkDomain()))
                 .addMappingForUrlPatterns(java.util.EnumSet.allOf(jakarta.servlet.DispatcherType.class), true, "/*");
 
+        // Per-client rate limits and load shedding, after JwtAuth so clients can be keyed by JWT subject
+        configureRateLimit(configuration.getRateLimit(), environment);
+
+        // Expose Prometheus metrics on the application port.
+        new io.prometheus.client.dropwizard.DropwizardExports(environment.metrics()).register();
+        environment.jersey().register(new MetricsResource());
+
+        // Read-only replica: GETs from the memory-mapped catalog snapshot instead of Postgres
+        if (configuration.getCatalogSnapshot().isServe()) {
+            runFromSnapshot(configuration, environment, smileMapper);
+            return;
+        }
+
+        final BookDAO dao = new BookDAO(hibernate.getSessionFactory());
+
         // Read database config
         String dbUrl = configuration.getDataSourceFactory().getUrl();
         String dbUser = configuration.getDataSourceFactory().getUser();
@@ -82,37 +182,191 @@ public class BookServiceApplication extends Application<BookServiceConfiguration
         DatabaseHealthCheck healthCheck = new DatabaseHealthCheck(dbUrl, dbUser, dbPass);
         environment.healthChecks().register("database", healthCheck);
 
-        // Expose Prometheus metrics on the application port.
-        new io.prometheus.client.dropwizard.DropwizardExports(environment.metrics()).register();
-        environment.jersey().register(new MetricsResource());
-
         LOGGER.info("Database URL: {}", dbUrl);
 
         // Register PostgreSQL driver explicitly
         Class.forName("org.postgresql.Driver");
 
-        // Run Flyway migrations in dedicated schema
-        Flyway flyway = Flyway.configure()
-                .dataSource(dbUrl, dbUser, dbPass)
-                .schemas("books_schema") // Dedicated schema for book-service
-                .locations("classpath:db")
-                .table("flyway_schema_history")
-                .createSchemas(true) // Auto-create schema if it doesn't exist
-                .baselineOnMigrate(true)
-                .load();
-
+        // The schema must be in place before any resource can be reached
+        startup.next("migrations");
         try {
-            LOGGER.info("Starting Flyway migrations...");
-            MigrateResult result = flyway.migrate();
-            LOGGER.info("Flyway migration complete. {} migrations executed.", result.migrationsExecuted);
-        } catch (Exception e) {
-            LOGGER.error("Flyway migration failed: {}", e.getMessage(), e);
+            migration.join();
+        } catch (CompletionException e) {
+            LOGGER.error("Flyway migration failed: {}", e.getCause().getMessage(), e.getCause());
             throw e; // Stop startup on failure
         }
+        startup.next("application");
+
+        // Keep the connection pool within this service's share of the shared Postgres
+        ConnectionPoolGovernor.warnIfOverBudget(configuration.getConnectionBudget(), configuration.getDataSourceFactory());
+        environment.lifecycle().manage(new ConnectionPoolGovernor(
+                configuration.getConnectionBudget(),
+                configuration.getDataSourceFactory(),
+                ConnectionPoolGovernor.poolOf(hibernate.getSessionFactory()),
+                environment.lifecycle().scheduledExecutorService("connection-pool-governor").threads(1).build(),
+                environment.metrics()));
+
+        // Send read-only units of work to the replica when one is configured
+        configureReadReplica(configuration.getReadReplica(), environment);
+
+        // Close and reopen sockets around a CRaC checkpoint (no-op on other JVMs)
+        configureCheckpointHooks(environment);
 
         // Register your resources
-        environment.jersey().register(new BookResource(dao));
+        ReviewCascade reviewCascade = createReviewCascade(configuration.getReviewCascade(), environment);
+        SerializedResponseCache responseCache = createResponseCache(configuration.getSerializedCache(), environment);
+        environment.jersey().register(new BookResource(dao,
+                new SingleFlight("books", configuration.isCoalesceReads(), environment.metrics()),
+                createIdempotencyStore(configuration.getIdempotency(), environment),
+                reviewCascade,
+                responseCache));
+        environment.jersey().register(new AuthorResource(new AuthorDAO(hibernate.getSessionFactory())));
+        environment.jersey().register(new BookBulkResource(dao, reviewCascade, responseCache, configuration.getBulkChunkSize()));
         LOGGER.info("BookCatalog application started successfully!");
+
+        // Run the hot reads and serializers through the JIT before reporting healthy.  Only id lookups:
+        // these go to the real database, where even a paged search scans every title
+        new WarmUp(configuration.getWarmUp(),
+                List.of("/books/1", "/books/1?fields=id,title"),
+                List.of(environment.getObjectMapper(), smileMapper),
+                List.of(sampleBook())).register(environment);
+
+        // Jetty and Jersey start once run() returns; report when requests are being accepted
+        startup.next("server");
+        environment.lifecycle().addServerLifecycleListener(server -> LOGGER.info(startup.finish(environment.metrics())));
+    }
+
+    private void runFromSnapshot(BookServiceConfiguration configuration, Environment environment, ObjectMapper smileMapper) {
+        CatalogSnapshotConfiguration catalogSnapshot = configuration.getCatalogSnapshot();
+        LOGGER.info("Serving reads from catalog snapshot {}", catalogSnapshot.getFile());
+        final SnapshotCatalog catalog = new SnapshotCatalog(
+                catalogSnapshot,
+                environment.lifecycle().scheduledExecutorService("catalog-snapshot-reload").threads(1).build(),
+                environment.metrics());
+        environment.lifecycle().manage(catalog);
+        environment.healthChecks().register("catalog-snapshot", new SnapshotHealthCheck(catalog));
+        environment.jersey().register(new SnapshotBookResource(catalog));
+        LOGGER.info("BookCatalog application started successfully!");
+
+        new WarmUp(configuration.getWarmUp(),
+                List.of("/books", "/books/1", "/books/search?title=the"),
+                List.of(environment.getObjectMapper(), smileMapper),
+                List.of(sampleBook())).register(environment);
+
+        startup.next("server");
+        environment.lifecycle().addServerLifecycleListener(server -> LOGGER.info(startup.finish(environment.metrics())));
+    }
+
+    private CompletableFuture<Void> startMigration(BookServiceConfiguration configuration) {
+        SchemaMigrator migrator = new SchemaMigrator(configuration.getDataSourceFactory(),
+                "books_schema", // Dedicated schema for book-service
+                "flyway_schema_history");
+        SchemaMigrator.OnStartup mode = configuration.getMigrationOnStartup();
+        return CompletableFuture.runAsync(() -> migrator.runOnStartup(mode),
+                task -> new Thread(task, "schema-migration").start());
+    }
+
+    private void configureRateLimit(RateLimitConfiguration rateLimit, Environment environment) {
+        RateLimiter rateLimiter = null;
+        if (rateLimit.isEnabled()) {
+            rateLimiter = new RateLimiter(rateLimit);
+            final RateLimiter limiter = rateLimiter;
+            long period = rateLimit.getIdleEviction().toMilliseconds();
+            environment.lifecycle().scheduledExecutorService("rate-limit-eviction").threads(1).build()
+                    .scheduleWithFixedDelay(() -> limiter.evictIdle(System.nanoTime()), period, period, TimeUnit.MILLISECONDS);
+        }
+        AdaptiveConcurrencyLimiter concurrencyLimiter = rateLimit.getLoadShedding().isEnabled()
+                ? new AdaptiveConcurrencyLimiter(rateLimit.getLoadShedding())
+                : null;
+        if (rateLimiter == null && concurrencyLimiter == null) {
+            return;
+        }
+        environment.servlets().addFilter("RateLimit", new RateLimitFilter(rateLimiter, concurrencyLimiter, environment.metrics()))
+                .addMappingForUrlPatterns(java.util.EnumSet.of(jakarta.servlet.DispatcherType.REQUEST), true, "/*");
+    }
+
+    private void configureReadReplica(ReadReplicaConfiguration readReplica, Environment environment) {
+        if (replicaRouting == null) {
+            return;
+        }
+        LOGGER.info("Read replica enabled: {}", readReplica.getDatabase().getUrl());
+        environment.lifecycle().manage(new ReplicaLagMonitor(
+                replicaRouting.getDataSource(),
+                readReplica,
+                environment.lifecycle().scheduledExecutorService("replica-lag-monitor").threads(1).build(),
+                environment.metrics()));
+        environment.jersey().register(new ReadReplicaRoutingFilter(readReplica.getStickyWindow()));
+    }
+
+    private void configureCheckpointHooks(Environment environment) {
+        List<DataSourceProxy> pools = new ArrayList<>();
+        DataSourceProxy primary = ConnectionPoolGovernor.poolOf(hibernate.getSessionFactory());
+        if (primary != null) {
+            pools.add(primary);
+        }
+        if (replicaRouting != null && replicaRouting.getDataSource().getReplica() instanceof DataSourceProxy replica) {
+            pools.add(replica);
+        }
+        checkpointHooks = new CheckpointHooks(pools).register();
+        environment.lifecycle().addServerLifecycleListener(checkpointHooks);
+    }
+
+    private IdempotencyStore createIdempotencyStore(IdempotencyConfiguration idempotency, Environment environment) {
+        if (!idempotency.isEnabled()) {
+            return null;
+        }
+        final IdempotencyStore store = new IdempotencyStore(
+                new IdempotencyDAO(hibernate.getSessionFactory()),
+                idempotency,
+                environment.getObjectMapper(),
+                environment.lifecycle().scheduledExecutorService("idempotency-purge").threads(1).build(),
+                environment.metrics(),
+                Clock.systemUTC());
+        environment.lifecycle().manage(store);
+        return store;
+    }
+
+    private ReviewCascade createReviewCascade(ReviewCascadeConfiguration reviewCascade, Environment environment) {
+        if (!reviewCascade.isEnabled()) {
+            return null;
+        }
+        final ReviewCascade cascade = new ReviewCascade(
+                hibernate.getSessionFactory(),
+                reviewCascade,
+                environment.lifecycle().scheduledExecutorService("review-cascade").threads(1).build(),
+                HttpClient.newBuilder()
+                        .connectTimeout(java.time.Duration.ofMillis(reviewCascade.getRequestTimeout().toMilliseconds()))
+                        .build(),
+                environment.metrics());
+        environment.lifecycle().manage(cascade);
+        return cascade;
+    }
+
+    private SerializedResponseCache createResponseCache(SerializedCacheConfiguration serializedCache, Environment environment) {
+        if (!serializedCache.isEnabled()) {
+            return null;
+        }
+        return new SerializedResponseCache(
+                hibernate.getSessionFactory(),
+                serializedCache,
+                environment.getObjectMapper(),
+                environment.metrics());
+    }
+
+    private static Book sampleBook() {
+        Book book = new Book("The Pragmatic Programmer", "Andrew Hunt");
+        book.setId(1L);
+        book.setIsbn("9780201616224");
+        book.setPublishedDate(1999);
+        return book;
+    }
+
+    private ObjectMapper configureObjectMapper(ObjectMapper mapper, BookServiceConfiguration configuration) {
+        if (configuration.isJacksonBlackbird()) {
+            mapper.registerModule(new BlackbirdModule());
+            LOGGER.info("Jackson Blackbird module registered for {}", mapper.getFactory().getFormatName());
+        }
+        return mapper;
     }
 
     /**
@@ -141,7 +395,11 @@ public class BookServiceApplication extends Application<BookServiceConfiguration
         final var cors = environment.servlets().addFilter("CORS", org.eclipse.jetty.servlets.CrossOriginFilter.class);
         cors.addMappingForUrlPatterns(java.util.EnumSet.allOf(jakarta.servlet.DispatcherType.class), true, "/*");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_ORIGINS_PARAM, "*");
-        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_HEADERS_PARAM, "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin");
+        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_HEADERS_PARAM, "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin,"
+                + IdempotencyStore.HEADER);
+        // Response headers browser code may read: replays of idempotent POSTs, and when to retry after a 429 or 503
+        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.EXPOSED_HEADERS_PARAM,
+                IdempotencyStore.REPLAYED_HEADER + ",Retry-After");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_METHODS_PARAM, "GET,PUT,POST,DELETE,OPTIONS");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOW_CREDENTIALS_PARAM, "true");
     }
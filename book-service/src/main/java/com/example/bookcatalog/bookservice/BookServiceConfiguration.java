@@ -1,9 +1,20 @@
 package com.example.bookcatalog.bookservice;
 
+import com.example.bookcatalog.bookservice.cache.SerializedCacheConfiguration;
+import com.example.bookcatalog.bookservice.cascade.ReviewCascadeConfiguration;
+import com.example.bookcatalog.bookservice.db.ConnectionBudgetConfiguration;
+import com.example.bookcatalog.bookservice.db.ReadReplicaConfiguration;
+import com.example.bookcatalog.bookservice.db.SchemaMigrator;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyConfiguration;
+import com.example.bookcatalog.bookservice.ratelimit.RateLimitConfiguration;
+import com.example.bookcatalog.bookservice.snapshot.CatalogSnapshotConfiguration;
+import com.example.bookcatalog.bookservice.startup.WarmUpConfiguration;
 import io.dropwizard.core.Configuration;
 import io.dropwizard.db.DataSourceFactory;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 public class BookServiceConfiguration extends Configuration {
@@ -21,6 +32,76 @@ public class BookServiceConfiguration extends Configuration {
         this.database = factory;
     }
 
+    // Whether Flyway runs on startup: always, if_changed (scripts differ from the last migration) or never
+    @NotNull
+    private SchemaMigrator.OnStartup migrationOnStartup = SchemaMigrator.OnStartup.IF_CHANGED;
+
+    @JsonProperty("migrationOnStartup")
+    public SchemaMigrator.OnStartup getMigrationOnStartup() {
+        return migrationOnStartup;
+    }
+
+    @JsonProperty("migrationOnStartup")
+    public void setMigrationOnStartup(SchemaMigrator.OnStartup migrationOnStartup) {
+        this.migrationOnStartup = migrationOnStartup;
+    }
+
+    @Valid
+    @NotNull
+    private WarmUpConfiguration warmUp = new WarmUpConfiguration();
+
+    @JsonProperty("warmUp")
+    public WarmUpConfiguration getWarmUp() {
+        return warmUp;
+    }
+
+    @JsonProperty("warmUp")
+    public void setWarmUp(WarmUpConfiguration warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Valid
+    @NotNull
+    private ReadReplicaConfiguration readReplica = new ReadReplicaConfiguration();
+
+    @JsonProperty("readReplica")
+    public ReadReplicaConfiguration getReadReplica() {
+        return readReplica;
+    }
+
+    @JsonProperty("readReplica")
+    public void setReadReplica(ReadReplicaConfiguration readReplica) {
+        this.readReplica = readReplica;
+    }
+
+    @Valid
+    @NotNull
+    private ConnectionBudgetConfiguration connectionBudget = new ConnectionBudgetConfiguration();
+
+    @JsonProperty("connectionBudget")
+    public ConnectionBudgetConfiguration getConnectionBudget() {
+        return connectionBudget;
+    }
+
+    @JsonProperty("connectionBudget")
+    public void setConnectionBudget(ConnectionBudgetConfiguration connectionBudget) {
+        this.connectionBudget = connectionBudget;
+    }
+
+    @Valid
+    @NotNull
+    private RateLimitConfiguration rateLimit = new RateLimitConfiguration();
+
+    @JsonProperty("rateLimit")
+    public RateLimitConfiguration getRateLimit() {
+        return rateLimit;
+    }
+
+    @JsonProperty("rateLimit")
+    public void setRateLimit(RateLimitConfiguration rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
     @NotNull
     private String clerkDomain;
 
@@ -33,4 +114,105 @@ public class BookServiceConfiguration extends Configuration {
     public void setClerkDomain(String clerkDomain) {
         this.clerkDomain = clerkDomain;
     }
+
+    // --- Jackson Blackbird module (generated accessors instead of reflection) ---
+    private boolean jacksonBlackbird = false;
+
+    @JsonProperty("jacksonBlackbird")
+    public boolean isJacksonBlackbird() {
+        return jacksonBlackbird;
+    }
+
+    @JsonProperty("jacksonBlackbird")
+    public void setJacksonBlackbird(boolean jacksonBlackbird) {
+        this.jacksonBlackbird = jacksonBlackbird;
+    }
+
+    // --- Collapse identical concurrent reads into one query ---
+    private boolean coalesceReads = true;
+
+    @JsonProperty("coalesceReads")
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    @JsonProperty("coalesceReads")
+    public void setCoalesceReads(boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    // --- Idempotency-Key support on POST /books ---
+    @Valid
+    @NotNull
+    private IdempotencyConfiguration idempotency = new IdempotencyConfiguration();
+
+    @JsonProperty("idempotency")
+    public IdempotencyConfiguration getIdempotency() {
+        return idempotency;
+    }
+
+    @JsonProperty("idempotency")
+    public void setIdempotency(IdempotencyConfiguration idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    // --- Deleting a book's reviews in review-service when the book is deleted ---
+    @Valid
+    @NotNull
+    private ReviewCascadeConfiguration reviewCascade = new ReviewCascadeConfiguration();
+
+    @JsonProperty("reviewCascade")
+    public ReviewCascadeConfiguration getReviewCascade() {
+        return reviewCascade;
+    }
+
+    @JsonProperty("reviewCascade")
+    public void setReviewCascade(ReviewCascadeConfiguration reviewCascade) {
+        this.reviewCascade = reviewCascade;
+    }
+
+    // --- Rows per statement in POST /books/bulk-delete ---
+    @Min(1)
+    @Max(10000)
+    private int bulkChunkSize = 1000;
+
+    @JsonProperty("bulkChunkSize")
+    public int getBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
+    @JsonProperty("bulkChunkSize")
+    public void setBulkChunkSize(int bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    // --- Cache of JSON-encoded GET /books responses ---
+    @Valid
+    @NotNull
+    private SerializedCacheConfiguration serializedCache = new SerializedCacheConfiguration();
+
+    @JsonProperty("serializedCache")
+    public SerializedCacheConfiguration getSerializedCache() {
+        return serializedCache;
+    }
+
+    @JsonProperty("serializedCache")
+    public void setSerializedCache(SerializedCacheConfiguration serializedCache) {
+        this.serializedCache = serializedCache;
+    }
+
+    // --- Read-only replicas serving a memory-mapped catalog snapshot ---
+    @Valid
+    @NotNull
+    private CatalogSnapshotConfiguration catalogSnapshot = new CatalogSnapshotConfiguration();
+
+    @JsonProperty("catalogSnapshot")
+    public CatalogSnapshotConfiguration getCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    @JsonProperty("catalogSnapshot")
+    public void setCatalogSnapshot(CatalogSnapshotConfiguration catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+    }
 }
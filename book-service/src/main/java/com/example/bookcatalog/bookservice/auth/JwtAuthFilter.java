@@ -60,8 +60,14 @@ public class JwtAuthFilter implements Filter {
             return;
         }
 
-        // Allow GET /books/{id} without authentication
-        if ("GET".equals(method) && path.matches(".*/books/\\d+$")) {
+        // Allow GET /books/{id} and GET /books/isbn/{isbn} without authentication
+        if ("GET".equals(method) && (path.matches(".*/books/\\d+$") || path.matches(".*/books/isbn/[^/]+$"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Allow GET /authors and GET /authors/{id}/books without authentication
+        if ("GET".equals(method) && path.matches(".*/authors(/\\d+/books)?/?$")) {
             chain.doFilter(request, response);
             return;
         }
@@ -90,7 +96,8 @@ public class JwtAuthFilter implements Filter {
             String role = extractRoleFromJWT(jwt);
             LOGGER.debug("User role: {}", role);
 
-            // Check if DELETE or PUT requests require admin role
+            // Check if DELETE or PUT requests require admin role.  POST /books/bulk-delete checks
+            // the userRole attribute itself, as Jersey matches more forms of its path than a regex here would
             if ("DELETE".equals(method) || "PUT".equals(method)) {
                 if (!"admin".equals(role)) {
                     LOGGER.warn("Non-admin user attempted {} request", method);
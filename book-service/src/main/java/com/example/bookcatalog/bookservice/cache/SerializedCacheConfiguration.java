@@ -0,0 +1,55 @@
+package com.example.bookcatalog.bookservice.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for the cache of JSON-encoded GET /books responses.
+ */
+public class SerializedCacheConfiguration {
+
+    private boolean enabled = false;
+
+    @NotNull
+    private DataSize maxSize = DataSize.mebibytes(64);
+
+    @NotNull
+    private Duration maxAge = Duration.seconds(30);
+
+    // When off every response is serialized as it is sent.  Off by default, as a write through
+    // one instance isn't seen by another's cache until maxAge has passed.
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Off-heap memory the cached responses may take; the least recently used go first.
+    @JsonProperty
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    @JsonProperty
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Longest a response is served from the cache.  Writes to this instance invalidate it at
+    // once; this bounds how long writes made through other instances go unseen.
+    @JsonProperty
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    @JsonProperty
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.bookcatalog.bookservice.cache;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.db.ReplicaRoutingDataSource;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.hibernate.SessionFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * GET /books responses kept as the JSON bytes sent, so a hit skips both the query and Jackson.
+ *
+ * Single books are cached by id and lists (the full list, search pages) by request; lists are
+ * dropped on any write, a book only when it is written.  The bytes are held in direct buffers,
+ * off the heap the collector scans, up to maxSize in all; past that the least recently used
+ * responses go.  Entries older than maxAge are not served, which bounds how stale a response
+ * can be after a write through another instance.
+ *
+ * A write invalidates once its transaction commits.  A response loaded while a write was in
+ * progress is sent but not stored, as it may predate that write, and so is one read from the
+ * replica, which may not have that write yet.
+ */
+public class SerializedResponseCache {
+
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper mapper;
+    private final long maxBytes;
+    private final long maxAgeNanos;
+
+    // Access ordered, so each map's eldest entry is its least recently used
+    private final LinkedHashMap<Long, Entry> books = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entry> lists = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile long bytes;
+    // Orders uses across both maps, for eviction
+    private long tick;
+    // Bumped by every committed write; a response loaded under an older one is not stored
+    private long generation;
+
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+    private final Counter serializationNanosSaved;
+
+    /**
+     * @param mapper the mapper Jersey serializes responses with, so cached and fresh responses
+     *               are the same bytes
+     */
+    public SerializedResponseCache(SessionFactory sessionFactory, SerializedCacheConfiguration config,
+                                   ObjectMapper mapper, MetricRegistry metrics) {
+        this.sessionFactory = sessionFactory;
+        this.mapper = mapper;
+        this.maxBytes = config.getMaxSize().toBytes();
+        this.maxAgeNanos = config.getMaxAge().toNanoseconds();
+        this.hits = metrics.meter(MetricRegistry.name(SerializedResponseCache.class, "hits"));
+        this.misses = metrics.meter(MetricRegistry.name(SerializedResponseCache.class, "misses"));
+        this.evictions = metrics.meter(MetricRegistry.name(SerializedResponseCache.class, "evictions"));
+        // Time the hits would have spent in Jackson, going by the serialization of the response they got
+        this.serializationNanosSaved = metrics.counter(MetricRegistry.name(SerializedResponseCache.class, "serialization-nanos-saved"));
+        metrics.register(MetricRegistry.name(SerializedResponseCache.class, "bytes"), (Gauge<Long>) () -> bytes);
+        metrics.register(MetricRegistry.name(SerializedResponseCache.class, "entries"), (Gauge<Integer>) this::entries);
+    }
+
+    /**
+     * The JSON of a book, from the cache or from load.  Empty, and nothing cached, when load
+     * finds no book.
+     */
+    public Optional<StreamingOutput> book(long id, Supplier<? extends Optional<?>> load) {
+        return get(books, id, load);
+    }
+
+    // The JSON of a list response, the request's path and query being the key.
+    public StreamingOutput list(String key, Supplier<?> load) {
+        return get(lists, key, () -> Optional.of(load.get())).orElseThrow();
+    }
+
+    /**
+     * Drops the given books, and every list, once the current unit of work's transaction
+     * commits.  Call it from any request that writes books.
+     */
+    public void booksChanged(Collection<Long> bookIds) {
+        sessionFactory.getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    invalidate(bookIds);
+                }
+            }
+        });
+    }
+
+    synchronized void invalidate(Collection<Long> bookIds) {
+        generation++;
+        for (Long bookId : bookIds) {
+            remove(books, bookId);
+        }
+        lists.values().forEach(entry -> bytes -= entry.size());
+        lists.clear();
+    }
+
+    synchronized int entries() {
+        return books.size() + lists.size();
+    }
+
+    private <K> Optional<StreamingOutput> get(Map<K, Entry> map, K key, Supplier<? extends Optional<?>> load) {
+        long loadedIn;
+        synchronized (this) {
+            Entry entry = map.get(key);
+            if (entry != null && System.nanoTime() - entry.storedAt < maxAgeNanos) {
+                entry.lastUsed = ++tick;
+                hits.mark();
+                serializationNanosSaved.inc(entry.serializationNanos);
+                return Optional.of(entry);
+            }
+            if (entry != null) {
+                remove(map, key);
+            }
+            loadedIn = generation;
+        }
+        misses.mark();
+        boolean fromReplica = ReplicaRoutingDataSource.isReadFromReplica();
+        Optional<?> value = load.get();
+        if (value.isEmpty()) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(value.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for " + key, e);
+        }
+        if (!fromReplica) {
+            store(map, key, json, System.nanoTime() - start, loadedIn);
+        }
+        return Optional.of(out -> out.write(json));
+    }
+
+    private synchronized <K> void store(Map<K, Entry> map, K key, byte[] json, long serializationNanos, long loadedIn) {
+        if (loadedIn != generation || json.length > maxBytes) {
+            return;
+        }
+        remove(map, key);
+        Entry entry = new Entry(json, serializationNanos);
+        entry.lastUsed = ++tick;
+        map.put(key, entry);
+        bytes += entry.size();
+        while (bytes > maxBytes) {
+            Map.Entry<Long, Entry> book = eldest(books);
+            Map.Entry<String, Entry> list = eldest(lists);
+            if (list == null || (book != null && book.getValue().lastUsed < list.getValue().lastUsed)) {
+                remove(books, book.getKey());
+            } else {
+                remove(lists, list.getKey());
+            }
+            evictions.mark();
+        }
+    }
+
+    private <K> void remove(Map<K, Entry> map, K key) {
+        Entry removed = map.remove(key);
+        if (removed != null) {
+            bytes -= removed.size();
+        }
+    }
+
+    private static <K> Map.Entry<K, Entry> eldest(LinkedHashMap<K, Entry> map) {
+        return map.isEmpty() ? null : map.entrySet().iterator().next();
+    }
+
+    private static final class Entry implements StreamingOutput {
+
+        private final ByteBuffer json;
+        private final long serializationNanos;
+        private final long storedAt = System.nanoTime();
+        private long lastUsed;
+
+        private Entry(byte[] json, long serializationNanos) {
+            this.json = ByteBuffer.allocateDirect(json.length).put(json).flip().asReadOnlyBuffer();
+            this.serializationNanos = serializationNanos;
+        }
+
+        private int size() {
+            return json.capacity();
+        }
+
+        // Each write works on its own view of the buffer, so concurrent hits don't interfere
+        @Override
+        public void write(OutputStream out) throws IOException {
+            ByteBuffer view = json.duplicate();
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+}
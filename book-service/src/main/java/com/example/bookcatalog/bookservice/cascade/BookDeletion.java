@@ -0,0 +1,40 @@
+package com.example.bookcatalog.bookservice.cascade;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A deleted book that review-service still has to be told about.
+ */
+@Entity
+@Table(name = "book_deletions")
+public class BookDeletion {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public BookDeletion() {
+        // Required by Hibernate
+    }
+
+    public BookDeletion(Long bookId, Instant deletedAt) {
+        this.bookId = bookId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
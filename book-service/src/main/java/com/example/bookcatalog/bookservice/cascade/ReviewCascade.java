@@ -0,0 +1,192 @@
+package com.example.bookcatalog.bookservice.cascade;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asks review-service to delete the reviews of each deleted book.
+ *
+ * The deletion is recorded in book_deletions in the same transaction as the delete itself,
+ * so it can't be lost, and sent to review-service's purge-book-reviews admin task once that
+ * transaction commits.  review-service does the deleting in the background; the row here is
+ * removed as soon as it has taken the request.  Rows it could not take, because it was down
+ * or unreachable, are sent again every retryInterval, including after a restart.
+ */
+public class ReviewCascade implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewCascade.class);
+
+    // Books per request to review-service, keeping the query string short
+    private static final int BATCH_SIZE = 100;
+
+    private final SessionFactory sessionFactory;
+    private final ReviewCascadeConfiguration config;
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient http;
+    private volatile int pending;
+
+    private final Meter deliveredMeter;
+    private final Meter failedMeter;
+
+    private ScheduledFuture<?> retryTask;
+
+    /**
+     * @param scheduler single-threaded, so deliveries run one at a time
+     */
+    public ReviewCascade(SessionFactory sessionFactory, ReviewCascadeConfiguration config,
+                         ScheduledExecutorService scheduler, HttpClient http, MetricRegistry metrics) {
+        this.sessionFactory = sessionFactory;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.http = http;
+        this.deliveredMeter = metrics.meter(MetricRegistry.name(ReviewCascade.class, "delivered"));
+        this.failedMeter = metrics.meter(MetricRegistry.name(ReviewCascade.class, "failed"));
+        metrics.register(MetricRegistry.name(ReviewCascade.class, "pending"), (Gauge<Integer>) () -> pending);
+    }
+
+    // Sends anything left from before a restart straight away, then retries every retryInterval.
+    @Override
+    public void start() {
+        long interval = config.getRetryInterval().toMilliseconds();
+        retryTask = scheduler.scheduleWithFixedDelay(this::deliverQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (retryTask != null) {
+            retryTask.cancel(false);
+        }
+    }
+
+    /**
+     * Records the deletion in the current unit of work's transaction, and sends it to
+     * review-service once that has committed.
+     */
+    public void bookDeleted(long bookId) {
+        Session session = sessionFactory.getCurrentSession();
+        session.persist(new BookDeletion(bookId, Instant.now()));
+        deliverAfterCommit(session);
+    }
+
+    /**
+     * The same for books about to be deleted by one statement: records those of the ids
+     * that exist, with one INSERT ... SELECT.  Call it before the delete, in its transaction.
+     */
+    public void booksDeleting(Collection<Long> bookIds) {
+        Session session = sessionFactory.getCurrentSession();
+        session.createMutationQuery("INSERT INTO BookDeletion (bookId, deletedAt)"
+                        + " SELECT b.id, :now FROM Book b WHERE b.id IN :ids")
+                .setParameter("now", Instant.now())
+                .setParameterList("ids", bookIds)
+                .executeUpdate();
+        deliverAfterCommit(session);
+    }
+
+    private void deliverAfterCommit(Session session) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    scheduler.execute(ReviewCascade.this::deliverQuietly);
+                }
+            }
+        });
+    }
+
+    // Sends every recorded deletion, oldest first and BATCH_SIZE books per request, stopping
+    // at the first request review-service doesn't take.
+    void deliverPending() {
+        List<Long> bookIds = inTransaction(session -> session
+                .createQuery("SELECT d.bookId FROM BookDeletion d ORDER BY d.deletedAt, d.bookId", Long.class)
+                .list());
+        pending = bookIds.size();
+        for (int from = 0; from < bookIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = bookIds.subList(from, Math.min(from + BATCH_SIZE, bookIds.size()));
+            if (!deliver(batch)) {
+                return;
+            }
+            inTransaction(session -> session
+                    .createMutationQuery("DELETE FROM BookDeletion d WHERE d.bookId IN :bookIds")
+                    .setParameterList("bookIds", batch)
+                    .executeUpdate());
+            deliveredMeter.mark(batch.size());
+            pending -= batch.size();
+        }
+    }
+
+    private void deliverQuietly() {
+        try {
+            deliverPending();
+        } catch (RuntimeException e) {
+            // Still in book_deletions; the next retry sends it
+            LOGGER.warn("Could not send book deletions to review-service: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean deliver(List<Long> bookIds) {
+        String query = bookIds.stream().map(bookId -> "bookId=" + bookId).collect(Collectors.joining("&"));
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(config.getReviewServiceAdminUrl() + "/tasks/purge-book-reviews?" + query))
+                .timeout(java.time.Duration.ofMillis(config.getRequestTimeout().toMilliseconds()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 == 2) {
+                return true;
+            }
+            LOGGER.warn("review-service refused the deletion of {} books: {} {}",
+                    bookIds.size(), response.statusCode(), response.body());
+        } catch (IOException e) {
+            LOGGER.warn("Could not reach review-service to delete the reviews of {} books: {}", bookIds.size(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failedMeter.mark();
+        return false;
+    }
+
+    // Runs outside any request, so in a session and transaction of its own.
+    private <T> T inTransaction(Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
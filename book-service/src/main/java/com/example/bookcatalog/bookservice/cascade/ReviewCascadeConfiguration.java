@@ -0,0 +1,67 @@
+package com.example.bookcatalog.bookservice.cascade;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for telling review-service to delete the reviews of deleted books.
+ */
+public class ReviewCascadeConfiguration {
+
+    private boolean enabled = true;
+
+    @NotEmpty
+    private String reviewServiceAdminUrl = "http://localhost:8083";
+
+    @NotNull
+    private Duration retryInterval = Duration.seconds(30);
+
+    @NotNull
+    private Duration requestTimeout = Duration.seconds(5);
+
+    // When off deleting a book leaves its reviews in place.
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // review-service's admin connector, where the purge-book-reviews task is.
+    @JsonProperty
+    public String getReviewServiceAdminUrl() {
+        return reviewServiceAdminUrl;
+    }
+
+    @JsonProperty
+    public void setReviewServiceAdminUrl(String reviewServiceAdminUrl) {
+        this.reviewServiceAdminUrl = reviewServiceAdminUrl;
+    }
+
+    // How often deletions review-service has not taken yet are sent again.
+    @JsonProperty
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    @JsonProperty
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    // Longest wait for review-service to answer one request.
+    @JsonProperty
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    @JsonProperty
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+}
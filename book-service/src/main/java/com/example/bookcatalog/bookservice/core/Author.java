@@ -0,0 +1,81 @@
+package com.example.bookcatalog.bookservice.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * One author, linked to their books through book_authors.
+ *
+ * Book.author stays the text the client sent; the authors are parsed from it on every write.
+ * Names are told apart by nameKey, so "J.R.R. Tolkien" and "j.r.r.  tolkien" are one author.
+ */
+@Entity
+@Table(name = "authors")
+public class Author {
+
+    // Separates the authors in Book.author: "Andrew Hunt & David Thomas", "A; B", "A and B".
+    // Not commas, which also separate "Tolkien, J.R.R.".  Migration V6 splits with the same pattern.
+    private static final Pattern SEPARATOR = Pattern.compile("\\s*(?:;|&| and )\\s*");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    // Lower case with single spaces; unique, and what GET /authors?prefix= matches on
+    @Column(name = "name_key", nullable = false, unique = true)
+    private String nameKey;
+
+    public Author() {
+        // Required by Hibernate
+    }
+
+    public Author(String name) {
+        this.name = name;
+        this.nameKey = key(name);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @JsonIgnore
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    public static String key(String name) {
+        return SPACES.matcher(name.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The author names in a Book.author value, in order, spaces tidied, without blanks or repeats.
+     */
+    public static List<String> split(String author) {
+        if (author == null) {
+            return List.of();
+        }
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String part : SEPARATOR.split(author)) {
+            String name = SPACES.matcher(part.trim()).replaceAll(" ");
+            if (!name.isEmpty()) {
+                names.putIfAbsent(key(name), name);
+            }
+        }
+        return new ArrayList<>(names.values());
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.bookcatalog.bookservice.core;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 @Entity
@@ -33,13 +35,24 @@ public class Book {
     private String author;
 
     @Column(name = "isbn", unique = true)
-    @Pattern(regexp = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$",
-            message = "Invalid ISBN format")
+    @ValidIsbn
     private String isbn;
 
+    // isbn as its 13 digits, so a book is found by any form of its ISBN
+    @Column(name = "isbn13", unique = true, length = 13)
+    private String isbn13;
+
     @Column(name = "published_year")
     private Integer publishedYear;
 
+    // Parsed from author by BookDAO on every write; not part of the JSON, which keeps author
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "book_authors",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_id"))
+    @OrderColumn(name = "position")
+    private List<Author> authors = new ArrayList<>();
+
     public Book() {
         // Required by Hibernate
     }
@@ -75,12 +88,24 @@ public class Book {
 
     public String getIsbn() { return isbn; }
 
-    public void setIsbn(String isbn) { this.isbn = isbn; }
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+        this.isbn13 = Isbn.toIsbn13(isbn);
+    }
+
+    @JsonIgnore
+    public String getIsbn13() { return isbn13; }
 
     public Integer getPublishedYear() { return publishedYear; }
 
     public void setPublishedDate(Integer publishedYear) { this.publishedYear = publishedYear; }
 
+    @JsonIgnore
+    public List<Author> getAuthors() { return authors; }
+
+    @JsonIgnore
+    public void setAuthors(List<Author> authors) { this.authors = authors; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,48 @@
+package com.example.bookcatalog.bookservice.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Body of POST /books/bulk-delete: {"ids": [1, 2, 3]} or {"year": 1999}
+ */
+public class BookFilter {
+
+    @Size(max = 100_000, message = "at most 100000 ids per request")
+    private List<@NotNull Long> ids;
+
+    private Integer year;
+
+    @JsonProperty
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    @JsonProperty
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Matches books with this publishedYear
+    @JsonProperty
+    public Integer getYear() {
+        return year;
+    }
+
+    @JsonProperty
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    // Exactly one filter, so an empty body can't match every book
+    @JsonIgnore
+    @AssertTrue(message = "give either ids or year")
+    public boolean isSingleFilter() {
+        return (ids != null && !ids.isEmpty()) != (year != null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bookcatalog.bookservice.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /books/search with page, size or facets: one page of the matching books, how many match
+ * in all, and the requested facets counted over all of them.
+ */
+public class BookSearchResult {
+
+    private final List<?> books;
+    private final long total;
+    private final int page;
+    private final int size;
+    private final Map<String, List<FacetCount>> facets;
+
+    public BookSearchResult(List<?> books, long total, int page, int size, Map<String, List<FacetCount>> facets) {
+        this.books = books;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Books, or maps of the ?fields= asked for, ordered by id
+    @JsonProperty
+    public List<?> getBooks() {
+        return books;
+    }
+
+    @JsonProperty
+    public long getTotal() {
+        return total;
+    }
+
+    // From 1
+    @JsonProperty
+    public int getPage() {
+        return page;
+    }
+
+    @JsonProperty
+    public int getSize() {
+        return size;
+    }
+
+    // By facet name, only the facets asked for
+    @JsonProperty
+    public Map<String, List<FacetCount>> getFacets() {
+        return facets;
+    }
+}
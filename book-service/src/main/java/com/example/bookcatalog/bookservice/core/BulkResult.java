@@ -0,0 +1,30 @@
+package com.example.bookcatalog.bookservice.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response of a bulk delete or update: {"rows": 100000, "chunks": 100}
+ */
+public class BulkResult {
+
+    private long rows;
+    private int chunks;
+
+    // Counts one statement and the rows it changed
+    public void add(int rows) {
+        this.rows += rows;
+        this.chunks++;
+    }
+
+    // Rows deleted or updated
+    @JsonProperty
+    public long getRows() {
+        return rows;
+    }
+
+    // Statements (and transactions) it took
+    @JsonProperty
+    public int getChunks() {
+        return chunks;
+    }
+}
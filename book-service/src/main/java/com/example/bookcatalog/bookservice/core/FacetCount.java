@@ -0,0 +1,27 @@
+package com.example.bookcatalog.bookservice.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One bucket of a search facet: {"value": 1990, "count": 12} or {"value": "J.R.R. Tolkien", "count": 4}
+ */
+public class FacetCount {
+
+    private final Object value;
+    private final long count;
+
+    public FacetCount(Object value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    @JsonProperty
+    public Object getValue() {
+        return value;
+    }
+
+    @JsonProperty
+    public long getCount() {
+        return count;
+    }
+}
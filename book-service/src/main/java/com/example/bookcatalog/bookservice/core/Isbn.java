@@ -0,0 +1,128 @@
+package com.example.bookcatalog.bookservice.core;
+
+/**
+ * ISBN-10 and ISBN-13 parsing, by check digit rather than by pattern.
+ *
+ * Accepts the forms people type: an optional "ISBN", "ISBN-10" or "ISBN-13" prefix with an
+ * optional colon, then the digits, either run together or grouped by single hyphens or spaces
+ * ("0-201-61622-X", "978 0 201 61622 4", "ISBN-13: 9780201616224").
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /**
+     * True when the text is a well-formed ISBN-10 or ISBN-13 with a correct check digit.
+     * Walks the text once and allocates nothing, so it is cheap enough for bulk imports.
+     */
+    public static boolean isValid(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int i = skipPrefix(text);
+        int length = text.length();
+        int digits = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        int prefix = 0;
+        boolean separated = true; // a separator may not lead, follow another or trail
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '-' || c == ' ') {
+                if (separated) {
+                    return false;
+                }
+                separated = true;
+                continue;
+            }
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if ((c == 'X' || c == 'x') && digits == 9 && i == length - 1) {
+                value = 10; // only as an ISBN-10's check digit
+            } else {
+                return false;
+            }
+            if (digits == 13) {
+                return false;
+            }
+            sum10 += (10 - digits) * value;
+            sum13 += (digits % 2 == 0 ? 1 : 3) * value;
+            if (digits < 3) {
+                prefix = prefix * 10 + value;
+            }
+            digits++;
+            separated = false;
+        }
+        if (separated) {
+            return false;
+        }
+        if (digits == 10) {
+            return sum10 % 11 == 0;
+        }
+        return digits == 13 && (prefix == 978 || prefix == 979) && sum13 % 10 == 0;
+    }
+
+    /**
+     * The ISBN as its 13 digits, with an ISBN-10 given the 978 prefix and a new check digit,
+     * or null when it is not valid.  Every form of one ISBN gives the same string.
+     */
+    public static String toIsbn13(CharSequence text) {
+        if (!isValid(text)) {
+            return null;
+        }
+        char[] digits = new char[13];
+        int count = 0;
+        for (int i = skipPrefix(text); i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits[count++] = c;
+            }
+        }
+        if (count == 13) {
+            return new String(digits);
+        }
+        // ISBN-10: drop its check digit, add 978 in front and work out the ISBN-13 one
+        System.arraycopy(digits, 0, digits, 3, 9);
+        digits[0] = '9';
+        digits[1] = '7';
+        digits[2] = '8';
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (i % 2 == 0 ? 1 : 3) * (digits[i] - '0');
+        }
+        digits[12] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(digits);
+    }
+
+    // Index just past an "ISBN", "ISBN-10" or "ISBN-13" prefix, its colon and spaces, or 0 without one.
+    private static int skipPrefix(CharSequence text) {
+        if (!startsWithIgnoreCase(text, 0, "ISBN")) {
+            return 0;
+        }
+        int i = 4;
+        if (startsWithIgnoreCase(text, i, "-10") || startsWithIgnoreCase(text, i, "-13")) {
+            i += 3;
+        }
+        if (i < text.length() && text.charAt(i) == ':') {
+            i++;
+        }
+        while (i < text.length() && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWithIgnoreCase(CharSequence text, int from, String prefix) {
+        if (text.length() - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(text.charAt(from + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import io.dropwizard.hibernate.AbstractDAO;
+import org.hibernate.SessionFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class AuthorDAO extends AbstractDAO<Author> {
+
+    // Unique violation, in both Postgres and H2
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final String insertSql;
+
+    public AuthorDAO(SessionFactory factory) {
+        super(factory);
+        this.insertSql = "INSERT INTO " + qualifiedTable(factory, "authors") + " (name, name_key) VALUES (?, ?)";
+    }
+
+    public Optional<Author> findById(long id) {
+        return Optional.ofNullable(get(id));
+    }
+
+    /**
+     * The authors with these names, in the same order, adding the ones not seen before.
+     * One query for the existing ones, however many names there are.  A name another
+     * transaction adds at the same time is read back rather than failing the write.
+     */
+    public List<Author> resolve(List<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Author> found = findByKeys(names);
+        List<String> missing = names.stream().filter(name -> !found.containsKey(Author.key(name))).toList();
+        if (!missing.isEmpty()) {
+            insertMissing(missing);
+            found.putAll(findByKeys(missing));
+        }
+        return names.stream().map(name -> found.get(Author.key(name))).toList();
+    }
+
+    /**
+     * Inserts these authors with plain JDBC, each under a savepoint, skipping any whose
+     * name_key is already taken.  Rolling back to the savepoint keeps the transaction
+     * usable in Postgres, where a failed statement would otherwise abort it.
+     */
+    void insertMissing(List<String> names) {
+        currentSession().doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                for (String name : names) {
+                    statement.setString(1, name);
+                    statement.setString(2, Author.key(name));
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        statement.executeUpdate();
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                            throw e;
+                        }
+                        connection.rollback(savepoint);
+                    }
+                }
+            }
+        });
+    }
+
+    private Map<String, Author> findByKeys(List<String> names) {
+        return currentSession()
+                .createQuery("FROM Author a WHERE a.nameKey IN :keys", Author.class)
+                .setParameterList("keys", names.stream().map(Author::key).toList())
+                .list()
+                .stream()
+                .collect(Collectors.toMap(Author::getNameKey, Function.identity()));
+    }
+
+    // A range scan on the unique name_key index, so as cheap as the prefix is selective
+    public List<Author> findByPrefix(String prefix, int limit) {
+        String escaped = Author.key(prefix)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return currentSession()
+                .createQuery("FROM Author a WHERE a.nameKey LIKE :prefix ESCAPE '\\' ORDER BY a.nameKey", Author.class)
+                .setParameter("prefix", escaped + "%")
+                .setMaxResults(limit)
+                .list();
+    }
+
+    // Reads book_authors by its (author_id, book_id) index, then the books by primary key
+    public List<Book> findBooks(long authorId, int limit) {
+        return currentSession()
+                .createQuery("SELECT b FROM Book b JOIN b.authors a WHERE a.id = :authorId ORDER BY b.id", Book.class)
+                .setParameter("authorId", authorId)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    // Native SQL isn't qualified by Hibernate, so apply hibernate.default_schema ourselves.
+    private static String qualifiedTable(SessionFactory factory, String table) {
+        Object schema = factory.getProperties().get("hibernate.default_schema");
+        return schema == null || schema.toString().isBlank() ? table : schema + "." + table;
+    }
+}
@@ -1,16 +1,31 @@
 package com.example.bookcatalog.bookservice.db;
 
 import io.dropwizard.hibernate.AbstractDAO;
+import com.example.bookcatalog.bookservice.core.Author;
 import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.core.FacetCount;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class BookDAO extends AbstractDAO<Book> {
 
+    // Fields that can be selected with ?fields=
+    public static final Set<String> FIELDS = Set.of("id", "title", "author", "isbn", "publishedYear");
+
+    private final AuthorDAO authorDAO;
+
     public BookDAO(SessionFactory factory) {
         super(factory);
+        this.authorDAO = new AuthorDAO(factory);
     }
 
     public Optional<Book> findById(long id) {
@@ -18,20 +33,190 @@ public class BookDAO extends AbstractDAO<Book> {
     }
 
     public Book create(Book book) {
+        linkAuthors(book);
         return persist(book);
     }
 
     // Persist is protected in AbstractDAO so we need to wrap it here in
     // order for it to be used in BookResource.
     public Book update(Book book) {
+        linkAuthors(book);
         return persist(book); // persist can be used for updates
     }
 
+    // Keeps book_authors in step with the author text, leaving it alone when that names the same authors
+    private void linkAuthors(Book book) {
+        List<Author> authors = authorDAO.resolve(Author.split(book.getAuthor()));
+        if (!authors.equals(book.getAuthors())) {
+            book.setAuthors(new ArrayList<>(authors));
+        }
+    }
+
     public void delete(Book book) {
         currentSession().delete(book);
     }
 
+    // One lookup on the unique isbn13 index; the argument must already be normalized (Isbn.toIsbn13).
+    public Optional<Book> findByIsbn13(String isbn13) {
+        return currentSession()
+                .createQuery("FROM Book b WHERE b.isbn13 = :isbn13", Book.class)
+                .setParameter("isbn13", isbn13)
+                .uniqueResultOptional();
+    }
+
+    // Ids only, in order, so bulk changes can walk the matching books a chunk at a time.
+    public List<Long> idsPublishedIn(int year, long afterId, int limit) {
+        return currentSession()
+                .createQuery("SELECT b.id FROM Book b WHERE b.publishedYear = :year AND b.id > :afterId ORDER BY b.id", Long.class)
+                .setParameter("year", year)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    // One DELETE statement; the books are never loaded.
+    public int deleteByIds(Collection<Long> ids) {
+        return currentSession()
+                .createMutationQuery("DELETE FROM Book b WHERE b.id IN :ids")
+                .setParameterList("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Runs the work in its own transaction on the current session, for units of work declared
+     * with transactional = false that commit in several steps.  Rolls back if the work throws.
+     */
+    public <T> T inTransaction(Supplier<T> work) {
+        Transaction transaction = currentSession().beginTransaction();
+        try {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
     public List<Book> findAll() {
         return list(namedTypedQuery("com.example.bookcatalog.bookservice.core.Book.findAll"));
     }
+
+    public List<Map<String, Object>> findAll(FieldProjection projection) {
+        return currentSession()
+                .createQuery("SELECT " + projection.selectList("b") + " FROM Book b", Object[].class)
+                .list()
+                .stream()
+                .map(projection::toMap)
+                .toList();
+    }
+
+    public Optional<Map<String, Object>> findById(long id, FieldProjection projection) {
+        return currentSession()
+                .createQuery("SELECT " + projection.selectList("b") + " FROM Book b WHERE b.id = :id", Object[].class)
+                .setParameter("id", id)
+                .uniqueResultOptional()
+                .map(projection::toMap);
+    }
+
+    /**
+     * Same matching as the in-memory search in BookResource (case-insensitive substring on
+     * title and author, exact year), done in the query so only the selected columns of the
+     * matching rows are read.
+     */
+    public List<Map<String, Object>> search(String title, String author, Integer year, FieldProjection projection) {
+        return bind(currentSession().createQuery("SELECT " + projection.selectList("b") + " FROM Book b"
+                        + where(title, author, year), Object[].class), title, author, year)
+                .list()
+                .stream()
+                .map(projection::toMap)
+                .toList();
+    }
+
+    // One page of the same search in id order: whole books, or the projected fields when given
+    public List<?> searchPage(String title, String author, Integer year, FieldProjection projection, int offset, int limit) {
+        if (projection == null) {
+            return bind(currentSession().createQuery("FROM Book b" + where(title, author, year) + " ORDER BY b.id", Book.class),
+                    title, author, year)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .list();
+        }
+        return bind(currentSession().createQuery("SELECT " + projection.selectList("b") + " FROM Book b"
+                        + where(title, author, year) + " ORDER BY b.id", Object[].class), title, author, year)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .list()
+                .stream()
+                .map(projection::toMap)
+                .toList();
+    }
+
+    public long countMatching(String title, String author, Integer year) {
+        return bind(currentSession().createQuery("SELECT count(b) FROM Book b" + where(title, author, year), Long.class),
+                title, author, year)
+                .getSingleResult();
+    }
+
+    // Matching books per publication decade, oldest first, in one GROUP BY
+    public List<FacetCount> countByDecade(String title, String author, Integer year) {
+        String decade = "b.publishedYear - mod(b.publishedYear, 10)";
+        return bind(currentSession().createQuery("SELECT " + decade + ", count(b) FROM Book b" + where(title, author, year)
+                        + " AND b.publishedYear IS NOT NULL GROUP BY " + decade + " ORDER BY " + decade, Object[].class),
+                title, author, year)
+                .list()
+                .stream()
+                .map(row -> new FacetCount(((Number) row[0]).intValue(), (Long) row[1]))
+                .toList();
+    }
+
+    // The limit authors with the most matching books, through book_authors, in one GROUP BY
+    public List<FacetCount> countByAuthor(String title, String author, Integer year, int limit) {
+        return bind(currentSession().createQuery("SELECT a.name, count(b) FROM Book b JOIN b.authors a"
+                        + where(title, author, year) + " GROUP BY a.id, a.name ORDER BY count(b) DESC, a.name", Object[].class),
+                title, author, year)
+                .setMaxResults(limit)
+                .list()
+                .stream()
+                .map(row -> new FacetCount(row[0], (Long) row[1]))
+                .toList();
+    }
+
+    // The search's WHERE clause; bind sets its parameters
+    private static String where(String title, String author, Integer year) {
+        StringBuilder hql = new StringBuilder(" WHERE 1 = 1");
+        if (title != null && !title.isEmpty()) {
+            hql.append(" AND LOWER(b.title) LIKE :title ESCAPE '\\'");
+        }
+        if (author != null && !author.isEmpty()) {
+            hql.append(" AND LOWER(b.author) LIKE :author ESCAPE '\\'");
+        }
+        if (year != null) {
+            hql.append(" AND b.publishedYear = :year");
+        }
+        return hql.toString();
+    }
+
+    private static <R> SelectionQuery<R> bind(SelectionQuery<R> query, String title, String author, Integer year) {
+        if (title != null && !title.isEmpty()) {
+            query.setParameter("title", containsPattern(title));
+        }
+        if (author != null && !author.isEmpty()) {
+            query.setParameter("author", containsPattern(author));
+        }
+        if (year != null) {
+            query.setParameter("year", year);
+        }
+        return query;
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
 }
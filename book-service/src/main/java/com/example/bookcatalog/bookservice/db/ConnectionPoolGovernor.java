@@ -0,0 +1,163 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.lifecycle.Managed;
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps this service's connection pool inside its share of the shared Postgres.
+ *
+ * At startup it warns when replicas x database.maxSize is larger than the cluster-wide
+ * budget.  In adaptive mode it also samples pool demand (active + waiting) and resizes the
+ * pool's maxActive to peak demand x headroom, bounded by database.minSize below and by
+ * database.maxSize and this pod's share of the budget above.  Growth happens as soon as
+ * callers start waiting; shrinking only happens once per adjustInterval.
+ *
+ * The pool's own gauges (active, idle, waiting, size, ...) are registered by Dropwizard and
+ * already exported to Prometheus; this adds the current target and the per-pod budget.
+ */
+public class ConnectionPoolGovernor implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolGovernor.class);
+
+    private final ConnectionBudgetConfiguration budget;
+    private final int minSize;
+    private final int maxSize;
+    private final DataSourceProxy dataSource;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger windowPeak = new AtomicInteger();
+    private volatile int targetSize;
+    private long lastShrinkCheck;
+    private ScheduledFuture<?> sampler;
+
+    public ConnectionPoolGovernor(ConnectionBudgetConfiguration budget,
+                                  DataSourceFactory database,
+                                  DataSourceProxy dataSource,
+                                  ScheduledExecutorService scheduler,
+                                  MetricRegistry metrics) {
+        this.budget = budget;
+        this.minSize = database.getMinSize();
+        this.maxSize = database.getMaxSize();
+        this.dataSource = dataSource;
+        this.scheduler = scheduler;
+        this.targetSize = maxSize;
+        metrics.register(MetricRegistry.name(ConnectionPoolGovernor.class, "target-max-size"),
+                (Gauge<Integer>) () -> targetSize);
+        metrics.register(MetricRegistry.name(ConnectionPoolGovernor.class, "per-pod-budget"),
+                (Gauge<Integer>) budget::getPerPodBudget);
+    }
+
+    /**
+     * Finds the pool behind a Hibernate SessionFactory built by Dropwizard's HibernateBundle.
+     *
+     * With a read replica configured this is the primary's pool.
+     *
+     * @return the pool, or null if the factory isn't backed by a Tomcat JDBC pool
+     */
+    public static DataSourceProxy poolOf(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        DataSource dataSource = provider == null ? null : provider.unwrap(DataSource.class);
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            dataSource = routing.getPrimary();
+        }
+        return dataSource instanceof DataSourceProxy ? (DataSourceProxy) dataSource : null;
+    }
+
+    /**
+     * The startup check.  Returns true (and logs a warning) when every pod opening its full
+     * pool would use more connections than this service's budget.
+     */
+    public static boolean warnIfOverBudget(ConnectionBudgetConfiguration budget, DataSourceFactory database) {
+        int worstCase = budget.getReplicas() * database.getMaxSize();
+        if (worstCase <= budget.getClusterMaxConnections()) {
+            LOGGER.info("Connection budget OK: {} replicas x maxSize {} = {} <= {}",
+                    budget.getReplicas(), database.getMaxSize(), worstCase, budget.getClusterMaxConnections());
+            return false;
+        }
+        LOGGER.warn("Connection budget exceeded: {} replicas x database.maxSize {} = {} connections, budget is {}. "
+                        + "Lower database.maxSize to {} or enable connectionBudget.adaptive.",
+                budget.getReplicas(), database.getMaxSize(), worstCase, budget.getClusterMaxConnections(),
+                budget.getPerPodBudget());
+        return true;
+    }
+
+    @Override
+    public void start() {
+        if (!budget.isAdaptive() || dataSource == null) {
+            return;
+        }
+        resize(Math.max(minSize, Math.min(maxSize, budget.getPerPodBudget())));
+        lastShrinkCheck = System.nanoTime();
+        long period = budget.getSampleInterval().toMilliseconds();
+        sampler = scheduler.scheduleAtFixedRate(this::sample, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (sampler != null) {
+            sampler.cancel(false);
+        }
+    }
+
+    void sample() {
+        ConnectionPool pool = dataSource.getPool();
+        if (pool == null) {
+            return;
+        }
+        int waiting = pool.getWaitCount();
+        int demand = pool.getActive() + waiting;
+        int peak = windowPeak.accumulateAndGet(demand, Math::max);
+
+        // Callers are queueing: grow right away rather than waiting for the next window.
+        if (waiting > 0 && targetSize(peak) > targetSize) {
+            resize(targetSize(peak));
+            return;
+        }
+
+        if (System.nanoTime() - lastShrinkCheck >= budget.getAdjustInterval().toNanoseconds()) {
+            lastShrinkCheck = System.nanoTime();
+            int target = targetSize(windowPeak.getAndSet(0));
+            if (target != targetSize) {
+                resize(target);
+            }
+        }
+    }
+
+    int targetSize(int peakDemand) {
+        int ceiling = Math.min(maxSize, budget.getPerPodBudget());
+        int wanted = (int) Math.ceil(peakDemand * budget.getHeadroom());
+        return Math.max(minSize, Math.min(ceiling, wanted));
+    }
+
+    int getTargetSize() {
+        return targetSize;
+    }
+
+    private void resize(int size) {
+        if (size == targetSize) {
+            return;
+        }
+        LOGGER.info("Resizing connection pool from {} to {}", targetSize, size);
+        targetSize = size;
+        // Idle connections above the new maximum are closed when they are returned or evicted.
+        dataSource.setMaxActive(size);
+        dataSource.setMaxIdle(size);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.example.bookcatalog.bookservice.BookServiceConfiguration;
+import io.dropwizard.core.cli.ConfiguredCommand;
+import io.dropwizard.core.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * {@code java -jar book-service.jar migrate config.yaml}
+ *
+ * Applies pending migrations and exits, for running as a one-shot job or init container
+ * ahead of pods started with migrationOnStartup: never.
+ */
+public class MigrateCommand extends ConfiguredCommand<BookServiceConfiguration> {
+
+    public MigrateCommand() {
+        super("migrate", "Apply pending database migrations and exit");
+    }
+
+    @Override
+    protected void run(Bootstrap<BookServiceConfiguration> bootstrap, Namespace namespace,
+                       BookServiceConfiguration configuration) {
+        new SchemaMigrator(configuration.getDataSourceFactory(), "books_schema", "flyway_schema_history").migrate();
+    }
+}
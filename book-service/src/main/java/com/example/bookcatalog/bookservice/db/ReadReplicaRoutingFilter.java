@@ -0,0 +1,84 @@
+package com.example.bookcatalog.bookservice.db;
+
+import io.dropwizard.hibernate.UnitOfWork;
+import io.dropwizard.util.Duration;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides, per request, whether its unit of work may read from the replica.
+ *
+ * Only @UnitOfWork(readOnly = true) methods are eligible.  After a successful write the
+ * response sets a short-lived cookie; while it is valid that client's reads go to the
+ * primary, so it never reads a replica that hasn't caught up with its own write.  The
+ * cookie carries its own expiry, so stickiness works across pods.
+ */
+public class ReadReplicaRoutingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    public static final String STICKY_COOKIE = "read_primary_until";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    private final long stickyMillis;
+
+    public ReadReplicaRoutingFilter(Duration stickyWindow) {
+        this.stickyMillis = stickyWindow.toMilliseconds();
+    }
+
+    ReadReplicaRoutingFilter(Duration stickyWindow, ResourceInfo resourceInfo) {
+        this(stickyWindow);
+        this.resourceInfo = resourceInfo;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        ReplicaRoutingDataSource.readFromReplica(isReadOnlyMethod() && !isSticky(request.getCookies()));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        ReplicaRoutingDataSource.clearRoute();
+        // A read-only POST (e.g. a query too long for a URL) isn't a write
+        if (WRITE_METHODS.contains(request.getMethod()) && !isReadOnlyMethod()
+                && response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+            long until = System.currentTimeMillis() + stickyMillis;
+            int maxAge = (int) Math.max(1, (stickyMillis + 999) / 1000);
+            response.getHeaders().add(HttpHeaders.SET_COOKIE, new NewCookie(
+                    STICKY_COOKIE, Long.toString(until), "/", null, null, maxAge, false, true));
+        }
+    }
+
+    private boolean isReadOnlyMethod() {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        UnitOfWork unitOfWork = method == null ? null : method.getAnnotation(UnitOfWork.class);
+        return unitOfWork != null && unitOfWork.readOnly();
+    }
+
+    // Whether these request cookies keep the client on the primary after its own write
+    public static boolean isSticky(Map<String, Cookie> cookies) {
+        Cookie cookie = cookies.get(STICKY_COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replay lag and takes it out of rotation while it is too far behind
+ * (or unreachable), putting it back once it catches up.
+ *
+ * A replica that has replayed everything it received reports zero lag; otherwise lag is
+ * the age of the last replayed transaction.  Comparing LSNs first avoids reporting an
+ * idle-but-current replica as lagging just because nothing has been written lately.
+ */
+public class ReplicaLagMonitor implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)"
+            + " END";
+
+    private final ReplicaRoutingDataSource dataSource;
+    private final ReadReplicaConfiguration config;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lagMillis = -1;
+    private ScheduledFuture<?> poller;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource dataSource,
+                             ReadReplicaConfiguration config,
+                             ScheduledExecutorService scheduler,
+                             MetricRegistry metrics) {
+        this.dataSource = dataSource;
+        this.config = config;
+        this.scheduler = scheduler;
+        metrics.register(MetricRegistry.name(ReplicaLagMonitor.class, "lag-millis"), (Gauge<Long>) () -> lagMillis);
+        metrics.register(MetricRegistry.name(ReplicaLagMonitor.class, "available"),
+                (Gauge<Integer>) () -> dataSource.isReplicaAvailable() ? 1 : 0);
+    }
+
+    @Override
+    public void start() {
+        long period = config.getLagCheckInterval().toMilliseconds();
+        poller = scheduler.scheduleWithFixedDelay(this::check, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (poller != null) {
+            poller.cancel(false);
+        }
+    }
+
+    void check() {
+        try (Connection connection = dataSource.getReplica().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            lagMillis = (long) rs.getDouble(1);
+            boolean withinLimit = lagMillis <= config.getMaxLag().toMilliseconds();
+            if (!withinLimit && dataSource.isReplicaAvailable()) {
+                LOGGER.warn("Read replica is {} ms behind (max {} ms)", lagMillis, config.getMaxLag().toMilliseconds());
+            }
+            dataSource.setReplicaAvailable(withinLimit);
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("Could not read replica lag: {}", e.getMessage());
+            lagMillis = -1;
+            dataSource.setReplicaAvailable(false);
+        }
+    }
+
+    long getLagMillis() {
+        return lagMillis;
+    }
+}
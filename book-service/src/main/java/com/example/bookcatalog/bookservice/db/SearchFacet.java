@@ -0,0 +1,44 @@
+package com.example.bookcatalog.bookservice.db;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The counts GET /books/search can return next to a page of results, asked for with ?facets=.
+ */
+public enum SearchFacet {
+    // Books per publication decade: 1990 counts 1990-1999.  Books without a year are left out.
+    YEAR,
+    // Books per author, the most prolific first
+    AUTHOR;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses a comma separated facet list such as "year,author".
+     *
+     * @return the facets, empty when facets is null or blank
+     * @throws IllegalArgumentException for a name that isn't a facet
+     */
+    public static Set<SearchFacet> parse(String facets) {
+        Set<SearchFacet> parsed = EnumSet.noneOf(SearchFacet.class);
+        if (facets == null) {
+            return parsed;
+        }
+        for (String facet : facets.split(",")) {
+            String name = facet.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown facet '" + name + "', expected any of author, year");
+            }
+        }
+        return parsed;
+    }
+}
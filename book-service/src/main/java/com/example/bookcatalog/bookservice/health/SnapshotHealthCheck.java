@@ -0,0 +1,26 @@
+package com.example.bookcatalog.bookservice.health;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.example.bookcatalog.bookservice.snapshot.CatalogSnapshot;
+import com.example.bookcatalog.bookservice.snapshot.SnapshotCatalog;
+
+import java.time.Instant;
+
+// Healthy once a catalog snapshot is mapped; reports its size and age.
+public class SnapshotHealthCheck extends HealthCheck {
+
+    private final SnapshotCatalog catalog;
+
+    public SnapshotHealthCheck(SnapshotCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    @Override
+    protected Result check() {
+        CatalogSnapshot snapshot = catalog.get();
+        if (snapshot == null) {
+            return Result.unhealthy("No catalog snapshot loaded");
+        }
+        return Result.healthy("%d books, written %s", snapshot.size(), Instant.ofEpochMilli(snapshot.getCreatedAtMillis()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.bookcatalog.bookservice.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for Idempotency-Key support on creates.
+ */
+public class IdempotencyConfiguration {
+
+    private boolean enabled = true;
+
+    @NotNull
+    private Duration ttl = Duration.hours(24);
+
+    @NotNull
+    private Duration purgeInterval = Duration.minutes(15);
+
+    @Min(0)
+    private int cacheSize = 10_000;
+
+    @Min(1)
+    @Max(255)
+    private int maxKeyLength = 255;
+
+    // When off the header is ignored.
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // How long a key is remembered; a retry after this creates again.
+    @JsonProperty
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @JsonProperty
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    // How often keys older than ttl are deleted from the table.
+    @JsonProperty
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    @JsonProperty
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    // Recent responses kept in memory, so most replays don't read the table.
+    @JsonProperty
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    @JsonProperty
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    // Longer keys are refused with 400.
+    @JsonProperty
+    public int getMaxKeyLength() {
+        return maxKeyLength;
+    }
+
+    @JsonProperty
+    public void setMaxKeyLength(int maxKeyLength) {
+        this.maxKeyLength = maxKeyLength;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bookcatalog.bookservice.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * The response to a create made with an Idempotency-Key, stored so that retries of the
+ * same request get it back instead of creating again.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // SHA-256 (hex) of the route, the client and the key, so keys can't collide across either
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    // SHA-256 (hex) of the request body, to refuse a key reused for a different request
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    // Zero until the request that claimed the key completes; only its own transaction sees that
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public IdempotencyRecord() {
+        // Required by Hibernate
+    }
+
+    public IdempotencyRecord(String keyHash, String requestHash, Instant createdAt) {
+        this.keyHash = keyHash;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+    }
+
+    public String getKeyHash() {
+        return keyHash;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isComplete() {
+        return status != 0;
+    }
+
+    public void complete(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+}
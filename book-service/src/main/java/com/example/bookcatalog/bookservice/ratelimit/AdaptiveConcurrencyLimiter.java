@@ -0,0 +1,71 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests in flight, adjusting the cap from observed latency (AIMD).
+ *
+ * Every request that finishes within the target latency while at least half the limit is
+ * in use raises the limit by one.  A slower one cuts it by the backoff ratio, at most once
+ * per target latency so a burst of slow responses doesn't collapse it to the minimum.
+ * Once the limit is reached new requests are turned away immediately, which keeps queues
+ * (and so latency) short instead of letting every request slow down together.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final LoadSheddingConfiguration config;
+    private final long targetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimiter(LoadSheddingConfiguration config) {
+        this.config = config;
+        this.targetNanos = config.getTargetLatency().toNanoseconds();
+        this.limit = new AtomicInteger(Math.max(config.getMinLimit(),
+                Math.min(config.getMaxLimit(), config.getInitialLimit())));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request started with a successful {@link #tryAcquire}.
+     *
+     * @param latencyNanos how long it took
+     * @param sample false to release without adjusting the limit (e.g. long-lived streams)
+     */
+    public void release(long latencyNanos, boolean sample) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (!sample) {
+            return;
+        }
+        if (latencyNanos > targetNanos) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - last >= targetNanos && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(l -> Math.max(config.getMinLimit(), (int) (l * config.getBackoffRatio())));
+            }
+        } else if (wasInFlight * 2 >= limit.get()) {
+            limit.updateAndGet(l -> Math.min(config.getMaxLimit(), l + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Bounds for the adaptive concurrency limit.
+ *
+ * The limit grows by one while requests finish under targetLatency and the service is
+ * using most of it, and is cut by backoffRatio when they start taking longer.  Requests
+ * over the limit are rejected with 503 straight away instead of queueing.
+ */
+public class LoadSheddingConfiguration {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    private int initialLimit = 64;
+
+    @Min(1)
+    private int minLimit = 8;
+
+    @Min(1)
+    private int maxLimit = 512;
+
+    @NotNull
+    private Duration targetLatency = Duration.milliseconds(500);
+
+    @DecimalMin("0.5")
+    @DecimalMax("0.99")
+    private double backoffRatio = 0.9;
+
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @JsonProperty
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    @JsonProperty
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    @JsonProperty
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    @JsonProperty
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    @JsonProperty
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @JsonProperty
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    // A request slower than this counts as a sign of overload.
+    @JsonProperty
+    public Duration getTargetLatency() {
+        return targetLatency;
+    }
+
+    @JsonProperty
+    public void setTargetLatency(Duration targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    @JsonProperty
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    @JsonProperty
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over the client's rate limit with 429 and, when the service is at its
+ * concurrency limit, sheds them with 503.  Both responses carry Retry-After.
+ *
+ * Mapped after JwtAuthFilter so authenticated clients are keyed by their JWT subject (the
+ * userId request attribute); anonymous ones are keyed by IP address.
+ */
+public class RateLimitFilter implements Filter {
+
+    static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Meter rateLimited;
+    private final Meter shed;
+
+    /**
+     * @param rateLimiter per-client limits, or null for none
+     * @param concurrencyLimiter load shedding, or null for none
+     */
+    public RateLimitFilter(RateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           MetricRegistry metrics) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimited = metrics.meter(MetricRegistry.name(RateLimitFilter.class, "rate-limited"));
+        this.shed = metrics.meter(MetricRegistry.name(RateLimitFilter.class, "shed"));
+        if (rateLimiter != null) {
+            metrics.register(MetricRegistry.name(RateLimitFilter.class, "buckets"),
+                    (Gauge<Integer>) rateLimiter::getBucketCount);
+        }
+        if (concurrencyLimiter != null) {
+            metrics.register(MetricRegistry.name(RateLimitFilter.class, "concurrency-limit"),
+                    (Gauge<Integer>) concurrencyLimiter::getLimit);
+            metrics.register(MetricRegistry.name(RateLimitFilter.class, "in-flight"),
+                    (Gauge<Integer>) concurrencyLimiter::getInFlight);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String path = httpRequest.getRequestURI();
+        String method = httpRequest.getMethod();
+
+        // Never throttle CORS preflight, metrics scrapes or health checks
+        if ("OPTIONS".equals(method) ||
+                path.equals("/metrics") ||
+                path.contains("/healthcheck") ||
+                path.contains("/admin")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.acquire(method, path, clientKey(httpRequest), System.nanoTime());
+            if (waitNanos > 0) {
+                rateLimited.mark();
+                reject(httpResponse, SC_TOO_MANY_REQUESTS, retryAfterSeconds(waitNanos), "Rate limit exceeded");
+                return;
+            }
+        }
+
+        if (concurrencyLimiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.mark();
+            reject(httpResponse, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, "Server busy, retry shortly");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // An async request (e.g. a stream) is still open; its duration says nothing about load.
+            concurrencyLimiter.release(System.nanoTime() - start, !request.isAsyncStarted());
+        }
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        Object userId = request.getAttribute("userId");
+        return userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write(message);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {}
+
+    @Override
+    public void destroy() {}
+}
@@ -0,0 +1,76 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets per route and client.
+ *
+ * Buckets live in a ConcurrentHashMap, so lookups don't lock and creating a new client's
+ * bucket only locks its own bin.  {@link #evictIdle} is run periodically to drop buckets of
+ * clients that have gone quiet.
+ */
+public class RateLimiter {
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Rule defaultRule;
+    private final long idleNanos;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitConfiguration config) {
+        List<RouteLimit> routes = config.getRoutes();
+        for (int i = 0; i < routes.size(); i++) {
+            rules.add(new Rule(i, routes.get(i)));
+        }
+        this.defaultRule = new Rule(-1, config.getDefaultLimit());
+        this.idleNanos = config.getIdleEviction().toNanoseconds();
+    }
+
+    /**
+     * Takes a token from the client's bucket for the route matching the request.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it may retry
+     */
+    public long acquire(String method, String path, String client, long nowNanos) {
+        Rule rule = ruleFor(method, path);
+        TokenBucket bucket = buckets.get(rule.id + client);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(rule.id + client,
+                    key -> new TokenBucket(rule.intervalNanos, rule.burst, nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public void evictIdle(long nowNanos) {
+        buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos, idleNanos));
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private Rule ruleFor(String method, String path) {
+        for (Rule rule : rules) {
+            if (rule.limit.matches(method, path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private static final class Rule {
+        private final String id;
+        private final RouteLimit limit;
+        private final long intervalNanos;
+        private final int burst;
+
+        Rule(int index, RouteLimit limit) {
+            this.id = index + "|";
+            this.limit = limit;
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRequestsPerSecond()));
+            this.burst = limit.getBurst();
+        }
+    }
+}
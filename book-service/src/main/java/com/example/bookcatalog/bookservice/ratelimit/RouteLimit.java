@@ -0,0 +1,87 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+/**
+ * A per-client request rate for the requests matching method and path.
+ *
+ * path matches itself and everything below it ("/books" matches "/books/1"); a null
+ * method matches any method.  Each client gets its own bucket per route.
+ */
+public class RouteLimit {
+
+    private String method;
+
+    private String path;
+
+    @DecimalMin("0.001")
+    private double requestsPerSecond = 20;
+
+    @Min(1)
+    private int burst = 40;
+
+    public RouteLimit() {
+    }
+
+    public RouteLimit(String method, String path, double requestsPerSecond, int burst) {
+        this.method = method;
+        this.path = path;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+    }
+
+    @JsonProperty
+    public String getMethod() {
+        return method;
+    }
+
+    @JsonProperty
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    @JsonProperty
+    public String getPath() {
+        return path;
+    }
+
+    @JsonProperty
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    // Sustained rate each client may send.
+    @JsonProperty
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    @JsonProperty
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    // Requests a client may send at once after being idle.
+    @JsonProperty
+    public int getBurst() {
+        return burst;
+    }
+
+    @JsonProperty
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    boolean matches(String requestMethod, String requestPath) {
+        if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+            return false;
+        }
+        if (path == null) {
+            return true;
+        }
+        return requestPath.startsWith(path)
+                && (requestPath.length() == path.length() || requestPath.charAt(path.length()) == '/');
+    }
+}
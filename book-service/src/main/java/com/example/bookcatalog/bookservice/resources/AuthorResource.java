@@ -0,0 +1,58 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.db.AuthorDAO;
+import io.dropwizard.hibernate.UnitOfWork;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import org.hibernate.FlushMode;
+
+import java.util.List;
+
+/**
+ * Authors and their books, for author pickers and "more by this author".  Both reads are
+ * index lookups rather than scans of books.author.
+ *
+ * Example:
+ *   curl "http://localhost:8080/authors?prefix=tolk"
+ *   curl http://localhost:8080/authors/12/books
+ */
+@Path("/authors")
+@Produces(MediaType.APPLICATION_JSON)
+public class AuthorResource {
+
+    private final AuthorDAO dao;
+
+    public AuthorResource(AuthorDAO dao) {
+        this.dao = dao;
+    }
+
+    // GET /authors?prefix=tol - authors whose name starts with the prefix, case-insensitively, by name
+    @GET
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    public List<Author> findAuthors(@QueryParam("prefix") @DefaultValue("") String prefix,
+                                    @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(100) int limit) {
+        return dao.findByPrefix(prefix, limit);
+    }
+
+    // GET /authors/{id}/books - the author's books, oldest first; 404 for an unknown author
+    @GET
+    @Path("/{id}/books")
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    public List<Book> getBooks(@PathParam("id") long id,
+                               @QueryParam("limit") @DefaultValue("100") @Min(1) @Max(1000) int limit) {
+        if (dao.findById(id).isEmpty()) {
+            throw new NotFoundException("Author with ID " + id + " not found");
+        }
+        return dao.findBooks(id, limit);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.cache.SerializedResponseCache;
+import com.example.bookcatalog.bookservice.cascade.ReviewCascade;
+import com.example.bookcatalog.bookservice.core.BookFilter;
+import com.example.bookcatalog.bookservice.core.BulkResult;
+import com.example.bookcatalog.bookservice.db.BookDAO;
+import io.dropwizard.hibernate.UnitOfWork;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+
+/**
+ * Bulk delete of books, for catalogue cleanups.  Admin only, going by the userRole JwtAuthFilter sets.
+ *
+ * Example:
+ *   curl -X POST http://localhost:8081/books/bulk-delete -H "Content-Type: application/json" -d '{"year": 1999}'
+ */
+@Path("/books/bulk-delete")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class BookBulkResource {
+
+    private final BookDAO dao;
+    // Null when deleting a book leaves its reviews in place
+    private final ReviewCascade reviewCascade;
+    // Null when responses are serialized as they are sent
+    private final SerializedResponseCache cache;
+    private final int chunkSize;
+
+    public BookBulkResource(BookDAO dao, ReviewCascade reviewCascade, SerializedResponseCache cache, int chunkSize) {
+        this.dao = dao;
+        this.reviewCascade = reviewCascade;
+        this.cache = cache;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * POST {"ids": [...]} or {"year": 1999} - deletes the matching books without loading them.
+     *
+     * The books go chunkSize at a time, in id order, each chunk one DELETE in a transaction
+     * of its own, so no transaction holds locks on more than chunkSize rows.  A failure stops
+     * the run; the chunks before it stay deleted and calling again finishes the job.
+     */
+    @POST
+    @UnitOfWork(transactional = false)
+    public BulkResult deleteBooks(@NotNull @Valid BookFilter filter, @Context ContainerRequestContext request) {
+        requireAdmin(request);
+        List<Long> ids = filter.getIds() == null ? null
+                : filter.getIds().stream().distinct().sorted().toList();
+        BulkResult result = new BulkResult();
+        long afterId = Long.MIN_VALUE;
+        int from = 0;
+        while (true) {
+            List<Long> chunk;
+            if (ids != null) {
+                chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                from += chunk.size();
+            } else {
+                chunk = dao.idsPublishedIn(filter.getYear(), afterId, chunkSize);
+            }
+            if (chunk.isEmpty()) {
+                return result;
+            }
+            result.add(dao.inTransaction(() -> {
+                if (reviewCascade != null) {
+                    reviewCascade.booksDeleting(chunk);
+                }
+                if (cache != null) {
+                    cache.booksChanged(chunk);
+                }
+                return dao.deleteByIds(chunk);
+            }));
+            if (chunk.size() < chunkSize) {
+                return result;
+            }
+            afterId = chunk.get(chunk.size() - 1);
+        }
+    }
+
+    // Here rather than in JwtAuthFilter, so it holds for every path Jersey routes to this resource
+    private static void requireAdmin(ContainerRequestContext request) {
+        if (!"admin".equals(request.getProperty("userRole"))) {
+            throw new ForbiddenException(Response.status(Response.Status.FORBIDDEN)
+                    .entity("Admin access required")
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+    }
+}
@@ -1,26 +1,73 @@
 package com.example.bookcatalog.bookservice.resources;
 
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
 import io.dropwizard.hibernate.UnitOfWork;
+import org.hibernate.FlushMode;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import com.example.bookcatalog.bookservice.cache.SerializedResponseCache;
+import com.example.bookcatalog.bookservice.cascade.ReviewCascade;
 import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.core.BookSearchResult;
+import com.example.bookcatalog.bookservice.core.FacetCount;
+import com.example.bookcatalog.bookservice.core.Isbn;
 import com.example.bookcatalog.bookservice.db.BookDAO;
+import com.example.bookcatalog.bookservice.db.FieldProjection;
+import com.example.bookcatalog.bookservice.db.ReadReplicaRoutingFilter;
+import com.example.bookcatalog.bookservice.db.ReplicaRoutingDataSource;
+import com.example.bookcatalog.bookservice.db.SearchFacet;
+import com.example.bookcatalog.bookservice.db.SingleFlight;
+import com.example.bookcatalog.bookservice.idempotency.IdempotencyStore;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+// JSON by default; internal callers can ask for the more compact binary Smile encoding.
+// GETs are read-only, never-flushed units of work: loaded entities get no dirty-checking
+// snapshots, and they are served by the read replica when one is configured.  With the
+// serialized response cache on, JSON responses for single books, the list and search pages
+// are sent as cached bytes; every write here invalidates what it changed.
 @Path("/books")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+@Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
 public class BookResource {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Buckets in the author facet
+    private static final int TOP_AUTHORS = 10;
+
     private final BookDAO dao;
+    private final SingleFlight singleFlight;
+    // Null when Idempotency-Key support is disabled
+    private final IdempotencyStore idempotency;
+    // Null when deleting a book leaves its reviews in place
+    private final ReviewCascade reviewCascade;
+    // Null when responses are serialized as they are sent
+    private final SerializedResponseCache cache;
 
-    public BookResource(BookDAO dao) {
+    public BookResource(BookDAO dao, SingleFlight singleFlight, IdempotencyStore idempotency,
+                        ReviewCascade reviewCascade, SerializedResponseCache cache) {
         this.dao = dao;
+        this.singleFlight = singleFlight;
+        this.idempotency = idempotency;
+        this.reviewCascade = reviewCascade;
+        this.cache = cache;
     }
 
     /**
@@ -28,53 +75,159 @@ public class BookResource {
      * If a parameter is empty or null, it is ignored.
      * If a parameter is not empty or null, it is used to filter the results.
      * The results are case-insensitive.
+     * With fields the search runs in the database and returns only those fields.
+     * With page, size or facets it also runs in the database and returns a BookSearchResult:
+     * that page of the results, the total, and the facets counted over every match.
      *
      * @param title the title of the book
      * @param author the author of the book
      * @param year the year of the book
-     * @return a list of books that match the search criteria
+     * @param fields optional comma separated list of fields to return, e.g. id,title
+     * @param facets optional comma separated list of facets to count, year and/or author
+     * @param page optional page number, from 1
+     * @param size optional page size, 20 by default
+     * @return a list of books that match the search criteria, or a BookSearchResult
      */
     @GET
     @Path("/search")
-    @UnitOfWork
-    public List<Book> searchBooks(@QueryParam("title") String title,
-                                  @QueryParam("author") String author,
-                                  @QueryParam("year") Integer year) {
+    @UnitOfWork(readOnly = true, transactional = false, flushMode = FlushMode.MANUAL)
+    public Response searchBooks(@QueryParam("title") String title,
+                                @QueryParam("author") String author,
+                                @QueryParam("year") Integer year,
+                                @QueryParam("fields") String fields,
+                                @QueryParam("facets") String facets,
+                                @QueryParam("page") @Min(1) Integer page,
+                                @QueryParam("size") @Min(1) @Max(MAX_PAGE_SIZE) Integer size,
+                                @Context UriInfo uriInfo,
+                                @Context HttpHeaders headers) {
+        FieldProjection projection = projection(fields);
+        if (facets != null || page != null || size != null) {
+            Set<SearchFacet> searchFacets = searchFacets(facets);
+            int pageNumber = page == null ? 1 : page;
+            int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+            if (projection == null && cachesJson(headers)) {
+                return Response.ok(cache.list(readKey(uriInfo),
+                                () -> searchPage(title, author, year, null, searchFacets, pageNumber, pageSize)),
+                        MediaType.APPLICATION_JSON_TYPE).build();
+            }
+            return Response.ok(searchPage(title, author, year, projection, searchFacets, pageNumber, pageSize)).build();
+        }
+        if (projection != null) {
+            return Response.ok(dao.search(title, author, year, projection)).build();
+        }
 
         // NOTE, this is a simple in-memory search.  In a production environment, this would be a database search.
         List<Book> allBooks = dao.findAll();
-        return allBooks.stream()
+        return Response.ok(allBooks.stream()
                 .filter(book -> title == null || title.isEmpty() ||
                         book.getTitle().toLowerCase().contains(title.toLowerCase()))
                 .filter(book -> author == null || author.isEmpty() ||
                         book.getAuthor().toLowerCase().contains(author.toLowerCase()))
                 .filter(book -> year == null ||
                         (book.getPublishedYear() != null && book.getPublishedYear().equals(year)))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList())).build();
+    }
+
+    // A page query, a count and one GROUP BY per facet, rather than every match
+    private BookSearchResult searchPage(String title, String author, Integer year, FieldProjection projection,
+                                        Set<SearchFacet> facets, int page, int size) {
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        for (SearchFacet facet : facets) {
+            counts.put(facet.key(), switch (facet) {
+                case YEAR -> dao.countByDecade(title, author, year);
+                case AUTHOR -> dao.countByAuthor(title, author, year, TOP_AUTHORS);
+            });
+        }
+        return new BookSearchResult(
+                dao.searchPage(title, author, year, projection, (page - 1) * size, size),
+                dao.countMatching(title, author, year),
+                page, size, counts);
     }
 
-    // GET /books - list all books
+    // GET /books - list all books, or just the given fields with ?fields=id,title
+    // Not transactional, so a cached response borrows no database connection
     @GET
-    @UnitOfWork
-    public List<Book> getBooks() {
-        return dao.findAll();
+    @UnitOfWork(readOnly = true, transactional = false, flushMode = FlushMode.MANUAL)
+    public Response getBooks(@QueryParam("fields") String fields, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        FieldProjection projection = projection(fields);
+        if (projection == null && cachesJson(headers)) {
+            return Response.ok(cache.list(readKey(uriInfo), dao::findAll), MediaType.APPLICATION_JSON_TYPE).build();
+        }
+        return Response.ok(projection == null ? dao.findAll() : dao.findAll(projection)).build();
     }
 
-    // GET /books/{id} - get a single book by id
+    /**
+     * GET /books/{id} - get a single book by id
+     *
+     * Identical concurrent requests share one query.  The unit of work is not transactional,
+     * so a request waiting on another's query never borrows a database connection.
+     */
     @GET
     @Path("/{id}")
-    @UnitOfWork
-    public Response getBook(@PathParam("id") long id) {
-        Optional<Book> book = dao.findById(id);
+    @UnitOfWork(readOnly = true, transactional = false, flushMode = FlushMode.MANUAL)
+    public Response getBook(@PathParam("id") long id, @QueryParam("fields") String fields,
+                            @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        FieldProjection projection = projection(fields);
+        if (projection == null && cachesJson(headers)) {
+            return cache.book(id, () -> singleFlight.execute(flightKey(uriInfo), () -> dao.findById(id)))
+                    .map(json -> Response.ok(json, MediaType.APPLICATION_JSON_TYPE).build())
+                    .orElse(Response.status(Response.Status.NOT_FOUND).build());
+        }
+        Optional<?> book = singleFlight.execute(flightKey(uriInfo),
+                () -> projection == null ? dao.findById(id) : dao.findById(id, projection));
         return book.map(value -> Response.ok(value).build())
                 .orElse(Response.status(Response.Status.NOT_FOUND).build());
     }
 
-    // POST /books - create a new book
+    /**
+     * GET /books/isbn/{isbn} - get a book by its ISBN, as ISBN-10 or ISBN-13 with or without
+     * hyphens: 0-201-61622-X, 0201616220 and 978-0-201-61622-4 all find the same book.
+     */
+    @GET
+    @Path("/isbn/{isbn}")
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    public Response getBookByIsbn(@PathParam("isbn") String isbn) {
+        String isbn13 = Isbn.toIsbn13(isbn);
+        if (isbn13 == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Invalid ISBN: " + isbn)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build();
+        }
+        return dao.findByIsbn13(isbn13)
+                .map(book -> Response.ok(book).build())
+                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    /**
+     * POST /books - create a new book.
+     *
+     * With an Idempotency-Key header the book is created once per key and client; a retry
+     * gets the original response back (marked Idempotent-Replayed) instead of a duplicate.
+     */
     @POST
     @UnitOfWork
-    public Response createBook(@Valid Book book) {
+    public Response createBook(@Valid Book book, @HeaderParam(IdempotencyStore.HEADER) String idempotencyKey,
+                               @Context ContainerRequestContext request) {
+        if (idempotency == null) {
+            return create(book);
+        }
+        return idempotency.execute("POST /books " + request.getProperty("userId"), idempotencyKey, book,
+                Book.class, () -> create(book));
+    }
+
+    // 409 rather than a unique index violation when the ISBN, in any form, is already taken
+    private Response create(Book book) {
+        if (book.getIsbn13() != null && dao.findByIsbn13(book.getIsbn13()).isPresent()) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("A book with ISBN " + book.getIsbn() + " already exists")
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build();
+        }
         Book created = dao.create(book);
+        if (cache != null) {
+            cache.booksChanged(List.of(created.getId()));
+        }
         return Response.status(Response.Status.CREATED).entity(created).build();
     }
 
@@ -91,10 +244,13 @@ public class BookResource {
         updated.setTitle(book.getTitle());
         updated.setAuthor(book.getAuthor());
         dao.update(updated);
+        if (cache != null) {
+            cache.booksChanged(List.of(id));
+        }
         return Response.ok(updated).build();
     }
 
-    // DELETE /books/{id} - delete a book
+    // DELETE /books/{id} - delete a book; review-service then deletes its reviews in the background
     @DELETE
     @Path("/{id}")
     @UnitOfWork
@@ -104,6 +260,72 @@ public class BookResource {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
         dao.delete(existing.get());
+        if (reviewCascade != null) {
+            reviewCascade.bookDeleted(id);
+        }
+        if (cache != null) {
+            cache.booksChanged(List.of(id));
+        }
         return Response.noContent().build();
     }
+
+    // The cache only holds JSON, so Smile requests (those that prefer it) are serialized as usual,
+    // as are requests sent with Cache-Control: no-cache.
+    private boolean cachesJson(HttpHeaders headers) {
+        // A client kept on the primary after its own write may have written through another instance
+        if (cache == null || isNoCache(headers) || ReadReplicaRoutingFilter.isSticky(headers.getCookies())) {
+            return false;
+        }
+        for (MediaType accepted : headers.getAcceptableMediaTypes()) {
+            if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return true;
+            }
+            if (accepted.isCompatible(SmileMediaTypes.APPLICATION_JACKSON_SMILE_TYPE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNoCache(HttpHeaders headers) {
+        List<String> cacheControl = headers.getRequestHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .anyMatch(directive -> directive.trim().equalsIgnoreCase("no-cache"));
+    }
+
+    // Path plus query parameters in a fixed order, so equivalent requests share a key.
+    static String readKey(UriInfo uriInfo) {
+        MultivaluedMap<String, String> params = uriInfo.getQueryParameters();
+        return params.isEmpty() ? uriInfo.getPath() : uriInfo.getPath() + "?" + new TreeMap<>(params);
+    }
+
+    // The read key and the route, so a client kept on the primary after its own write never waits on a replica read
+    static String flightKey(UriInfo uriInfo) {
+        return (ReplicaRoutingDataSource.isReadFromReplica() ? "replica " : "primary ") + readKey(uriInfo);
+    }
+
+    // Unknown facets are a client error, like unknown fields.
+    private static Set<SearchFacet> searchFacets(String facets) {
+        try {
+            return SearchFacet.parse(facets);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+    }
+
+    // Unknown fields are a client error rather than being silently ignored.
+    private static FieldProjection projection(String fields) {
+        try {
+            return FieldProjection.parse(fields, BookDAO.FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.snapshot.SnapshotCatalog;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.Optional;
+
+/**
+ * The read side of BookResource, answered from the catalog snapshot on read-only replicas
+ * (catalogSnapshot.serve).  Writes are not routed here, so they get 405.
+ *
+ * Only the plain forms are served: fields, facets and paging need the database, so a request
+ * using them gets 400.
+ */
+@Path("/books")
+@Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+public class SnapshotBookResource {
+
+    private final SnapshotCatalog catalog;
+
+    public SnapshotBookResource(SnapshotCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // GET /books/search - as BookResource, by title, author or year
+    @GET
+    @Path("/search")
+    public Response searchBooks(@QueryParam("title") String title,
+                                @QueryParam("author") String author,
+                                @QueryParam("year") Integer year,
+                                @QueryParam("fields") String fields,
+                                @QueryParam("facets") String facets,
+                                @QueryParam("page") String page,
+                                @QueryParam("size") String size) {
+        Optional<Response> refused = refuse("fields", fields)
+                .or(() -> refuse("facets", facets))
+                .or(() -> refuse("page", page))
+                .or(() -> refuse("size", size));
+        return refused.orElseGet(() -> Response.ok(catalog.get().search(title, author, year)).build());
+    }
+
+    // GET /books - list all books
+    @GET
+    public Response getBooks(@QueryParam("fields") String fields) {
+        return refuse("fields", fields)
+                .orElseGet(() -> Response.ok(catalog.get().findAll()).build());
+    }
+
+    // GET /books/{id} - get a single book by id
+    @GET
+    @Path("/{id}")
+    public Response getBook(@PathParam("id") long id, @QueryParam("fields") String fields) {
+        return refuse("fields", fields)
+                .orElseGet(() -> catalog.get().findById(id)
+                        .map(book -> Response.ok(book).build())
+                        .orElse(Response.status(Response.Status.NOT_FOUND).build()));
+    }
+
+    // A 400 for a parameter the snapshot can't honour, rather than an answer that ignores it
+    private static Optional<Response> refuse(String name, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Response.status(Response.Status.BAD_REQUEST)
+                .entity(name + " is not supported by this read-only replica; it needs the database")
+                .build());
+    }
+}
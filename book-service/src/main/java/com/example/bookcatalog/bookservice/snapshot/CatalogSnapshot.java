@@ -0,0 +1,203 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.example.bookcatalog.bookservice.core.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * A read-only catalog mapped from a snapshot file, for book-service replicas that serve
+ * reads without Postgres.  The file stays in the page cache, shared by every process that
+ * maps it, and only the books a request returns are decoded onto the heap.
+ *
+ * Layout, big-endian:
+ *   header        magic, version, book count, year count, year index offset, strings offset (ints), created at (long)
+ *   id index      one record per book in id order: id (long), title, author and isbn string offsets (ints, -1 for null),
+ *                 published year (int, Integer.MIN_VALUE for null)
+ *   year index    one entry per year in year order: year, first position, count (ints); then the record positions
+ *                 of each year's books, in id order
+ *   strings       length (int) and UTF-8 bytes, each distinct string once
+ *
+ * Thread safe: reads only use absolute gets, which never move the mapping's position.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x424B534E; // "BKSN"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 24;
+    static final int YEAR_ENTRY_SIZE = 12;
+    static final int NO_STRING = -1;
+    static final int NO_YEAR = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int yearCount;
+    private final int yearIndexOffset;
+    private final int stringsOffset;
+    private final long createdAtMillis;
+
+    private CatalogSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.yearCount = buffer.getInt(12);
+        this.yearIndexOffset = buffer.getInt(16);
+        this.stringsOffset = buffer.getInt(20);
+        this.createdAtMillis = buffer.getLong(24);
+        if (size < 0 || yearIndexOffset != HEADER_SIZE + (long) size * RECORD_SIZE
+                || stringsOffset < yearIndexOffset + (long) yearCount * YEAR_ENTRY_SIZE
+                || stringsOffset > buffer.capacity()) {
+            throw new IOException("Truncated or corrupt catalog snapshot");
+        }
+    }
+
+    /**
+     * Maps the file.  The mapping outlives the channel, and the file itself, so the file can
+     * be replaced while this snapshot is still being read.
+     */
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large to map: " + length + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return new CatalogSnapshot(mapped);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    // Binary search of the id index
+    public Optional<Book> findById(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = buffer.getLong(HEADER_SIZE + middle * RECORD_SIZE);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return Optional.of(book(middle));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Book> findAll() {
+        List<Book> books = new ArrayList<>(size);
+        for (int position = 0; position < size; position++) {
+            books.add(book(position));
+        }
+        return books;
+    }
+
+    /**
+     * The books whose title and author contain the given text, ignoring case, and published
+     * in the given year; null or empty arguments match everything, as GET /books/search does.
+     * With a year only that year's books are looked at.
+     */
+    public List<Book> search(String title, String author, Integer year) {
+        String titlePart = lowerCaseOrNull(title);
+        String authorPart = lowerCaseOrNull(author);
+        List<Book> books = new ArrayList<>();
+        if (year == null) {
+            for (int position = 0; position < size; position++) {
+                addIfMatches(books, position, titlePart, authorPart);
+            }
+            return books;
+        }
+        int entry = findYear(year);
+        if (entry < 0) {
+            return books;
+        }
+        int entryOffset = yearIndexOffset + entry * YEAR_ENTRY_SIZE;
+        int first = buffer.getInt(entryOffset + 4);
+        int count = buffer.getInt(entryOffset + 8);
+        int positionsOffset = yearIndexOffset + yearCount * YEAR_ENTRY_SIZE;
+        for (int i = first; i < first + count; i++) {
+            addIfMatches(books, buffer.getInt(positionsOffset + i * Integer.BYTES), titlePart, authorPart);
+        }
+        return books;
+    }
+
+    private void addIfMatches(List<Book> books, int position, String titlePart, String authorPart) {
+        int record = HEADER_SIZE + position * RECORD_SIZE;
+        if (contains(buffer.getInt(record + 8), titlePart) && contains(buffer.getInt(record + 12), authorPart)) {
+            books.add(book(position));
+        }
+    }
+
+    // Binary search of the year entries, or -1
+    private int findYear(int year) {
+        int low = 0;
+        int high = yearCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleYear = buffer.getInt(yearIndexOffset + middle * YEAR_ENTRY_SIZE);
+            if (middleYear < year) {
+                low = middle + 1;
+            } else if (middleYear > year) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private boolean contains(int stringOffset, String part) {
+        if (part == null) {
+            return true;
+        }
+        String value = string(stringOffset);
+        return value != null && value.toLowerCase(Locale.ROOT).contains(part);
+    }
+
+    private Book book(int position) {
+        int record = HEADER_SIZE + position * RECORD_SIZE;
+        Book book = new Book(string(buffer.getInt(record + 8)), string(buffer.getInt(record + 12)));
+        book.setId(buffer.getLong(record));
+        book.setIsbn(string(buffer.getInt(record + 16)));
+        int year = buffer.getInt(record + 20);
+        book.setPublishedDate(year == NO_YEAR ? null : year);
+        return book;
+    }
+
+    private String string(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        int start = stringsOffset + offset;
+        byte[] bytes = new byte[buffer.getInt(start)];
+        buffer.get(start + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String lowerCaseOrNull(String text) {
+        return text == null || text.isEmpty() ? null : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for the catalog snapshot: the file the snapshot command writes, and whether this
+ * instance serves GETs from it instead of from Postgres.
+ */
+public class CatalogSnapshotConfiguration {
+
+    private String file;
+
+    private boolean serve = false;
+
+    @NotNull
+    private Duration pollInterval = Duration.seconds(10);
+
+    // Written by the snapshot command, read when serving.
+    @JsonProperty
+    public String getFile() {
+        return file;
+    }
+
+    @JsonProperty
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    // When on the instance never connects to Postgres: reads come from file and writes get 405.
+    @JsonProperty
+    public boolean isServe() {
+        return serve;
+    }
+
+    @JsonProperty
+    public void setServe(boolean serve) {
+        this.serve = serve;
+    }
+
+    // How often the file is checked for a newer snapshot to swap to.
+    @JsonProperty
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    @JsonProperty
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    @AssertTrue(message = "file is required when serve is on")
+    public boolean isFileSetWhenServing() {
+        return !serve || (file != null && !file.isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.example.bookcatalog.bookservice.core.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Writes the books to a snapshot file that CatalogSnapshot maps.  See CatalogSnapshot for the layout.
+ *
+ * The file is written next to the target and moved over it in one step, so a pod serving the
+ * old snapshot never sees a half-written or truncated file; it keeps its mapping of the old
+ * one until it swaps to the new.
+ */
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {
+    }
+
+    /**
+     * @param books sorted by id, without repeats
+     */
+    public static void write(List<Book> books, Path target, long createdAtMillis) throws IOException {
+        // Strings are stored once, however many books share them (authors mostly)
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] stringsSize = {0};
+        // Year -> positions of its books in the id index, in id order
+        Map<Integer, List<Integer>> years = new TreeMap<>();
+
+        ByteBuffer records = ByteBuffer.allocate(Math.multiplyExact(books.size(), CatalogSnapshot.RECORD_SIZE));
+        long previousId = Long.MIN_VALUE;
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (i > 0 && book.getId() <= previousId) {
+                throw new IllegalArgumentException("Books must be sorted by id, without repeats: " + book.getId());
+            }
+            previousId = book.getId();
+            records.putLong(book.getId())
+                    .putInt(stringOffset(book.getTitle(), stringOffsets, strings, stringsSize))
+                    .putInt(stringOffset(book.getAuthor(), stringOffsets, strings, stringsSize))
+                    .putInt(stringOffset(book.getIsbn(), stringOffsets, strings, stringsSize))
+                    .putInt(book.getPublishedYear() == null ? CatalogSnapshot.NO_YEAR : book.getPublishedYear());
+            if (book.getPublishedYear() != null) {
+                years.computeIfAbsent(book.getPublishedYear(), year -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int yearIndexOffset = CatalogSnapshot.HEADER_SIZE + records.capacity();
+        int yearIndexSize = years.size() * CatalogSnapshot.YEAR_ENTRY_SIZE
+                + years.values().stream().mapToInt(List::size).sum() * Integer.BYTES;
+        long stringsOffset = (long) yearIndexOffset + yearIndexSize;
+        if (stringsOffset + stringsSize[0] > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog too large for one snapshot file: "
+                    + (stringsOffset + stringsSize[0]) + " bytes");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_SIZE)
+                .putInt(CatalogSnapshot.MAGIC)
+                .putInt(CatalogSnapshot.VERSION)
+                .putInt(books.size())
+                .putInt(years.size())
+                .putInt(yearIndexOffset)
+                .putInt((int) stringsOffset)
+                .putLong(createdAtMillis);
+
+        ByteBuffer yearIndex = ByteBuffer.allocate(yearIndexSize);
+        int first = 0;
+        for (Map.Entry<Integer, List<Integer>> year : years.entrySet()) {
+            yearIndex.putInt(year.getKey()).putInt(first).putInt(year.getValue().size());
+            first += year.getValue().size();
+        }
+        for (List<Integer> positions : years.values()) {
+            positions.forEach(yearIndex::putInt);
+        }
+
+        // Not Files.createTempFile: its owner-only permissions would keep replicas running as
+        // another user from reading the snapshot
+        Path temporary = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writeFully(channel, header.flip());
+                writeFully(channel, records.flip());
+                writeFully(channel, yearIndex.flip());
+                for (byte[] string : strings) {
+                    writeFully(channel, ByteBuffer.allocate(Integer.BYTES + string.length).putInt(string.length).put(string).flip());
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static int stringOffset(String value, Map<String, Integer> offsets, List<byte[]> strings, int[] size) {
+        if (value == null) {
+            return CatalogSnapshot.NO_STRING;
+        }
+        return offsets.computeIfAbsent(value, key -> {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            int offset = size[0];
+            strings.add(bytes);
+            size[0] = Math.addExact(size[0], Integer.BYTES + bytes.length);
+            return offset;
+        });
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
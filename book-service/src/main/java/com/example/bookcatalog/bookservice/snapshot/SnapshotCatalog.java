@@ -0,0 +1,116 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The snapshot a read-only instance is serving, swapped for a newer one when the file is
+ * replaced.
+ *
+ * The snapshot command moves each new file into place, so the file at the path is always a
+ * whole snapshot.  Every pollInterval this checks whether it is a different file from the
+ * one mapped, and if so maps it and swaps it in with one write: a request in flight finishes
+ * on the snapshot it started with, the next one sees the new catalog.  The old mapping is
+ * released once nothing references it.  A file that can't be read is logged and the current
+ * snapshot kept.
+ */
+public class SnapshotCatalog implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotCatalog.class);
+
+    private final Path file;
+    private final CatalogSnapshotConfiguration config;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    // Identifies the mapped file; only touched by start() and the poller
+    private List<Object> loadedVersion;
+
+    private final Meter reloadsMeter;
+    private final Meter failedReloadsMeter;
+
+    private ScheduledFuture<?> pollTask;
+
+    /**
+     * @param scheduler single-threaded, so reloads run one at a time
+     */
+    public SnapshotCatalog(CatalogSnapshotConfiguration config, ScheduledExecutorService scheduler, MetricRegistry metrics) {
+        this.file = Path.of(config.getFile());
+        this.config = config;
+        this.scheduler = scheduler;
+        this.reloadsMeter = metrics.meter(MetricRegistry.name(SnapshotCatalog.class, "reloads"));
+        this.failedReloadsMeter = metrics.meter(MetricRegistry.name(SnapshotCatalog.class, "failed-reloads"));
+        metrics.register(MetricRegistry.name(SnapshotCatalog.class, "books"),
+                (Gauge<Integer>) () -> current.get() == null ? 0 : current.get().size());
+    }
+
+    // Fails startup when there is no snapshot to serve yet.
+    @Override
+    public void start() throws IOException {
+        List<Object> version = version();
+        current.set(CatalogSnapshot.open(file));
+        loadedVersion = version;
+        LOGGER.info("Serving catalog snapshot {} with {} books", file, current.get().size());
+        long interval = config.getPollInterval().toMilliseconds();
+        pollTask = scheduler.scheduleWithFixedDelay(this::reloadQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+        }
+    }
+
+    /**
+     * The snapshot to serve a request from.  Take it once per request, so the whole request
+     * reads one catalog.
+     */
+    public CatalogSnapshot get() {
+        return current.get();
+    }
+
+    // True when a different file was found and swapped in.
+    boolean reloadIfChanged() throws IOException {
+        List<Object> version = version();
+        if (version.equals(loadedVersion)) {
+            return false;
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        current.set(snapshot);
+        loadedVersion = version;
+        reloadsMeter.mark();
+        LOGGER.info("Swapped to catalog snapshot {} with {} books", file, snapshot.size());
+        return true;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reloadIfChanged();
+        } catch (IOException | RuntimeException e) {
+            failedReloadsMeter.mark();
+            LOGGER.warn("Could not load catalog snapshot {}, still serving the previous one: {}", file, e.getMessage(), e);
+        }
+    }
+
+    // A replaced file is a new inode where the file system has them, and otherwise almost
+    // always a new modification time or size.
+    private List<Object> version() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+    }
+}
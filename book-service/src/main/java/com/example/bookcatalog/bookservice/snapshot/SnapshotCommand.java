@@ -0,0 +1,85 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.example.bookcatalog.bookservice.BookServiceConfiguration;
+import com.example.bookcatalog.bookservice.core.Book;
+import io.dropwizard.core.cli.ConfiguredCommand;
+import io.dropwizard.core.setup.Bootstrap;
+import io.dropwizard.db.DataSourceFactory;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code java -jar book-service.jar snapshot config.yaml [--output catalog.snapshot]}
+ *
+ * Writes every book to a catalog snapshot and exits, for a job that refreshes the file the
+ * read-only replicas (catalogSnapshot.serve) map.  The new file replaces the old one in one
+ * step, so it can be written straight to the path they are serving.
+ */
+public class SnapshotCommand extends ConfiguredCommand<BookServiceConfiguration> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotCommand.class);
+
+    // Rows Postgres sends per round trip, rather than the whole table at once
+    private static final int FETCH_SIZE = 1000;
+
+    public SnapshotCommand() {
+        super("snapshot", "Write the catalog to a snapshot file for read-only replicas and exit");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("-o", "--output")
+                .dest("output")
+                .help("snapshot file to write, catalogSnapshot.file by default");
+    }
+
+    @Override
+    protected void run(Bootstrap<BookServiceConfiguration> bootstrap, Namespace namespace,
+                       BookServiceConfiguration configuration) throws Exception {
+        String output = namespace.getString("output") != null ? namespace.getString("output")
+                : configuration.getCatalogSnapshot().getFile();
+        if (output == null || output.isEmpty()) {
+            throw new IllegalArgumentException("No snapshot file: set catalogSnapshot.file or pass --output");
+        }
+        long createdAt = System.currentTimeMillis();
+        List<Book> books = readBooks(configuration.getDataSourceFactory());
+        CatalogSnapshotWriter.write(books, Path.of(output), createdAt);
+        LOGGER.info("Wrote {} books to catalog snapshot {}", books.size(), output);
+    }
+
+    // One consistent read of the table, in id order
+    private static List<Book> readBooks(DataSourceFactory database) throws Exception {
+        Class.forName(database.getDriverClass());
+        try (Connection connection = DriverManager.getConnection(database.getUrl(), database.getUser(), database.getPassword())) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false); // Postgres only honours the fetch size inside a transaction
+            List<Book> books = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, title, author, isbn, published_year FROM books_schema.books ORDER BY id")) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Book book = new Book(rows.getString("title"), rows.getString("author"));
+                        book.setId(rows.getLong("id"));
+                        book.setIsbn(rows.getString("isbn"));
+                        book.setPublishedDate(rows.getObject("published_year", Integer.class));
+                        books.add(book);
+                    }
+                }
+            }
+            connection.commit();
+            return books;
+        }
+    }
+}
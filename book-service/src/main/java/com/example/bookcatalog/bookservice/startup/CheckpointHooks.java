@@ -0,0 +1,79 @@
+package com.example.bookcatalog.bookservice.startup;
+
+import io.dropwizard.lifecycle.ServerLifecycleListener;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Closes the sockets a CRaC checkpoint can't contain and reopens them on restore.
+ *
+ * Before the checkpoint Jetty's connectors stop listening and every pooled database
+ * connection is closed; after restore the connectors start again and each pool opens one
+ * connection up front so the first request doesn't pay for it.  On a JVM without CRaC the
+ * org.crac facade never calls these hooks.
+ *
+ * The global CRaC context only holds resources weakly, so keep a reference to this.
+ */
+public class CheckpointHooks implements Resource, ServerLifecycleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointHooks.class);
+
+    private final List<DataSourceProxy> pools;
+    private volatile Server server;
+
+    public CheckpointHooks(List<DataSourceProxy> pools) {
+        this.pools = pools;
+    }
+
+    public CheckpointHooks register() {
+        Core.getGlobalContext().register(this);
+        return this;
+    }
+
+    @Override
+    public void serverStarted(Server server) {
+        this.server = server;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        LOGGER.info("Preparing for checkpoint");
+        if (server != null) {
+            for (Connector connector : server.getConnectors()) {
+                connector.stop();
+            }
+        }
+        for (DataSourceProxy pool : pools) {
+            // Closes idle connections now and in-use ones as they are returned
+            pool.purge();
+        }
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) throws Exception {
+        for (DataSourceProxy pool : pools) {
+            try (Connection connection = pool.getConnection()) {
+                LOGGER.debug("Reconnected to {}", connection.getMetaData().getURL());
+            } catch (SQLException e) {
+                // The pool keeps retrying on demand; the health check reports the outage
+                LOGGER.warn("Could not reconnect after restore: {}", e.getMessage());
+            }
+        }
+        if (server != null) {
+            for (Connector connector : server.getConnectors()) {
+                connector.start();
+            }
+        }
+        LOGGER.info("Restored from checkpoint");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bookcatalog.bookservice.startup;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import io.dropwizard.core.setup.Environment;
+import jakarta.ws.rs.core.MediaType;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the hot request paths through the JIT before the service takes traffic.
+ *
+ * Once the server has started, a background thread replays a few read-only GETs straight into
+ * Jersey (see {@link InProcessRequests}) and round-trips sample entities through the object
+ * mappers, within the budget set by {@link WarmUpConfiguration}.  Until it finishes, the
+ * "warm-up" health check is unhealthy, so load balancers and readiness probes hold traffic back.
+ */
+public class WarmUp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final List<String> ACCEPT = List.of(MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+
+    private final WarmUpConfiguration config;
+    private final List<String> paths;
+    private final List<ObjectMapper> mappers;
+    private final List<?> samples;
+
+    private volatile boolean done;
+    private volatile int iterations;
+    private volatile long millis;
+
+    /**
+     * @param paths   GETs to replay; they must not change anything
+     * @param mappers the JSON and Smile mappers the resources serialize with
+     * @param samples entities to serialize and read back with each mapper
+     */
+    public WarmUp(WarmUpConfiguration config, List<String> paths, List<ObjectMapper> mappers, List<?> samples) {
+        this.config = config;
+        this.paths = paths;
+        this.mappers = mappers;
+        this.samples = samples;
+    }
+
+    /**
+     * Registers the health check and metrics, and starts warming up once the server is up.
+     * Does nothing when warm-up is disabled.
+     */
+    public void register(Environment environment) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        environment.healthChecks().register("warm-up", new HealthCheck() {
+            @Override
+            protected Result check() {
+                return done ? Result.healthy("Warmed up in %d ms", millis) : Result.unhealthy("Warming up");
+            }
+        });
+        MetricRegistry metrics = environment.metrics();
+        metrics.register(MetricRegistry.name(WarmUp.class, "millis"), (Gauge<Long>) () -> millis);
+        metrics.register(MetricRegistry.name(WarmUp.class, "iterations"), (Gauge<Integer>) () -> iterations);
+        environment.lifecycle().addServerLifecycleListener(server -> {
+            ApplicationHandler jersey = InProcessRequests.handler(environment);
+            new Thread(() -> run(jersey), "jit-warm-up").start();
+        });
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    void run(ApplicationHandler jersey) {
+        long start = System.nanoTime();
+        long deadline = start + config.getMaxDuration().toNanoseconds();
+        try {
+            while (iterations < config.getIterations() && System.nanoTime() < deadline) {
+                for (String path : paths) {
+                    for (String accept : ACCEPT) {
+                        InProcessRequests.get(jersey, path, accept);
+                    }
+                }
+                for (ObjectMapper mapper : mappers) {
+                    for (Object sample : samples) {
+                        mapper.readValue(mapper.writeValueAsBytes(sample), sample.getClass());
+                    }
+                }
+                iterations++;
+            }
+        } catch (Exception e) {
+            // A partial warm-up still helps; never keep the service unready over it
+            LOGGER.warn("JIT warm-up stopped early", e);
+        } finally {
+            millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            done = true;
+        }
+        LOGGER.info("JIT warm-up: {} iterations ({} requests) in {} ms", iterations,
+                iterations * paths.size() * ACCEPT.size(), millis);
+    }
+}
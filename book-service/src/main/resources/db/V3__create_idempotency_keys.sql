@@ -0,0 +1,11 @@
+-- Responses to POST /books made with an Idempotency-Key, replayed to retries.
+-- Rows older than idempotency.ttl are deleted by the service's purge job.
+CREATE TABLE idempotency_keys (
+    key_hash CHAR(64) PRIMARY KEY,        -- SHA-256 of route, client and key
+    request_hash CHAR(64) NOT NULL,       -- SHA-256 of the request body
+    status INTEGER NOT NULL,
+    body TEXT,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys(created_at);
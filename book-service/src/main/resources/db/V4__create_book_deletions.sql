@@ -0,0 +1,6 @@
+-- Deleted books whose reviews review-service has not yet been asked to delete.  Written in
+-- the same transaction as the delete, and removed once review-service has taken the request.
+CREATE TABLE book_deletions (
+    book_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,43 @@
+-- isbn as its 13 digits, whatever form it was entered in ("0-201-61622-X", "978-0-201-61622-4"),
+-- so GET /books/isbn/{isbn} finds a book by any form of its ISBN with one index lookup.  The
+-- application fills it in on every write (Isbn.toIsbn13); this backfills the existing rows.
+-- isbn is widened to take the prefixed forms the validator accepts ("ISBN-13: 978-...").
+ALTER TABLE books ALTER COLUMN isbn TYPE VARCHAR(32);
+ALTER TABLE books ADD COLUMN isbn13 CHAR(13);
+
+-- The SQL twin of Isbn.toIsbn13: NULL unless the check digit is right
+CREATE FUNCTION pg_temp.to_isbn13(isbn TEXT) RETURNS TEXT AS $$
+DECLARE
+    digits TEXT := upper(regexp_replace(regexp_replace(isbn, '^\s*ISBN(-1[03])?:?\s*', '', 'i'), '[- ]', '', 'g'));
+    total INT := 0;
+BEGIN
+    IF digits ~ '^[0-9]{9}[0-9X]$' THEN
+        FOR i IN 1..10 LOOP
+            total := total + (11 - i) * CASE WHEN substr(digits, i, 1) = 'X' THEN 10 ELSE substr(digits, i, 1)::INT END;
+        END LOOP;
+        IF total % 11 <> 0 THEN
+            RETURN NULL;
+        END IF;
+        digits := '978' || left(digits, 9);
+        total := 0;
+        FOR i IN 1..12 LOOP
+            total := total + CASE WHEN i % 2 = 1 THEN 1 ELSE 3 END * substr(digits, i, 1)::INT;
+        END LOOP;
+        RETURN digits || ((10 - total % 10) % 10)::TEXT;
+    ELSIF digits ~ '^97[89][0-9]{10}$' THEN
+        FOR i IN 1..13 LOOP
+            total := total + CASE WHEN i % 2 = 1 THEN 1 ELSE 3 END * substr(digits, i, 1)::INT;
+        END LOOP;
+        RETURN CASE WHEN total % 10 = 0 THEN digits END;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+UPDATE books SET isbn13 = pg_temp.to_isbn13(isbn) WHERE isbn IS NOT NULL;
+
+-- The same ISBN entered twice in different forms: the older book keeps it for lookups
+UPDATE books b SET isbn13 = NULL
+WHERE EXISTS (SELECT 1 FROM books o WHERE o.isbn13 = b.isbn13 AND o.id < b.id);
+
+CREATE UNIQUE INDEX books_isbn13_key ON books (isbn13);
@@ -0,0 +1,43 @@
+-- Authors and which books they wrote, so author lookups use indexes instead of scanning
+-- books.author.  books.author stays as entered; the application keeps these two tables in step
+-- with it on every write (Author.split), and this backfills them from the existing books.
+CREATE TABLE authors (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    -- lower case, single spaces; text_pattern_ops so LIKE 'prefix%' is a range scan in any collation
+    name_key VARCHAR(255) NOT NULL
+);
+CREATE UNIQUE INDEX authors_name_key ON authors (name_key text_pattern_ops);
+
+CREATE TABLE book_authors (
+    book_id INTEGER NOT NULL REFERENCES books (id) ON DELETE CASCADE,
+    author_id BIGINT NOT NULL REFERENCES authors (id),
+    -- the author's place in books.author, from 0
+    position INTEGER NOT NULL,
+    PRIMARY KEY (book_id, author_id)
+);
+-- GET /authors/{id}/books
+CREATE INDEX book_authors_author_id_idx ON book_authors (author_id, book_id);
+
+-- Each book's author names, split as Author.split does; blanks and repeats dropped below
+CREATE TEMPORARY TABLE book_author_names ON COMMIT DROP AS
+SELECT b.id AS book_id,
+       btrim(regexp_replace(part.name, '\s+', ' ', 'g')) AS name,
+       lower(btrim(regexp_replace(part.name, '\s+', ' ', 'g'))) AS name_key,
+       part.ordinality AS ordinality
+FROM books b,
+     regexp_split_to_table(b.author, '\s*(?:;|&| and )\s*') WITH ORDINALITY AS part(name, ordinality);
+
+DELETE FROM book_author_names WHERE name_key = '';
+
+-- The first spelling seen names the author
+INSERT INTO authors (name, name_key)
+SELECT DISTINCT ON (name_key) name, name_key
+FROM book_author_names
+ORDER BY name_key, book_id, ordinality;
+
+INSERT INTO book_authors (book_id, author_id, position)
+SELECT n.book_id, a.id, row_number() OVER (PARTITION BY n.book_id ORDER BY min(n.ordinality)) - 1
+FROM book_author_names n
+JOIN authors a ON a.name_key = n.name_key
+GROUP BY n.book_id, a.id;
@@ -0,0 +1,3 @@
+-- For the year filter of GET /books/search and POST /books/bulk-delete, and the decade facet,
+-- which groups the matching books by published_year.
+CREATE INDEX books_published_year_idx ON books (published_year);
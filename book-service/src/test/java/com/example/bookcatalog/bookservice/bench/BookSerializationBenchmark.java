@@ -0,0 +1,74 @@
+package com.example.bookcatalog.bookservice.bench;
+
+import com.example.bookcatalog.bookservice.core.Book;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.dropwizard.jackson.Jackson;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares serializing a GET /books sized list with the default Dropwizard ObjectMapper
+ * and with the Blackbird module registered (jacksonBlackbird: true).
+ *
+ * Run with: mvn -pl book-service test -Pbenchmark
+ */
+@Tag("benchmark")
+class BookSerializationBenchmark {
+
+    private static final int BOOKS = 10_000;
+    private static final int WARMUP_ITERATIONS = 30;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void benchmarkBookListSerialization() throws Exception {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book("Title " + i, "Author " + (i % 500));
+            book.setId((long) i + 1);
+            book.setIsbn("978-0-00-" + String.format("%06d", i) + "-0");
+            book.setPublishedDate(1900 + i % 125);
+            books.add(book);
+        }
+
+        ObjectMapper plain = Jackson.newObjectMapper();
+        ObjectMapper blackbird = Jackson.newObjectMapper().registerModule(new BlackbirdModule());
+
+        assertThat(blackbird.writeValueAsString(books)).isEqualTo(plain.writeValueAsString(books));
+
+        System.out.printf("Book list of %d, ms per operation%n", BOOKS);
+        System.out.printf("%-10s %12s %12s%n", "mapper", "serialize", "deserialize");
+        report("default", plain, books);
+        report("blackbird", blackbird, books);
+    }
+
+    private static void report(String name, ObjectMapper mapper, List<Book> books) throws Exception {
+        byte[] json = mapper.writeValueAsBytes(books);
+        TypeReference<List<Book>> type = new TypeReference<>() { };
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(books);
+            mapper.readValue(json, type);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(books);
+        }
+        double serializeMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(json, type);
+        }
+        double deserializeMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        System.out.printf("%-10s %12.2f %12.2f%n", name, serializeMs, deserializeMs);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bookcatalog.bookservice.bench;
+
+import com.example.bookcatalog.bookservice.core.Isbn;
+import com.example.bookcatalog.bookservice.core.ValidIsbn;
+import io.dropwizard.jersey.validation.Validators;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Pattern;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the lookahead regex Book.isbn used to be validated with against the check digit
+ * validator that replaced it, over a bulk import's worth of ISBNs in mixed forms: the bare
+ * check, and the same through Bean Validation as POST /books runs it.
+ *
+ * Run with: mvn -pl book-service test -Pbenchmark
+ */
+@Tag("benchmark")
+class IsbnValidationBenchmark {
+
+    private static final String OLD_REGEX = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$";
+
+    private static final int ISBNS = 100_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int ROUNDS = 20;
+
+    static class RegexChecked {
+        @Pattern(regexp = OLD_REGEX, message = "Invalid ISBN format")
+        final String isbn;
+
+        RegexChecked(String isbn) {
+            this.isbn = isbn;
+        }
+    }
+
+    static class DigitChecked {
+        @ValidIsbn
+        final String isbn;
+
+        DigitChecked(String isbn) {
+            this.isbn = isbn;
+        }
+    }
+
+    @Test
+    void benchmarkIsbnValidation() {
+        List<String> isbns = isbns();
+        java.util.regex.Pattern regex = java.util.regex.Pattern.compile(OLD_REGEX);
+        Validator validator = Validators.newValidator();
+        List<RegexChecked> regexBeans = isbns.stream().map(RegexChecked::new).toList();
+        List<DigitChecked> digitBeans = isbns.stream().map(DigitChecked::new).toList();
+
+        assertThat(isbns).allMatch(Isbn::isValid);
+        assertThat(isbns).allMatch(isbn -> regex.matcher(isbn).matches());
+
+        System.out.printf("%d ISBNs, per ISBN%n", ISBNS);
+        System.out.printf("%-22s %10s %10s%n", "validator", "ns", "bytes");
+        report("regex", isbns, isbn -> regex.matcher(isbn).matches());
+        report("check digit", isbns, Isbn::isValid);
+        report("regex @Pattern", regexBeans, bean -> validator.validate(bean).isEmpty());
+        report("check digit @ValidIsbn", digitBeans, bean -> validator.validate(bean).isEmpty());
+    }
+
+    private static <T> void report(String name, List<T> values, Predicate<T> valid) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(values, valid);
+        }
+        long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            run(values, valid);
+        }
+        long operations = (long) ROUNDS * values.size();
+        double nanos = (double) (System.nanoTime() - start) / operations;
+        double bytes = (double) (threads.getThreadAllocatedBytes(threadId) - allocatedStart) / operations;
+        System.out.printf("%-22s %10.1f %10.1f%n", name, nanos, bytes);
+    }
+
+    private static <T> void run(List<T> values, Predicate<T> valid) {
+        int accepted = 0;
+        for (T value : values) {
+            if (valid.test(value)) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(values.size());
+    }
+
+    // A quarter each as bare ISBN-10, hyphenated ISBN-10, bare ISBN-13 and hyphenated ISBN-13
+    private static List<String> isbns() {
+        List<String> isbns = new ArrayList<>(ISBNS);
+        for (int i = 0; i < ISBNS; i++) {
+            String body = String.format("0%02d%06d", i % 100, i);
+            int sum = 0;
+            for (int d = 0; d < 9; d++) {
+                sum += (10 - d) * (body.charAt(d) - '0');
+            }
+            int check = (11 - sum % 11) % 11;
+            String isbn10 = body + (check == 10 ? "X" : String.valueOf(check));
+            String isbn13 = Isbn.toIsbn13(isbn10);
+            isbns.add(switch (i % 4) {
+                case 0 -> isbn10;
+                case 1 -> isbn10.substring(0, 1) + "-" + isbn10.substring(1, 3) + "-" + isbn10.substring(3, 9) + "-" + isbn10.charAt(9);
+                case 2 -> isbn13;
+                default -> isbn13.substring(0, 3) + "-" + isbn13.substring(3, 4) + "-" + isbn13.substring(4, 6)
+                        + "-" + isbn13.substring(6, 12) + "-" + isbn13.charAt(12);
+            });
+        }
+        return isbns;
+    }
+}
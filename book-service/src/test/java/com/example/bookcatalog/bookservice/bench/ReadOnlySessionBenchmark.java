@@ -0,0 +1,157 @@
+package com.example.bookcatalog.bookservice.bench;
+
+import ch.qos.logback.classic.Level;
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.db.BookDAO;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the unit of work GET /books used to run in (read-write, FlushMode.AUTO) with
+ * the read-only, FlushMode.MANUAL one it runs in now, listing 100k books.
+ *
+ * Each run opens a session the way Dropwizard's @UnitOfWork does, lists every book and
+ * commits.  Reported per run: thread CPU time for the query and for the commit (where the
+ * read-write session flushes, dirty checking every loaded book), bytes allocated, and heap
+ * still held by the session just before commit (entities plus, in read-write mode, their
+ * snapshots).
+ *
+ * Run with: mvn -pl book-service test -Pbenchmark
+ */
+@Tag("benchmark")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReadOnlySessionBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 5;
+
+    // Log at INFO like config.yaml; without a logback config the root is DEBUG and
+    // Hibernate's per-row debug messages would swamp the numbers.
+    static {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+    }
+
+    // Keep the whole result in memory; by default H2 spools results over 40k rows to disk.
+    private final DAOTestExtension database = DAOTestExtension.newBuilder()
+            .setUrl("jdbc:h2:mem:bench-" + System.nanoTime() + ";MAX_MEMORY_ROWS=1000000")
+            .addEntityClass(Book.class)
+            .addEntityClass(Author.class)
+            .build();
+
+    @Test
+    void benchmarkFindAllListing() {
+        SessionFactory sessionFactory = database.getSessionFactory();
+        insertBooks(sessionFactory);
+        BookDAO dao = new BookDAO(sessionFactory);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(sessionFactory, dao, false, FlushMode.AUTO);
+            run(sessionFactory, dao, true, FlushMode.MANUAL);
+        }
+
+        System.out.printf("findAll() of %d books, mean of %d runs%n", BOOKS, ITERATIONS);
+        System.out.printf("%-20s %10s %10s %14s %13s%n",
+                "unit of work", "query ms", "commit ms", "allocated MB", "retained MB");
+        report("read-write, AUTO", sessionFactory, dao, false, FlushMode.AUTO);
+        report("read-only, MANUAL", sessionFactory, dao, true, FlushMode.MANUAL);
+    }
+
+    private static void report(String name, SessionFactory sessionFactory, BookDAO dao,
+                               boolean readOnly, FlushMode flushMode) {
+        long query = 0;
+        long commit = 0;
+        long allocated = 0;
+        long retained = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Sample sample = run(sessionFactory, dao, readOnly, flushMode);
+            query += sample.queryNanos;
+            commit += sample.commitNanos;
+            allocated += sample.allocatedBytes;
+            retained += sample.retainedBytes;
+        }
+        System.out.printf("%-20s %10.1f %10.1f %14.1f %13.1f%n", name,
+                query / 1e6 / ITERATIONS,
+                commit / 1e6 / ITERATIONS,
+                allocated / 1048576.0 / ITERATIONS,
+                retained / 1048576.0 / ITERATIONS);
+    }
+
+    // Mirrors UnitOfWorkAspect: configure the session, bind it, run the query, commit.
+    private static Sample run(SessionFactory sessionFactory, BookDAO dao, boolean readOnly, FlushMode flushMode) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long heapBefore = usedHeapAfterGc();
+
+        Sample sample = new Sample();
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(readOnly);
+            session.setHibernateFlushMode(flushMode);
+            ManagedSessionContext.bind(session);
+            Transaction transaction = session.beginTransaction();
+
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+            List<Book> books = dao.findAll();
+            sample.queryNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+            sample.allocatedBytes = threads.getThreadAllocatedBytes(threadId) - allocatedStart;
+            assertThat(books).hasSize(BOOKS);
+
+            sample.retainedBytes = usedHeapAfterGc() - heapBefore;
+
+            cpuStart = threads.getCurrentThreadCpuTime();
+            allocatedStart = threads.getThreadAllocatedBytes(threadId);
+            transaction.commit();
+            sample.commitNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+            sample.allocatedBytes += threads.getThreadAllocatedBytes(threadId) - allocatedStart;
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+        }
+        return sample;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void insertBooks(SessionFactory sessionFactory) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < BOOKS; i++) {
+                Book book = new Book("Title " + i, "Author " + (i % 500));
+                book.setIsbn("978-0-00-" + String.format("%06d", i) + "-0");
+                book.setPublishedDate(1900 + i % 125);
+                session.insert(book);
+            }
+            transaction.commit();
+        }
+    }
+
+    private static final class Sample {
+        private long queryNanos;
+        private long commitNanos;
+        private long allocatedBytes;
+        private long retainedBytes;
+    }
+}
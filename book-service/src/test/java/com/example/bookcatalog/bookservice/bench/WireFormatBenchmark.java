@@ -0,0 +1,76 @@
+package com.example.bookcatalog.bookservice.bench;
+
+import com.example.bookcatalog.bookservice.core.Book;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.dropwizard.jackson.Jackson;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload size and encode/decode time of GET /books responses as JSON vs Smile.
+ *
+ * Run with: mvn -pl book-service test -Pbenchmark
+ */
+@Tag("benchmark")
+class WireFormatBenchmark {
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() { };
+
+    @Test
+    void benchmarkJsonVersusSmile() throws Exception {
+        ObjectMapper json = Jackson.newObjectMapper();
+        ObjectMapper smile = Jackson.newObjectMapper(new SmileFactory());
+
+        System.out.printf("%-8s %8s %12s %12s %12s%n", "books", "format", "bytes", "encode ms", "decode ms");
+        for (int size : SIZES) {
+            List<Book> books = books(size);
+            int iterations = Math.max(5, 200_000 / size);
+            report(size, "json", json, books, iterations);
+            report(size, "smile", smile, books, iterations);
+        }
+    }
+
+    private static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = new Book("Title " + i, "Author " + (i % 500));
+            book.setId((long) i + 1);
+            book.setIsbn("978-0-00-" + String.format("%06d", i) + "-0");
+            book.setPublishedDate(1900 + i % 125);
+            books.add(book);
+        }
+        return books;
+    }
+
+    private static void report(int size, String name, ObjectMapper mapper, List<Book> books, int iterations)
+            throws Exception {
+        byte[] payload = mapper.writeValueAsBytes(books);
+        assertThat(mapper.readValue(payload, BOOK_LIST)).hasSize(size);
+
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(books), BOOK_LIST);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(books);
+        }
+        double encodeMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(payload, BOOK_LIST);
+        }
+        double decodeMs = (System.nanoTime() - start) / 1e6 / iterations;
+
+        System.out.printf("%-8d %8s %12d %12.2f %12.2f%n", size, name, payload.length, encodeMs, decodeMs);
+    }
+}
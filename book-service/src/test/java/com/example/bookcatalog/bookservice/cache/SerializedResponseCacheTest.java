@@ -0,0 +1,163 @@
+package com.example.bookcatalog.bookservice.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.db.ReplicaRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.DataSize;
+import io.dropwizard.util.Duration;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SerializedResponseCacheTest {
+
+    private final ObjectMapper mapper = Jackson.newObjectMapper();
+    private final SessionFactory sessionFactory = mock(SessionFactory.class);
+    private final Transaction transaction = mock(Transaction.class);
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final SerializedCacheConfiguration config = new SerializedCacheConfiguration();
+
+    @BeforeEach
+    void setUp() {
+        Session session = mock(Session.class);
+        when(sessionFactory.getCurrentSession()).thenReturn(session);
+        when(session.getTransaction()).thenReturn(transaction);
+    }
+
+    @Test
+    void testServesCachedJson() throws IOException {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(sessionFactory, config, mapper, metrics);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        String first = json(cache.book(1L, () -> load(loads, book(1L, "The Hobbit"))).orElseThrow());
+        String second = json(cache.book(1L, () -> load(loads, book(1L, "Changed"))).orElseThrow());
+        Optional<StreamingOutput> missing = cache.book(2L, Optional::empty);
+
+        // Assert
+        assertThat(first).isEqualTo(mapper.writeValueAsString(book(1L, "The Hobbit")));
+        assertThat(second).isEqualTo(first);
+        assertThat(loads).hasValue(1);
+        assertThat(missing).isEmpty();
+        assertThat(metrics.meter("com.example.bookcatalog.bookservice.cache.SerializedResponseCache.hits").getCount()).isEqualTo(1);
+        assertThat(metrics.getGauges().get("com.example.bookcatalog.bookservice.cache.SerializedResponseCache.bytes").getValue())
+                .isEqualTo((long) first.length());
+    }
+
+    @Test
+    void testCommittedWriteInvalidatesBookAndLists() throws IOException {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(sessionFactory, config, mapper, metrics);
+        cache.book(1L, () -> Optional.of(book(1L, "The Hobbit")));
+        cache.book(2L, () -> Optional.of(book(2L, "Dune")));
+        cache.list("books", () -> List.of(book(1L, "The Hobbit"), book(2L, "Dune")));
+
+        // Act
+        cache.booksChanged(List.of(1L));
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction).registerSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+        int afterRollback = cache.entries();
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        // Assert
+        assertThat(afterRollback).isEqualTo(3);
+        assertThat(cache.entries()).isEqualTo(1);
+        assertThat(json(cache.book(1L, () -> Optional.of(book(1L, "There and Back Again"))).orElseThrow()))
+                .contains("There and Back Again");
+        assertThat(json(cache.book(2L, () -> Optional.of(book(2L, "Changed"))).orElseThrow())).contains("Dune");
+    }
+
+    @Test
+    void testDoesNotStoreResponseLoadedDuringWrite() {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(sessionFactory, config, mapper, metrics);
+
+        // Act
+        cache.book(1L, () -> {
+            cache.invalidate(List.of(1L)); // a write commits while this read's query runs
+            return Optional.of(book(1L, "The Hobbit"));
+        });
+
+        // Assert
+        assertThat(cache.entries()).isZero();
+    }
+
+    @Test
+    void testDoesNotStoreResponseReadFromReplica() throws IOException {
+        // Arrange
+        SerializedResponseCache cache = new SerializedResponseCache(sessionFactory, config, mapper, metrics);
+
+        // Act
+        String sent;
+        ReplicaRoutingDataSource.readFromReplica(true);
+        try {
+            sent = json(cache.book(1L, () -> Optional.of(book(1L, "The Hobbit"))).orElseThrow());
+        } finally {
+            ReplicaRoutingDataSource.clearRoute();
+        }
+
+        // Assert
+        assertThat(sent).contains("The Hobbit");
+        assertThat(cache.entries()).isZero();
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedAndExpired() throws IOException {
+        // Arrange
+        int size = mapper.writeValueAsBytes(book(1L, "The Hobbit")).length;
+        config.setMaxSize(DataSize.bytes(2L * size));
+        SerializedResponseCache cache = new SerializedResponseCache(sessionFactory, config, mapper, metrics);
+        config.setMaxAge(Duration.milliseconds(0));
+        SerializedResponseCache expiring = new SerializedResponseCache(sessionFactory, config, mapper, new MetricRegistry());
+
+        // Act
+        cache.book(1L, () -> Optional.of(book(1L, "The Hobbit")));
+        cache.book(2L, () -> Optional.of(book(2L, "The Hobbit")));
+        cache.book(1L, () -> Optional.of(book(1L, "Changed")));
+        cache.book(3L, () -> Optional.of(book(3L, "The Hobbit")));
+        expiring.book(1L, () -> Optional.of(book(1L, "The Hobbit")));
+
+        // Assert
+        assertThat(cache.entries()).isEqualTo(2);
+        assertThat(json(cache.book(1L, () -> Optional.of(book(1L, "Changed"))).orElseThrow())).contains("The Hobbit");
+        assertThat(json(cache.book(2L, () -> Optional.of(book(2L, "Changed"))).orElseThrow())).contains("Changed");
+        assertThat(json(expiring.book(1L, () -> Optional.of(book(1L, "Changed"))).orElseThrow())).contains("Changed");
+    }
+
+    private static Optional<Book> load(AtomicInteger loads, Book book) {
+        loads.incrementAndGet();
+        return Optional.of(book);
+    }
+
+    private static Book book(long id, String title) {
+        Book book = new Book(title, "J.R.R. Tolkien");
+        book.setId(id);
+        return book;
+    }
+
+    private static String json(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
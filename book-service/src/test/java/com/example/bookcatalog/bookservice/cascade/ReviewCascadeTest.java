@@ -0,0 +1,148 @@
+package com.example.bookcatalog.bookservice.cascade;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import com.sun.net.httpserver.HttpServer;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewCascadeTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(BookDeletion.class)
+            .addEntityClass(Book.class)
+            .addEntityClass(Author.class)
+            .build();
+
+    // Stands in for review-service's admin port
+    private HttpServer reviewService;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+
+    private ScheduledExecutorService scheduler;
+    private ReviewCascade cascade;
+
+    @BeforeEach
+    void setup() throws IOException {
+        reviewService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        reviewService.createContext("/tasks/purge-book-reviews", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        reviewService.start();
+
+        ReviewCascadeConfiguration config = new ReviewCascadeConfiguration();
+        config.setReviewServiceAdminUrl("http://localhost:" + reviewService.getAddress().getPort());
+        scheduler = mock(ScheduledExecutorService.class);
+        cascade = new ReviewCascade(daoTestRule.getSessionFactory(), config, scheduler,
+                HttpClient.newHttpClient(), new MetricRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewService.stop(0);
+    }
+
+    @Test
+    void testDeletionIsSentOnceCommitted() {
+        daoTestRule.inTransaction(() -> cascade.bookDeleted(42));
+        verify(scheduler).execute(any());
+
+        cascade.deliverPending();
+
+        assertThat(requests).containsExactly("POST /tasks/purge-book-reviews?bookId=42");
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    void testNothingIsSentIfTheDeleteRollsBack() {
+        try {
+            daoTestRule.inTransaction(() -> {
+                cascade.bookDeleted(42);
+                throw new IllegalStateException("delete failed");
+            });
+        } catch (IllegalStateException expected) {
+            // The unit of work rolls back
+        }
+
+        cascade.deliverPending();
+
+        verify(scheduler, never()).execute(any());
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void testRefusedDeletionIsKeptForTheNextRetry() {
+        daoTestRule.inTransaction(() -> cascade.bookDeleted(42));
+        status = 503;
+
+        cascade.deliverPending();
+
+        assertThat(pending()).containsExactly(42L);
+
+        status = 200;
+        cascade.deliverPending();
+
+        assertThat(requests).hasSize(2);
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    void testBulkDeletionRecordsOnlyExistingBooksAndSendsThemTogether() {
+        long first = daoTestRule.inTransaction(() -> {
+            daoTestRule.getSessionFactory().getCurrentSession().persist(new Book("One", "Author"));
+            return daoTestRule.getSessionFactory().getCurrentSession()
+                    .createQuery("SELECT min(b.id) FROM Book b", Long.class).getSingleResult();
+        });
+
+        daoTestRule.inTransaction(() -> cascade.booksDeleting(List.of(first, first + 1000)));
+        assertThat(pending()).containsExactly(first);
+
+        cascade.deliverPending();
+
+        assertThat(requests).containsExactly("POST /tasks/purge-book-reviews?bookId=" + first);
+        assertThat(pending()).isEmpty();
+    }
+
+    @Test
+    void testPendingDeletionsAreSentInBatches() {
+        daoTestRule.inTransaction(() -> {
+            for (long bookId = 1; bookId <= 150; bookId++) {
+                cascade.bookDeleted(bookId);
+            }
+        });
+
+        cascade.deliverPending();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0)).startsWith("POST /tasks/purge-book-reviews?bookId=");
+        assertThat(requests.get(1).split("bookId=")).hasSize(51);
+        assertThat(pending()).isEmpty();
+    }
+
+    private List<Long> pending() {
+        return daoTestRule.inTransaction(() -> daoTestRule.getSessionFactory().getCurrentSession()
+                .createQuery("SELECT d.bookId FROM BookDeletion d", Long.class)
+                .list());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bookcatalog.bookservice.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorTest {
+
+    @Test
+    void testSplitsOnAmpersandSemicolonAndAnd() {
+        assertThat(Author.split("Andrew Hunt & David Thomas")).containsExactly("Andrew Hunt", "David Thomas");
+        assertThat(Author.split(" Kernighan;Ritchie ")).containsExactly("Kernighan", "Ritchie");
+        assertThat(Author.split("Abelson and  Sussman")).containsExactly("Abelson", "Sussman");
+    }
+
+    @Test
+    void testKeepsCommasAndDropsBlanksAndRepeats() {
+        assertThat(Author.split("Tolkien, J.R.R.")).containsExactly("Tolkien, J.R.R.");
+        assertThat(Author.split("Anderson & ; & anderson")).containsExactly("Anderson");
+        assertThat(Author.split(null)).isEmpty();
+    }
+
+    @Test
+    void testKeyIgnoresCaseAndSpacing() {
+        assertThat(Author.key("  J.R.R.   Tolkien ")).isEqualTo(Author.key("j.r.r. tolkien"));
+    }
+}
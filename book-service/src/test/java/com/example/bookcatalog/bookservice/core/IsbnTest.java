@@ -0,0 +1,44 @@
+package com.example.bookcatalog.bookservice.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnTest {
+
+    @Test
+    void testAcceptsTheCommonForms() {
+        assertThat(Isbn.isValid("0201616220")).isFalse();
+        assertThat(Isbn.isValid("020161622X")).isTrue();
+        assertThat(Isbn.isValid("0-201-61622-x")).isTrue();
+        assertThat(Isbn.isValid("9780201616224")).isTrue();
+        assertThat(Isbn.isValid("978-0-201-61622-4")).isTrue();
+        assertThat(Isbn.isValid("978 0 201 61622 4")).isTrue();
+        assertThat(Isbn.isValid("ISBN-13: 978-0-201-61622-4")).isTrue();
+        assertThat(Isbn.isValid("ISBN 0-201-61622-X")).isTrue();
+        assertThat(Isbn.isValid("979-10-90636-07-1")).isTrue();
+    }
+
+    @Test
+    void testRejectsWrongCheckDigitsAndMalformedText() {
+        assertThat(Isbn.isValid(null)).isFalse();
+        assertThat(Isbn.isValid("")).isFalse();
+        assertThat(Isbn.isValid("978-0-201-61622-5")).isFalse();
+        assertThat(Isbn.isValid("977-0-201-61622-4")).isFalse();
+        assertThat(Isbn.isValid("97802016162240")).isFalse();
+        assertThat(Isbn.isValid("978--0201616224")).isFalse();
+        assertThat(Isbn.isValid("-9780201616224")).isFalse();
+        assertThat(Isbn.isValid("9780201616224-")).isFalse();
+        assertThat(Isbn.isValid("02016X622X")).isFalse();
+        assertThat(Isbn.isValid("978020161622X")).isFalse();
+        assertThat(Isbn.isValid("978-0-201-61622-4a")).isFalse();
+    }
+
+    @Test
+    void testEveryFormNormalizesToTheSameIsbn13() {
+        assertThat(Isbn.toIsbn13("0-201-61622-X")).isEqualTo("9780201616224");
+        assertThat(Isbn.toIsbn13("ISBN-13: 978-0-201-61622-4")).isEqualTo("9780201616224");
+        assertThat(Isbn.toIsbn13("0-306-40615-2")).isEqualTo("9780306406157");
+        assertThat(Isbn.toIsbn13("0-306-40615-3")).isNull();
+    }
+}
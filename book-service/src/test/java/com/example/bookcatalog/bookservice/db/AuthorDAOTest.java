@@ -0,0 +1,110 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class AuthorDAOTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(Book.class)
+            .addEntityClass(Author.class)
+            .build();
+
+    private BookDAO bookDAO;
+    private AuthorDAO authorDAO;
+
+    @BeforeEach
+    void setUp() {
+        bookDAO = new BookDAO(daoTestRule.getSessionFactory());
+        authorDAO = new AuthorDAO(daoTestRule.getSessionFactory());
+    }
+
+    @Test
+    void testBooksShareTheirAuthors() {
+        // Arrange
+        Book pragmatic = daoTestRule.inTransaction(() -> bookDAO.create(new Book("The Pragmatic Programmer", "Andrew Hunt & David Thomas")));
+        Book ruby = daoTestRule.inTransaction(() -> bookDAO.create(new Book("Programming Ruby", "david thomas")));
+        daoTestRule.inTransaction(() -> bookDAO.create(new Book("Other", "Someone Else")));
+
+        // Act
+        List<Author> davids = daoTestRule.inTransaction(() -> authorDAO.findByPrefix("DAV", 10));
+        List<Book> books = daoTestRule.inTransaction(() -> authorDAO.findBooks(davids.get(0).getId(), 10));
+
+        // Assert
+        assertThat(davids).extracting(Author::getName).containsExactly("David Thomas");
+        assertThat(books).extracting(Book::getId).containsExactly(pragmatic.getId(), ruby.getId());
+    }
+
+    @Test
+    void testChangingTheAuthorTextRelinksTheBook() {
+        // Arrange
+        Book book = daoTestRule.inTransaction(() -> bookDAO.create(new Book("Title", "First Author")));
+
+        // Act
+        daoTestRule.inTransaction(() -> {
+            Book loaded = bookDAO.findById(book.getId()).orElseThrow();
+            loaded.setAuthor("Second Author; First Author");
+            bookDAO.update(loaded);
+        });
+
+        // Assert
+        List<String> names = daoTestRule.inTransaction(() -> {
+            daoTestRule.getSessionFactory().getCurrentSession().clear();
+            return bookDAO.findById(book.getId()).orElseThrow().getAuthors().stream().map(Author::getName).toList();
+        });
+        assertThat(names).containsExactly("Second Author", "First Author");
+        assertThat(daoTestRule.inTransaction(() -> authorDAO.findByPrefix("", 10))).hasSize(2);
+    }
+
+    @Test
+    void testPrefixIsMatchedLiterally() {
+        // Arrange
+        daoTestRule.inTransaction(() -> bookDAO.create(new Book("Title", "100% Author & 100 Author")));
+
+        // Act
+        List<Author> found = daoTestRule.inTransaction(() -> authorDAO.findByPrefix("100%", 10));
+
+        // Assert
+        assertThat(found).extracting(Author::getName).containsExactly("100% Author");
+    }
+
+    @Test
+    void testBulkDeleteUnlinksTheAuthors() {
+        // Arrange
+        Book book = daoTestRule.inTransaction(() -> bookDAO.create(new Book("Title", "Lone Author")));
+        long authorId = daoTestRule.inTransaction(() -> authorDAO.findByPrefix("lone", 1).get(0).getId());
+
+        // Act
+        int deleted = daoTestRule.inTransaction(() -> bookDAO.deleteByIds(List.of(book.getId())));
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        assertThat(daoTestRule.inTransaction(() -> authorDAO.findBooks(authorId, 10))).isEmpty();
+    }
+
+    @Test
+    void testAuthorAddedConcurrentlyIsReadBack() {
+        // Arrange
+        daoTestRule.inTransaction(() -> bookDAO.create(new Book("Title", "Same Author")));
+
+        // Act: the insert a concurrent resolve would make after missing the author in its lookup
+        Book book = daoTestRule.inTransaction(() -> {
+            authorDAO.insertMissing(List.of("same author", "New Author"));
+            return bookDAO.create(new Book("Other", "Same Author & New Author"));
+        });
+
+        // Assert
+        assertThat(book.getAuthors()).extracting(Author::getName).containsExactly("Same Author", "New Author");
+        assertThat(daoTestRule.inTransaction(() -> authorDAO.findByPrefix("", 10))).hasSize(2);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.bookcatalog.bookservice.db;
 
+import com.example.bookcatalog.bookservice.core.Author;
 import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.core.FacetCount;
+import com.example.bookcatalog.bookservice.core.Isbn;
 import io.dropwizard.testing.junit5.DAOTestExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,15 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @ExtendWith(DropwizardExtensionsSupport.class)
 class BookDAOTest {
 
     private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
             .addEntityClass(Book.class)
+            .addEntityClass(Author.class)
             .build();
 
     private BookDAO bookDAO;
@@ -105,4 +112,124 @@ class BookDAOTest {
         // Assert
         assertThat(deleted).isEmpty();
     }
+
+    @Test
+    void testFindAllSelectsOnlyRequestedFields() {
+        // Arrange
+        Book created = daoTestRule.inTransaction(() -> bookDAO.create(new Book("Projected", "Author")));
+        FieldProjection projection = FieldProjection.parse("title, id", BookDAO.FIELDS);
+
+        // Act
+        List<Map<String, Object>> rows = bookDAO.findAll(projection);
+        Map<String, Object> row = bookDAO.findById(created.getId(), projection).orElseThrow();
+
+        // Assert
+        assertThat(rows).contains(Map.of("title", "Projected", "id", created.getId()));
+        assertThat(row.keySet()).containsExactly("title", "id");
+    }
+
+    @Test
+    void testSearchWithProjectionFiltersInQuery() {
+        // Arrange
+        daoTestRule.inTransaction(() -> {
+            bookDAO.create(new Book("The 100% Guide", "Jane Doe"));
+            bookDAO.create(new Book("The 100 Guide", "Jane Doe"));
+            bookDAO.create(new Book("Other", "John Roe"));
+            return null;
+        });
+        FieldProjection projection = FieldProjection.parse("title", BookDAO.FIELDS);
+
+        // Act
+        List<Map<String, Object>> byAuthor = bookDAO.search(null, "JANE", null, projection);
+        List<Map<String, Object>> byTitle = bookDAO.search("100%", null, null, projection);
+
+        // Assert
+        assertThat(byAuthor).extracting(row -> row.get("title"))
+                .containsExactlyInAnyOrder("The 100% Guide", "The 100 Guide");
+        assertThat(byTitle).extracting(row -> row.get("title")).containsExactly("The 100% Guide");
+    }
+
+    @Test
+    void testUnknownFieldIsRejected() {
+        assertThatThrownBy(() -> FieldProjection.parse("id,price", BookDAO.FIELDS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("price");
+        assertThat(FieldProjection.parse(" ", BookDAO.FIELDS)).isNull();
+    }
+
+    @Test
+    void testBulkDeleteWalksYearInIdOrder() {
+        // Arrange
+        List<Long> ids = daoTestRule.inTransaction(() -> List.of(
+                bookDAO.create(bookFrom(1999)).getId(),
+                bookDAO.create(bookFrom(2005)).getId(),
+                bookDAO.create(bookFrom(1999)).getId(),
+                bookDAO.create(bookFrom(1999)).getId()));
+
+        // Act
+        List<Long> first = bookDAO.idsPublishedIn(1999, Long.MIN_VALUE, 2);
+        List<Long> second = bookDAO.idsPublishedIn(1999, first.get(1), 2);
+        int deleted = daoTestRule.inTransaction(() -> bookDAO.deleteByIds(first));
+
+        // Assert
+        assertThat(first).containsExactly(ids.get(0), ids.get(2));
+        assertThat(second).containsExactly(ids.get(3));
+        assertThat(deleted).isEqualTo(2);
+        assertThat(bookDAO.findAll()).extracting(Book::getId).containsExactlyInAnyOrder(ids.get(1), ids.get(3));
+    }
+
+    @Test
+    void testFindByIsbn13MatchesAnyFormItWasEnteredIn() {
+        // Arrange
+        Book book = new Book("The Pragmatic Programmer", "Andrew Hunt");
+        book.setIsbn("0-201-61622-X");
+        daoTestRule.inTransaction(() -> bookDAO.create(book));
+
+        // Act
+        Optional<Book> found = bookDAO.findByIsbn13(Isbn.toIsbn13("978-0-201-61622-4"));
+
+        // Assert
+        assertThat(found).map(Book::getIsbn).contains("0-201-61622-X");
+        assertThat(bookDAO.findByIsbn13("9780306406157")).isEmpty();
+    }
+
+    @Test
+    void testFacetsCountEveryMatchNotJustThePage() {
+        // Arrange
+        daoTestRule.inTransaction(() -> {
+            bookDAO.create(bookFrom(1994, "Ann Author"));
+            bookDAO.create(bookFrom(1999, "Ann Author & Bob Writer"));
+            bookDAO.create(bookFrom(2003, "Bob Writer"));
+            bookDAO.create(bookFrom(2003, "Bob Writer"));
+            bookDAO.create(new Book("Title undated", "Ann Author"));
+        });
+
+        // Act
+        List<?> page = bookDAO.searchPage("title", null, null, null, 0, 2);
+        long total = bookDAO.countMatching("title", null, null);
+        List<FacetCount> decades = bookDAO.countByDecade("title", null, null);
+        List<FacetCount> authors = bookDAO.countByAuthor("title", null, null, 10);
+        List<FacetCount> topAuthor = bookDAO.countByAuthor("title", null, 2003, 1);
+
+        // Assert
+        assertThat(page).hasSize(2);
+        assertThat(total).isEqualTo(5);
+        assertThat(decades).extracting(FacetCount::getValue, FacetCount::getCount)
+                .containsExactly(tuple(1990, 2L), tuple(2000, 2L));
+        assertThat(authors).extracting(FacetCount::getValue, FacetCount::getCount)
+                .containsExactly(tuple("Ann Author", 3L), tuple("Bob Writer", 3L));
+        assertThat(topAuthor).extracting(FacetCount::getValue).containsExactly("Bob Writer");
+    }
+
+    private static Book bookFrom(int year, String author) {
+        Book book = new Book("Title " + year, author);
+        book.setPublishedDate(year);
+        return book;
+    }
+
+    private static Book bookFrom(int year) {
+        Book book = new Book("Title " + year, "Author");
+        book.setPublishedDate(year);
+        return book;
+    }
 }
@@ -0,0 +1,107 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.util.Duration;
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolGovernorTest {
+
+    private ConnectionBudgetConfiguration budget;
+    private DataSourceFactory database;
+    private DataSourceProxy dataSource;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setup() {
+        budget = new ConnectionBudgetConfiguration();
+        budget.setClusterMaxConnections(40);
+        budget.setReplicas(4);
+        budget.setAdaptive(true);
+        budget.setHeadroom(1.5);
+        budget.setAdjustInterval(Duration.hours(1));
+
+        database = new DataSourceFactory();
+        database.setMinSize(2);
+        database.setMaxSize(20);
+
+        dataSource = mock(DataSourceProxy.class);
+        pool = mock(ConnectionPool.class);
+        when(dataSource.getPool()).thenReturn(pool);
+    }
+
+    private ConnectionPoolGovernor newGovernor() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        ConnectionPoolGovernor governor = new ConnectionPoolGovernor(budget, database, dataSource, scheduler,
+                new MetricRegistry());
+        governor.start();
+        verify(scheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any());
+        return governor;
+    }
+
+    @Test
+    void testTargetSizeIsBoundedByMinSizeAndPerPodBudget() {
+        ConnectionPoolGovernor governor = newGovernor();
+
+        assertThat(governor.targetSize(0)).isEqualTo(2);
+        assertThat(governor.targetSize(4)).isEqualTo(6);
+        // 40 connections / 4 replicas = 10 per pod, below maxSize 20
+        assertThat(governor.targetSize(100)).isEqualTo(10);
+    }
+
+    @Test
+    void testStartCapsPoolAtPerPodBudget() {
+        ConnectionPoolGovernor governor = newGovernor();
+
+        assertThat(governor.getTargetSize()).isEqualTo(10);
+        verify(dataSource).setMaxActive(10);
+    }
+
+    @Test
+    void testShrinksToObservedDemandAfterAdjustInterval() {
+        budget.setAdjustInterval(Duration.milliseconds(0));
+        ConnectionPoolGovernor governor = newGovernor();
+        when(pool.getActive()).thenReturn(2);
+        when(pool.getWaitCount()).thenReturn(0);
+
+        governor.sample();
+
+        assertThat(governor.getTargetSize()).isEqualTo(3);
+        verify(dataSource).setMaxActive(3);
+    }
+
+    @Test
+    void testGrowsImmediatelyWhenCallersWait() {
+        budget.setAdjustInterval(Duration.milliseconds(0));
+        ConnectionPoolGovernor governor = newGovernor();
+        when(pool.getActive()).thenReturn(2);
+        governor.sample();
+
+        budget.setAdjustInterval(Duration.hours(1));
+        when(pool.getActive()).thenReturn(3);
+        when(pool.getWaitCount()).thenReturn(2);
+        governor.sample();
+
+        assertThat(governor.getTargetSize()).isEqualTo(8);
+        verify(dataSource).setMaxActive(eq(8));
+    }
+
+    @Test
+    void testWarnIfOverBudget() {
+        assertThat(ConnectionPoolGovernor.warnIfOverBudget(budget, database)).isTrue();
+
+        database.setMaxSize(10);
+        assertThat(ConnectionPoolGovernor.warnIfOverBudget(budget, database)).isFalse();
+    }
+}
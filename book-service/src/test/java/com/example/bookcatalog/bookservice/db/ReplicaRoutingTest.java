@@ -0,0 +1,174 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.db.ManagedDataSource;
+import io.dropwizard.hibernate.UnitOfWork;
+import io.dropwizard.util.Duration;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingTest {
+
+    private ManagedDataSource primary;
+    private ManagedDataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        primary = mock(ManagedDataSource.class);
+        replica = mock(ManagedDataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReplicaRoutingDataSource(primary, replica, new MetricRegistry());
+    }
+
+    @AfterEach
+    void clearRoute() {
+        ReplicaRoutingDataSource.clearRoute();
+    }
+
+    @Test
+    void testConnectionsGoToPrimaryUnlessRequested() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        ReplicaRoutingDataSource.readFromReplica(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaLagsOrIsDown() throws SQLException {
+        ReplicaRoutingDataSource.readFromReplica(true);
+
+        routing.setReplicaAvailable(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        routing.setReplicaAvailable(true);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routing.isReplicaAvailable()).isFalse();
+    }
+
+    @Test
+    void testOnlyReadOnlyUnitsOfWorkAreRoutedToReplica() throws Exception {
+        ReadReplicaRoutingFilter filter = filterFor("readOnly");
+        filter.filter(request("GET", Map.of()));
+        assertThat(ReplicaRoutingDataSource.isReadFromReplica()).isTrue();
+
+        filter = filterFor("readWrite");
+        filter.filter(request("GET", Map.of()));
+        assertThat(ReplicaRoutingDataSource.isReadFromReplica()).isFalse();
+    }
+
+    @Test
+    void testWriteMakesClientStickToPrimary() throws Exception {
+        ReadReplicaRoutingFilter filter = filterFor("readWrite");
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        ContainerResponseContext response = mock(ContainerResponseContext.class);
+        when(response.getStatusInfo()).thenReturn(Response.Status.CREATED);
+        when(response.getHeaders()).thenReturn(headers);
+
+        filter.filter(request("POST", Map.of()), response);
+
+        NewCookie cookie = (NewCookie) headers.getFirst(HttpHeaders.SET_COOKIE);
+        assertThat(cookie.getName()).isEqualTo(ReadReplicaRoutingFilter.STICKY_COOKIE);
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+
+        // The same client's next read stays on the primary...
+        filter = filterFor("readOnly");
+        filter.filter(request("GET", Map.of(cookie.getName(), cookie.toCookie())));
+        assertThat(ReplicaRoutingDataSource.isReadFromReplica()).isFalse();
+
+        // ...until the window has passed.
+        Cookie expired = new Cookie(cookie.getName(), Long.toString(System.currentTimeMillis() - 1));
+        filter.filter(request("GET", Map.of(cookie.getName(), expired)));
+        assertThat(ReplicaRoutingDataSource.isReadFromReplica()).isTrue();
+    }
+
+    @Test
+    void testReadOnlyPostDoesNotStickToPrimary() throws Exception {
+        ReadReplicaRoutingFilter filter = filterFor("readOnly");
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        ContainerResponseContext response = mock(ContainerResponseContext.class);
+        when(response.getStatusInfo()).thenReturn(Response.Status.OK);
+        when(response.getHeaders()).thenReturn(headers);
+
+        filter.filter(request("POST", Map.of()), response);
+
+        assertThat(headers).doesNotContainKey(HttpHeaders.SET_COOKIE);
+    }
+
+    @Test
+    void testLagMonitorTakesLaggingReplicaOutOfRotation() throws SQLException {
+        ReadReplicaConfiguration config = new ReadReplicaConfiguration();
+        config.setMaxLag(Duration.milliseconds(500));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, config,
+                mock(ScheduledExecutorService.class), new MetricRegistry());
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_QUERY)).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+
+        when(rs.getDouble(1)).thenReturn(1500.0);
+        monitor.check();
+        assertThat(monitor.getLagMillis()).isEqualTo(1500);
+        assertThat(routing.isReplicaAvailable()).isFalse();
+
+        when(rs.getDouble(1)).thenReturn(0.0);
+        monitor.check();
+        assertThat(routing.isReplicaAvailable()).isTrue();
+
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_QUERY)).thenThrow(new SQLException("replica down"));
+        monitor.check();
+        assertThat(routing.isReplicaAvailable()).isFalse();
+    }
+
+    private static ReadReplicaRoutingFilter filterFor(String methodName) throws NoSuchMethodException {
+        Method method = Resource.class.getDeclaredMethod(methodName);
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        when(resourceInfo.getResourceMethod()).thenReturn(method);
+        return new ReadReplicaRoutingFilter(Duration.seconds(5), resourceInfo);
+    }
+
+    private static ContainerRequestContext request(String method, Map<String, Cookie> cookies) {
+        ContainerRequestContext request = mock(ContainerRequestContext.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getCookies()).thenReturn(cookies);
+        return request;
+    }
+
+    static class Resource {
+        @UnitOfWork(readOnly = true)
+        void readOnly() {
+        }
+
+        @UnitOfWork
+        void readWrite() {
+        }
+    }
+}
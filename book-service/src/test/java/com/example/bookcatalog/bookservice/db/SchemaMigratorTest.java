@@ -0,0 +1,92 @@
+package com.example.bookcatalog.bookservice.db;
+
+import io.dropwizard.db.DataSourceFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaMigratorTest {
+
+    private DataSourceFactory database;
+    private SchemaMigrator migrator;
+
+    @BeforeEach
+    void setup() {
+        database = new DataSourceFactory();
+        database.setUrl("jdbc:h2:mem:migrator-" + System.nanoTime() + ";DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        database.setUser("sa");
+        database.setPassword("");
+        migrator = new SchemaMigrator(database, "test_schema", "flyway_schema_history", "db-test");
+    }
+
+    @Test
+    void testFirstStartMigratesAndRecordsFingerprint() throws SQLException {
+        assertThat(migrator.isUpToDate()).isFalse();
+
+        migrator.runOnStartup(SchemaMigrator.OnStartup.IF_CHANGED);
+
+        assertThat(tableExists("widgets")).isTrue();
+        assertThat(migrator.isUpToDate()).isTrue();
+    }
+
+    @Test
+    void testUnchangedScriptsSkipFlyway() throws SQLException {
+        migrator.migrate();
+        // If Flyway ran again it would recreate its history table
+        execute("DROP TABLE test_schema.flyway_schema_history");
+
+        migrator.runOnStartup(SchemaMigrator.OnStartup.IF_CHANGED);
+
+        assertThat(tableExists("flyway_schema_history")).isFalse();
+    }
+
+    @Test
+    void testChangedFingerprintRunsFlyway() throws SQLException {
+        migrator.migrate();
+        execute("UPDATE test_schema.schema_fingerprint SET fingerprint = 'older scripts'");
+        execute("DROP TABLE test_schema.flyway_schema_history");
+
+        migrator.runOnStartup(SchemaMigrator.OnStartup.IF_CHANGED);
+
+        assertThat(tableExists("flyway_schema_history")).isTrue();
+        assertThat(migrator.isUpToDate()).isTrue();
+    }
+
+    @Test
+    void testNeverLeavesSchemaAlone() throws SQLException {
+        migrator.runOnStartup(SchemaMigrator.OnStartup.NEVER);
+
+        assertThat(tableExists("widgets")).isFalse();
+    }
+
+    @Test
+    void testFingerprintIsStable() {
+        assertThat(migrator.fingerprint()).hasSize(64).isEqualTo(migrator.fingerprint());
+        assertThat(new SchemaMigrator(database, "test_schema", "flyway_schema_history").fingerprint())
+                .isNotEqualTo(migrator.fingerprint());
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(database.getUrl(), database.getUser(), database.getPassword());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (Connection connection = connect();
+             ResultSet rs = connection.getMetaData().getTables(null, "test_schema", table, null)) {
+            return rs.next();
+        }
+    }
+}
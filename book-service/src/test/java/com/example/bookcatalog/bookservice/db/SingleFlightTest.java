@@ -0,0 +1,82 @@
+package com.example.bookcatalog.bookservice.db;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 20;
+
+    private final MetricRegistry metrics = new MetricRegistry();
+    private final SingleFlight singleFlight = new SingleFlight("test", true, metrics);
+
+    @Test
+    void testConcurrentIdenticalReadsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> singleFlight.execute("books/1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "book 1";
+                })));
+            }
+            // Let every caller reach execute() before the load finishes
+            while (metrics.meter("com.example.bookcatalog.bookservice.db.SingleFlight.test.coalesced").getCount()
+                    < CALLERS - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("book 1");
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNothingIsCachedOnceTheLoadFinishes() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("books/1", loads::incrementAndGet);
+        singleFlight.execute("books/1", loads::incrementAndGet);
+        singleFlight.execute("books/2", loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void testFailureIsRethrownAndNotRemembered() {
+        assertThatThrownBy(() -> singleFlight.execute("books/1", () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.<String>execute("books/1", () -> "ok")).isEqualTo("ok");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
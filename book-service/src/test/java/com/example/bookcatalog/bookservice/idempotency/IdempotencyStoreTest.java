@@ -0,0 +1,181 @@
+package com.example.bookcatalog.bookservice.idempotency;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.core.Book;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class IdempotencyStoreTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(IdempotencyRecord.class)
+            .build();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-19T12:00:00Z"));
+    private final AtomicInteger creates = new AtomicInteger();
+    private IdempotencyDAO dao;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setup() {
+        dao = new IdempotencyDAO(daoTestRule.getSessionFactory());
+        store = new IdempotencyStore(dao, new IdempotencyConfiguration(), Jackson.newObjectMapper(),
+                mock(ScheduledExecutorService.class), new MetricRegistry(), clock);
+    }
+
+    @Test
+    void testRetryReplaysFirstResponse() {
+        Book book = new Book("Dune", "Frank Herbert");
+
+        Response first = post("user-1", "key-1", book);
+        Response retry = post("user-1", "key-1", book);
+
+        assertThat(creates).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeaderString(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(((Book) retry.getEntity()).getId()).isEqualTo(1L);
+        assertThat(((Book) retry.getEntity()).getTitle()).isEqualTo("Dune");
+    }
+
+    @Test
+    void testReplayIsReadFromTableWhenNotInMemory() {
+        Book book = new Book("Dune", "Frank Herbert");
+        post("user-1", "key-1", book);
+
+        // A fresh store, as on another pod or after a restart
+        IdempotencyStore other = new IdempotencyStore(dao, new IdempotencyConfiguration(), Jackson.newObjectMapper(),
+                mock(ScheduledExecutorService.class), new MetricRegistry(), clock);
+        Response retry = daoTestRule.inTransaction(() -> other.execute("POST /books user-1", "key-1", book,
+                Book.class, () -> create(book)));
+
+        assertThat(creates).hasValue(1);
+        assertThat(retry.getHeaderString(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(other.cached()).isEqualTo(1);
+    }
+
+    @Test
+    void testKeysAreScopedToTheClient() {
+        Book book = new Book("Dune", "Frank Herbert");
+
+        post("user-1", "key-1", book);
+        post("user-2", "key-1", book);
+
+        assertThat(creates).hasValue(2);
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        post("user-1", "key-1", new Book("Dune", "Frank Herbert"));
+
+        Response response = post("user-1", "key-1", new Book("Emma", "Jane Austen"));
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(creates).hasValue(1);
+    }
+
+    @Test
+    void testRetryWhileFirstIsRunningGets409() {
+        Book book = new Book("Dune", "Frank Herbert");
+        Response[] nested = new Response[1];
+
+        daoTestRule.inTransaction(() -> store.execute("POST /books user-1", "key-1", book, Book.class, () -> {
+            nested[0] = store.execute("POST /books user-1", "key-1", book, Book.class, () -> create(book));
+            return create(book);
+        }));
+
+        assertThat(nested[0].getStatus()).isEqualTo(409);
+        assertThat(creates).hasValue(1);
+    }
+
+    @Test
+    void testFailedCreateIsNotRemembered() {
+        Book book = new Book("Dune", "Frank Herbert");
+        daoTestRule.inTransaction(() -> store.execute("POST /books user-1", "key-1", book, Book.class,
+                () -> Response.status(Response.Status.BAD_REQUEST).entity("no").build()));
+
+        Response retry = post("user-1", "key-1", book);
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeaderString(IdempotencyStore.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void testExpiredKeysArePurgedAndCanBeReused() {
+        Book book = new Book("Dune", "Frank Herbert");
+        post("user-1", "key-1", book);
+        post("user-1", "key-2", book);
+
+        clock.advance(Duration.ofHours(25));
+        post("user-1", "key-2", book);
+        int purged = store.purge();
+
+        // key-2 was claimed again, so only key-1 was still old enough to go
+        assertThat(purged).isEqualTo(1);
+        assertThat(creates).hasValue(3);
+        assertThat(store.cached()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidKeyIsRejected() {
+        Response response = post("user-1", "x".repeat(256), new Book("Dune", "Frank Herbert"));
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(creates).hasValue(0);
+    }
+
+    private Response post(String client, String key, Book book) {
+        return daoTestRule.inTransaction(() -> store.execute("POST /books " + client, key, book, Book.class,
+                () -> create(book)));
+    }
+
+    private Response create(Book book) {
+        Book created = new Book(book.getTitle(), book.getAuthor());
+        created.setId((long) creates.incrementAndGet());
+        return Response.status(Response.Status.CREATED).entity(created).build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private HttpServletResponse response;
+    private StringWriter body;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setup() throws Exception {
+        response = mock(HttpServletResponse.class);
+        body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+        chain = mock(FilterChain.class);
+    }
+
+    private static HttpServletRequest request(String path, String remoteAddr, String userId) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn(path);
+        when(request.getRemoteAddr()).thenReturn(remoteAddr);
+        when(request.getAttribute("userId")).thenReturn(userId);
+        return request;
+    }
+
+    @Test
+    void testOverLimitReturns429WithRetryAfter() throws Exception {
+        RateLimitConfiguration config = new RateLimitConfiguration();
+        config.setRoutes(List.of(new RouteLimit("GET", "/books/search", 0.5, 1)));
+        RateLimitFilter filter = new RateLimitFilter(new RateLimiter(config), null, new MetricRegistry());
+
+        filter.doFilter(request("/books/search", "10.0.0.1", null), response, chain);
+        filter.doFilter(request("/books/search", "10.0.0.1", null), response, chain);
+
+        verify(chain, times(1)).doFilter(any(), any());
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "2");
+        assertThat(body.toString()).isEqualTo("Rate limit exceeded");
+    }
+
+    @Test
+    void testAuthenticatedClientsAreKeyedBySubject() {
+        assertThat(RateLimitFilter.clientKey(request("/books", "10.0.0.1", "user_123"))).isEqualTo("user:user_123");
+        assertThat(RateLimitFilter.clientKey(request("/books", "10.0.0.1", null))).isEqualTo("ip:10.0.0.1");
+    }
+
+    @Test
+    void testShedsWith503AtConcurrencyLimit() throws Exception {
+        LoadSheddingConfiguration config = new LoadSheddingConfiguration();
+        config.setInitialLimit(1);
+        config.setMinLimit(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+        RateLimitFilter filter = new RateLimitFilter(null, limiter, new MetricRegistry());
+        assertThat(limiter.tryAcquire()).isTrue();
+
+        filter.doFilter(request("/books", "10.0.0.1", null), response, chain);
+
+        verifyNoInteractions(chain);
+        verify(response).setStatus(503);
+        verify(response).setHeader("Retry-After", "1");
+    }
+
+    @Test
+    void testHealthChecksAreNeverThrottled() throws Exception {
+        LoadSheddingConfiguration config = new LoadSheddingConfiguration();
+        config.setInitialLimit(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+        limiter.tryAcquire();
+        RateLimitFilter filter = new RateLimitFilter(null, limiter, new MetricRegistry());
+
+        filter.doFilter(request("/healthcheck", "10.0.0.1", null), response, chain);
+
+        verify(chain).doFilter(any(), any());
+    }
+}
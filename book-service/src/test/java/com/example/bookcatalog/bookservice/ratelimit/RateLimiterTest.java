@@ -0,0 +1,88 @@
+package com.example.bookcatalog.bookservice.ratelimit;
+
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static RateLimiter limiter() {
+        RateLimitConfiguration config = new RateLimitConfiguration();
+        config.setDefaultLimit(new RouteLimit(null, null, 10, 5));
+        config.setRoutes(List.of(new RouteLimit("GET", "/books/search", 1, 2)));
+        config.setIdleEviction(Duration.minutes(1));
+        return new RateLimiter(config);
+    }
+
+    @Test
+    void testBurstThenSustainedRate() {
+        RateLimiter limiter = limiter();
+        long now = 0;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire("GET", "/books", "ip:1", now)).isZero();
+        }
+        long wait = limiter.acquire("GET", "/books", "ip:1", now);
+        assertThat(wait).isEqualTo(SECOND / 10);
+
+        // One token comes back every 100ms at 10 requests/second
+        assertThat(limiter.acquire("GET", "/books", "ip:1", now + wait)).isZero();
+        assertThat(limiter.acquire("GET", "/books", "ip:1", now + wait)).isPositive();
+    }
+
+    @Test
+    void testClientsAndRoutesHaveSeparateBuckets() {
+        RateLimiter limiter = limiter();
+
+        assertThat(limiter.acquire("GET", "/books/search", "ip:1", 0)).isZero();
+        assertThat(limiter.acquire("GET", "/books/search", "ip:1", 0)).isZero();
+        assertThat(limiter.acquire("GET", "/books/search", "ip:1", 0)).isEqualTo(SECOND);
+
+        // Another client, and the same client on another route, are unaffected
+        assertThat(limiter.acquire("GET", "/books/search", "user:abc", 0)).isZero();
+        assertThat(limiter.acquire("GET", "/books/1", "ip:1", 0)).isZero();
+        // POST doesn't match the GET-only search route
+        assertThat(limiter.acquire("POST", "/books/search", "ip:1", 0)).isZero();
+        // Prefix match is per path segment
+        assertThat(limiter.acquire("GET", "/books/searchable", "ip:1", 0)).isZero();
+    }
+
+    @Test
+    void testIdleBucketsAreEvicted() {
+        RateLimiter limiter = limiter();
+        limiter.acquire("GET", "/books", "ip:1", 0);
+        limiter.acquire("GET", "/books", "ip:2", 30 * SECOND);
+
+        limiter.evictIdle(61 * SECOND);
+
+        assertThat(limiter.getBucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrencyLimitGrowsWhenFastAndBacksOffWhenSlow() throws InterruptedException {
+        LoadSheddingConfiguration config = new LoadSheddingConfiguration();
+        config.setInitialLimit(2);
+        config.setMinLimit(1);
+        config.setTargetLatency(Duration.milliseconds(1));
+        config.setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(0, true);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+
+        Thread.sleep(2);
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.core.Author;
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.db.AuthorDAO;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class AuthorResourceTest {
+
+    private static final AuthorDAO dao = mock(AuthorDAO.class);
+
+    private static final ResourceExtension resources = ResourceExtension.builder()
+            .addResource(new AuthorResource(dao))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        reset(dao);
+    }
+
+    @Test
+    void testFindAuthorsByPrefix() {
+        // Arrange
+        when(dao.findByPrefix("tol", 20)).thenReturn(List.of(new Author("J.R.R. Tolkien")));
+
+        // Act
+        String json = resources.target("/authors").queryParam("prefix", "tol").request().get(String.class);
+
+        // Assert
+        assertThat(json).isEqualTo("[{\"id\":0,\"name\":\"J.R.R. Tolkien\"}]");
+    }
+
+    @Test
+    void testGetBooksOfAuthor() {
+        // Arrange
+        when(dao.findById(12L)).thenReturn(Optional.of(new Author("J.R.R. Tolkien")));
+        when(dao.findBooks(12L, 5)).thenReturn(List.of(new Book("The Hobbit", "J.R.R. Tolkien")));
+
+        // Act
+        List<?> books = resources.target("/authors/12/books").queryParam("limit", 5).request().get(List.class);
+
+        // Assert
+        assertThat(books).hasSize(1);
+    }
+
+    @Test
+    void testUnknownAuthorReturns404() {
+        // Arrange
+        when(dao.findById(99L)).thenReturn(Optional.empty());
+
+        // Act
+        Response response = resources.target("/authors/99/books").request().get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(404);
+        verify(dao, never()).findBooks(anyLong(), anyInt());
+    }
+
+    @Test
+    void testLimitIsBounded() {
+        // Act
+        Response response = resources.target("/authors").queryParam("limit", 1000).request().get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        verify(dao, never()).findByPrefix(any(), anyInt());
+    }
+}
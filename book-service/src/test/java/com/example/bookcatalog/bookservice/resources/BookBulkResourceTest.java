@@ -0,0 +1,123 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.cascade.ReviewCascade;
+import com.example.bookcatalog.bookservice.core.BulkResult;
+import com.example.bookcatalog.bookservice.db.BookDAO;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class BookBulkResourceTest {
+
+    private static final BookDAO dao = mock(BookDAO.class);
+    private static final ReviewCascade reviewCascade = mock(ReviewCascade.class);
+
+    private static final ResourceExtension resources = ResourceExtension.builder()
+            .addResource(new BookBulkResource(dao, reviewCascade, null, 2))
+            .addProvider(new RoleFromHeader())
+            .build();
+
+    // Stands in for JwtAuthFilter, which sets userRole from the token's role claim
+    static class RoleFromHeader implements ContainerRequestFilter {
+        @Override
+        public void filter(ContainerRequestContext request) {
+            request.setProperty("userRole", request.getHeaderString("X-Test-Role"));
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        when(dao.inTransaction(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(dao.deleteByIds(anyCollection())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(dao, reviewCascade);
+    }
+
+    @Test
+    void testDeleteByIdsGoesInSortedChunks() {
+        // Act
+        BulkResult result = resources.target("/books/bulk-delete").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"ids\": [5, 1, 3, 1, 2]}"), BulkResult.class);
+
+        // Assert
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);
+        verify(reviewCascade).booksDeleting(List.of(1L, 2L));
+        verify(dao).deleteByIds(List.of(1L, 2L));
+        verify(dao).deleteByIds(List.of(3L, 5L));
+        verify(dao, times(2)).deleteByIds(anyCollection());
+    }
+
+    @Test
+    void testDeleteByYearWalksIdsAfterTheLastChunk() {
+        // Arrange
+        when(dao.idsPublishedIn(1999, Long.MIN_VALUE, 2)).thenReturn(List.of(4L, 7L));
+        when(dao.idsPublishedIn(1999, 7L, 2)).thenReturn(List.of(9L));
+
+        // Act
+        BulkResult result = resources.target("/books/bulk-delete").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"year\": 1999}"), BulkResult.class);
+
+        // Assert
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getChunks()).isEqualTo(2);
+        verify(dao).deleteByIds(List.of(4L, 7L));
+        verify(dao).deleteByIds(List.of(9L));
+        verify(dao, never()).idsPublishedIn(eq(1999), eq(9L), anyInt());
+    }
+
+    @Test
+    void testFilterMustBeEitherIdsOrYear() {
+        // Act
+        Response empty = resources.target("/books/bulk-delete").request().header("X-Test-Role", "admin").post(Entity.json("{}"));
+        Response both = resources.target("/books/bulk-delete").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"ids\": [1], \"year\": 1999}"));
+
+        // Assert
+        assertThat(empty.getStatus()).isEqualTo(422);
+        assertThat(both.getStatus()).isEqualTo(422);
+        verify(dao, never()).idsPublishedIn(anyInt(), anyLong(), anyInt());
+        verify(dao, never()).deleteByIds(anyCollection());
+    }
+
+    @Test
+    void testNonAdminIsForbiddenOnEveryPathForm() {
+        // Act
+        Response user = resources.target("/books/bulk-delete").request().header("X-Test-Role", "user")
+                .post(Entity.json("{\"year\": 1999}"));
+        Response trailingSlash = resources.target("/books/bulk-delete/").request().header("X-Test-Role", "user")
+                .post(Entity.json("{\"year\": 1999}"));
+        Response noRole = resources.target("/books/bulk-delete/").request()
+                .post(Entity.json("{\"year\": 1999}"));
+
+        // Assert
+        assertThat(user.getStatus()).isEqualTo(403);
+        assertThat(trailingSlash.getStatus()).isEqualTo(403);
+        assertThat(noRole.getStatus()).isEqualTo(403);
+        verify(dao, never()).idsPublishedIn(anyInt(), anyLong(), anyInt());
+        verify(dao, never()).deleteByIds(anyCollection());
+    }
+}
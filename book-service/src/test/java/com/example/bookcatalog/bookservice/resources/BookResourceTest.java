@@ -1,12 +1,26 @@
 package com.example.bookcatalog.bookservice.resources;
 
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.cache.SerializedResponseCache;
 import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.core.FacetCount;
 import com.example.bookcatalog.bookservice.db.BookDAO;
+import com.example.bookcatalog.bookservice.db.FieldProjection;
+import com.example.bookcatalog.bookservice.db.ReadReplicaRoutingFilter;
+import com.example.bookcatalog.bookservice.db.ReplicaRoutingDataSource;
+import com.example.bookcatalog.bookservice.db.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.jakarta.rs.smile.JacksonSmileProvider;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import io.dropwizard.jackson.Jackson;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +28,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,8 +42,17 @@ class BookResourceTest {
 
     private static final BookDAO dao = mock(BookDAO.class);
 
+    private static final SerializedResponseCache cache = mock(SerializedResponseCache.class);
+
+    private static final ObjectMapper smileMapper = Jackson.newObjectMapper(new SmileFactory());
+
     private static final ResourceExtension resources = ResourceExtension.builder()
-            .addResource(new BookResource(dao))
+            .addResource(new BookResource(dao, new SingleFlight("books", true, new MetricRegistry()), null, null, null))
+            .addProvider(new JacksonSmileProvider(smileMapper))
+            .build();
+
+    private static final ResourceExtension cachedResources = ResourceExtension.builder()
+            .addResource(new BookResource(dao, new SingleFlight("books", true, new MetricRegistry()), null, null, cache))
             .build();
 
     private Book testBook;
@@ -40,7 +65,27 @@ class BookResourceTest {
 
     @AfterEach
     void tearDown() {
-        reset(dao);
+        reset(dao, cache);
+    }
+
+    @Test
+    void testStickyClientSkipsTheResponseCache() {
+        // Arrange
+        when(cache.list(any(), any())).thenReturn(out -> out.write("[]".getBytes()));
+        when(dao.findAll()).thenReturn(List.of(testBook));
+        String stickyUntil = Long.toString(System.currentTimeMillis() + 60_000);
+
+        // Act
+        List<?> cached = cachedResources.target("/books").request(MediaType.APPLICATION_JSON).get(List.class);
+        List<?> sticky = cachedResources.target("/books").request(MediaType.APPLICATION_JSON)
+                .cookie(ReadReplicaRoutingFilter.STICKY_COOKIE, stickyUntil)
+                .get(List.class);
+
+        // Assert
+        assertThat(cached).isEmpty();
+        assertThat(sticky).hasSize(1);
+        verify(cache, times(1)).list(any(), any());
+        verify(dao, times(1)).findAll();
     }
 
     @Test
@@ -139,4 +184,205 @@ class BookResourceTest {
         assertThat(response.getStatus()).isEqualTo(204);
         verify(dao).delete(testBook);
     }
+
+    @Test
+    void testGetBookAsSmile() throws Exception {
+        // Arrange
+        when(dao.findById(1L)).thenReturn(Optional.of(testBook));
+
+        // Act
+        Response response = resources.target("/books/1")
+                .request(SmileMediaTypes.APPLICATION_JACKSON_SMILE)
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getMediaType().toString()).isEqualTo(SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+        Book decoded = smileMapper.readValue(response.readEntity(byte[].class), Book.class);
+        assertThat(decoded.getTitle()).isEqualTo("Test Title");
+    }
+
+    @Test
+    void testGetBooksDefaultsToJson() {
+        // Arrange
+        when(dao.findAll()).thenReturn(Arrays.asList(testBook));
+
+        // Act
+        Response response = resources.target("/books")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getMediaType()).isEqualTo(MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    @Test
+    void testCreateBookFromSmile() throws Exception {
+        // Arrange
+        Book newBook = new Book("Smile Book", "Smile Author");
+        when(dao.create(any(Book.class))).thenReturn(newBook);
+
+        // Act
+        Response response = resources.target("/books")
+                .request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(smileMapper.writeValueAsBytes(newBook), SmileMediaTypes.APPLICATION_JACKSON_SMILE));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(201);
+        ArgumentCaptor<Book> captor = ArgumentCaptor.forClass(Book.class);
+        verify(dao).create(captor.capture());
+        assertThat(captor.getValue().getTitle()).isEqualTo("Smile Book");
+    }
+
+    @Test
+    void testGetBooksWithFieldsUsesProjection() {
+        // Arrange
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("title", "Test Title");
+        when(dao.findAll(any(FieldProjection.class))).thenReturn(List.of(row));
+
+        // Act
+        String json = resources.target("/books")
+                .queryParam("fields", "id,title")
+                .request(MediaType.APPLICATION_JSON)
+                .get(String.class);
+
+        // Assert
+        assertThat(json).isEqualTo("[{\"id\":1,\"title\":\"Test Title\"}]");
+        ArgumentCaptor<FieldProjection> projection = ArgumentCaptor.forClass(FieldProjection.class);
+        verify(dao).findAll(projection.capture());
+        assertThat(projection.getValue().getFields()).containsExactly("id", "title");
+        verify(dao, never()).findAll();
+    }
+
+    @Test
+    void testUnknownFieldReturns400() {
+        // Act
+        Response response = resources.target("/books/1")
+                .queryParam("fields", "id,comment")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.readEntity(String.class)).contains("Unknown field 'comment'");
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testGetBookByAnyFormOfItsIsbn() {
+        // Arrange
+        testBook.setIsbn("9780201616224");
+        when(dao.findByIsbn13("9780201616224")).thenReturn(Optional.of(testBook));
+
+        // Act
+        Response isbn10 = resources.target("/books/isbn/0-201-61622-X").request().get();
+        Response isbn13 = resources.target("/books/isbn/978-0-201-61622-4").request().get();
+
+        // Assert
+        assertThat(isbn10.getStatus()).isEqualTo(200);
+        assertThat(isbn10.readEntity(Book.class).getTitle()).isEqualTo("Test Title");
+        assertThat(isbn13.getStatus()).isEqualTo(200);
+        verify(dao, times(2)).findByIsbn13("9780201616224");
+    }
+
+    @Test
+    void testGetBookByInvalidIsbnReturns400() {
+        // Act
+        Response response = resources.target("/books/isbn/978-0-201-61622-5").request().get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testCreateBookWithTakenIsbnReturns409() {
+        // Arrange
+        Book newBook = new Book("New Book", "New Author");
+        newBook.setIsbn("0-201-61622-X");
+        when(dao.findByIsbn13("9780201616224")).thenReturn(Optional.of(testBook));
+
+        // Act
+        Response response = resources.target("/books")
+                .request()
+                .post(Entity.entity(newBook, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(409);
+        verify(dao, never()).create(any(Book.class));
+    }
+
+    @Test
+    void testCreateBookWithWrongIsbnCheckDigitIsRejected() {
+        // Arrange
+        Book newBook = new Book("New Book", "New Author");
+        newBook.setIsbn("0-201-61622-9");
+
+        // Act
+        Response response = resources.target("/books")
+                .request()
+                .post(Entity.entity(newBook, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(422);
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testSearchWithFacetsReturnsAPageAndCounts() {
+        // Arrange
+        doReturn(List.of(testBook)).when(dao).searchPage("the", null, null, null, 20, 10);
+        when(dao.countMatching("the", null, null)).thenReturn(21L);
+        when(dao.countByDecade("the", null, null)).thenReturn(List.of(new FacetCount(1990, 21)));
+        when(dao.countByAuthor("the", null, null, 10)).thenReturn(List.of(new FacetCount("Test Author", 21)));
+
+        // Act
+        String json = resources.target("/books/search")
+                .queryParam("title", "the")
+                .queryParam("facets", "year,author")
+                .queryParam("page", 3)
+                .queryParam("size", 10)
+                .request(MediaType.APPLICATION_JSON)
+                .get(String.class);
+
+        // Assert
+        assertThat(json).contains("\"total\":21", "\"page\":3", "\"size\":10",
+                "\"facets\":{\"year\":[{\"value\":1990,\"count\":21}],\"author\":[{\"value\":\"Test Author\",\"count\":21}]}");
+        verify(dao, never()).findAll();
+    }
+
+    @Test
+    void testUnknownFacetReturns400() {
+        // Act
+        Response response = resources.target("/books/search")
+                .queryParam("facets", "genre")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.readEntity(String.class)).contains("Unknown facet 'genre'");
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testReadsOnDifferentRoutesDoNotShareAFlight() {
+        // Arrange
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPath()).thenReturn("books/1");
+        when(uriInfo.getQueryParameters()).thenReturn(new MultivaluedHashMap<>());
+        try {
+            // Act
+            ReplicaRoutingDataSource.readFromReplica(true);
+            String replicaKey = BookResource.flightKey(uriInfo);
+            ReplicaRoutingDataSource.readFromReplica(false);
+
+            // Assert
+            assertThat(BookResource.flightKey(uriInfo)).isNotEqualTo(replicaKey);
+        } finally {
+            ReplicaRoutingDataSource.clearRoute();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.bookcatalog.bookservice.resources;
+
+import com.example.bookcatalog.bookservice.core.Book;
+import com.example.bookcatalog.bookservice.snapshot.CatalogSnapshot;
+import com.example.bookcatalog.bookservice.snapshot.SnapshotCatalog;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class SnapshotBookResourceTest {
+
+    private static final SnapshotCatalog catalog = mock(SnapshotCatalog.class);
+    private static final CatalogSnapshot snapshot = mock(CatalogSnapshot.class);
+
+    private static final ResourceExtension resources = ResourceExtension.builder()
+            .addResource(new SnapshotBookResource(catalog))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        when(catalog.get()).thenReturn(snapshot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(catalog, snapshot);
+    }
+
+    @Test
+    void testGetBookFromSnapshot() {
+        // Arrange
+        Book book = new Book("The Hobbit", "J.R.R. Tolkien");
+        book.setId(1L);
+        when(snapshot.findById(1L)).thenReturn(Optional.of(book));
+        when(snapshot.findById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        Book found = resources.target("/books/1").request().get(Book.class);
+        Response missing = resources.target("/books/2").request().get();
+
+        // Assert
+        assertThat(found.getTitle()).isEqualTo("The Hobbit");
+        assertThat(missing.getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void testSearchFromSnapshot() {
+        // Arrange
+        when(snapshot.search("hobbit", null, 1937)).thenReturn(List.of(new Book("The Hobbit", "J.R.R. Tolkien")));
+
+        // Act
+        List<?> books = resources.target("/books/search").queryParam("title", "hobbit").queryParam("year", 1937)
+                .request().get(List.class);
+
+        // Assert
+        assertThat(books).hasSize(1);
+    }
+
+    @Test
+    void testFieldsFacetsAndPagingAreRefused() {
+        // Act
+        Response paged = resources.target("/books/search").queryParam("title", "hobbit").queryParam("page", 2)
+                .request().get();
+        Response faceted = resources.target("/books/search").queryParam("facets", "year").request().get();
+        Response projected = resources.target("/books").queryParam("fields", "id,title").request().get();
+        Response projectedOne = resources.target("/books/1").queryParam("fields", "id").request().get();
+
+        // Assert
+        assertThat(paged.getStatus()).isEqualTo(400);
+        assertThat(paged.readEntity(String.class)).startsWith("page");
+        assertThat(faceted.getStatus()).isEqualTo(400);
+        assertThat(projected.getStatus()).isEqualTo(400);
+        assertThat(projectedOne.getStatus()).isEqualTo(400);
+        verifyNoInteractions(snapshot);
+    }
+
+    @Test
+    void testWritesAreNotAllowed() {
+        // Act
+        Response response = resources.target("/books").request()
+                .post(Entity.json("{\"title\":\"Dune\",\"author\":\"Frank Herbert\"}"));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(405);
+    }
+}
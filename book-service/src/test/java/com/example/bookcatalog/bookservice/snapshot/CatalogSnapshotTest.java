@@ -0,0 +1,128 @@
+package com.example.bookcatalog.bookservice.snapshot;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.bookservice.core.Book;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndReadBack() throws IOException {
+        // Arrange
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotWriter.write(List.of(
+                book(1L, "The Hobbit", "J.R.R. Tolkien", "9780261102217", 1937),
+                book(4L, "The Silmarillion", "J.R.R. Tolkien", null, null),
+                book(9L, "Smørrebrød", "Ærø", "0201616220", 1999)), file, 1234L);
+
+        // Act
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        // Assert
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.getCreatedAtMillis()).isEqualTo(1234L);
+        assertThat(snapshot.findAll()).extracting(Book::getId).containsExactly(1L, 4L, 9L);
+        Book hobbit = snapshot.findById(1L).orElseThrow();
+        assertThat(hobbit.getTitle()).isEqualTo("The Hobbit");
+        assertThat(hobbit.getAuthor()).isEqualTo("J.R.R. Tolkien");
+        assertThat(hobbit.getIsbn()).isEqualTo("9780261102217");
+        assertThat(hobbit.getPublishedYear()).isEqualTo(1937);
+        Book silmarillion = snapshot.findById(4L).orElseThrow();
+        assertThat(silmarillion.getIsbn()).isNull();
+        assertThat(silmarillion.getPublishedYear()).isNull();
+        assertThat(snapshot.findById(9L).orElseThrow().getTitle()).isEqualTo("Smørrebrød");
+        assertThat(snapshot.findById(5L)).isEmpty();
+    }
+
+    @Test
+    void testSearch() throws IOException {
+        // Arrange
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotWriter.write(List.of(
+                book(1L, "The Hobbit", "J.R.R. Tolkien", null, 1937),
+                book(2L, "Dune", "Frank Herbert", null, 1965),
+                book(3L, "The Fellowship of the Ring", "J.R.R. Tolkien", null, 1954),
+                book(4L, "The Two Towers", "J.R.R. Tolkien", null, 1954),
+                book(5L, "Untitled", "Anonymous", null, null)), file, 0L);
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        // Act & Assert
+        assertThat(snapshot.search("the", null, null)).extracting(Book::getId).containsExactly(1L, 3L, 4L);
+        assertThat(snapshot.search(null, "tolkien", 1954)).extracting(Book::getId).containsExactly(3L, 4L);
+        assertThat(snapshot.search("TOWERS", "", 1954)).extracting(Book::getId).containsExactly(4L);
+        assertThat(snapshot.search(null, null, 1965)).extracting(Book::getId).containsExactly(2L);
+        assertThat(snapshot.search(null, null, 2000)).isEmpty();
+        assertThat(snapshot.search(null, null, null)).hasSize(5);
+    }
+
+    @Test
+    void testRejectsUnsortedBooksAndOtherFiles() throws IOException {
+        // Arrange
+        Path file = directory.resolve("catalog.snapshot");
+        Path other = Files.writeString(directory.resolve("other"), "not a snapshot, just some text");
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshotWriter.write(List.of(
+                book(2L, "Dune", "Frank Herbert", null, null),
+                book(1L, "The Hobbit", "J.R.R. Tolkien", null, null)), file, 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> CatalogSnapshot.open(other)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testSwapsToReplacedFile() throws IOException {
+        // Arrange
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotWriter.write(List.of(book(1L, "The Hobbit", "J.R.R. Tolkien", null, 1937)), file, 0L);
+        CatalogSnapshotConfiguration config = new CatalogSnapshotConfiguration();
+        config.setFile(file.toString());
+        config.setPollInterval(Duration.hours(1));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        SnapshotCatalog catalog = new SnapshotCatalog(config, scheduler, new MetricRegistry());
+        try {
+            catalog.start();
+            CatalogSnapshot before = catalog.get();
+
+            // Act
+            boolean unchanged = catalog.reloadIfChanged();
+            CatalogSnapshotWriter.write(List.of(
+                    book(1L, "The Hobbit", "J.R.R. Tolkien", null, 1937),
+                    book(2L, "Dune", "Frank Herbert", null, 1965)), file, 1L);
+            boolean swapped = catalog.reloadIfChanged();
+
+            // Assert
+            assertThat(unchanged).isFalse();
+            assertThat(swapped).isTrue();
+            assertThat(catalog.get().size()).isEqualTo(2);
+            // Requests still holding the old snapshot keep reading it
+            assertThat(before.findAll()).extracting(Book::getTitle).containsExactly("The Hobbit");
+        } finally {
+            catalog.stop();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static Book book(long id, String title, String author, String isbn, Integer year) {
+        Book book = new Book(title, author);
+        book.setId(id);
+        book.setIsbn(isbn);
+        book.setPublishedDate(year);
+        return book;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bookcatalog.bookservice.startup;
+
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class CheckpointHooksTest {
+
+    private DataSourceProxy pool;
+    private Connector connector;
+    private CheckpointHooks hooks;
+
+    @BeforeEach
+    void setup() {
+        pool = mock(DataSourceProxy.class);
+        connector = mock(Connector.class);
+        Server server = mock(Server.class);
+        when(server.getConnectors()).thenReturn(new Connector[] {connector});
+
+        hooks = new CheckpointHooks(List.of(pool));
+        hooks.serverStarted(server);
+    }
+
+    @Test
+    void testCheckpointStopsListeningBeforeClosingConnections() throws Exception {
+        hooks.beforeCheckpoint(null);
+
+        InOrder order = inOrder(connector, pool);
+        order.verify(connector).stop();
+        order.verify(pool).purge();
+    }
+
+    @Test
+    void testRestoreReconnectsBeforeListening() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(mock(DatabaseMetaData.class));
+        when(pool.getConnection()).thenReturn(connection);
+
+        hooks.afterRestore(null);
+
+        InOrder order = inOrder(connector, pool, connection);
+        order.verify(pool).getConnection();
+        order.verify(connection).close();
+        order.verify(connector).start();
+    }
+
+    @Test
+    void testRestoreStillListensWhenDatabaseIsDown() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        hooks.afterRestore(null);
+
+        verify(connector).start();
+    }
+}
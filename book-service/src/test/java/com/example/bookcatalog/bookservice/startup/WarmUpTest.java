@@ -0,0 +1,102 @@
+package com.example.bookcatalog.bookservice.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jakarta.rs.smile.JacksonSmileProvider;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.Duration;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmUpTest {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+    private static final Set<String> CACHE_CONTROLS = ConcurrentHashMap.newKeySet();
+
+    @Path("/things")
+    public static class ThingResource {
+        @GET
+        @Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+        public Map<String, String> get(@HeaderParam(HttpHeaders.CACHE_CONTROL) String cacheControl) {
+            CALLS.incrementAndGet();
+            CACHE_CONTROLS.add(String.valueOf(cacheControl));
+            return Map.of("name", "thing");
+        }
+    }
+
+    private final ApplicationHandler jersey = new ApplicationHandler(
+            new ResourceConfig(ThingResource.class, JacksonSmileProvider.class));
+    private final ObjectMapper mapper = Jackson.newObjectMapper();
+
+    @Test
+    void testStopsAfterIterationBudget() {
+        WarmUpConfiguration config = new WarmUpConfiguration();
+        config.setIterations(25);
+        WarmUp warmUp = new WarmUp(config, List.of("/things"), List.of(mapper), List.of(new Sample("a")));
+        CALLS.set(0);
+
+        warmUp.run(jersey);
+
+        assertThat(warmUp.isDone()).isTrue();
+        assertThat(warmUp.getIterations()).isEqualTo(25);
+        // Each iteration asks for JSON and for Smile
+        assertThat(CALLS.get()).isEqualTo(50);
+    }
+
+    @Test
+    void testStopsAtMaxDuration() {
+        WarmUpConfiguration config = new WarmUpConfiguration();
+        config.setIterations(Integer.MAX_VALUE);
+        config.setMaxDuration(Duration.milliseconds(200));
+        WarmUp warmUp = new WarmUp(config, List.of("/things"), List.of(mapper), List.of(new Sample("a")));
+
+        long start = System.nanoTime();
+        warmUp.run(jersey);
+
+        assertThat(warmUp.isDone()).isTrue();
+        assertThat(warmUp.getIterations()).isPositive().isLessThan(Integer.MAX_VALUE);
+        assertThat(System.nanoTime() - start).isLessThan(java.time.Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    void testRequestsSkipTheResponseCache() {
+        WarmUpConfiguration config = new WarmUpConfiguration();
+        config.setIterations(1);
+        WarmUp warmUp = new WarmUp(config, List.of("/things"), List.of(mapper), List.of(new Sample("a")));
+        CACHE_CONTROLS.clear();
+
+        warmUp.run(jersey);
+
+        assertThat(CACHE_CONTROLS).containsExactly("no-cache");
+    }
+
+    @Test
+    void testFailureStillFinishes() {
+        WarmUpConfiguration config = new WarmUpConfiguration();
+        // Object has no properties, so serializing it throws
+        WarmUp warmUp = new WarmUp(config, List.of("/things"), List.of(mapper), List.of(new Object()));
+
+        warmUp.run(jersey);
+
+        assertThat(warmUp.isDone()).isTrue();
+        assertThat(warmUp.getIterations()).isZero();
+    }
+
+    public record Sample(String name) {
+    }
+}
@@ -0,0 +1,4 @@
+CREATE TABLE widgets (
+    id INT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
@@ -19,5 +19,10 @@ fi
 
 echo "Using DATABASE_URL: ${DATABASE_URL}"
 
-# Start the application
-exec java -jar book-service.jar server config.yaml
\ No newline at end of file
+# Class data sharing archive written by the image build; the JVM ignores it if it doesn't match
+if [ -f book-service.jsa ]; then
+  JAVA_OPTS="-XX:SharedArchiveFile=book-service.jsa -Xlog:cds=error ${JAVA_OPTS:-}"
+fi
+
+# Start the application, or run another command such as `migrate` when one is given
+exec java ${JAVA_OPTS:-} -jar book-service.jar "${1:-server}" config.yaml
\ No newline at end of file
@@ -0,0 +1,26 @@
+#!/bin/bash
+# Milliseconds from launching a command until URL first answers 2xx, e.g. from book-service/:
+#
+#   PORT=8080 ../docker/time-to-first-request.sh http://localhost:8080/books \
+#       java -XX:SharedArchiveFile=target/book-service.jsa -jar target/book-service-1.0-SNAPSHOT.jar \
+#       server src/appcds/training.yaml
+set -e
+
+url=$1
+shift
+
+start=$(date +%s%N)
+"$@" > /dev/null 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+until curl -sf -o /dev/null "$url"; do
+  if ! kill -0 $pid 2>/dev/null; then
+    echo "process exited before $url answered" >&2
+    exit 1
+  fi
+  sleep 0.02
+done
+end=$(date +%s%N)
+
+echo $(( (end - start) / 1000000 ))
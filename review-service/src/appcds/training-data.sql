@@ -0,0 +1,17 @@
+-- Runs on every new connection to the training database, so it must be repeatable.
+CREATE SCHEMA IF NOT EXISTS reviews_schema;
+
+CREATE TABLE IF NOT EXISTS reviews_schema.reviews (
+    id SERIAL PRIMARY KEY,
+    book_id INTEGER NOT NULL,
+    reviewer_name VARCHAR(255) NOT NULL,
+    rating INTEGER NOT NULL CHECK (rating >= 1 AND rating <= 5),
+    comment TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+MERGE INTO reviews_schema.reviews (id, book_id, reviewer_name, rating, comment) KEY (id) VALUES
+    (1, 1, 'Ada', 5, 'Still the best introduction to the craft.'),
+    (2, 1, 'Grace', 4, 'Dated in places, but the advice holds up.'),
+    (3, 2, 'Linus', 5, 'Changed how I approach legacy code.');
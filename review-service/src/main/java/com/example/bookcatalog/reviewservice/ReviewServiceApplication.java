@@ -7,18 +7,75 @@ import io.dropwizard.core.Application;
 import io.dropwizard.core.setup.Bootstrap;
 import io.dropwizard.core.setup.Environment;
 import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.db.PooledDataSourceFactory;
 import io.dropwizard.hibernate.HibernateBundle;
+import io.dropwizard.client.HttpClientBuilder;
 import io.dropwizard.client.JerseyClientBuilder;
 
 import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ConnectionPoolGovernor;
+import com.example.bookcatalog.reviewservice.db.MigrateCommand;
+import com.example.bookcatalog.reviewservice.db.ReadReplicaConfiguration;
+import com.example.bookcatalog.reviewservice.db.ReadReplicaRoutingFilter;
+import com.example.bookcatalog.reviewservice.db.ReplicaLagMonitor;
+import com.example.bookcatalog.reviewservice.db.ReplicaRoutingDataSourceFactory;
+import com.example.bookcatalog.reviewservice.db.ReviewBatchWriter;
 import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.example.bookcatalog.reviewservice.db.ReviewRatingScanner;
+import com.example.bookcatalog.reviewservice.db.SchemaMigrator;
+import com.example.bookcatalog.reviewservice.db.SingleFlight;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyConfiguration;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyDAO;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyRecord;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyStore;
+import com.example.bookcatalog.reviewservice.ingest.GroupCommitConfiguration;
+import com.example.bookcatalog.reviewservice.ingest.ReviewBulkIngester;
+import com.example.bookcatalog.reviewservice.ingest.ReviewGroupCommitter;
+import com.example.bookcatalog.reviewservice.purge.PurgeBookReviewsTask;
+import com.example.bookcatalog.reviewservice.purge.ReviewPurge;
+import com.example.bookcatalog.reviewservice.purge.ReviewPurgeConfiguration;
+import com.example.bookcatalog.reviewservice.purge.ReviewPurger;
+import com.example.bookcatalog.reviewservice.ranking.RankingConfiguration;
+import com.example.bookcatalog.reviewservice.ranking.ReviewRankings;
+import com.example.bookcatalog.reviewservice.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.bookcatalog.reviewservice.ratelimit.RateLimitConfiguration;
+import com.example.bookcatalog.reviewservice.ratelimit.RateLimitFilter;
+import com.example.bookcatalog.reviewservice.ratelimit.RateLimiter;
+import com.example.bookcatalog.reviewservice.resources.ReviewBulkResource;
+import com.example.bookcatalog.reviewservice.resources.ReviewCleanupResource;
+import com.example.bookcatalog.reviewservice.resources.ReviewRankingsResource;
 import com.example.bookcatalog.reviewservice.resources.ReviewResource;
+import com.example.bookcatalog.reviewservice.resources.ReviewStatsResource;
+import com.example.bookcatalog.reviewservice.resources.ReviewStreamResource;
+import com.example.bookcatalog.reviewservice.startup.CheckpointHooks;
+import com.example.bookcatalog.reviewservice.startup.StartupTimer;
+import com.example.bookcatalog.reviewservice.startup.TrainCommand;
+import com.example.bookcatalog.reviewservice.startup.WarmUp;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamConfiguration;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamHub;
 
+import com.codahale.metrics.httpclient5.InstrumentedHttpClientConnectionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.jakarta.rs.smile.JacksonSmileProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.dropwizard.jackson.Jackson;
 import jakarta.ws.rs.client.Client;
-import org.flywaydb.core.Flyway;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public class ReviewServiceApplication extends Application<ReviewServiceConfiguration> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewServiceApplication.class);
@@ -35,19 +92,48 @@ public class ReviewServiceApplication extends Application<ReviewServiceConfigura
         new ReviewServiceApplication().run(args);
     }
 
+    private final StartupTimer startup = new StartupTimer();
+
+    // Flyway runs on its own thread while Hibernate builds the SessionFactory.
+    private CompletableFuture<Void> migration;
+
+    // Set when readReplica is enabled; the bundle then builds its pool over primary and replica.
+    private ReplicaRoutingDataSourceFactory replicaRouting;
+
+    // Registered with CRaC, which only holds it weakly.
+    private CheckpointHooks checkpointHooks;
+
     /**
      * The Hibernate bundle for the Review entity.
      *
      * This bundle is used to configure the Hibernate bundle for the Review entity.
+     * With a read replica enabled its single SessionFactory routes read-only units of work
+     * to the replica.
      *
      * @param configuration the configuration object used to configure the application
      * @return the Hibernate bundle for the Review entity
      */
     private final HibernateBundle<ReviewServiceConfiguration> hibernateBundle =
-            new HibernateBundle<>(Review.class) {
+            new HibernateBundle<>(Review.class, IdempotencyRecord.class, ReviewPurge.class) {
                 @Override
-                public DataSourceFactory getDataSourceFactory(ReviewServiceConfiguration configuration) {
-                    return configuration.getDataSourceFactory();
+                public PooledDataSourceFactory getDataSourceFactory(ReviewServiceConfiguration configuration) {
+                    ReadReplicaConfiguration readReplica = configuration.getReadReplica();
+                    if (!readReplica.isEnabled()) {
+                        return configuration.getDataSourceFactory();
+                    }
+                    if (replicaRouting == null) {
+                        replicaRouting = new ReplicaRoutingDataSourceFactory(configuration.getDataSourceFactory(),
+                                readReplica.getDatabase());
+                    }
+                    return replicaRouting;
+                }
+
+                @Override
+                public void run(ReviewServiceConfiguration configuration, Environment environment) throws Exception {
+                    migration = startMigration(configuration);
+                    startup.next("hibernate");
+                    super.run(configuration, environment);
+                    startup.next("application");
                 }
             };
 
@@ -70,14 +156,18 @@ public class ReviewServiceApplication extends Application<ReviewServiceConfigura
                 )
         );
         bootstrap.addBundle(hibernateBundle);
+        bootstrap.addCommand(new MigrateCommand());
+        bootstrap.addCommand(new TrainCommand<>(this, List.of(
+                "/reviews", "/reviews/1", "/reviews/book/1", "/reviews/book/1?fields=id,rating", "/metrics")));
     }
 
     /**
      * Start the application.
      *
      * This method is called by the Dropwizard framework once the application is started.
-     * It creates a ReviewDAO using the Hibernate bundle, runs Flyway migrations on the database,
-     * and registers the ReviewResource with the Jersey client and Book Service URL.
+     * It creates a ReviewDAO using the Hibernate bundle, waits for the Flyway migrations started alongside
+     * the Hibernate bootstrap, and registers the ReviewResource with the Jersey client and Book Service URL.
+     * It also starts the review stream hub that feeds the SSE endpoint.
      *
      * @param configuration the configuration object used to configure the application
      * @param environment the environment object used to register resources and health checks
@@ -86,12 +176,24 @@ public class ReviewServiceApplication extends Application<ReviewServiceConfigura
     public void run(ReviewServiceConfiguration configuration, Environment environment) {
         final ReviewDAO reviewDAO = new ReviewDAO(hibernateBundle.getSessionFactory());
 
+        // Optionally swap Jackson's reflection for generated accessors when (de)serializing.
+        configureObjectMapper(environment.getObjectMapper(), configuration);
+
+        // Content negotiation for the binary Smile format used by service-to-service calls.
+        final ObjectMapper smileMapper = configureObjectMapper(Jackson.newObjectMapper(new SmileFactory()), configuration);
+        final JacksonSmileProvider smileProvider = new JacksonSmileProvider(smileMapper);
+        environment.jersey().register(smileProvider);
+
         // Add CORS filter
         configureCors(environment);
 
-        // Add JWT authentication filter
-        environment.servlets().addFilter("JwtAuth", new com.example.bookcatalog.reviewservice.auth.JwtAuthFilter(configuration.getClerkDomain()))
-                .addMappingForUrlPatterns(java.util.EnumSet.allOf(jakarta.servlet.DispatcherType.class), true, "/*");
+        // Add JWT authentication filter.  Async support is required for the SSE stream endpoint.
+        final var jwtAuth = environment.servlets().addFilter("JwtAuth", new com.example.bookcatalog.reviewservice.auth.JwtAuthFilter(configuration.getClerkDomain()));
+        jwtAuth.setAsyncSupported(true);
+        jwtAuth.addMappingForUrlPatterns(java.util.EnumSet.allOf(jakarta.servlet.DispatcherType.class), true, "/*");
+
+        // Per-client rate limits and load shedding, after JwtAuth so clients are keyed by JWT subject
+        configureRateLimit(configuration.getRateLimit(), environment);
 
         // Expose Prometheus metrics on the application port.
         new io.prometheus.client.dropwizard.DropwizardExports(environment.metrics()).register();
@@ -100,32 +202,242 @@ public class ReviewServiceApplication extends Application<ReviewServiceConfigura
         // Get database config
         DataSourceFactory dsf = configuration.getDataSourceFactory();
 
-        // Run Flyway migrations
-        Flyway flyway = Flyway.configure()
-                .dataSource(dsf.getUrl(), dsf.getUser(), dsf.getPassword())
-                .schemas("reviews_schema")
-                .locations("classpath:db")
-                .table("flyway_schema_history_reviews") // Separate table for review-service
-                .baselineOnMigrate(true)
-                .load();
-
-        LOGGER.info("Starting Flyway migrations...");
-        flyway.migrate();
-        LOGGER.info("Flyway migrations complete");
-
-        // Create a Jersey client to call Book Service
-        final Client client = new JerseyClientBuilder(environment).build("review-service-client");
+        // The schema must be in place before any resource can be reached
+        startup.next("migrations");
+        try {
+            migration.join();
+        } catch (CompletionException e) {
+            LOGGER.error("Flyway migration failed: {}", e.getCause().getMessage(), e.getCause());
+            throw e; // Stop startup on failure
+        }
+        startup.next("application");
+
+        // Keep the connection pool within this service's share of the shared Postgres
+        ConnectionPoolGovernor.warnIfOverBudget(configuration.getConnectionBudget(), dsf);
+        environment.lifecycle().manage(new ConnectionPoolGovernor(
+                configuration.getConnectionBudget(),
+                dsf,
+                ConnectionPoolGovernor.poolOf(hibernateBundle.getSessionFactory()),
+                environment.lifecycle().scheduledExecutorService("connection-pool-governor").threads(1).build(),
+                environment.metrics()));
+
+        // Send read-only units of work to the replica when one is configured
+        configureReadReplica(configuration.getReadReplica(), environment);
+
+        // Create a Jersey client to call Book Service, keeping its connection pool for the checkpoint hooks
+        final List<PoolingHttpClientConnectionManager> clientPools = new ArrayList<>();
+        final JerseyClientBuilder clientBuilder = new JerseyClientBuilder(environment);
+        clientBuilder.setApacheHttpClientBuilder(new HttpClientBuilder(environment) {
+            @Override
+            protected InstrumentedHttpClientConnectionManager configureConnectionManager(
+                    InstrumentedHttpClientConnectionManager connectionManager) {
+                clientPools.add(connectionManager);
+                return super.configureConnectionManager(connectionManager);
+            }
+        });
+        final Client client = clientBuilder.build("review-service-client");
+        client.register(smileProvider);
         final String bookServiceUrl = configuration.getBookServiceUrl();
 
+        // Fan-out hub for the SSE review stream
+        final ReviewStreamHub streamHub = createStreamHub(configuration.getReviewStream(), environment);
+
+        // Top rated and trending shelves, kept current by the write paths below
+        final ReviewRankings rankings = createRankings(configuration.getRankings(), environment);
+        environment.jersey().register(new ReviewRankingsResource(rankings, configuration.getRankings().getTopK()));
+
+        // Delete the reviews of books deleted in book-service, asked for through an admin task
+        configureReviewPurge(configuration.getReviewPurge(), environment, rankings);
+
+        // Optionally batch concurrent POST /reviews into shared transactions
+        final ReviewGroupCommitter groupCommitter = createGroupCommitter(configuration.getGroupCommit(), environment);
+
         // Pass the client and URL into your resource
-        environment.jersey().register(new ReviewResource(reviewDAO, client, bookServiceUrl));
+        environment.jersey().register(new ReviewResource(reviewDAO, client, bookServiceUrl, streamHub,
+                new SingleFlight("reviews", configuration.isCoalesceReads(), environment.metrics()), rankings,
+                groupCommitter, createIdempotencyStore(configuration.getIdempotency(), environment)));
+        environment.jersey().register(new ReviewStreamResource(streamHub, reviewDAO,
+                configuration.getReviewStream().getBufferSize()));
+        environment.jersey().register(new ReviewStatsResource(reviewDAO, configuration.getStatsMaxBatchSize()));
+        environment.jersey().register(new ReviewCleanupResource(reviewDAO, configuration.getBulkChunkSize()));
+
+        // NDJSON bulk import, written in JDBC batches outside the per-request unit of work
+        final ReviewBulkIngester bulkIngester = new ReviewBulkIngester(
+                new ReviewBatchWriter(hibernateBundle.getSessionFactory()),
+                environment.getObjectMapper(),
+                environment.getValidator(),
+                configuration.getBulkIngest(),
+                environment.metrics(),
+                rankings::added);
+        environment.jersey().register(new ReviewBulkResource(bulkIngester));
+
+        // Close and reopen sockets around a CRaC checkpoint (no-op on other JVMs)
+        configureCheckpointHooks(environment, clientPools);
+
+        // Run the hot reads and serializers through the JIT before reporting healthy
+        new WarmUp(configuration.getWarmUp(),
+                List.of("/reviews/1", "/reviews/book/1", "/reviews/book/1?fields=id,rating"),
+                List.of(environment.getObjectMapper(), smileMapper),
+                List.of(new Review(1, "Ada", 5, "Still the best introduction to the craft."))).register(environment);
+
+        // Jetty and Jersey start once run() returns; report when requests are being accepted
+        startup.next("server");
+        environment.lifecycle().addServerLifecycleListener(server -> LOGGER.info(startup.finish(environment.metrics())));
+    }
+
+    private CompletableFuture<Void> startMigration(ReviewServiceConfiguration configuration) {
+        SchemaMigrator migrator = new SchemaMigrator(configuration.getDataSourceFactory(),
+                "reviews_schema",
+                "flyway_schema_history_reviews", // Separate table for review-service
+                Map.of("reviewPartitions", String.valueOf(configuration.getReviewPartitions())));
+        SchemaMigrator.OnStartup mode = configuration.getMigrationOnStartup();
+        return CompletableFuture.runAsync(() -> migrator.runOnStartup(mode),
+                task -> new Thread(task, "schema-migration").start());
+    }
+
+    private void configureRateLimit(RateLimitConfiguration rateLimit, Environment environment) {
+        RateLimiter rateLimiter = null;
+        if (rateLimit.isEnabled()) {
+            rateLimiter = new RateLimiter(rateLimit);
+            final RateLimiter limiter = rateLimiter;
+            long period = rateLimit.getIdleEviction().toMilliseconds();
+            environment.lifecycle().scheduledExecutorService("rate-limit-eviction").threads(1).build()
+                    .scheduleWithFixedDelay(() -> limiter.evictIdle(System.nanoTime()), period, period, TimeUnit.MILLISECONDS);
+        }
+        AdaptiveConcurrencyLimiter concurrencyLimiter = rateLimit.getLoadShedding().isEnabled()
+                ? new AdaptiveConcurrencyLimiter(rateLimit.getLoadShedding())
+                : null;
+        if (rateLimiter == null && concurrencyLimiter == null) {
+            return;
+        }
+        final var filter = environment.servlets().addFilter("RateLimit",
+                new RateLimitFilter(rateLimiter, concurrencyLimiter, environment.metrics()));
+        filter.setAsyncSupported(true);
+        filter.addMappingForUrlPatterns(java.util.EnumSet.of(jakarta.servlet.DispatcherType.REQUEST), true, "/*");
+    }
+
+    private void configureReadReplica(ReadReplicaConfiguration readReplica, Environment environment) {
+        if (replicaRouting == null) {
+            return;
+        }
+        LOGGER.info("Read replica enabled: {}", readReplica.getDatabase().getUrl());
+        environment.lifecycle().manage(new ReplicaLagMonitor(
+                replicaRouting.getDataSource(),
+                readReplica,
+                environment.lifecycle().scheduledExecutorService("replica-lag-monitor").threads(1).build(),
+                environment.metrics()));
+        environment.jersey().register(new ReadReplicaRoutingFilter(readReplica.getStickyWindow()));
+    }
+
+    private void configureCheckpointHooks(Environment environment, List<PoolingHttpClientConnectionManager> clientPools) {
+        List<DataSourceProxy> pools = new ArrayList<>();
+        DataSourceProxy primary = ConnectionPoolGovernor.poolOf(hibernateBundle.getSessionFactory());
+        if (primary != null) {
+            pools.add(primary);
+        }
+        if (replicaRouting != null && replicaRouting.getDataSource().getReplica() instanceof DataSourceProxy replica) {
+            pools.add(replica);
+        }
+        checkpointHooks = new CheckpointHooks(pools, clientPools).register();
+        environment.lifecycle().addServerLifecycleListener(checkpointHooks);
+    }
+
+    private ObjectMapper configureObjectMapper(ObjectMapper mapper, ReviewServiceConfiguration configuration) {
+        if (configuration.isJacksonBlackbird()) {
+            mapper.registerModule(new BlackbirdModule());
+            LOGGER.info("Jackson Blackbird module registered for {}", mapper.getFactory().getFormatName());
+        }
+        return mapper;
+    }
+
+    private ReviewStreamHub createStreamHub(ReviewStreamConfiguration streamConfig, Environment environment) {
+        final ScheduledExecutorService heartbeats = environment.lifecycle()
+                .scheduledExecutorService("review-stream-heartbeat")
+                .threads(1)
+                // Every send schedules a timeout that is nearly always cancelled
+                .removeOnCancelPolicy(true)
+                .build();
+        final ExecutorService dispatcher = environment.lifecycle()
+                .executorService("review-stream-dispatch-%d")
+                .minThreads(streamConfig.getDispatchThreads())
+                .maxThreads(streamConfig.getDispatchThreads())
+                .build();
+        final ReviewStreamHub hub = new ReviewStreamHub(streamConfig, heartbeats, dispatcher, environment.metrics());
+        environment.lifecycle().manage(hub);
+        return hub;
+    }
+
+    private ReviewRankings createRankings(RankingConfiguration rankingConfig, Environment environment) {
+        final ReviewRankings rankings = new ReviewRankings(
+                rankingConfig,
+                new ReviewRatingScanner(hibernateBundle.getSessionFactory(), rankingConfig.getScanFetchSize()),
+                environment.lifecycle().scheduledExecutorService("review-rankings-rebuild").threads(1).build(),
+                environment.metrics(),
+                Clock.systemUTC());
+        environment.lifecycle().manage(rankings);
+        return rankings;
+    }
+
+    private void configureReviewPurge(ReviewPurgeConfiguration reviewPurge, Environment environment,
+                                      ReviewRankings rankings) {
+        if (!reviewPurge.isEnabled()) {
+            return;
+        }
+        final ReviewPurger purger = new ReviewPurger(
+                hibernateBundle.getSessionFactory(),
+                reviewPurge,
+                environment.lifecycle().scheduledExecutorService("review-purge").threads(1).build(),
+                environment.metrics(),
+                rankings::removedBook);
+        environment.lifecycle().manage(purger);
+        environment.admin().addTask(new PurgeBookReviewsTask(purger));
+    }
+
+    private ReviewGroupCommitter createGroupCommitter(GroupCommitConfiguration groupCommit, Environment environment) {
+        if (!groupCommit.isEnabled()) {
+            return null;
+        }
+        final ExecutorService writers = environment.lifecycle()
+                .executorService("review-group-commit-%d")
+                .minThreads(groupCommit.getWriters())
+                .maxThreads(groupCommit.getWriters())
+                .build();
+        final ReviewGroupCommitter committer = new ReviewGroupCommitter(
+                new ReviewBatchWriter(hibernateBundle.getSessionFactory()),
+                groupCommit,
+                writers,
+                environment.metrics());
+        environment.lifecycle().manage(committer);
+        LOGGER.info("Group commit enabled for POST /reviews: batches of up to {}, queue of {}",
+                groupCommit.getMaxBatchSize(), groupCommit.getQueueCapacity());
+        return committer;
+    }
+
+    private IdempotencyStore createIdempotencyStore(IdempotencyConfiguration idempotency, Environment environment) {
+        if (!idempotency.isEnabled()) {
+            return null;
+        }
+        final IdempotencyStore store = new IdempotencyStore(
+                new IdempotencyDAO(hibernateBundle.getSessionFactory()),
+                idempotency,
+                environment.getObjectMapper(),
+                environment.lifecycle().scheduledExecutorService("idempotency-purge").threads(1).build(),
+                environment.metrics(),
+                Clock.systemUTC());
+        environment.lifecycle().manage(store);
+        return store;
     }
 
     private void configureCors(Environment environment) {
         final var cors = environment.servlets().addFilter("CORS", org.eclipse.jetty.servlets.CrossOriginFilter.class);
+        cors.setAsyncSupported(true);
         cors.addMappingForUrlPatterns(java.util.EnumSet.allOf(jakarta.servlet.DispatcherType.class), true, "/*");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_ORIGINS_PARAM, "*");
-        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_HEADERS_PARAM, "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin");
+        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_HEADERS_PARAM, "Content-Type,Authorization,X-Requested-With,Content-Length,Accept,Origin,"
+                + IdempotencyStore.HEADER + "," + jakarta.ws.rs.core.HttpHeaders.LAST_EVENT_ID_HEADER);
+        // Response headers browser code may read: replays of idempotent POSTs, and when to retry after a 429 or 503
+        cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.EXPOSED_HEADERS_PARAM,
+                IdempotencyStore.REPLAYED_HEADER + ",Retry-After");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOWED_METHODS_PARAM, "GET,PUT,POST,DELETE,OPTIONS");
         cors.setInitParameter(org.eclipse.jetty.servlets.CrossOriginFilter.ALLOW_CREDENTIALS_PARAM, "true");
     }
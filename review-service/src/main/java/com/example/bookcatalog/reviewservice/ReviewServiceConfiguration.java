@@ -1,9 +1,22 @@
 package com.example.bookcatalog.reviewservice;
 
+import com.example.bookcatalog.reviewservice.db.ConnectionBudgetConfiguration;
+import com.example.bookcatalog.reviewservice.db.ReadReplicaConfiguration;
+import com.example.bookcatalog.reviewservice.db.SchemaMigrator;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyConfiguration;
+import com.example.bookcatalog.reviewservice.ingest.BulkIngestConfiguration;
+import com.example.bookcatalog.reviewservice.ingest.GroupCommitConfiguration;
+import com.example.bookcatalog.reviewservice.purge.ReviewPurgeConfiguration;
+import com.example.bookcatalog.reviewservice.ranking.RankingConfiguration;
+import com.example.bookcatalog.reviewservice.ratelimit.RateLimitConfiguration;
+import com.example.bookcatalog.reviewservice.startup.WarmUpConfiguration;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamConfiguration;
 import io.dropwizard.core.Configuration;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.db.DataSourceFactory;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
@@ -23,6 +36,78 @@ public class ReviewServiceConfiguration extends Configuration {
         this.database = factory;
     }
 
+    // --- Whether Flyway runs on startup: always, if_changed or never ---
+    @NotNull
+    private SchemaMigrator.OnStartup migrationOnStartup = SchemaMigrator.OnStartup.IF_CHANGED;
+
+    @JsonProperty("migrationOnStartup")
+    public SchemaMigrator.OnStartup getMigrationOnStartup() {
+        return migrationOnStartup;
+    }
+
+    @JsonProperty("migrationOnStartup")
+    public void setMigrationOnStartup(SchemaMigrator.OnStartup migrationOnStartup) {
+        this.migrationOnStartup = migrationOnStartup;
+    }
+
+    // --- Hash partitions of the reviews table, read when the partitioning migration runs ---
+    @Min(1)
+    @Max(256)
+    private int reviewPartitions = 16;
+
+    @JsonProperty("reviewPartitions")
+    public int getReviewPartitions() {
+        return reviewPartitions;
+    }
+
+    @JsonProperty("reviewPartitions")
+    public void setReviewPartitions(int reviewPartitions) {
+        this.reviewPartitions = reviewPartitions;
+    }
+
+    // --- Read replica for read-only units of work ---
+    @Valid
+    @NotNull
+    private WarmUpConfiguration warmUp = new WarmUpConfiguration();
+
+    @JsonProperty("warmUp")
+    public WarmUpConfiguration getWarmUp() {
+        return warmUp;
+    }
+
+    @JsonProperty("warmUp")
+    public void setWarmUp(WarmUpConfiguration warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Valid
+    @NotNull
+    private ReadReplicaConfiguration readReplica = new ReadReplicaConfiguration();
+
+    @JsonProperty("readReplica")
+    public ReadReplicaConfiguration getReadReplica() {
+        return readReplica;
+    }
+
+    @JsonProperty("readReplica")
+    public void setReadReplica(ReadReplicaConfiguration readReplica) {
+        this.readReplica = readReplica;
+    }
+
+    @Valid
+    @NotNull
+    private ConnectionBudgetConfiguration connectionBudget = new ConnectionBudgetConfiguration();
+
+    @JsonProperty("connectionBudget")
+    public ConnectionBudgetConfiguration getConnectionBudget() {
+        return connectionBudget;
+    }
+
+    @JsonProperty("connectionBudget")
+    public void setConnectionBudget(ConnectionBudgetConfiguration connectionBudget) {
+        this.connectionBudget = connectionBudget;
+    }
+
     // --- Custom property: bookServiceUrl ---
     @NotEmpty
     private String bookServiceUrl;
@@ -50,6 +135,165 @@ public class ReviewServiceConfiguration extends Configuration {
     public void setClerkDomain(String clerkDomain) {
         this.clerkDomain = clerkDomain;
     }
-}
 
+    // --- Per-client rate limits and load shedding ---
+    @Valid
+    @NotNull
+    private RateLimitConfiguration rateLimit = new RateLimitConfiguration();
+
+    @JsonProperty("rateLimit")
+    public RateLimitConfiguration getRateLimit() {
+        return rateLimit;
+    }
+
+    @JsonProperty("rateLimit")
+    public void setRateLimit(RateLimitConfiguration rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    // --- Review stream (SSE) ---
+    @Valid
+    @NotNull
+    private ReviewStreamConfiguration reviewStream = new ReviewStreamConfiguration();
+
+    @JsonProperty("reviewStream")
+    public ReviewStreamConfiguration getReviewStream() {
+        return reviewStream;
+    }
+
+    @JsonProperty("reviewStream")
+    public void setReviewStream(ReviewStreamConfiguration reviewStream) {
+        this.reviewStream = reviewStream;
+    }
+
+    // --- Bulk NDJSON ingest ---
+    @Valid
+    @NotNull
+    private BulkIngestConfiguration bulkIngest = new BulkIngestConfiguration();
+
+    @JsonProperty("bulkIngest")
+    public BulkIngestConfiguration getBulkIngest() {
+        return bulkIngest;
+    }
 
+    @JsonProperty("bulkIngest")
+    public void setBulkIngest(BulkIngestConfiguration bulkIngest) {
+        this.bulkIngest = bulkIngest;
+    }
+
+    // --- Group commit for POST /reviews ---
+    @Valid
+    @NotNull
+    private GroupCommitConfiguration groupCommit = new GroupCommitConfiguration();
+
+    @JsonProperty("groupCommit")
+    public GroupCommitConfiguration getGroupCommit() {
+        return groupCommit;
+    }
+
+    @JsonProperty("groupCommit")
+    public void setGroupCommit(GroupCommitConfiguration groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    // --- Idempotency-Key support on POST /reviews ---
+    @Valid
+    @NotNull
+    private IdempotencyConfiguration idempotency = new IdempotencyConfiguration();
+
+    @JsonProperty("idempotency")
+    public IdempotencyConfiguration getIdempotency() {
+        return idempotency;
+    }
+
+    @JsonProperty("idempotency")
+    public void setIdempotency(IdempotencyConfiguration idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    // --- Deleting the reviews of deleted books ---
+    @Valid
+    @NotNull
+    private ReviewPurgeConfiguration reviewPurge = new ReviewPurgeConfiguration();
+
+    @JsonProperty("reviewPurge")
+    public ReviewPurgeConfiguration getReviewPurge() {
+        return reviewPurge;
+    }
+
+    @JsonProperty("reviewPurge")
+    public void setReviewPurge(ReviewPurgeConfiguration reviewPurge) {
+        this.reviewPurge = reviewPurge;
+    }
+
+    // --- Jackson Blackbird module (generated accessors instead of reflection) ---
+    private boolean jacksonBlackbird = false;
+
+    @JsonProperty("jacksonBlackbird")
+    public boolean isJacksonBlackbird() {
+        return jacksonBlackbird;
+    }
+
+    @JsonProperty("jacksonBlackbird")
+    public void setJacksonBlackbird(boolean jacksonBlackbird) {
+        this.jacksonBlackbird = jacksonBlackbird;
+    }
+
+    // --- Collapse identical concurrent reads into one query ---
+    private boolean coalesceReads = true;
+
+    @JsonProperty("coalesceReads")
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    @JsonProperty("coalesceReads")
+    public void setCoalesceReads(boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    // --- Top rated and trending shelves ---
+    @Valid
+    @NotNull
+    private RankingConfiguration rankings = new RankingConfiguration();
+
+    @JsonProperty("rankings")
+    public RankingConfiguration getRankings() {
+        return rankings;
+    }
+
+    @JsonProperty("rankings")
+    public void setRankings(RankingConfiguration rankings) {
+        this.rankings = rankings;
+    }
+
+    // --- Most book IDs accepted by one POST /reviews/stats ---
+    @Min(1)
+    @Max(1000)
+    private int statsMaxBatchSize = 100;
+
+    @JsonProperty("statsMaxBatchSize")
+    public int getStatsMaxBatchSize() {
+        return statsMaxBatchSize;
+    }
+
+    @JsonProperty("statsMaxBatchSize")
+    public void setStatsMaxBatchSize(int statsMaxBatchSize) {
+        this.statsMaxBatchSize = statsMaxBatchSize;
+    }
+
+    // --- Rows per statement in POST /reviews/bulk-delete and bulk-update ---
+    @Min(1)
+    @Max(10000)
+    private int bulkChunkSize = 1000;
+
+    @JsonProperty("bulkChunkSize")
+    public int getBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
+    @JsonProperty("bulkChunkSize")
+    public void setBulkChunkSize(int bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+}
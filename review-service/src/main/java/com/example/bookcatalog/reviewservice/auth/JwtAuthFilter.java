@@ -6,6 +6,8 @@ import com.auth0.jwk.JwkProviderBuilder;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -14,15 +16,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
 
 public class JwtAuthFilter implements Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtAuthFilter.class);
     private final JwkProvider jwkProvider;
     private final String clerkDomain;
+    private final ObjectMapper objectMapper;
 
     public JwtAuthFilter(String clerkDomain) {
         this.clerkDomain = clerkDomain;
         this.jwkProvider = new JwkProviderBuilder(clerkDomain).build();
+        this.objectMapper = new ObjectMapper();
     }
 
     @Override
@@ -67,6 +72,13 @@ public class JwtAuthFilter implements Filter {
             // Verify the token
             algorithm.verify(jwt);
 
+            // The bulk delete/update endpoints check the role themselves
+            String role = extractRoleFromJWT(jwt);
+
+            // Set user info in request attributes for downstream use (rate limits, idempotency keys, admin checks)
+            request.setAttribute("userId", jwt.getSubject());
+            request.setAttribute("userRole", role);
+
             // Token is valid, proceed with request
             chain.doFilter(request, response);
 
@@ -76,6 +88,22 @@ public class JwtAuthFilter implements Filter {
         }
     }
 
+    private String extractRoleFromJWT(DecodedJWT jwt) {
+        try {
+            // Clerk stores user metadata in the JWT
+            // The structure is: claims -> public_metadata -> role
+            String payload = new String(Base64.getUrlDecoder().decode(jwt.getPayload()));
+            JsonNode publicMetadata = objectMapper.readTree(payload).get("public_metadata");
+            if (publicMetadata != null && publicMetadata.has("role")) {
+                return publicMetadata.get("role").asText();
+            }
+            return "user"; // Default role
+        } catch (Exception e) {
+            LOGGER.error("Error extracting role from JWT: {}", e.getMessage());
+            return "user";
+        }
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {}
 
@@ -1,9 +1,14 @@
 package com.example.bookcatalog.reviewservice.core;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;  // Changed from javax.persistence
 import jakarta.validation.constraints.*;  // Changed from javax.validation
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "reviews")
@@ -33,6 +38,18 @@ public class Review {
     @Column
     private String comment;
 
+    // Set by Hibernate on insert; drives the trending ranking
+    @JsonIgnore
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Set by Hibernate on every insert and update; feeds lastUpdated in POST /reviews/stats
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
     // Default constructor for Jackson/Hibernate
     public Review() {}
 
@@ -49,6 +66,10 @@ public class Review {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Integer getBookId() {
         return bookId;
     }
@@ -80,6 +101,22 @@ public class Review {
     public void setComment(String comment) {
         this.comment = comment;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
 
 
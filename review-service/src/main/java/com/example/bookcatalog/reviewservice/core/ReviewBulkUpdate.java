@@ -0,0 +1,93 @@
+package com.example.bookcatalog.reviewservice.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Body of POST /reviews/bulk-update, e.g. moving the reviews of a duplicate book:
+ * {"where": {"bookId": 42}, "set": {"bookId": 7}}
+ */
+public class ReviewBulkUpdate {
+
+    @Valid
+    @NotNull
+    private ReviewFilter where;
+
+    @Valid
+    @NotNull
+    private Changes set;
+
+    @JsonProperty
+    public ReviewFilter getWhere() {
+        return where;
+    }
+
+    @JsonProperty
+    public void setWhere(ReviewFilter where) {
+        this.where = where;
+    }
+
+    @JsonProperty
+    public Changes getSet() {
+        return set;
+    }
+
+    @JsonProperty
+    public void setSet(Changes set) {
+        this.set = set;
+    }
+
+    /**
+     * The new values; fields left out are not changed.  Ratings can't be bulk-set.
+     */
+    public static class Changes {
+
+        private Integer bookId;
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "reviewerName must not be blank")
+        private String reviewerName;
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "comment must not be blank")
+        private String comment;
+
+        @JsonProperty
+        public Integer getBookId() {
+            return bookId;
+        }
+
+        @JsonProperty
+        public void setBookId(Integer bookId) {
+            this.bookId = bookId;
+        }
+
+        @JsonProperty
+        public String getReviewerName() {
+            return reviewerName;
+        }
+
+        @JsonProperty
+        public void setReviewerName(String reviewerName) {
+            this.reviewerName = reviewerName;
+        }
+
+        @JsonProperty
+        public String getComment() {
+            return comment;
+        }
+
+        @JsonProperty
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+
+        @JsonIgnore
+        @AssertTrue(message = "set at least one of bookId, reviewerName, comment")
+        public boolean isAnyChange() {
+            return bookId != null || reviewerName != null || comment != null;
+        }
+    }
+}
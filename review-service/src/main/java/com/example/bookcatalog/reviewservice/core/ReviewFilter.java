@@ -0,0 +1,48 @@
+package com.example.bookcatalog.reviewservice.core;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Which reviews POST /reviews/bulk-delete and bulk-update change: {"ids": [1, 2, 3]} or {"bookId": 42}
+ */
+public class ReviewFilter {
+
+    @Size(max = 100_000, message = "at most 100000 ids per request")
+    private List<@NotNull Long> ids;
+
+    private Integer bookId;
+
+    @JsonProperty
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    @JsonProperty
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Matches every review of this book
+    @JsonProperty
+    public Integer getBookId() {
+        return bookId;
+    }
+
+    @JsonProperty
+    public void setBookId(Integer bookId) {
+        this.bookId = bookId;
+    }
+
+    // Exactly one filter, so an empty body can't match every review
+    @JsonIgnore
+    @AssertTrue(message = "give either ids or bookId")
+    public boolean isSingleFilter() {
+        return (ids != null && !ids.isEmpty()) != (bookId != null);
+    }
+}
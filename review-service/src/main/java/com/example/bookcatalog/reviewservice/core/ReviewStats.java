@@ -0,0 +1,50 @@
+package com.example.bookcatalog.reviewservice.core;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * Review count, average rating and last update for one book, as returned by POST /reviews/stats.
+ * A book without reviews has a count of 0 and no average or last update.
+ */
+public class ReviewStats {
+
+    private final int bookId;
+    private final long count;
+    private final Double averageRating;
+    private final Instant lastUpdated;
+
+    public ReviewStats(int bookId, long count, Double averageRating, Instant lastUpdated) {
+        this.bookId = bookId;
+        this.count = count;
+        this.averageRating = averageRating;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public static ReviewStats none(int bookId) {
+        return new ReviewStats(bookId, 0, null, null);
+    }
+
+    @JsonProperty
+    public int getBookId() {
+        return bookId;
+    }
+
+    @JsonProperty
+    public long getCount() {
+        return count;
+    }
+
+    @JsonProperty
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    @JsonProperty
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public Instant getLastUpdated() {
+        return lastUpdated;
+    }
+}
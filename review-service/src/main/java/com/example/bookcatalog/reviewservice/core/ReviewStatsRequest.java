@@ -0,0 +1,26 @@
+package com.example.bookcatalog.reviewservice.core;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Body of POST /reviews/stats: {"bookIds": [1, 2, 3]}
+ */
+public class ReviewStatsRequest {
+
+    @NotEmpty(message = "bookIds must not be empty")
+    private List<@NotNull Integer> bookIds;
+
+    @JsonProperty
+    public List<Integer> getBookIds() {
+        return bookIds;
+    }
+
+    @JsonProperty
+    public void setBookIds(List<Integer> bookIds) {
+        this.bookIds = bookIds;
+    }
+}
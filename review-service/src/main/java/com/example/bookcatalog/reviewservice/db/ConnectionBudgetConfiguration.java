@@ -0,0 +1,103 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * How many Postgres connections this service may use across all of its pods.
+ *
+ * book-service and review-service share one Postgres, so max_connections has to be
+ * split between them.  With the default max_connections of 100 we give each service 45
+ * and keep 10 for superuser/maintenance sessions.  A pod's share of the budget is
+ * clusterMaxConnections / replicas.
+ */
+public class ConnectionBudgetConfiguration {
+
+    @Min(1)
+    private int clusterMaxConnections = 45;
+
+    @Min(1)
+    private int replicas = 1;
+
+    private boolean adaptive = false;
+
+    @DecimalMin("1.0")
+    private double headroom = 1.5;
+
+    @NotNull
+    private Duration sampleInterval = Duration.seconds(1);
+
+    @NotNull
+    private Duration adjustInterval = Duration.seconds(30);
+
+    // Connections this service may hold across all pods.
+    @JsonProperty
+    public int getClusterMaxConnections() {
+        return clusterMaxConnections;
+    }
+
+    @JsonProperty
+    public void setClusterMaxConnections(int clusterMaxConnections) {
+        this.clusterMaxConnections = clusterMaxConnections;
+    }
+
+    // Expected pod count at full scale-out (e.g. the HPA maxReplicas).
+    @JsonProperty
+    public int getReplicas() {
+        return replicas;
+    }
+
+    @JsonProperty
+    public void setReplicas(int replicas) {
+        this.replicas = replicas;
+    }
+
+    // Resize the pool at runtime from observed concurrency, never above database.maxSize.
+    @JsonProperty
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    @JsonProperty
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    // Multiplier applied to the observed peak concurrency when picking the pool size.
+    @JsonProperty
+    public double getHeadroom() {
+        return headroom;
+    }
+
+    @JsonProperty
+    public void setHeadroom(double headroom) {
+        this.headroom = headroom;
+    }
+
+    @JsonProperty
+    public Duration getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @JsonProperty
+    public void setSampleInterval(Duration sampleInterval) {
+        this.sampleInterval = sampleInterval;
+    }
+
+    @JsonProperty
+    public Duration getAdjustInterval() {
+        return adjustInterval;
+    }
+
+    @JsonProperty
+    public void setAdjustInterval(Duration adjustInterval) {
+        this.adjustInterval = adjustInterval;
+    }
+
+    public int getPerPodBudget() {
+        return Math.max(1, clusterMaxConnections / replicas);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The columns a client asked for with ?fields=, checked against what the entity exposes.
+ *
+ * DAOs turn this into the select list of an HQL query, so columns that weren't asked
+ * for are never read from Postgres, and each row comes back as a map holding just the
+ * selected fields, in the order they were requested.
+ */
+public final class FieldProjection {
+
+    private final List<String> fields;
+
+    private FieldProjection(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma separated field list.  Entity attribute names are used as-is, so they
+     * must match the JSON property names.
+     *
+     * @return the projection, or null when fields is null or blank (select everything)
+     * @throws IllegalArgumentException if a field isn't one of allowed
+     */
+    public static FieldProjection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of "
+                        + String.join(", ", new TreeSet<>(allowed)));
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? null : new FieldProjection(new ArrayList<>(selected));
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * The HQL select list, e.g. "b.id, b.title" for alias "b".
+     */
+    public String selectList(String alias) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(alias).append('.').append(field);
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> map = new LinkedHashMap<>(fields.size() * 2);
+        for (int i = 0; i < fields.size(); i++) {
+            map.put(fields.get(i), row[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.example.bookcatalog.reviewservice.ReviewServiceConfiguration;
+import io.dropwizard.core.cli.ConfiguredCommand;
+import io.dropwizard.core.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.util.Map;
+
+/**
+ * {@code java -jar review-service.jar migrate config.yaml}
+ *
+ * Applies pending migrations and exits, for running as a one-shot job or init container
+ * ahead of pods started with migrationOnStartup: never.
+ */
+public class MigrateCommand extends ConfiguredCommand<ReviewServiceConfiguration> {
+
+    public MigrateCommand() {
+        super("migrate", "Apply pending database migrations and exit");
+    }
+
+    @Override
+    protected void run(Bootstrap<ReviewServiceConfiguration> bootstrap, Namespace namespace,
+                       ReviewServiceConfiguration configuration) {
+        new SchemaMigrator(configuration.getDataSourceFactory(), "reviews_schema", "flyway_schema_history_reviews",
+                Map.of("reviewPartitions", String.valueOf(configuration.getReviewPartitions()))).migrate();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.util.Duration;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Optional streaming replica for read-only requests.
+ *
+ * Disabled by default, in which case everything goes to the primary.  When enabled, resource
+ * methods annotated @UnitOfWork(readOnly = true) read from the replica as long as its
+ * replay lag stays under maxLag; a client that has just written is kept on the primary
+ * for stickyWindow so it always sees its own writes.
+ */
+public class ReadReplicaConfiguration {
+
+    private boolean enabled = false;
+
+    @Valid
+    private DataSourceFactory database;
+
+    @NotNull
+    private Duration maxLag = Duration.seconds(2);
+
+    @NotNull
+    private Duration lagCheckInterval = Duration.seconds(1);
+
+    @NotNull
+    private Duration stickyWindow = Duration.seconds(5);
+
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled && database != null;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Connection settings for the replica.
+    @JsonProperty
+    public DataSourceFactory getDatabase() {
+        return database;
+    }
+
+    @JsonProperty
+    public void setDatabase(DataSourceFactory database) {
+        this.database = database;
+    }
+
+    // Reads fall back to the primary while the replica is further behind than this.
+    @JsonProperty
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    @JsonProperty
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    @JsonProperty
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    @JsonProperty
+    public void setLagCheckInterval(Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    // How long after a write the same client keeps reading from the primary.
+    @JsonProperty
+    public Duration getStickyWindow() {
+        return stickyWindow;
+    }
+
+    @JsonProperty
+    public void setStickyWindow(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.db.ManagedDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Hands out replica connections to requests that asked for them, primary connections to
+ * everything else.
+ *
+ * The choice is made per thread by {@link ReadReplicaRoutingFilter} before the request's
+ * unit of work opens its transaction, which is when Hibernate borrows the connection.
+ * Background work (executors, Flyway, health checks) never sets the flag and so always
+ * uses the primary.  If the replica is lagging or can't be reached the read quietly goes
+ * to the primary instead.
+ */
+public class ReplicaRoutingDataSource implements ManagedDataSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> READ_FROM_REPLICA = ThreadLocal.withInitial(() -> false);
+
+    private final ManagedDataSource primary;
+    private final ManagedDataSource replica;
+    private final Meter replicaReads;
+    private final Meter primaryFallbacks;
+    private volatile boolean replicaAvailable = true;
+
+    public ReplicaRoutingDataSource(ManagedDataSource primary, ManagedDataSource replica, MetricRegistry metrics) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaReads = metrics.meter(MetricRegistry.name(ReplicaRoutingDataSource.class, "replica-reads"));
+        this.primaryFallbacks = metrics.meter(MetricRegistry.name(ReplicaRoutingDataSource.class, "primary-fallbacks"));
+    }
+
+    /**
+     * Routes connections borrowed on the current thread to the replica (true) or the
+     * primary (false) until changed or cleared.
+     */
+    public static void readFromReplica(boolean useReplica) {
+        READ_FROM_REPLICA.set(useReplica);
+    }
+
+    public static void clearRoute() {
+        READ_FROM_REPLICA.remove();
+    }
+
+    public static boolean isReadFromReplica() {
+        return READ_FROM_REPLICA.get();
+    }
+
+    public ManagedDataSource getPrimary() {
+        return primary;
+    }
+
+    public ManagedDataSource getReplica() {
+        return replica;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        if (this.replicaAvailable != replicaAvailable) {
+            LOGGER.info(replicaAvailable ? "Read replica back in rotation" : "Read replica taken out of rotation");
+        }
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!READ_FROM_REPLICA.get()) {
+            return primary.getConnection();
+        }
+        if (replicaAvailable) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaReads.mark();
+                return connection;
+            } catch (SQLException e) {
+                LOGGER.warn("Read replica unavailable, using primary: {}", e.getMessage());
+                setReplicaAvailable(false);
+            }
+        }
+        primaryFallbacks.mark();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void start() throws Exception {
+        primary.start();
+        replica.start();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        try {
+            replica.stop();
+        } finally {
+            primary.stop();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
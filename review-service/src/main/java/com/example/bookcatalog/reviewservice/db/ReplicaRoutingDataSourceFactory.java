@@ -0,0 +1,81 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.db.DataSourceFactory;
+import io.dropwizard.db.ManagedDataSource;
+import io.dropwizard.db.PooledDataSourceFactory;
+import io.dropwizard.util.Duration;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lets the HibernateBundle build one SessionFactory over a primary and a replica pool.
+ *
+ * Everything Hibernate reads from the factory (driver, URL, properties, validation query)
+ * comes from the primary; only {@link #build} differs, returning a
+ * {@link ReplicaRoutingDataSource} over both pools.
+ */
+public class ReplicaRoutingDataSourceFactory implements PooledDataSourceFactory {
+
+    private final DataSourceFactory primary;
+    private final DataSourceFactory replica;
+    private ReplicaRoutingDataSource dataSource;
+
+    public ReplicaRoutingDataSourceFactory(DataSourceFactory primary, DataSourceFactory replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    @Override
+    public ManagedDataSource build(MetricRegistry metricRegistry, String name) {
+        dataSource = new ReplicaRoutingDataSource(
+                primary.build(metricRegistry, name),
+                replica.build(metricRegistry, name + "-replica"),
+                metricRegistry);
+        return dataSource;
+    }
+
+    /**
+     * The data source created by {@link #build}, or null if the bundle hasn't run yet.
+     */
+    public ReplicaRoutingDataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public boolean isAutoCommentsEnabled() {
+        return primary.isAutoCommentsEnabled();
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return primary.getProperties();
+    }
+
+    @Override
+    public Optional<Duration> getValidationQueryTimeout() {
+        return primary.getValidationQueryTimeout();
+    }
+
+    @Override
+    public Optional<String> getValidationQuery() {
+        return primary.getValidationQuery();
+    }
+
+    @Override
+    public String getDriverClass() {
+        return primary.getDriverClass();
+    }
+
+    @Override
+    public String getUrl() {
+        return primary.getUrl();
+    }
+
+    @Override
+    public void asSingleConnectionPool() {
+        primary.asSingleConnectionPool();
+        replica.asSingleConnectionPool();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Inserts reviews with plain JDBC batching, one transaction per batch.
+ *
+ * Persisting through Hibernate can't batch because Review ids are IDENTITY generated
+ * and Hibernate has to read each id back.  Here the id column is left to its serial
+ * default and nothing is read back, so the driver can send the whole batch at once
+ * (as multi-row INSERTs when reWriteBatchedInserts is set on the Postgres connection).
+ */
+public class ReviewBatchWriter {
+
+    private final SessionFactory sessionFactory;
+    private final String insertSql;
+
+    public ReviewBatchWriter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.insertSql = "INSERT INTO " + qualifiedTable(sessionFactory, "reviews")
+                + " (book_id, reviewer_name, rating, comment, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Inserts all reviews in a single transaction.  Either every row is written or,
+     * if the batch fails, none are and the exception is rethrown.
+     *
+     * @return the number of rows inserted
+     */
+    public int insert(List<Review> reviews) {
+        return insert(reviews, false);
+    }
+
+    /**
+     * Like {@link #insert(List)}, but also reads back each row's generated id and sets it,
+     * with the timestamps, on the review.  For callers that hand the reviews back to clients.
+     */
+    public int insertReturningIds(List<Review> reviews) {
+        return insert(reviews, true);
+    }
+
+    private int insert(List<Review> reviews, boolean returnIds) {
+        if (reviews.isEmpty()) {
+            return 0;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = returnIds
+                            ? connection.prepareStatement(insertSql, new String[] {"id"})
+                            : connection.prepareStatement(insertSql)) {
+                        Timestamp now = Timestamp.from(Instant.now());
+                        for (Review review : reviews) {
+                            statement.setInt(1, review.getBookId());
+                            statement.setString(2, review.getReviewerName());
+                            statement.setInt(3, review.getRating());
+                            statement.setString(4, review.getComment());
+                            statement.setTimestamp(5, now);
+                            statement.setTimestamp(6, now);
+                            review.setCreatedAt(now.toInstant());
+                            review.setUpdatedAt(now.toInstant());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        if (returnIds) {
+                            readIds(statement, reviews);
+                        }
+                    }
+                });
+                transaction.commit();
+                return reviews.size();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Generated keys come back in the order the rows were added to the batch.
+    private static void readIds(PreparedStatement statement, List<Review> reviews) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (Review review : reviews) {
+                if (!keys.next()) {
+                    throw new SQLException("Expected " + reviews.size() + " generated ids");
+                }
+                review.setId(keys.getLong(1));
+            }
+        }
+    }
+
+    // Native SQL isn't qualified by Hibernate, so apply hibernate.default_schema ourselves.
+    static String qualifiedTable(SessionFactory sessionFactory, String table) {
+        Object schema = sessionFactory.getProperties().get("hibernate.default_schema");
+        return schema == null || schema.toString().isBlank() ? table : schema + "." + table;
+    }
+}
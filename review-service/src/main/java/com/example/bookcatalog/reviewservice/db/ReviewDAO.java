@@ -2,14 +2,37 @@ package com.example.bookcatalog.reviewservice.db;
 
 import io.dropwizard.hibernate.AbstractDAO;
 import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.core.ReviewBulkUpdate;
+import com.example.bookcatalog.reviewservice.core.ReviewStats;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.MutationQuery;
 import org.hibernate.query.Query;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * The reviews table is hash-partitioned on book_id.  Queries that filter on bookId with = or
+ * IN are pruned to the partitions holding those books; lookups by id alone probe every
+ * partition's id index.
+ */
 public class ReviewDAO extends AbstractDAO<Review> {
 
+    // Fields that can be selected with ?fields=
+    public static final Set<String> FIELDS = Set.of("id", "bookId", "reviewerName", "rating", "comment");
+
     public ReviewDAO(SessionFactory sessionFactory) {
         super(sessionFactory);
     }
@@ -23,6 +46,68 @@ public class ReviewDAO extends AbstractDAO<Review> {
         return Optional.ofNullable(get(id));
     }
 
+    public List<Map<String, Object>> findAll(FieldProjection projection) {
+        return currentSession()
+                .createQuery("SELECT " + projection.selectList("r") + " FROM Review r", Object[].class)
+                .list()
+                .stream()
+                .map(projection::toMap)
+                .toList();
+    }
+
+    public Optional<Map<String, Object>> findById(Long id, FieldProjection projection) {
+        return currentSession()
+                .createQuery("SELECT " + projection.selectList("r") + " FROM Review r WHERE r.id = :id", Object[].class)
+                .setParameter("id", id)
+                .uniqueResultOptional()
+                .map(projection::toMap);
+    }
+
+    // The book's reviews, for GET /reviews/book/{bookId}.  Reads one partition
+    public List<Review> findByBook(Integer bookId) {
+        return list(currentSession()
+                .createQuery("FROM Review r WHERE r.bookId = :bookId", Review.class)
+                .setParameter("bookId", bookId));
+    }
+
+    /**
+     * The newest reviews of a book after the given id, at most limit of them, in id order.
+     * What a review stream client that reconnects with Last-Event-ID has missed.
+     */
+    public List<Review> findByBookAfter(Integer bookId, long afterId, int limit) {
+        List<Review> reviews = new ArrayList<>(list(currentSession()
+                .createQuery("FROM Review r WHERE r.bookId = :bookId AND r.id > :afterId ORDER BY r.id DESC", Review.class)
+                .setParameter("bookId", bookId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)));
+        Collections.reverse(reviews);
+        return reviews;
+    }
+
+    // The same, just the given fields.  Reads one partition
+    public List<Map<String, Object>> findByBook(Integer bookId, FieldProjection projection) {
+        return currentSession()
+                .createQuery("SELECT " + projection.selectList("r") + " FROM Review r WHERE r.bookId = :bookId", Object[].class)
+                .setParameter("bookId", bookId)
+                .list()
+                .stream()
+                .map(projection::toMap)
+                .toList();
+    }
+
+    // One GROUP BY over the book_id index for all the books, in just their partitions; books
+    // without reviews are absent.
+    public List<ReviewStats> statsByBook(Collection<Integer> bookIds) {
+        return currentSession()
+                .createQuery("SELECT r.bookId, count(r), avg(r.rating), max(r.updatedAt) FROM Review r"
+                        + " WHERE r.bookId IN :bookIds GROUP BY r.bookId", Object[].class)
+                .setParameterList("bookIds", bookIds)
+                .list()
+                .stream()
+                .map(row -> new ReviewStats((Integer) row[0], (Long) row[1], (Double) row[2], (Instant) row[3]))
+                .toList();
+    }
+
     public Review create(Review review) {
         currentSession().persist(review);
         return review;
@@ -35,6 +120,96 @@ public class ReviewDAO extends AbstractDAO<Review> {
     public void update(Review review) {
         currentSession().saveOrUpdate(review);
     }
+
+    // Ids only, in order, so bulk changes can walk a book's reviews a chunk at a time.  Reads one partition.
+    public List<Long> idsOfBook(int bookId, long afterId, int limit) {
+        return currentSession()
+                .createQuery("SELECT r.id FROM Review r WHERE r.bookId = :bookId AND r.id > :afterId ORDER BY r.id", Long.class)
+                .setParameter("bookId", bookId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    // One DELETE statement; the reviews are never loaded.  With bookId it touches only that
+    // book's partition.
+    public int deleteByIds(Collection<Long> ids, Integer bookId) {
+        MutationQuery query = currentSession()
+                .createMutationQuery("DELETE FROM Review r WHERE r.id IN :ids" + (bookId == null ? "" : " AND r.bookId = :bookId"))
+                .setParameterList("ids", ids);
+        if (bookId != null) {
+            query.setParameter("bookId", bookId);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * One UPDATE statement setting the given fields, and updatedAt, which @UpdateTimestamp
+     * leaves alone for HQL updates.  With bookId it touches only that book's partition; a
+     * new bookId moves the rows to their new partition.
+     */
+    public int updateByIds(Collection<Long> ids, Integer bookId, ReviewBulkUpdate.Changes set) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("updatedAt", Instant.now());
+        if (set.getBookId() != null) {
+            values.put("bookId", set.getBookId());
+        }
+        if (set.getReviewerName() != null) {
+            values.put("reviewerName", set.getReviewerName());
+        }
+        if (set.getComment() != null) {
+            values.put("comment", set.getComment());
+        }
+        String assignments = values.keySet().stream()
+                .map(field -> "r." + field + " = :new_" + field)
+                .collect(Collectors.joining(", "));
+        MutationQuery query = currentSession()
+                .createMutationQuery("UPDATE Review r SET " + assignments + " WHERE r.id IN :ids"
+                        + (bookId == null ? "" : " AND r.bookId = :bookId"))
+                .setParameterList("ids", ids);
+        values.forEach((field, value) -> query.setParameter("new_" + field, value));
+        if (bookId != null) {
+            query.setParameter("bookId", bookId);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Runs the work in its own transaction on the current session, for units of work declared
+     * with transactional = false that only sometimes write.  Rolls back if the work throws.
+     */
+    public <T> T inTransaction(Supplier<T> work) {
+        Transaction transaction = currentSession().beginTransaction();
+        try {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the action once the current transaction has committed.  Used for side effects
+     * (like notifying stream subscribers) that must not happen if the write rolls back.
+     */
+    public void afterCommit(Runnable action) {
+        currentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
 }
 
 
@@ -0,0 +1,52 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.time.Instant;
+
+/**
+ * Streams (book, rating, created) for every review, fetchSize rows at a time, without
+ * loading entities into a persistence context.  Reads from the replica when one is
+ * configured and available.
+ */
+public class ReviewRatingScanner {
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int bookId, int rating, Instant createdAt);
+    }
+
+    private final SessionFactory sessionFactory;
+    private final int fetchSize;
+
+    public ReviewRatingScanner(SessionFactory sessionFactory, int fetchSize) {
+        this.sessionFactory = sessionFactory;
+        this.fetchSize = fetchSize;
+    }
+
+    public void scan(Visitor visitor) {
+        ReplicaRoutingDataSource.readFromReplica(true);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // The Postgres driver only honours the fetch size inside a transaction
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> rows = session
+                    .createQuery("SELECT r.bookId, r.rating, r.createdAt FROM Review r", Object[].class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    visitor.visit((Integer) row[0], (Integer) row[1], (Instant) row[2]);
+                }
+            } finally {
+                transaction.rollback();
+            }
+        } finally {
+            ReplicaRoutingDataSource.clearRoute();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import io.dropwizard.db.DataSourceFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Runs the Flyway migrations for this service's schema.
+ *
+ * After a successful migration a SHA-256 of the bundled migration scripts is recorded in
+ * schema_fingerprint.  With {@link OnStartup#IF_CHANGED} a later start whose scripts hash
+ * to the same value skips Flyway altogether (its classpath scan, history validation and
+ * lock), which is the common case when pods are restarted or scaled out.
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    static final String LOCATION = "db";
+
+    public enum OnStartup {
+        /** Always run Flyway, validating the applied history against the scripts. */
+        ALWAYS,
+        /** Run Flyway only when the scripts differ from the last successful migration. */
+        IF_CHANGED,
+        /** Leave the schema alone; migrations are applied by the migrate command. */
+        NEVER
+    }
+
+    private final DataSourceFactory database;
+    private final String schema;
+    private final String historyTable;
+    private final String location;
+    private final Map<String, String> placeholders;
+
+    public SchemaMigrator(DataSourceFactory database, String schema, String historyTable) {
+        this(database, schema, historyTable, Map.of());
+    }
+
+    /**
+     * @param placeholders values for ${name} placeholders in the scripts; they only take effect
+     *                     in migrations that have not run yet
+     */
+    public SchemaMigrator(DataSourceFactory database, String schema, String historyTable,
+                          Map<String, String> placeholders) {
+        this(database, schema, historyTable, LOCATION, placeholders);
+    }
+
+    SchemaMigrator(DataSourceFactory database, String schema, String historyTable, String location) {
+        this(database, schema, historyTable, location, Map.of());
+    }
+
+    SchemaMigrator(DataSourceFactory database, String schema, String historyTable, String location,
+                   Map<String, String> placeholders) {
+        this.database = database;
+        this.schema = schema;
+        this.historyTable = historyTable;
+        this.location = location;
+        this.placeholders = placeholders;
+    }
+
+    public void runOnStartup(OnStartup mode) {
+        switch (mode) {
+            case NEVER -> LOGGER.info("Schema migration on startup disabled");
+            case IF_CHANGED -> {
+                if (isUpToDate()) {
+                    LOGGER.info("Migration scripts unchanged since the last migration, skipping Flyway");
+                } else {
+                    migrate();
+                }
+            }
+            case ALWAYS -> migrate();
+        }
+    }
+
+    public MigrateResult migrate() {
+        Flyway flyway = Flyway.configure()
+                .dataSource(database.getUrl(), database.getUser(), database.getPassword())
+                .schemas(schema) // Dedicated schema for this service
+                .locations("classpath:" + location)
+                .table(historyTable)
+                .placeholders(placeholders)
+                .createSchemas(true) // Auto-create schema if it doesn't exist
+                .baselineOnMigrate(true)
+                .load();
+
+        LOGGER.info("Starting Flyway migrations...");
+        MigrateResult result = flyway.migrate();
+        LOGGER.info("Flyway migration complete. {} migrations executed.", result.migrationsExecuted);
+        recordFingerprint();
+        return result;
+    }
+
+    boolean isUpToDate() {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT fingerprint FROM " + schema + ".schema_fingerprint")) {
+            return rs.next() && rs.getString(1).equals(fingerprint());
+        } catch (SQLException e) {
+            // First start against this database (no schema or table yet)
+            LOGGER.debug("No schema fingerprint recorded: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void recordFingerprint() {
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + schema + ".schema_fingerprint ("
+                        + "fingerprint VARCHAR(64) NOT NULL, recorded_at TIMESTAMP NOT NULL)");
+                statement.execute("DELETE FROM " + schema + ".schema_fingerprint");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + schema + ".schema_fingerprint (fingerprint, recorded_at) VALUES (?, ?)")) {
+                insert.setString(1, fingerprint());
+                insert.setTimestamp(2, Timestamp.from(Instant.now()));
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            // Only costs a full Flyway run on the next start
+            LOGGER.warn("Could not record the schema fingerprint: {}", e.getMessage());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(database.getUrl(), database.getUser(), database.getPassword());
+    }
+
+    /**
+     * SHA-256 over the names and contents of the migration scripts, in name order.
+     */
+    String fingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String name : scriptNames()) {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Resource names of the .sql scripts under the location, from a directory or the service jar.
+    private TreeSet<String> scriptNames() throws IOException {
+        TreeSet<String> names = new TreeSet<>();
+        for (URL url : Collections.list(getClass().getClassLoader().getResources(location))) {
+            if ("jar".equals(url.getProtocol())) {
+                JarURLConnection jar = (JarURLConnection) url.openConnection();
+                jar.setUseCaches(false);
+                try (JarFile file = jar.getJarFile()) {
+                    file.stream()
+                            .map(JarEntry::getName)
+                            .filter(name -> name.startsWith(location + "/") && name.endsWith(".sql"))
+                            .forEach(names::add);
+                }
+            } else {
+                Path dir = toPath(url);
+                try (Stream<Path> files = Files.walk(dir)) {
+                    files.filter(file -> file.toString().endsWith(".sql"))
+                            .forEach(file -> names.add(location + "/" + dir.relativize(file).toString().replace('\\', '/')));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Unsupported migration location " + url, e);
+        }
+    }
+}
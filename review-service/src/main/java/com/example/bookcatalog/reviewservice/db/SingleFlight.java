@@ -0,0 +1,73 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one.
+ *
+ * The first caller for a key runs the load; callers arriving with the same key while it
+ * is running wait for it and get the same result (or exception).  Nothing is cached: as
+ * soon as the load finishes the next caller starts a fresh one, so a reader never sees
+ * data older than a query that was already running when it arrived.
+ *
+ * Results are shared between requests, so they must not be modified by the caller.
+ */
+public class SingleFlight {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Meter executions;
+    private final Meter coalesced;
+
+    public SingleFlight(String name, boolean enabled, MetricRegistry metrics) {
+        this.enabled = enabled;
+        this.executions = metrics.meter(MetricRegistry.name(SingleFlight.class, name, "executions"));
+        this.coalesced = metrics.meter(MetricRegistry.name(SingleFlight.class, name, "coalesced"));
+        // Share of reads that were served by another request's query
+        metrics.register(MetricRegistry.name(SingleFlight.class, name, "coalescing-ratio"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(coalesced.getOneMinuteRate(),
+                        coalesced.getOneMinuteRate() + executions.getOneMinuteRate());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> load) {
+        if (!enabled) {
+            executions.mark();
+            return load.get();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.mark();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        executions.mark();
+        try {
+            T result = load.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
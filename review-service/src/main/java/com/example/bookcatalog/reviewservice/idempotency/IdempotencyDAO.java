@@ -0,0 +1,83 @@
+package com.example.bookcatalog.reviewservice.idempotency;
+
+import io.dropwizard.hibernate.AbstractDAO;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class IdempotencyDAO extends AbstractDAO<IdempotencyRecord> {
+
+    private final SessionFactory sessionFactory;
+
+    public IdempotencyDAO(SessionFactory sessionFactory) {
+        super(sessionFactory);
+        this.sessionFactory = sessionFactory;
+    }
+
+    public Optional<IdempotencyRecord> find(String keyHash) {
+        return Optional.ofNullable(get(keyHash));
+    }
+
+    /**
+     * Inserts the record straight away rather than at commit.  A concurrent request with
+     * the same key then waits on this row and fails with a constraint violation once we commit.
+     */
+    public IdempotencyRecord claim(IdempotencyRecord record) {
+        currentSession().persist(record);
+        currentSession().flush();
+        return record;
+    }
+
+    // Flushed at once so the key can be claimed again in the same transaction.
+    public void release(IdempotencyRecord record) {
+        currentSession().remove(record);
+        currentSession().flush();
+    }
+
+    /**
+     * Runs the action when the current transaction ends, with true if it committed.
+     */
+    public void afterCompletion(Consumer<Boolean> action) {
+        currentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Deletes records created before the cutoff, in a session and transaction of its own
+     * since it runs from the purge job rather than a request.  Uses the created_at index.
+     *
+     * @return the number of records deleted
+     */
+    public int purgeCreatedBefore(Instant cutoff) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                int deleted = session
+                        .createMutationQuery("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+                        .setParameter("cutoff", cutoff)
+                        .executeUpdate();
+                transaction.commit();
+                return deleted;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.bookcatalog.reviewservice.idempotency;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.lifecycle.Managed;
+import jakarta.persistence.PersistenceException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes a create safe to retry: the first request with a given Idempotency-Key runs, and
+ * later ones with the same key get its response back without running again.
+ *
+ * Responses are kept in the idempotency_keys table, written in the same transaction as the
+ * create itself, so a key is remembered exactly when its write committed.  The most recent
+ * ones are also kept in a bounded in-memory map, so a retry storm is answered from memory.
+ * Keys older than ttl are deleted by a periodic purge using the created_at index.
+ *
+ * A retry that arrives while the first request is still running gets 409 and can try again;
+ * a key reused with a different request body gets 422.
+ */
+public class IdempotencyStore implements Managed {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyDAO dao;
+    private final IdempotencyConfiguration config;
+    private final ObjectMapper mapper;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+
+    // Committed responses by key hash, least recently used first
+    private final Map<String, IdempotencyRecord> recent;
+    // Keys being created on this pod
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Meter replayed;
+    private final Meter conflicts;
+    private final Meter purged;
+
+    private ScheduledFuture<?> purgeTask;
+
+    public IdempotencyStore(IdempotencyDAO dao, IdempotencyConfiguration config, ObjectMapper mapper,
+                            ScheduledExecutorService scheduler, MetricRegistry metrics, Clock clock) {
+        this.dao = dao;
+        this.config = config;
+        this.mapper = mapper;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        final int cacheSize = config.getCacheSize();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.replayed = metrics.meter(MetricRegistry.name(IdempotencyStore.class, "replayed"));
+        this.conflicts = metrics.meter(MetricRegistry.name(IdempotencyStore.class, "conflicts"));
+        this.purged = metrics.meter(MetricRegistry.name(IdempotencyStore.class, "purged"));
+        metrics.register(MetricRegistry.name(IdempotencyStore.class, "cached"), (Gauge<Integer>) this::cached);
+    }
+
+    @Override
+    public void start() {
+        long interval = config.getPurgeInterval().toMilliseconds();
+        purgeTask = scheduler.scheduleWithFixedDelay(this::purgeQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (purgeTask != null) {
+            purgeTask.cancel(false);
+        }
+    }
+
+    /**
+     * Runs create once per key, or replays the response it gave.  Must be called inside the
+     * unit of work's transaction, which create writes in too.  Only successful responses are
+     * remembered; after an error the same key can be used again.
+     *
+     * @param scope      the route and client the key belongs to
+     * @param key        the Idempotency-Key header, or null to just run create
+     * @param request    the request body, compared on replay
+     * @param entityType the type of create's response entity, to replay it in any media type
+     */
+    public <T> Response execute(String scope, String key, Object request, Class<T> entityType,
+                                Supplier<Response> create) {
+        if (key == null) {
+            return create.get();
+        }
+        if (key.isBlank() || key.length() > config.getMaxKeyLength()) {
+            return error(Response.Status.BAD_REQUEST.getStatusCode(),
+                    HEADER + " must be 1 to " + config.getMaxKeyLength() + " characters");
+        }
+        String keyHash = sha256(scope + '\n' + key);
+        String requestHash = sha256(json(request));
+
+        IdempotencyRecord previous = lookUp(keyHash);
+        if (previous != null && expired(previous)) {
+            dao.release(previous);
+            previous = null;
+        }
+        if (previous != null) {
+            if (!previous.isComplete()) {
+                return inProgress();
+            }
+            if (!previous.getRequestHash().equals(requestHash)) {
+                return error(422,
+                        HEADER + " was already used for a different request");
+            }
+            replayed.mark();
+            return replay(previous, entityType);
+        }
+
+        if (!inFlight.add(keyHash)) {
+            return inProgress();
+        }
+        IdempotencyRecord record;
+        try {
+            dao.afterCompletion(committed -> inFlight.remove(keyHash));
+            record = dao.claim(new IdempotencyRecord(keyHash, requestHash, clock.instant()));
+        } catch (PersistenceException e) {
+            if (!(e.getCause() instanceof ConstraintViolationException)) {
+                throw e;
+            }
+            // Another pod claimed the key first.  The failed insert marks this transaction
+            // rollback-only, which is fine as nothing has been written yet.
+            return inProgress();
+        }
+
+        Response response = create.get();
+        if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL && response.hasEntity()) {
+            record.complete(response.getStatus(), json(response.getEntity()));
+            dao.afterCompletion(committed -> {
+                if (committed) {
+                    remember(record);
+                }
+            });
+        } else {
+            dao.release(record);
+        }
+        return response;
+    }
+
+    /**
+     * Deletes keys older than ttl from the table and from memory.
+     *
+     * @return the number of rows deleted
+     */
+    public int purge() {
+        Instant cutoff = clock.instant().minus(config.getTtl().toJavaDuration());
+        synchronized (recent) {
+            recent.values().removeIf(record -> record.getCreatedAt().isBefore(cutoff));
+        }
+        int deleted = dao.purgeCreatedBefore(cutoff);
+        purged.mark(deleted);
+        if (deleted > 0) {
+            LOGGER.info("Purged {} idempotency keys created before {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    int cached() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            // Expired keys stay a little longer; the next run tries again
+            LOGGER.warn("Could not purge idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+
+    // From memory if it is there and still valid, otherwise from the table, expired or not
+    private IdempotencyRecord lookUp(String keyHash) {
+        synchronized (recent) {
+            IdempotencyRecord record = recent.get(keyHash);
+            if (record != null && !expired(record)) {
+                return record;
+            }
+            recent.remove(keyHash);
+        }
+        IdempotencyRecord record = dao.find(keyHash).orElse(null);
+        if (record != null && !expired(record)) {
+            remember(record);
+        }
+        return record;
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getKeyHash(), record);
+        }
+    }
+
+    private boolean expired(IdempotencyRecord record) {
+        return record.getCreatedAt().plus(config.getTtl().toJavaDuration()).isBefore(clock.instant());
+    }
+
+    private <T> Response replay(IdempotencyRecord record, Class<T> entityType) {
+        try {
+            return Response.status(record.getStatus())
+                    .entity(mapper.readValue(record.getBody(), entityType))
+                    .header(REPLAYED_HEADER, "true")
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotency key is not a " + entityType.getSimpleName(), e);
+        }
+    }
+
+    private Response inProgress() {
+        conflicts.mark();
+        return error(Response.Status.CONFLICT.getStatusCode(), "A request with this " + HEADER + " is still in progress");
+    }
+
+    private static Response error(int status, String message) {
+        return Response.status(status)
+                .entity(message)
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .build();
+    }
+
+    private String json(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
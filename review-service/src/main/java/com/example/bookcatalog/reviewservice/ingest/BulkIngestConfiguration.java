@@ -0,0 +1,40 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Settings for the NDJSON bulk ingest endpoint (POST /reviews/bulk).
+ */
+public class BulkIngestConfiguration {
+
+    @Min(1)
+    @Max(10_000)
+    private int batchSize = 500;
+
+    @Min(0)
+    private int maxReportedErrors = 1000;
+
+    // Rows written per JDBC batch and per transaction.
+    @JsonProperty
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @JsonProperty
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // Per-line errors listed in the response; the failed count is always exact.
+    @JsonProperty
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    @JsonProperty
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Summary returned by POST /reviews/bulk.
+ */
+public class BulkIngestResult {
+
+    /**
+     * A line of the upload that was not inserted, and why.
+     */
+    public static class LineError {
+        private final long line;
+        private final String message;
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        @JsonProperty
+        public long getLine() {
+            return line;
+        }
+
+        @JsonProperty
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final long linesRead;
+    private final long inserted;
+    private final long failed;
+    private final long batches;
+    private final long elapsedMillis;
+    private final List<LineError> errors;
+    private final boolean errorsTruncated;
+
+    public BulkIngestResult(long linesRead, long inserted, long failed, long batches, long elapsedMillis,
+                            List<LineError> errors, boolean errorsTruncated) {
+        this.linesRead = linesRead;
+        this.inserted = inserted;
+        this.failed = failed;
+        this.batches = batches;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    @JsonProperty
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    @JsonProperty
+    public long getInserted() {
+        return inserted;
+    }
+
+    @JsonProperty
+    public long getFailed() {
+        return failed;
+    }
+
+    @JsonProperty
+    public long getBatches() {
+        return batches;
+    }
+
+    @JsonProperty
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @JsonProperty
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? inserted : inserted * 1000.0 / elapsedMillis;
+    }
+
+    @JsonProperty
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    @JsonProperty
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+}
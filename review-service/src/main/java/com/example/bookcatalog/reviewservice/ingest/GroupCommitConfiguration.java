@@ -0,0 +1,99 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for group commit of POST /reviews: concurrent reviews are queued and written
+ * together, several per transaction.
+ */
+public class GroupCommitConfiguration {
+
+    private boolean enabled = false;
+
+    @Min(1)
+    private int queueCapacity = 2000;
+
+    @Min(1)
+    @Max(10_000)
+    private int maxBatchSize = 100;
+
+    @NotNull
+    private Duration maxDelay = Duration.milliseconds(2);
+
+    @Min(1)
+    @Max(16)
+    private int writers = 1;
+
+    @NotNull
+    private Duration maxWait = Duration.seconds(10);
+
+    // Off by default: every POST /reviews commits on its own.
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Reviews waiting to be written; once full, POST /reviews answers 503.
+    @JsonProperty
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @JsonProperty
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    // Most reviews written in one transaction.
+    @JsonProperty
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @JsonProperty
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // How long a writer waits for a batch to fill after taking its first review.
+    @JsonProperty
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    @JsonProperty
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    // Writer threads, each with its own transaction (and database connection) at a time.
+    @JsonProperty
+    public int getWriters() {
+        return writers;
+    }
+
+    @JsonProperty
+    public void setWriters(int writers) {
+        this.writers = writers;
+    }
+
+    // How long a request waits for its review to commit before answering 503; the review may still be written after.
+    @JsonProperty
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    @JsonProperty
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+}
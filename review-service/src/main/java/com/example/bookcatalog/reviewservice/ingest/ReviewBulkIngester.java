@@ -0,0 +1,180 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewBatchWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams newline-delimited JSON reviews into the database in batches.
+ *
+ * Each line is parsed and checked against the Review bean constraints on its own, so a bad
+ * line is reported and skipped without affecting its neighbours.  Valid reviews are written
+ * batchSize at a time; if a batch is rejected by the database it is retried row by row so
+ * only the offending lines are reported as failed.
+ */
+public class ReviewBulkIngester {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewBulkIngester.class);
+
+    private final ReviewBatchWriter writer;
+    private final ObjectReader reviewReader;
+    private final Validator validator;
+    private final BulkIngestConfiguration config;
+    // Told about the reviews of each batch once they are committed
+    private final Consumer<List<Review>> onInserted;
+
+    private final Meter insertedMeter;
+    private final Meter failedMeter;
+    private final Timer batchTimer;
+
+    public ReviewBulkIngester(ReviewBatchWriter writer, ObjectMapper mapper, Validator validator,
+                              BulkIngestConfiguration config, MetricRegistry metrics,
+                              Consumer<List<Review>> onInserted) {
+        this.writer = writer;
+        this.reviewReader = mapper.readerFor(Review.class);
+        this.validator = validator;
+        this.config = config;
+        this.onInserted = onInserted;
+        this.insertedMeter = metrics.meter(MetricRegistry.name(ReviewBulkIngester.class, "inserted"));
+        this.failedMeter = metrics.meter(MetricRegistry.name(ReviewBulkIngester.class, "failed"));
+        this.batchTimer = metrics.timer(MetricRegistry.name(ReviewBulkIngester.class, "batch"));
+    }
+
+    /**
+     * Reads the body line by line; the upload is never held in memory as a whole.
+     */
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            run.linesRead++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Review review = parse(run, line);
+            if (review == null) {
+                continue;
+            }
+            run.batch.add(review);
+            run.batchLines.add(run.linesRead);
+            if (run.batch.size() >= config.getBatchSize()) {
+                flush(run);
+            }
+        }
+        flush(run);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - run.startNanos);
+        LOGGER.info("Bulk review ingest: {} lines, {} inserted, {} failed in {} ms",
+                run.linesRead, run.inserted, run.failed, elapsedMillis);
+        return new BulkIngestResult(run.linesRead, run.inserted, run.failed, run.batches, elapsedMillis,
+                run.errors, run.failed > run.errors.size());
+    }
+
+    private Review parse(Run run, String line) {
+        Review review;
+        try {
+            review = reviewReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            run.fail(run.linesRead, "Invalid JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        if (review == null) {
+            run.fail(run.linesRead, "Empty record");
+            return null;
+        }
+
+        // Same message format as POST /reviews
+        Set<ConstraintViolation<Review>> violations = validator.validate(review);
+        if (!violations.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            violations.forEach(v -> sb.append(v.getPropertyPath())
+                    .append(": ")
+                    .append(v.getMessage())
+                    .append("; "));
+            run.fail(run.linesRead, sb.toString());
+            return null;
+        }
+        return review;
+    }
+
+    private void flush(Run run) {
+        if (run.batch.isEmpty()) {
+            return;
+        }
+        run.batches++;
+        List<Review> written = new ArrayList<>(run.batch.size());
+        try (Timer.Context ignored = batchTimer.time()) {
+            run.inserted(writer.insert(run.batch));
+            written.addAll(run.batch);
+        } catch (RuntimeException batchError) {
+            LOGGER.warn("Bulk review batch of {} rows failed, retrying row by row: {}",
+                    run.batch.size(), batchError.getMessage());
+            for (int i = 0; i < run.batch.size(); i++) {
+                try {
+                    run.inserted(writer.insert(List.of(run.batch.get(i))));
+                    written.add(run.batch.get(i));
+                } catch (RuntimeException rowError) {
+                    run.fail(run.batchLines.get(i), "Database error: " + rootMessage(rowError));
+                }
+            }
+        }
+        onInserted.accept(written);
+        run.batch.clear();
+        run.batchLines.clear();
+    }
+
+    private static String rootMessage(Throwable t) {
+        Throwable root = t;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    // State for a single upload.
+    private final class Run {
+        private final long startNanos = System.nanoTime();
+        private final List<Review> batch = new ArrayList<>();
+        private final List<Long> batchLines = new ArrayList<>();
+        private final List<BulkIngestResult.LineError> errors = new ArrayList<>();
+        private long linesRead;
+        private long inserted;
+        private long failed;
+        private long batches;
+
+        void inserted(int count) {
+            inserted += count;
+            insertedMeter.mark(count);
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            failedMeter.mark();
+            if (errors.size() < config.getMaxReportedErrors()) {
+                errors.add(new BulkIngestResult.LineError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewBatchWriter;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes single reviews from concurrent requests together, many per transaction, so a burst
+ * of POST /reviews pays for one commit per batch instead of one per review.
+ *
+ * Requests put their review on a bounded queue and wait on its future.  Each writer thread
+ * takes the first waiting review, gathers more for up to maxDelay or until maxBatchSize,
+ * and inserts them in one JDBC batch.  If the database rejects the batch, its reviews are
+ * retried one at a time so each request gets its own id or its own error.  When the queue is
+ * full a review is refused straight away rather than adding to the backlog, and a request
+ * waits at most maxWait for its review.  A writer killed by an Error fails its batch and is
+ * replaced.
+ */
+public class ReviewGroupCommitter implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewGroupCommitter.class);
+
+    // How often an idle writer checks whether it has been stopped
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ReviewBatchWriter writer;
+    private final GroupCommitConfiguration config;
+    private final ExecutorService executor;
+    private final BlockingQueue<Pending> queue;
+    private final CountDownLatch writersDone;
+    private volatile boolean running;
+
+    private final Histogram batchSizes;
+    private final Timer queueWait;
+    private final Timer commitTimer;
+    private final Meter rejectedMeter;
+    private final Meter failedMeter;
+
+    public ReviewGroupCommitter(ReviewBatchWriter writer, GroupCommitConfiguration config,
+                                ExecutorService executor, MetricRegistry metrics) {
+        this.writer = writer;
+        this.config = config;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.writersDone = new CountDownLatch(config.getWriters());
+        this.batchSizes = metrics.histogram(MetricRegistry.name(ReviewGroupCommitter.class, "batch-size"));
+        this.queueWait = metrics.timer(MetricRegistry.name(ReviewGroupCommitter.class, "queue-wait"));
+        this.commitTimer = metrics.timer(MetricRegistry.name(ReviewGroupCommitter.class, "commit"));
+        this.rejectedMeter = metrics.meter(MetricRegistry.name(ReviewGroupCommitter.class, "rejected"));
+        this.failedMeter = metrics.meter(MetricRegistry.name(ReviewGroupCommitter.class, "failed"));
+        metrics.register(MetricRegistry.name(ReviewGroupCommitter.class, "queue-depth"), (Gauge<Integer>) queue::size);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < config.getWriters(); i++) {
+            executor.execute(this::runWriter);
+        }
+    }
+
+    /**
+     * Stops taking reviews, lets the writers finish what is queued, and fails anything
+     * still left after that.
+     */
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        if (!writersDone.await(config.getMaxDelay().toMilliseconds() + 10_000, TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("Group commit writers did not finish in time");
+        }
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> pending.result.completeExceptionally(new RejectedExecutionException("Shutting down")));
+    }
+
+    /**
+     * Queues the review for the next batch.  The future completes with the review, id set,
+     * once its transaction has committed, or with the database error for this review alone,
+     * or with a TimeoutException after maxWait.
+     *
+     * @throws RejectedExecutionException if the queue is full or the writers are stopped
+     */
+    public CompletableFuture<Review> submit(Review review) {
+        Pending pending = new Pending(review);
+        if (!running || !queue.offer(pending)) {
+            rejectedMeter.mark();
+            throw new RejectedExecutionException("Group commit queue is full");
+        }
+        return pending.result.orTimeout(config.getMaxWait().toMilliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(config.getMaxBatchSize());
+        boolean finished = false;
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    collect(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                if (!batch.isEmpty()) {
+                    try {
+                        write(batch);
+                    } finally {
+                        // Only left unfinished when write threw an Error, which ends this writer too
+                        batch.forEach(pending -> pending.result.completeExceptionally(
+                                new IllegalStateException("Group commit writer failed")));
+                        batch.clear();
+                    }
+                }
+            }
+            finished = true;
+        } finally {
+            if (finished || !running) {
+                writersDone.countDown();
+            } else {
+                LOGGER.error("Group commit writer died, starting another");
+                try {
+                    executor.execute(this::runWriter);
+                } catch (RejectedExecutionException e) {
+                    writersDone.countDown();
+                }
+            }
+        }
+    }
+
+    // Waits for a first review, then gathers more until the batch is full or maxDelay has passed.
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        int max = config.getMaxBatchSize();
+        long deadline = System.nanoTime() + config.getMaxDelay().toNanoseconds();
+        queue.drainTo(batch, max - batch.size());
+        while (batch.size() < max) {
+            long remaining = deadline - System.nanoTime();
+            Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, max - batch.size());
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        long now = System.nanoTime();
+        batch.forEach(pending -> queueWait.update(now - pending.enqueuedNanos, TimeUnit.NANOSECONDS));
+        batchSizes.update(batch.size());
+
+        List<Review> reviews = new ArrayList<>(batch.size());
+        batch.forEach(pending -> reviews.add(pending.review));
+        try (Timer.Context ignored = commitTimer.time()) {
+            writer.insertReturningIds(reviews);
+            batch.forEach(pending -> pending.result.complete(pending.review));
+            return;
+        } catch (RuntimeException batchError) {
+            if (batch.size() == 1) {
+                failedMeter.mark();
+                batch.get(0).result.completeExceptionally(batchError);
+                return;
+            }
+            LOGGER.warn("Group commit of {} reviews failed, retrying one by one: {}",
+                    batch.size(), batchError.getMessage());
+        }
+        for (Pending pending : batch) {
+            try {
+                writer.insertReturningIds(List.of(pending.review));
+                pending.result.complete(pending.review);
+            } catch (RuntimeException e) {
+                failedMeter.mark();
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // A queued review and the request waiting on it.
+    private static final class Pending {
+        private final Review review;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Review> result = new CompletableFuture<>();
+
+        Pending(Review review) {
+            this.review = review;
+        }
+    }
+}
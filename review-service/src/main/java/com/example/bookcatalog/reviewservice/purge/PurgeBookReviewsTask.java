@@ -0,0 +1,40 @@
+package com.example.bookcatalog.reviewservice.purge;
+
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code POST /tasks/purge-book-reviews?bookId=42} on the admin port
+ *
+ * Queues the deletion of each given book's reviews, then lists the purges not finished yet
+ * with their progress.  Without bookId it only lists them.  book-service calls it when a
+ * book is deleted.
+ */
+public class PurgeBookReviewsTask extends Task {
+
+    private final ReviewPurger purger;
+
+    public PurgeBookReviewsTask(ReviewPurger purger) {
+        super("purge-book-reviews");
+        this.purger = purger;
+    }
+
+    @Override
+    public void execute(Map<String, List<String>> parameters, PrintWriter output) {
+        // Parsed up front, so one bad id fails the call before anything is queued
+        List<Integer> bookIds = parameters.getOrDefault("bookId", List.of()).stream()
+                .map(bookId -> Integer.parseInt(bookId.trim()))
+                .toList();
+        for (int bookId : bookIds) {
+            purger.request(bookId);
+            output.println("Queued reviews of book " + bookId + " for deletion");
+        }
+        for (ReviewPurge purge : purger.pending()) {
+            output.printf("book %d: %d reviews deleted so far, requested %s%n",
+                    purge.getBookId(), purge.getDeleted(), purge.getRequestedAt());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bookcatalog.reviewservice.purge;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A deleted book whose reviews are still being deleted, with how far that has got.
+ */
+@Entity
+@Table(name = "review_purges")
+public class ReviewPurge {
+
+    @Id
+    @Column(name = "book_id")
+    private Integer bookId;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    @Column(name = "deleted", nullable = false)
+    private long deleted;
+
+    // Until when the pod working on this purge holds it; null or past when nobody is
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    public ReviewPurge() {
+        // Required by Hibernate
+    }
+
+    public ReviewPurge(Integer bookId, Instant requestedAt) {
+        this.bookId = bookId;
+        this.requestedAt = requestedAt;
+    }
+
+    public Integer getBookId() {
+        return bookId;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public Instant getClaimedUntil() {
+        return claimedUntil;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bookcatalog.reviewservice.purge;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for deleting the reviews of deleted books.
+ */
+public class ReviewPurgeConfiguration {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    @Max(10_000)
+    private int batchSize = 500;
+
+    @NotNull
+    private Duration batchDelay = Duration.milliseconds(200);
+
+    @NotNull
+    private Duration pollInterval = Duration.minutes(1);
+
+    // When off the purge-book-reviews task is not registered and nothing is deleted.
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Reviews deleted per transaction.
+    @JsonProperty
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @JsonProperty
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // Pause between batches, leaving the database to other work.
+    @JsonProperty
+    public Duration getBatchDelay() {
+        return batchDelay;
+    }
+
+    @JsonProperty
+    public void setBatchDelay(Duration batchDelay) {
+        this.batchDelay = batchDelay;
+    }
+
+    // How often unfinished purges are looked for, e.g. ones another pod stopped working on.
+    @JsonProperty
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    @JsonProperty
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.bookcatalog.reviewservice.purge;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.dropwizard.lifecycle.Managed;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Deletes the reviews of deleted books in the background.
+ *
+ * Each requested book gets a row in review_purges.  A pod takes a lease on the row, then
+ * deletes the book's reviews batchSize at a time through the book_id index, one short
+ * transaction per batch with batchDelay between them, so only those rows are ever locked
+ * and other queries keep their share of the database.  The row records progress with each
+ * batch and is removed with the last one; a purge stopped by a restart or crash is picked
+ * up again, by this pod or another, once its lease runs out.
+ */
+public class ReviewPurger implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewPurger.class);
+
+    // How long a pod may go without finishing a batch before another can take the purge over
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final SessionFactory sessionFactory;
+    private final ReviewPurgeConfiguration config;
+    private final ScheduledExecutorService scheduler;
+    // Told about each book once all its reviews are gone
+    private final IntConsumer purged;
+    private volatile boolean running;
+    private volatile int pending;
+
+    private final Meter deletedMeter;
+    private final Meter completedMeter;
+    private final Timer batchTimer;
+
+    private ScheduledFuture<?> pollTask;
+
+    /**
+     * @param scheduler single-threaded, so purges run one at a time
+     */
+    public ReviewPurger(SessionFactory sessionFactory, ReviewPurgeConfiguration config,
+                        ScheduledExecutorService scheduler, MetricRegistry metrics, IntConsumer purged) {
+        this.sessionFactory = sessionFactory;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.purged = purged;
+        this.deletedMeter = metrics.meter(MetricRegistry.name(ReviewPurger.class, "deleted"));
+        this.completedMeter = metrics.meter(MetricRegistry.name(ReviewPurger.class, "completed"));
+        this.batchTimer = metrics.timer(MetricRegistry.name(ReviewPurger.class, "batch"));
+        metrics.register(MetricRegistry.name(ReviewPurger.class, "pending"), (Gauge<Integer>) () -> pending);
+    }
+
+    // Resumes unfinished purges straight away, then looks for more every pollInterval.
+    @Override
+    public void start() {
+        running = true;
+        long interval = config.getPollInterval().toMilliseconds();
+        pollTask = scheduler.scheduleWithFixedDelay(this::runQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // A batch in progress finishes; the purge is left for the next start to resume.
+    @Override
+    public void stop() {
+        running = false;
+        if (pollTask != null) {
+            pollTask.cancel(false);
+        }
+    }
+
+    /**
+     * Queues the deletion of a book's reviews, unless it is already queued, and starts on
+     * it without waiting for the next poll.
+     */
+    public void request(int bookId) {
+        try {
+            inTransaction(session -> {
+                if (session.get(ReviewPurge.class, bookId) == null) {
+                    session.persist(new ReviewPurge(bookId, Instant.now()));
+                }
+                return null;
+            });
+        } catch (PersistenceException e) {
+            if (!(e.getCause() instanceof ConstraintViolationException)) {
+                throw e;
+            }
+            // Queued by another pod at the same moment
+        }
+        scheduler.execute(this::runQuietly);
+    }
+
+    /**
+     * Purges not finished yet, oldest request first.
+     */
+    public List<ReviewPurge> pending() {
+        return inTransaction(session -> session
+                .createQuery("FROM ReviewPurge p ORDER BY p.requestedAt", ReviewPurge.class)
+                .list());
+    }
+
+    // Works through every purge nobody else holds a lease on.
+    void runPending() {
+        List<ReviewPurge> purges = pending();
+        pending = purges.size();
+        for (ReviewPurge purge : purges) {
+            if (!running) {
+                return;
+            }
+            if (claim(purge.getBookId())) {
+                purge(purge);
+            }
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            runPending();
+        } catch (RuntimeException e) {
+            // Whatever is left is resumed from review_purges on the next poll
+            LOGGER.warn("Could not purge reviews of deleted books: {}", e.getMessage(), e);
+        }
+    }
+
+    private void purge(ReviewPurge purge) {
+        int bookId = purge.getBookId();
+        long total = purge.getDeleted();
+        while (running) {
+            int deleted;
+            try (Timer.Context ignored = batchTimer.time()) {
+                deleted = deleteBatch(bookId);
+            }
+            deletedMeter.mark(deleted);
+            total += deleted;
+            if (deleted < config.getBatchSize()) {
+                finish(bookId);
+                LOGGER.info("Deleted {} reviews of deleted book {}", total, bookId);
+                return;
+            }
+            try {
+                Thread.sleep(config.getBatchDelay().toMilliseconds());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Stopping: let any pod resume it without waiting for the lease to run out
+        release(bookId);
+    }
+
+    // Takes the lease if nobody holds it; true if this pod now does.
+    private boolean claim(int bookId) {
+        Instant now = Instant.now();
+        return inTransaction(session -> session
+                .createMutationQuery("UPDATE ReviewPurge p SET p.claimedUntil = :until"
+                        + " WHERE p.bookId = :bookId AND (p.claimedUntil IS NULL OR p.claimedUntil < :now)")
+                .setParameter("until", now.plus(LEASE))
+                .setParameter("bookId", bookId)
+                .setParameter("now", now)
+                .executeUpdate()) == 1;
+    }
+
+    // Deletes up to batchSize of the book's reviews and records them, renewing the lease.
+    private int deleteBatch(int bookId) {
+        return inTransaction(session -> {
+            int deleted = session
+                    .createMutationQuery("DELETE FROM Review r WHERE r.bookId = :bookId AND r.id IN"
+                            + " (SELECT b.id FROM Review b WHERE b.bookId = :bookId ORDER BY b.id LIMIT :batchSize)")
+                    .setParameter("bookId", bookId)
+                    .setParameter("batchSize", config.getBatchSize())
+                    .executeUpdate();
+            session.createMutationQuery("UPDATE ReviewPurge p SET p.deleted = p.deleted + :deleted, p.claimedUntil = :until"
+                            + " WHERE p.bookId = :bookId")
+                    .setParameter("deleted", (long) deleted)
+                    .setParameter("until", Instant.now().plus(LEASE))
+                    .setParameter("bookId", bookId)
+                    .executeUpdate();
+            return deleted;
+        });
+    }
+
+    private void finish(int bookId) {
+        inTransaction(session -> session
+                .createMutationQuery("DELETE FROM ReviewPurge p WHERE p.bookId = :bookId")
+                .setParameter("bookId", bookId)
+                .executeUpdate());
+        completedMeter.mark();
+        purged.accept(bookId);
+    }
+
+    private void release(int bookId) {
+        inTransaction(session -> session
+                .createMutationQuery("UPDATE ReviewPurge p SET p.claimedUntil = NULL WHERE p.bookId = :bookId")
+                .setParameter("bookId", bookId)
+                .executeUpdate());
+    }
+
+    // Runs outside any request, so in a session and transaction of its own.
+    private <T> T inTransaction(Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bookcatalog.reviewservice.ranking;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A book's place on a shelf.  score is the Bayesian average for top rated, and the
+ * decayed review count (reviews weighted by recency) for trending.
+ */
+public class RankedBook {
+
+    private final int bookId;
+    private final double score;
+    private final long reviewCount;
+    private final double averageRating;
+
+    public RankedBook(int bookId, double score, long reviewCount, double averageRating) {
+        this.bookId = bookId;
+        this.score = score;
+        this.reviewCount = reviewCount;
+        this.averageRating = averageRating;
+    }
+
+    @JsonProperty
+    public int getBookId() {
+        return bookId;
+    }
+
+    @JsonProperty
+    public double getScore() {
+        return score;
+    }
+
+    @JsonProperty
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    @JsonProperty
+    public double getAverageRating() {
+        return averageRating;
+    }
+}
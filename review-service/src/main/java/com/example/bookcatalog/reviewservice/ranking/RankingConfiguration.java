@@ -0,0 +1,84 @@
+package com.example.bookcatalog.reviewservice.ranking;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for the top rated and trending shelves (GET /reviews/rankings).
+ */
+public class RankingConfiguration {
+
+    @Min(1)
+    @Max(1000)
+    private int topK = 50;
+
+    @Min(0)
+    private double priorWeight = 10;
+
+    @NotNull
+    private Duration trendingHalfLife = Duration.days(3);
+
+    @NotNull
+    private Duration rebuildInterval = Duration.hours(1);
+
+    @Min(1)
+    private int scanFetchSize = 1000;
+
+    // Books kept on each shelf.
+    @JsonProperty
+    public int getTopK() {
+        return topK;
+    }
+
+    @JsonProperty
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    // How many reviews' worth of the catalog-wide mean each book starts with.
+    @JsonProperty
+    public double getPriorWeight() {
+        return priorWeight;
+    }
+
+    @JsonProperty
+    public void setPriorWeight(double priorWeight) {
+        this.priorWeight = priorWeight;
+    }
+
+    // Age at which a review counts half as much towards trending.
+    @JsonProperty
+    public Duration getTrendingHalfLife() {
+        return trendingHalfLife;
+    }
+
+    @JsonProperty
+    public void setTrendingHalfLife(Duration trendingHalfLife) {
+        this.trendingHalfLife = trendingHalfLife;
+    }
+
+    // How often the shelves are rebuilt from the database, picking up other pods' writes.
+    @JsonProperty
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    @JsonProperty
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    // Rows fetched per round trip while scanning reviews for a rebuild.
+    @JsonProperty
+    public int getScanFetchSize() {
+        return scanFetchSize;
+    }
+
+    @JsonProperty
+    public void setScanFetchSize(int scanFetchSize) {
+        this.scanFetchSize = scanFetchSize;
+    }
+}
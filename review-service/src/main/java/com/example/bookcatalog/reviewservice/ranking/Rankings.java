@@ -0,0 +1,46 @@
+package com.example.bookcatalog.reviewservice.ranking;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Both shelves as of one moment, as returned by GET /reviews/rankings.
+ */
+public class Rankings {
+
+    private final Instant asOf;
+    private final List<RankedBook> topRated;
+    private final List<RankedBook> trending;
+
+    public Rankings(Instant asOf, List<RankedBook> topRated, List<RankedBook> trending) {
+        this.asOf = asOf;
+        this.topRated = topRated;
+        this.trending = trending;
+    }
+
+    // The first limit books of each shelf (views, not copies)
+    public Rankings limit(int limit) {
+        return new Rankings(asOf,
+                topRated.subList(0, Math.min(limit, topRated.size())),
+                trending.subList(0, Math.min(limit, trending.size())));
+    }
+
+    @JsonProperty
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    @JsonProperty
+    public List<RankedBook> getTopRated() {
+        return topRated;
+    }
+
+    @JsonProperty
+    public List<RankedBook> getTrending() {
+        return trending;
+    }
+}
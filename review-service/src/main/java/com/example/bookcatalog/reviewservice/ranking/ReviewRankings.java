@@ -0,0 +1,275 @@
+package com.example.bookcatalog.reviewservice.ranking;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewRatingScanner;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The top rated and trending shelves, kept in memory and updated as reviews change.
+ *
+ * Top rated orders books by Bayesian average, (m * C + sum of ratings) / (m + n), which pulls
+ * books with few reviews towards the catalog-wide mean C; m is priorWeight.  C is taken at
+ * each rebuild and held in between, so a new review only ever moves its own book.
+ *
+ * Trending sums 2^(-age / trendingHalfLife) over a book's reviews.  Each review's weight is
+ * stored relative to a fixed epoch instead, which every book decays from by the same factor,
+ * so the order stays correct as time passes without re-scoring anything.  The epoch moves up
+ * to the present on each rebuild, keeping the numbers in range.
+ *
+ * Each shelf is a sorted set over all reviewed books: a change is O(log n) and the top K are
+ * read in O(K).  The served {@link Rankings} are cached until the next change.
+ *
+ * Changes are applied by the pod that made them; the periodic rebuild (a streaming scan of
+ * all reviews) picks up other pods' writes and bulk imports that raced with a rebuild.
+ */
+public class ReviewRankings implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewRankings.class);
+
+    // Prior mean before there are any reviews: the middle of the 1-5 scale
+    private static final double DEFAULT_MEAN = 3.0;
+
+    private final RankingConfiguration config;
+    private final ReviewRatingScanner scanner;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+    private final double decayPerMilli;
+
+    private final Timer rebuildTimer;
+
+    private State state;
+    private volatile Rankings cached;
+    private ScheduledFuture<?> rebuildTask;
+
+    public ReviewRankings(RankingConfiguration config, ReviewRatingScanner scanner,
+                          ScheduledExecutorService scheduler, MetricRegistry metrics, Clock clock) {
+        this.config = config;
+        this.scanner = scanner;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.decayPerMilli = Math.log(2) / config.getTrendingHalfLife().toMilliseconds();
+        this.state = new State(DEFAULT_MEAN, clock.instant());
+        this.rebuildTimer = metrics.timer(MetricRegistry.name(ReviewRankings.class, "rebuild"));
+        metrics.register(MetricRegistry.name(ReviewRankings.class, "books"), (Gauge<Integer>) this::size);
+    }
+
+    @Override
+    public void start() {
+        long interval = config.getRebuildInterval().toMilliseconds();
+        rebuildTask = scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (rebuildTask != null) {
+            rebuildTask.cancel(false);
+        }
+    }
+
+    public void added(Review review) {
+        apply(review.getBookId(), review.getRating(), review.getCreatedAt(), 1);
+    }
+
+    public void added(List<Review> reviews) {
+        reviews.forEach(this::added);
+    }
+
+    public void removed(Review review) {
+        apply(review.getBookId(), review.getRating(), review.getCreatedAt(), -1);
+    }
+
+    // Drops the book from both shelves, once its reviews have all been deleted
+    public synchronized void removedBook(int bookId) {
+        BookScore book = state.books.remove(bookId);
+        if (book != null) {
+            state.unrank(book);
+            cached = null;
+        }
+    }
+
+    // The review as it was before the update, and as it is now
+    public void updated(int oldBookId, int oldRating, Review review) {
+        apply(oldBookId, oldRating, review.getCreatedAt(), -1);
+        added(review);
+    }
+
+    /**
+     * Both shelves, K books each.  Built from the sorted sets on the first call after a
+     * change and served as-is until the next one.
+     */
+    public Rankings rankings() {
+        Rankings rankings = cached;
+        if (rankings == null) {
+            synchronized (this) {
+                if (cached == null) {
+                    cached = state.rankings(config.getTopK(), clock.instant());
+                }
+                rankings = cached;
+            }
+        }
+        return rankings;
+    }
+
+    /**
+     * Rebuilds both shelves from a scan of every review, then swaps them in.  Changes
+     * made while the scan runs are applied to the shelves being replaced; the scan sees
+     * most of them, and the next rebuild the rest.
+     */
+    public void rebuild() {
+        try (Timer.Context ignored = rebuildTimer.time()) {
+            Instant epoch = clock.instant();
+            long[] totals = new long[2];
+            State fresh = new State(DEFAULT_MEAN, epoch);
+            scanner.scan((bookId, rating, createdAt) -> {
+                fresh.book(bookId).add(rating, weight(createdAt, epoch), 1);
+                totals[0]++;
+                totals[1] += rating;
+            });
+            double mean = totals[0] == 0 ? DEFAULT_MEAN : (double) totals[1] / totals[0];
+            State rebuilt = fresh.withPrior(mean);
+            synchronized (this) {
+                state = rebuilt;
+                cached = null;
+            }
+            LOGGER.info("Rebuilt rankings from {} reviews of {} books (mean rating {})",
+                    totals[0], rebuilt.books.size(), String.format("%.2f", mean));
+        }
+    }
+
+    synchronized int size() {
+        return state.books.size();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the current shelves; the next run tries again
+            LOGGER.warn("Could not rebuild rankings: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void apply(int bookId, int rating, Instant createdAt, int sign) {
+        State current = state;
+        BookScore book = current.books.get(bookId);
+        if (book == null) {
+            if (sign < 0) {
+                return; // Not seen yet, e.g. written by another pod since the last rebuild
+            }
+            book = current.book(bookId);
+        }
+        current.unrank(book);
+        book.add(rating, weight(createdAt, current.epoch), sign);
+        current.rank(book);
+        cached = null;
+    }
+
+    // 2^((createdAt - epoch) / halfLife); reviews without a timestamp count as written at the epoch
+    private double weight(Instant createdAt, Instant epoch) {
+        long ageMillis = createdAt == null ? 0 : createdAt.toEpochMilli() - epoch.toEpochMilli();
+        return Math.exp(ageMillis * decayPerMilli);
+    }
+
+    private final class State {
+        private final double prior;
+        private final Instant epoch;
+        private final Map<Integer, BookScore> books = new HashMap<>();
+        private final NavigableSet<BookScore> topRated = new TreeSet<>(
+                Comparator.comparingDouble((BookScore b) -> -b.bayesian).thenComparingInt(b -> b.bookId));
+        private final NavigableSet<BookScore> trending = new TreeSet<>(
+                Comparator.comparingDouble((BookScore b) -> -b.trend).thenComparingInt(b -> b.bookId));
+
+        State(double prior, Instant epoch) {
+            this.prior = prior;
+            this.epoch = epoch;
+        }
+
+        // Books accumulated by a scan, scored and sorted against the given prior
+        State withPrior(double mean) {
+            State scored = new State(mean, epoch);
+            books.values().forEach(book -> {
+                scored.books.put(book.bookId, book);
+                scored.rank(book);
+            });
+            return scored;
+        }
+
+        BookScore book(int bookId) {
+            return books.computeIfAbsent(bookId, BookScore::new);
+        }
+
+        void unrank(BookScore book) {
+            topRated.remove(book);
+            trending.remove(book);
+        }
+
+        // Scores the book and sorts it in, or drops it once it has no reviews left
+        void rank(BookScore book) {
+            if (book.count <= 0) {
+                books.remove(book.bookId);
+                return;
+            }
+            double m = config.getPriorWeight();
+            book.bayesian = (m * prior + book.ratingSum) / (m + book.count);
+            topRated.add(book);
+            trending.add(book);
+        }
+
+        Rankings rankings(int k, Instant now) {
+            double decay = Math.exp(-(now.toEpochMilli() - epoch.toEpochMilli()) * decayPerMilli);
+            return new Rankings(now,
+                    top(topRated, k, book -> book.bayesian),
+                    top(trending, k, book -> book.trend * decay));
+        }
+
+        private List<RankedBook> top(NavigableSet<BookScore> shelf, int k, ToDoubleFunction<BookScore> score) {
+            List<RankedBook> top = new ArrayList<>(Math.min(k, shelf.size()));
+            Iterator<BookScore> it = shelf.iterator();
+            while (top.size() < k && it.hasNext()) {
+                BookScore book = it.next();
+                top.add(new RankedBook(book.bookId, score.applyAsDouble(book), book.count,
+                        (double) book.ratingSum / book.count));
+            }
+            return List.copyOf(top);
+        }
+    }
+
+    // Running totals for one book.  Only changed while out of the sorted sets.
+    private static final class BookScore {
+        private final int bookId;
+        private long count;
+        private long ratingSum;
+        private double trend;
+        private double bayesian;
+
+        BookScore(int bookId) {
+            this.bookId = bookId;
+        }
+
+        void add(int rating, double weight, int sign) {
+            count += sign;
+            ratingSum += (long) sign * rating;
+            trend = Math.max(0, trend + sign * weight);
+        }
+    }
+}
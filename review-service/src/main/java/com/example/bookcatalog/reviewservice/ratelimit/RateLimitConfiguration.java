@@ -0,0 +1,87 @@
+package com.example.bookcatalog.reviewservice.ratelimit;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-client rate limits and load shedding for the application port.
+ *
+ * Clients are identified by JWT subject when the request carries a valid token and by IP
+ * address otherwise.  The first entry in routes that matches a request applies; requests
+ * matching none use defaultLimit.
+ */
+public class RateLimitConfiguration {
+
+    private boolean enabled = true;
+
+    @Valid
+    @NotNull
+    private RouteLimit defaultLimit = new RouteLimit(null, null, 20, 40);
+
+    @Valid
+    @NotNull
+    private List<RouteLimit> routes = new ArrayList<>();
+
+    @NotNull
+    private Duration idleEviction = Duration.minutes(10);
+
+    @Valid
+    @NotNull
+    private LoadSheddingConfiguration loadShedding = new LoadSheddingConfiguration();
+
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @JsonProperty
+    public RouteLimit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    @JsonProperty
+    public void setDefaultLimit(RouteLimit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    @JsonProperty
+    public List<RouteLimit> getRoutes() {
+        return routes;
+    }
+
+    @JsonProperty
+    public void setRoutes(List<RouteLimit> routes) {
+        this.routes = routes;
+    }
+
+    // Buckets of clients not seen for this long are dropped.
+    @JsonProperty
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    @JsonProperty
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    @JsonProperty
+    public LoadSheddingConfiguration getLoadShedding() {
+        return loadShedding;
+    }
+
+    @JsonProperty
+    public void setLoadShedding(LoadSheddingConfiguration loadShedding) {
+        this.loadShedding = loadShedding;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.ingest.BulkIngestResult;
+import com.example.bookcatalog.reviewservice.ingest.ReviewBulkIngester;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk import of reviews from partner sites.
+ *
+ * Example:
+ *   curl -X POST http://localhost:8082/reviews/bulk -H "Content-Type: application/x-ndjson" --data-binary @reviews.ndjson
+ */
+@Path("/reviews/bulk")
+@Produces(MediaType.APPLICATION_JSON)
+public class ReviewBulkResource {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final ReviewBulkIngester ingester;
+
+    public ReviewBulkResource(ReviewBulkIngester ingester) {
+        this.ingester = ingester;
+    }
+
+    /**
+     * POST one review per line.  Invalid lines are reported in the response and skipped;
+     * they don't abort the rest of the upload.  Batches manage their own transactions, so
+     * this method is deliberately not a @UnitOfWork.
+     */
+    @POST
+    @Consumes(APPLICATION_NDJSON)
+    public Response ingestReviews(InputStream body) {
+        try {
+            BulkIngestResult result = ingester.ingest(body);
+            return Response.ok(result).build();
+        } catch (IOException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error reading upload: " + e.getMessage())
+                    .build();
+        }
+    }
+}
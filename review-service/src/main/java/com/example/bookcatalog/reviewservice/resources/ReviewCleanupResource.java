@@ -0,0 +1,102 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.core.BulkResult;
+import com.example.bookcatalog.reviewservice.core.ReviewBulkUpdate;
+import com.example.bookcatalog.reviewservice.core.ReviewFilter;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import io.dropwizard.hibernate.UnitOfWork;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Set-based bulk delete and update of reviews, for moderation cleanups.  Admin only, going
+ * by the userRole JwtAuthFilter sets.  The rankings are not told about these changes; they catch up at their
+ * next rebuild.
+ *
+ * Example:
+ *   curl -X POST http://localhost:8082/reviews/bulk-delete -H "Content-Type: application/json" -d '{"bookId": 42}'
+ */
+@Path("/reviews")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ReviewCleanupResource {
+
+    private final ReviewDAO reviewDAO;
+    private final int chunkSize;
+
+    public ReviewCleanupResource(ReviewDAO reviewDAO, int chunkSize) {
+        this.reviewDAO = reviewDAO;
+        this.chunkSize = chunkSize;
+    }
+
+    // POST {"ids": [...]} or {"bookId": 42} - deletes the matching reviews without loading them
+    @POST
+    @Path("/bulk-delete")
+    @UnitOfWork(transactional = false)
+    public BulkResult deleteReviews(@NotNull @Valid ReviewFilter filter, @Context ContainerRequestContext request) {
+        requireAdmin(request);
+        return inChunks(filter, chunk -> reviewDAO.deleteByIds(chunk, filter.getBookId()));
+    }
+
+    // POST {"where": {...}, "set": {...}} - sets the given fields on the matching reviews
+    @POST
+    @Path("/bulk-update")
+    @UnitOfWork(transactional = false)
+    public BulkResult updateReviews(@NotNull @Valid ReviewBulkUpdate update, @Context ContainerRequestContext request) {
+        requireAdmin(request);
+        ReviewFilter filter = update.getWhere();
+        return inChunks(filter, chunk -> reviewDAO.updateByIds(chunk, filter.getBookId(), update.getSet()));
+    }
+
+    // Here rather than in JwtAuthFilter, so it holds for every path Jersey routes to this resource
+    private static void requireAdmin(ContainerRequestContext request) {
+        if (!"admin".equals(request.getProperty("userRole"))) {
+            throw new ForbiddenException(Response.status(Response.Status.FORBIDDEN)
+                    .entity("Admin access required")
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+    }
+
+    /**
+     * Applies the statement to the matching ids chunkSize at a time, in id order, each chunk
+     * in a transaction of its own, so no transaction holds locks on more than chunkSize rows.
+     * A failure stops the run; the chunks before it stay done and calling again finishes the job.
+     */
+    private BulkResult inChunks(ReviewFilter filter, Function<List<Long>, Integer> statement) {
+        List<Long> ids = filter.getIds() == null ? null
+                : filter.getIds().stream().distinct().sorted().toList();
+        BulkResult result = new BulkResult();
+        long afterId = Long.MIN_VALUE;
+        int from = 0;
+        while (true) {
+            List<Long> chunk;
+            if (ids != null) {
+                chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                from += chunk.size();
+            } else {
+                chunk = reviewDAO.idsOfBook(filter.getBookId(), afterId, chunkSize);
+            }
+            if (chunk.isEmpty()) {
+                return result;
+            }
+            result.add(reviewDAO.inTransaction(() -> statement.apply(chunk)));
+            if (chunk.size() < chunkSize) {
+                return result;
+            }
+            afterId = chunk.get(chunk.size() - 1);
+        }
+    }
+}
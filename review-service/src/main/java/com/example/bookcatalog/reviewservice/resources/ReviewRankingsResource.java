@@ -0,0 +1,48 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.ranking.Rankings;
+import com.example.bookcatalog.reviewservice.ranking.ReviewRankings;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * The "top rated" and "trending this week" shelves.
+ *
+ * Example:
+ *   curl "http://localhost:8082/reviews/rankings?limit=10"
+ */
+@Path("/reviews/rankings")
+@Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+public class ReviewRankingsResource {
+
+    private final ReviewRankings rankings;
+    private final int topK;
+
+    public ReviewRankingsResource(ReviewRankings rankings, int topK) {
+        this.rankings = rankings;
+        this.topK = topK;
+    }
+
+    /**
+     * Served from memory in O(limit); no database access, so no unit of work.
+     */
+    @GET
+    public Rankings getRankings(@QueryParam("limit") Integer limit) {
+        if (limit == null) {
+            return rankings.rankings();
+        }
+        if (limit < 1 || limit > topK) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("limit must be between 1 and " + topK)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+        return rankings.rankings().limit(limit);
+    }
+}
@@ -1,47 +1,89 @@
 package com.example.bookcatalog.reviewservice.resources;
 
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
 import io.dropwizard.hibernate.UnitOfWork;
+import org.hibernate.FlushMode;
 import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.FieldProjection;
+import com.example.bookcatalog.reviewservice.db.ReplicaRoutingDataSource;
 import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.example.bookcatalog.reviewservice.db.SingleFlight;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyStore;
+import com.example.bookcatalog.reviewservice.ingest.ReviewGroupCommitter;
+import com.example.bookcatalog.reviewservice.ranking.ReviewRankings;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamHub;
 
 import jakarta.validation.Valid;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+// JSON by default; internal callers can ask for the more compact binary Smile encoding.
+// GETs are read-only, never-flushed units of work: loaded entities get no dirty-checking
+// snapshots, and they are served by the read replica when one is configured.
 @Path("/reviews")
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
 public class ReviewResource {
 
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+
     private final ReviewDAO reviewDAO;
     private final Client client;
     private final String bookServiceUrl;
+    private final ReviewStreamHub streamHub;
+    private final SingleFlight singleFlight;
+    private final ReviewRankings rankings;
+    // Null unless group commit is enabled
+    private final ReviewGroupCommitter groupCommitter;
+    // Null when Idempotency-Key support is disabled
+    private final IdempotencyStore idempotency;
 
-    public ReviewResource(ReviewDAO reviewDAO, Client client, String bookServiceUrl) {
+    public ReviewResource(ReviewDAO reviewDAO, Client client, String bookServiceUrl, ReviewStreamHub streamHub,
+                          SingleFlight singleFlight, ReviewRankings rankings, ReviewGroupCommitter groupCommitter,
+                          IdempotencyStore idempotency) {
         this.reviewDAO = reviewDAO;
         this.client = client;
         this.bookServiceUrl = bookServiceUrl;
+        this.streamHub = streamHub;
+        this.singleFlight = singleFlight;
+        this.rankings = rankings;
+        this.groupCommitter = groupCommitter;
+        this.idempotency = idempotency;
     }
 
-    // GET all reviews
+    // GET all reviews, or just the given fields with ?fields=id,rating,bookId
     @GET
-    @UnitOfWork
-    public List<Review> getAllReviews() {
-        return reviewDAO.findAll();
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    public Response getAllReviews(@QueryParam("fields") String fields) {
+        FieldProjection projection = projection(fields);
+        return Response.ok(projection == null ? reviewDAO.findAll() : reviewDAO.findAll(projection)).build();
     }
 
     // GET a single review by ID
     @GET
     @Path("/{id}")
-    @UnitOfWork
-    public Response getReviewById(@PathParam("id") Long id) {
-        Optional<Review> review = reviewDAO.findById(id);
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    public Response getReviewById(@PathParam("id") Long id, @QueryParam("fields") String fields) {
+        FieldProjection projection = projection(fields);
+        Optional<?> review = projection == null ? reviewDAO.findById(id) : reviewDAO.findById(id, projection);
         if (review.isPresent()) {
             return Response.ok(review.get()).build();
         } else {
@@ -54,36 +96,88 @@ public class ReviewResource {
     /**
      * Gets all reviews for a given book.
      *
+     * The book is matched in the query; with fields only those columns are read.
+     * Identical concurrent requests share one query.  The unit of work is not transactional,
+     * so a request waiting on another's query never borrows a database connection.
+     *
      * @param bookId The ID of the book to get reviews for.
-     * @return A list of all reviews for the given book.
+     * @param fields Optional comma separated list of fields to return, e.g. id,rating.
+     * @return The book's reviews.
      */
     @GET
     @Path("/book/{bookId}")
-    @UnitOfWork
-    public List<Review> getReviewsByBook(@PathParam("bookId") Integer bookId) {
-        List<Review> allReviews = reviewDAO.findAll();
-        System.out.println("DEBUG: Looking for reviews with bookId: " + bookId);
-        System.out.println("DEBUG: Total reviews in database: " + allReviews.size());
-
-        List<Review> filtered = allReviews.stream()
-                .filter(review -> {
-                    Integer reviewBookId = review.getBookId();
-                    System.out.println("DEBUG: Review " + review.getId() + " has bookId: " + reviewBookId);
-                    return reviewBookId != null && reviewBookId.equals(bookId);
-                })
-                .collect(Collectors.toList());
+    @UnitOfWork(readOnly = true, transactional = false, flushMode = FlushMode.MANUAL)
+    public Response getReviewsByBook(@PathParam("bookId") Integer bookId, @QueryParam("fields") String fields,
+                                     @Context UriInfo uriInfo) {
+        FieldProjection projection = projection(fields);
+        return Response.ok(singleFlight.execute(flightKey(uriInfo), () -> findByBook(bookId, projection))).build();
+    }
 
-        System.out.println("DEBUG: Found " + filtered.size() + " reviews for book " + bookId);
-        return filtered;
+    // Either way the book is matched in the query, which reads only its partition
+    private List<?> findByBook(Integer bookId, FieldProjection projection) {
+        return projection == null ? reviewDAO.findByBook(bookId) : reviewDAO.findByBook(bookId, projection);
     }
 
-    // GET books from book service
+    /**
+     * GET books from book service.
+     *
+     * The upstream body is copied to our response as it arrives rather than being read
+     * into a String first, so a large catalog is never held in memory here.  Because the
+     * bytes are not re-encoded, book-service is asked for Smile only when our caller
+     * explicitly accepts Smile; everyone else gets JSON.
+     */
     @GET
     @Path("/books")
-    public Response getBooksFromBookService() {
+    public Response getBooksFromBookService(@Context HttpHeaders headers) {
+        MediaType wireFormat = acceptsSmile(headers) ? SMILE_TYPE : MediaType.APPLICATION_JSON_TYPE;
         WebTarget target = client.target(bookServiceUrl).path("/books");
-        String booksJson = target.request(MediaType.APPLICATION_JSON).get(String.class);
-        return Response.ok(booksJson).build();
+        Response upstream = target.request(wireFormat).get();
+        if (upstream.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+            int status = upstream.getStatus();
+            upstream.close();
+            return Response.status(Response.Status.BAD_GATEWAY)
+                    .entity("Book service returned " + status)
+                    .build();
+        }
+
+        InputStream body = upstream.readEntity(InputStream.class);
+        StreamingOutput passthrough = output -> {
+            try (InputStream in = body) {
+                in.transferTo(output);
+            } finally {
+                upstream.close();
+            }
+        };
+        return Response.ok(passthrough, wireFormat).build();
+    }
+
+    // Path plus query parameters in a fixed order, so equivalent requests share a key.
+    static String readKey(UriInfo uriInfo) {
+        MultivaluedMap<String, String> params = uriInfo.getQueryParameters();
+        return params.isEmpty() ? uriInfo.getPath() : uriInfo.getPath() + "?" + new TreeMap<>(params);
+    }
+
+    // The read key and the route, so a client kept on the primary after its own write never waits on a replica read
+    static String flightKey(UriInfo uriInfo) {
+        return (ReplicaRoutingDataSource.isReadFromReplica() ? "replica " : "primary ") + readKey(uriInfo);
+    }
+
+    // Unknown fields are a client error rather than being silently ignored.
+    private static FieldProjection projection(String fields) {
+        try {
+            return FieldProjection.parse(fields, ReviewDAO.FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(e.getMessage())
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build());
+        }
+    }
+
+    // True only for an explicit Smile Accept entry; wildcards (browsers, curl) keep JSON.
+    private static boolean acceptsSmile(HttpHeaders headers) {
+        return headers != null && headers.getAcceptableMediaTypes().stream()
+                .anyMatch(type -> !type.isWildcardType() && !type.isWildcardSubtype() && type.isCompatible(SMILE_TYPE));
     }
 
     /**
@@ -92,17 +186,38 @@ public class ReviewResource {
      * Note that we handle the ContraintValidationException (due to the annotations on the
      * field in the entity Review.java (ex: @NotNull(message = "bookId is required")
      * so that we can return a 400 bad request.
+     *
+     * Once the transaction commits the new review is pushed to any clients streaming its book
+     * and counted in the rankings.
+     *
+     * The unit of work opens no transaction itself: with group commit the review is written by
+     * the committer's writer threads, so the request never holds a database connection while
+     * it waits; otherwise it is written in a transaction of its own here.
+     *
+     * With an Idempotency-Key header the review is created once per key and client, and a retry
+     * gets the original response back (marked Idempotent-Replayed).  The key is stored in the
+     * same transaction as the review, so these requests skip group commit.
      */
     @POST
-    @UnitOfWork
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response addReview(@Valid Review review) {
+    @UnitOfWork(transactional = false)
+    @Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+    public Response addReview(@Valid Review review, @HeaderParam(IdempotencyStore.HEADER) String idempotencyKey,
+                              @Context ContainerRequestContext request) {
+        if (idempotency != null && idempotencyKey != null) {
+            String scope = "POST /reviews " + request.getProperty("userId");
+            return addReviewInTransaction(() -> idempotency.execute(scope, idempotencyKey, review, Review.class,
+                    () -> create(review)));
+        }
+        if (groupCommitter != null) {
+            return addReviewInGroup(review);
+        }
+        return addReviewInTransaction(() -> create(review));
+    }
+
+    private Response addReviewInTransaction(Supplier<Response> write) {
         // Fields are validated with annotations in the entity (Review.java).
         try {
-            Review created = reviewDAO.create(review);
-            return Response.status(Response.Status.CREATED)
-                    .entity(created)
-                    .build();
+            return reviewDAO.inTransaction(write);
         } catch (ConstraintViolationException e) {
             // Extract all violations and return 400
             StringBuilder sb = new StringBuilder();
@@ -120,11 +235,68 @@ public class ReviewResource {
         }
     }
 
+    private Response create(Review review) {
+        Review created = reviewDAO.create(review);
+        reviewDAO.afterCommit(() -> reviewAdded(created));
+        return Response.status(Response.Status.CREATED)
+                .entity(created)
+                .build();
+    }
+
+    // Waits for the review's batch to commit.  A full queue is refused with 503 straight away.
+    private Response addReviewInGroup(Review review) {
+        CompletableFuture<Review> pending;
+        try {
+            pending = groupCommitter.submit(review);
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .entity("Too many reviews being written, try again shortly")
+                    .build();
+        }
+        try {
+            Review created = pending.join();
+            reviewAdded(created);
+            return Response.status(Response.Status.CREATED)
+                    .entity(created)
+                    .build();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation) {
+                // Rejected by a database constraint, for this review alone
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Review rejected: " + violation.getSQLException().getMessage())
+                        .build();
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .entity("Service is shutting down, try again shortly")
+                        .build();
+            }
+            if (cause instanceof TimeoutException) {
+                // Still queued, so it may yet be saved
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .entity("Review not written in time; it may still be saved, check before retrying")
+                        .build();
+            }
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error creating review: " + cause.getMessage())
+                    .build();
+        }
+    }
+
+    private void reviewAdded(Review created) {
+        streamHub.publish(created);
+        rankings.added(created);
+    }
+
     // PUT - update an existing review
     @PUT
     @Path("/{id}")
     @UnitOfWork
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
     public Response updateReview(@PathParam("id") Long id, @Valid Review updatedReview) {
         Optional<Review> existingOpt = reviewDAO.findById(id);
 
@@ -135,6 +307,8 @@ public class ReviewResource {
         }
 
         Review existing = existingOpt.get();
+        final int oldBookId = existing.getBookId();
+        final int oldRating = existing.getRating();
 
         // Update only fields provided in the payload
         if (updatedReview.getBookId() != null) {
@@ -152,6 +326,7 @@ public class ReviewResource {
 
         try {
             reviewDAO.update(existing);
+            reviewDAO.afterCommit(() -> rankings.updated(oldBookId, oldRating, existing));
             return Response.ok(existing).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -174,6 +349,7 @@ public class ReviewResource {
 
         try {
             reviewDAO.delete(review.get());
+            reviewDAO.afterCommit(() -> rankings.removed(review.get()));
             return Response.ok()
                     .entity("Review with ID " + id + " deleted successfully")
                     .build();
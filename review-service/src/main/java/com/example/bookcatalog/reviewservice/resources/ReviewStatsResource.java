@@ -0,0 +1,69 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.core.ReviewStats;
+import com.example.bookcatalog.reviewservice.core.ReviewStatsRequest;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import io.dropwizard.hibernate.UnitOfWork;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.FlushMode;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Review counts and average ratings for a page of books in one call.
+ *
+ * Example:
+ *   curl -X POST http://localhost:8082/reviews/stats -H "Content-Type: application/json" -d '{"bookIds":[1,2,3]}'
+ */
+@Path("/reviews/stats")
+@Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+public class ReviewStatsResource {
+
+    private final ReviewDAO reviewDAO;
+    private final int maxBatchSize;
+
+    public ReviewStatsResource(ReviewDAO reviewDAO, int maxBatchSize) {
+        this.reviewDAO = reviewDAO;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * POST a list of book IDs; get back one entry per distinct ID, in the order given.
+     *
+     * A POST only so the IDs fit in a body; it writes nothing, so it is a read-only unit of
+     * work (and goes to the read replica when there is one).  All books are aggregated by a
+     * single GROUP BY query over the book_id index.
+     */
+    @POST
+    @UnitOfWork(readOnly = true, flushMode = FlushMode.MANUAL)
+    @Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+    public Response getStats(@NotNull @Valid ReviewStatsRequest request) {
+        Set<Integer> bookIds = new LinkedHashSet<>(request.getBookIds());
+        if (bookIds.size() > maxBatchSize) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("At most " + maxBatchSize + " book IDs per request, got " + bookIds.size())
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .build();
+        }
+
+        Map<Integer, ReviewStats> found = reviewDAO.statsByBook(bookIds).stream()
+                .collect(Collectors.toMap(ReviewStats::getBookId, Function.identity()));
+        List<ReviewStats> stats = bookIds.stream()
+                .map(bookId -> found.getOrDefault(bookId, ReviewStats.none(bookId)))
+                .toList();
+        return Response.ok(stats).build();
+    }
+}
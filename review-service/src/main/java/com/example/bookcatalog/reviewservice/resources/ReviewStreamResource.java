@@ -0,0 +1,113 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.example.bookcatalog.reviewservice.stream.ReviewEvent;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamHub;
+
+import io.dropwizard.hibernate.UnitOfWork;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import org.hibernate.FlushMode;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Server-Sent Events stream of reviews added to a book, so the UI no longer has to poll
+ * GET /reviews/book/{bookId}.
+ *
+ * The request is suspended once this method returns; events are pushed by the
+ * {@link ReviewStreamHub} when a new review commits.
+ *
+ * Like the other review endpoints it needs a Bearer token.  A browser's EventSource
+ * cannot send one, so the UI connects with a fetch based SSE client that can, such as the
+ * {@code @microsoft/fetch-event-source} package, which also sends Last-Event-ID when it
+ * reconnects.
+ */
+@Path("/reviews/book/{bookId}/stream")
+public class ReviewStreamResource {
+
+    private static final long RECONNECT_DELAY_MILLIS = 3000;
+
+    private final ReviewStreamHub hub;
+    private final ReviewDAO reviewDAO;
+    private final int resumeLimit;
+
+    /**
+     * @param resumeLimit the most missed reviews sent to a client that reconnects, the newest
+     *                    ones; no more than fit in a subscriber's buffer
+     */
+    public ReviewStreamResource(ReviewStreamHub hub, ReviewDAO reviewDAO, int resumeLimit) {
+        this.hub = hub;
+        this.reviewDAO = reviewDAO;
+        this.resumeLimit = resumeLimit;
+    }
+
+    /**
+     * Streams new reviews for a book.  A client reconnecting with Last-Event-ID is first sent
+     * the reviews added since, even across a restart, as event ids are review ids.
+     *
+     * @param bookId The ID of the book to stream reviews for.
+     * @param lastEventId The id of the last event the client saw, sent automatically by EventSource on reconnect.
+     */
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @UnitOfWork(readOnly = true, transactional = false, flushMode = FlushMode.MANUAL)
+    public void streamReviews(@PathParam("bookId") Integer bookId,
+                              @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long lastEventId,
+                              @Context SseEventSink eventSink,
+                              @Context Sse sse) {
+        List<Review> missed = lastEventId == null ? List.of()
+                : reviewDAO.findByBookAfter(bookId, lastEventId, resumeLimit);
+        if (!hub.subscribe(bookId, lastEventId, missed, new SseSink(eventSink, sse))) {
+            throw new ServiceUnavailableException(RECONNECT_DELAY_MILLIS / 1000);
+        }
+    }
+
+    private static final class SseSink implements ReviewStreamHub.Sink {
+        private final SseEventSink eventSink;
+        private final Sse sse;
+
+        SseSink(SseEventSink eventSink, Sse sse) {
+            this.eventSink = eventSink;
+            this.sse = sse;
+        }
+
+        @Override
+        public CompletionStage<?> send(ReviewEvent event) {
+            return eventSink.send(sse.newEventBuilder()
+                    .id(Long.toString(event.getId()))
+                    .name("review")
+                    .reconnectDelay(RECONNECT_DELAY_MILLIS)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Review.class, event.getReview())
+                    .build());
+        }
+
+        @Override
+        public CompletionStage<?> heartbeat() {
+            return eventSink.send(sse.newEventBuilder().comment("heartbeat").build());
+        }
+
+        @Override
+        public boolean isClosed() {
+            return eventSink.isClosed();
+        }
+
+        @Override
+        public void close() {
+            eventSink.close();
+        }
+    }
+}
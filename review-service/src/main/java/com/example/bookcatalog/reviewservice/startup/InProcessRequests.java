@@ -0,0 +1,92 @@
+package com.example.bookcatalog.reviewservice.startup;
+
+import io.dropwizard.core.setup.Environment;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.SecurityContext;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.glassfish.jersey.servlet.ServletContainer;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anonymous GETs handed straight to Jersey, bypassing Jetty and the servlet filters (JWT,
+ * rate limiting).  The response body is serialized as usual and then discarded.
+ */
+final class InProcessRequests {
+
+    private static final URI BASE = URI.create("http://localhost/");
+
+    private InProcessRequests() {
+    }
+
+    // Only available once the server has started
+    static ApplicationHandler handler(Environment environment) {
+        return ((ServletContainer) environment.getJerseyServletContainer()).getApplicationHandler();
+    }
+
+    static void get(ApplicationHandler jersey, String path, String accept) {
+        ContainerRequest request = new ContainerRequest(BASE, BASE.resolve(path.substring(1)), "GET", ANONYMOUS,
+                new MapPropertiesDelegate(), jersey.getConfiguration());
+        request.header(HttpHeaders.ACCEPT, accept);
+        request.setWriter(new DiscardingWriter());
+        jersey.handle(request);
+    }
+
+    private static final SecurityContext ANONYMOUS = new SecurityContext() {
+        @Override
+        public Principal getUserPrincipal() {
+            return null;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return null;
+        }
+    };
+
+    private static final class DiscardingWriter implements ContainerResponseWriter {
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void failure(Throwable error) {
+        }
+
+        @Override
+        public boolean enableResponseBuffering() {
+            return false;
+        }
+    }
+}
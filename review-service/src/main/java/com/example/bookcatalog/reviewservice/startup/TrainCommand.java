@@ -0,0 +1,88 @@
+package com.example.bookcatalog.reviewservice.startup;
+
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
+import io.dropwizard.core.Application;
+import io.dropwizard.core.Configuration;
+import io.dropwizard.core.cli.ServerCommand;
+import io.dropwizard.core.setup.Environment;
+import io.dropwizard.lifecycle.ServerLifecycleListener;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.eclipse.jetty.server.Server;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * {@code java -XX:ArchiveClassesAtExit=app.jsa -jar <service>.jar train training.yaml}
+ *
+ * Starts the server, replays a fixed set of GET requests and exits, so the JVM can write
+ * every class the run loaded to an AppCDS archive.  Each request is sent over HTTP (Jetty,
+ * servlet filters, gzip) and also handed straight to Jersey, which reaches the resources
+ * even where the JWT filter turns an anonymous request away.
+ */
+public class TrainCommand<T extends Configuration> extends ServerCommand<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrainCommand.class);
+
+    private static final int ROUNDS = 20;
+    private static final List<String> ACCEPT = List.of(MediaType.WILDCARD, MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+
+    private final List<String> paths;
+
+    public TrainCommand(Application<T> application, List<String> paths) {
+        super(application, "train", "Start the server, replay sample requests and exit (AppCDS training run)");
+        this.paths = paths;
+    }
+
+    @Override
+    protected void run(Environment environment, Namespace namespace, T configuration) throws Exception {
+        environment.lifecycle().addServerLifecycleListener(new ServerLifecycleListener() {
+            @Override
+            public void serverStarted(Server server) {
+                int port = getLocalPort(server);
+                ApplicationHandler jersey = InProcessRequests.handler(environment);
+                new Thread(() -> replayAndExit(server, port, jersey), "appcds-training").start();
+            }
+        });
+        super.run(environment, namespace, configuration);
+    }
+
+    private void replayAndExit(Server server, int port, ApplicationHandler jersey) {
+        int status = 0;
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (String path : paths) {
+                    for (String accept : ACCEPT) {
+                        http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                        .header(HttpHeaders.ACCEPT, accept)
+                                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        InProcessRequests.get(jersey, path, accept);
+                    }
+                }
+            }
+            LOGGER.info("Training run replayed {} requests", ROUNDS * paths.size() * ACCEPT.size() * 2);
+        } catch (Exception e) {
+            LOGGER.error("Training run failed", e);
+            status = 1;
+        } finally {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                LOGGER.warn("Could not stop the server cleanly", e);
+            }
+        }
+        // Exiting is what makes the JVM write the archive
+        System.exit(status);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookcatalog.reviewservice.startup;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * JIT warm-up between the server starting and the service reporting healthy.
+ *
+ * Each iteration sends every warm-up GET in-process, as JSON and as Smile, and round-trips a
+ * few sample entities through the JSON and Smile mappers.  Warm-up stops after iterations or
+ * maxDuration, whichever comes first.
+ */
+public class WarmUpConfiguration {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    private int iterations = 1000;
+
+    @NotNull
+    private Duration maxDuration = Duration.seconds(20);
+
+    @JsonProperty
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @JsonProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @JsonProperty
+    public int getIterations() {
+        return iterations;
+    }
+
+    @JsonProperty
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @JsonProperty
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    @JsonProperty
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.bookcatalog.reviewservice.stream;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+
+/**
+ * A review published to the stream hub.  The id is the review's database id and is
+ * what clients send back in Last-Event-ID when they reconnect.
+ */
+public final class ReviewEvent {
+
+    private final long id;
+    private final Review review;
+
+    public ReviewEvent(long id, Review review) {
+        this.id = id;
+        this.review = review;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Review getReview() {
+        return review;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bookcatalog.reviewservice.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Settings for the per-book review stream (GET /reviews/book/{bookId}/stream).
+ */
+public class ReviewStreamConfiguration {
+
+    /**
+     * What to do when a subscriber's buffer is full because it is not reading fast enough.
+     */
+    public enum SlowConsumerPolicy {
+        // Drop the oldest buffered event and keep the connection open.
+        DROP_OLDEST,
+        // Close the connection; the client reconnects with Last-Event-ID and replays.
+        DISCONNECT
+    }
+
+    @Min(1)
+    @Max(10_000)
+    private int bufferSize = 64;
+
+    @Min(0)
+    @Max(100_000)
+    private int replaySize = 256;
+
+    @Min(1)
+    private int heartbeatSeconds = 15;
+
+    @Min(1)
+    private int maxSubscribers = 10_000;
+
+    @Min(1)
+    @Max(64)
+    private int dispatchThreads = 2;
+
+    @Min(1)
+    private int sendTimeoutSeconds = 10;
+
+    @NotNull
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    // Events buffered per subscriber before the slow consumer policy kicks in.
+    @JsonProperty
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @JsonProperty
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    // Recent events kept per book so reconnecting clients can resume from Last-Event-ID.
+    @JsonProperty
+    public int getReplaySize() {
+        return replaySize;
+    }
+
+    @JsonProperty
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    @JsonProperty
+    public int getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    @JsonProperty
+    public void setHeartbeatSeconds(int heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    @JsonProperty
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    @JsonProperty
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @JsonProperty
+    public int getDispatchThreads() {
+        return dispatchThreads;
+    }
+
+    @JsonProperty
+    public void setDispatchThreads(int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    // How long one send may take before the client is taken for gone and disconnected.
+    @JsonProperty
+    public int getSendTimeoutSeconds() {
+        return sendTimeoutSeconds;
+    }
+
+    @JsonProperty
+    public void setSendTimeoutSeconds(int sendTimeoutSeconds) {
+        this.sendTimeoutSeconds = sendTimeoutSeconds;
+    }
+
+    @JsonProperty
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    @JsonProperty
+    public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.bookcatalog.reviewservice.stream;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of newly created reviews to the clients streaming a book.
+ *
+ * Every subscriber gets its own bounded buffer and at most one send in flight, so a
+ * slow client only ever backs up its own buffer.  A send that has not finished within
+ * sendTimeoutSeconds disconnects the client, interrupting the dispatch thread if the write
+ * is blocking it, so a client that stops reading cannot hold a thread the other streams
+ * need.  When the buffer is full the configured
+ * {@link ReviewStreamConfiguration.SlowConsumerPolicy} either drops the oldest event or
+ * disconnects the client.
+ *
+ * An event's id is its review's database id, so ids mean the same after a restart.  A
+ * client reconnecting with Last-Event-ID is sent the reviews it missed, as read from the
+ * database by the caller, then any newer ones from the book's short replay log, which
+ * covers reviews committed between that read and the subscription.
+ *
+ * Sends run on the dispatch executor, never on the thread that published the review,
+ * and idle subscribers hold no thread at all (the servlet request is suspended by Jersey).
+ */
+public class ReviewStreamHub implements Managed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewStreamHub.class);
+
+    // Queued in place of an event to ask the sink for a keep-alive comment.
+    private static final ReviewEvent HEARTBEAT = new ReviewEvent(-1, null);
+
+    /**
+     * The transport a subscriber is connected through (an SSE event sink in production).
+     */
+    public interface Sink {
+        CompletionStage<?> send(ReviewEvent event);
+
+        CompletionStage<?> heartbeat();
+
+        boolean isClosed();
+
+        void close();
+    }
+
+    private final ReviewStreamConfiguration config;
+    private final ScheduledExecutorService scheduler;
+    private final Executor dispatcher;
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ConcurrentMap<Integer, BookChannel> channels = new ConcurrentHashMap<>();
+
+    private final Meter published;
+    private final Meter dropped;
+    private final Meter slowDisconnects;
+
+    private ScheduledFuture<?> heartbeatTask;
+
+    public ReviewStreamHub(ReviewStreamConfiguration config,
+                           ScheduledExecutorService scheduler,
+                           Executor dispatcher,
+                           MetricRegistry metrics) {
+        this.config = config;
+        this.scheduler = scheduler;
+        this.dispatcher = dispatcher;
+        this.published = metrics.meter(MetricRegistry.name(ReviewStreamHub.class, "published"));
+        this.dropped = metrics.meter(MetricRegistry.name(ReviewStreamHub.class, "dropped"));
+        this.slowDisconnects = metrics.meter(MetricRegistry.name(ReviewStreamHub.class, "slow-disconnects"));
+        metrics.register(MetricRegistry.name(ReviewStreamHub.class, "subscribers"),
+                (Gauge<Integer>) subscriberCount::get);
+    }
+
+    @Override
+    public void start() {
+        long period = config.getHeartbeatSeconds();
+        heartbeatTask = scheduler.scheduleAtFixedRate(this::heartbeat, period, period, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
+        }
+        channels.values().forEach(channel -> channel.snapshot().forEach(Subscriber::disconnect));
+        channels.clear();
+    }
+
+    /**
+     * Publishes a committed review to everyone streaming its book.
+     * Call this only after the transaction that created the review has committed.
+     */
+    public void publish(Review review) {
+        if (review == null || review.getBookId() == null || review.getId() == null) {
+            return;
+        }
+        published.mark();
+
+        // Books nobody has streamed recently have no channel and nothing to replay.
+        BookChannel channel = channels.get(review.getBookId());
+        if (channel != null) {
+            channel.publish(new ReviewEvent(review.getId(), review));
+        }
+    }
+
+    /**
+     * Registers a sink for the given book.  If lastEventId is set, buffered events newer
+     * than it are replayed first.
+     *
+     * @return false if the hub is already at maxSubscribers and the sink was not registered
+     */
+    public boolean subscribe(int bookId, Long lastEventId, Sink sink) {
+        return subscribe(bookId, lastEventId, List.of(), sink);
+    }
+
+    /**
+     * Registers a sink for the given book, sending it missed first: the book's reviews
+     * newer than lastEventId as the database had them, in id order.  Buffered events are
+     * only replayed, and later ones only sent, if they are newer than all of those.
+     *
+     * @return false if the hub is already at maxSubscribers and the sink was not registered
+     */
+    public boolean subscribe(int bookId, Long lastEventId, List<Review> missed, Sink sink) {
+        if (subscriberCount.incrementAndGet() > config.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(sink);
+        List<ReviewEvent> missedEvents = missed.stream().map(review -> new ReviewEvent(review.getId(), review)).toList();
+        Long seenUpTo = missedEvents.isEmpty() ? lastEventId : Long.valueOf(missedEvents.get(missedEvents.size() - 1).getId());
+        // Retry if the channel was swept between lookup and registration.
+        while (!channels.computeIfAbsent(bookId, BookChannel::new).join(subscriber, missedEvents, seenUpTo)) {
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Sends a keep-alive to idle subscribers, removes closed ones, and forgets channels
+     * that have had no subscribers for a few heartbeat periods.
+     */
+    void heartbeat() {
+        long idleCutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(4L * config.getHeartbeatSeconds());
+        channels.forEach((bookId, channel) -> {
+            for (Subscriber subscriber : channel.snapshot()) {
+                if (subscriber.sink.isClosed()) {
+                    subscriber.disconnect();
+                } else {
+                    subscriber.enqueueHeartbeat();
+                }
+            }
+            if (channel.retireIfIdle(idleCutoff)) {
+                channels.remove(bookId, channel);
+            }
+        });
+    }
+
+    private final class BookChannel {
+        private final int bookId;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Deque<ReviewEvent> replay = new ArrayDeque<>();
+        private long lastActive = System.nanoTime();
+        private boolean retired;
+
+        BookChannel(int bookId) {
+            this.bookId = bookId;
+        }
+
+        synchronized void publish(ReviewEvent event) {
+            if (config.getReplaySize() > 0) {
+                if (replay.size() >= config.getReplaySize()) {
+                    replay.pollFirst();
+                }
+                replay.addLast(event);
+            }
+            lastActive = System.nanoTime();
+            subscribers.forEach(subscriber -> subscriber.enqueue(event));
+        }
+
+        synchronized boolean join(Subscriber subscriber, List<ReviewEvent> missed, Long seenUpTo) {
+            if (retired) {
+                return false;
+            }
+            subscriber.channel = this;
+            subscribers.add(subscriber);
+            lastActive = System.nanoTime();
+            missed.forEach(subscriber::enqueue);
+            if (seenUpTo != null) {
+                subscriber.seenUpTo = seenUpTo;
+                replay.forEach(subscriber::enqueue);
+            }
+            return true;
+        }
+
+        void leave(Subscriber subscriber) {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+                synchronized (this) {
+                    lastActive = System.nanoTime();
+                }
+            }
+        }
+
+        synchronized boolean retireIfIdle(long idleCutoff) {
+            if (subscribers.isEmpty() && lastActive - idleCutoff < 0) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        List<Subscriber> snapshot() {
+            return new ArrayList<>(subscribers);
+        }
+    }
+
+    private final class Subscriber {
+        private final Sink sink;
+        private final Deque<ReviewEvent> pending = new ArrayDeque<>();
+        private final AtomicBoolean disconnected = new AtomicBoolean();
+        private boolean sending;
+        // Events up to this id were sent from the database, or seen before, when the client resumed
+        private long seenUpTo = Long.MIN_VALUE;
+        // The dispatch thread while it is inside sink.send or sink.heartbeat, for the send timeout to interrupt
+        private Thread sendingThread;
+        private BookChannel channel;
+
+        Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        void enqueue(ReviewEvent event) {
+            synchronized (this) {
+                if (event.getId() <= seenUpTo) {
+                    return;
+                }
+                if (pending.size() >= config.getBufferSize()) {
+                    if (config.getSlowConsumerPolicy() == ReviewStreamConfiguration.SlowConsumerPolicy.DISCONNECT) {
+                        slowDisconnects.mark();
+                        dispatcher.execute(this::disconnect);
+                        return;
+                    }
+                    pending.pollFirst();
+                    dropped.mark();
+                }
+                pending.addLast(event);
+            }
+            drain();
+        }
+
+        void enqueueHeartbeat() {
+            synchronized (this) {
+                if (sending || !pending.isEmpty()) {
+                    // Data is already flowing, no keep-alive needed.
+                    return;
+                }
+                pending.addLast(HEARTBEAT);
+            }
+            drain();
+        }
+
+        private void drain() {
+            synchronized (this) {
+                if (sending || pending.isEmpty() || disconnected.get()) {
+                    return;
+                }
+                sending = true;
+            }
+            dispatcher.execute(this::sendNext);
+        }
+
+        private void sendNext() {
+            ReviewEvent next;
+            synchronized (this) {
+                next = pending.pollFirst();
+                if (next == null) {
+                    sending = false;
+                    return;
+                }
+            }
+            // Scheduled before the send, as a sink may block in send itself rather than in its stage
+            ScheduledFuture<?> timeout = scheduler.schedule(this::sendTimedOut,
+                    config.getSendTimeoutSeconds(), TimeUnit.SECONDS);
+            CompletionStage<?> stage;
+            synchronized (this) {
+                sendingThread = Thread.currentThread();
+            }
+            try {
+                stage = next == HEARTBEAT ? sink.heartbeat() : sink.send(next);
+            } catch (RuntimeException e) {
+                timeout.cancel(false);
+                disconnect();
+                return;
+            } finally {
+                synchronized (this) {
+                    if (sendingThread == null) {
+                        // Interrupted by the timeout; don't leave the flag set for the pool's next task
+                        Thread.interrupted();
+                    }
+                    sendingThread = null;
+                }
+            }
+            stage.whenComplete((ignored, error) -> {
+                timeout.cancel(false);
+                if (error != null) {
+                    LOGGER.debug("Review stream subscriber for book {} went away: {}",
+                            channel.bookId, error.getMessage());
+                    disconnect();
+                    return;
+                }
+                synchronized (this) {
+                    sending = false;
+                }
+                drain();
+            });
+        }
+
+        private void sendTimedOut() {
+            if (disconnected.get()) {
+                return;
+            }
+            slowDisconnects.mark();
+            LOGGER.debug("Review stream subscriber for book {} did not take a send within {}s, disconnecting",
+                    channel.bookId, config.getSendTimeoutSeconds());
+            synchronized (this) {
+                if (sendingThread != null) {
+                    sendingThread.interrupt();
+                    sendingThread = null;
+                }
+            }
+            disconnect();
+        }
+
+        void disconnect() {
+            if (!disconnected.compareAndSet(false, true)) {
+                return;
+            }
+            synchronized (this) {
+                pending.clear();
+            }
+            if (channel != null) {
+                channel.leave(this);
+            }
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Error closing review stream sink: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- When each review was last written, for POST /reviews/stats.  Existing rows get the migration time.
+ALTER TABLE reviews ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Covering index, so the per-book stats query reads count, rating and updated_at from the index alone
+DROP INDEX idx_reviews_book_id;
+CREATE INDEX idx_reviews_book_id ON reviews (book_id) INCLUDE (rating, updated_at);
@@ -0,0 +1,4 @@
+-- When each review was written, for the trending ranking.  Existing rows get the migration time.
+ALTER TABLE reviews ADD COLUMN created_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE INDEX idx_reviews_created_at ON reviews (created_at);
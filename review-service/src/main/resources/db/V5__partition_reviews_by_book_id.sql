@@ -0,0 +1,105 @@
+-- Hash-partition reviews on book_id, so per-book reads and writes touch one partition and
+-- vacuum and index maintenance work on ${reviewPartitions} smaller tables.
+--
+-- Runs outside a transaction (see the .conf file) so the copy can commit as it goes:
+-- a trigger mirrors writes to the new table while existing rows are copied in batches,
+-- and the tables are swapped in one short transaction at the end.  Reads and writes
+-- carry on against the old table throughout.
+--
+-- Every step can be repeated, so after a failure part way through the script can be run
+-- again and carries on from where it stopped.
+
+-- The primary key has to include the partition key.  id stays unique through its sequence.
+CREATE TABLE IF NOT EXISTS reviews_partitioned (
+    id INTEGER NOT NULL DEFAULT nextval('reviews_id_seq'),
+    book_id INTEGER NOT NULL,
+    reviewer_name VARCHAR(255) NOT NULL,
+    rating INTEGER NOT NULL CHECK (rating >= 1 AND rating <= 5),
+    comment TEXT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (book_id, id)
+) PARTITION BY HASH (book_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..${reviewPartitions} - 1 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS reviews_p%s PARTITION OF reviews_partitioned'
+                       ' FOR VALUES WITH (MODULUS %s, REMAINDER %s)', i, ${reviewPartitions}, i);
+    END LOOP;
+END
+$$;
+
+-- Same indexes as before, plus one on id: GET, PUT and DELETE by id can't prune, and the
+-- primary key leads with book_id, so each partition is probed through this one.
+CREATE INDEX IF NOT EXISTS idx_reviews_partitioned_book_id ON reviews_partitioned (book_id) INCLUDE (rating, updated_at);
+CREATE INDEX IF NOT EXISTS idx_reviews_partitioned_created_at ON reviews_partitioned (created_at);
+CREATE INDEX IF NOT EXISTS idx_reviews_partitioned_id ON reviews_partitioned (id);
+
+-- Keep the new table in step with writes made while the copy runs
+CREATE OR REPLACE FUNCTION reviews_mirror() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM reviews_partitioned WHERE book_id = OLD.book_id AND id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO reviews_partitioned (id, book_id, reviewer_name, rating, comment, updated_at, created_at)
+        VALUES (NEW.id, NEW.book_id, NEW.reviewer_name, NEW.rating, NEW.comment, NEW.updated_at, NEW.created_at)
+        ON CONFLICT (book_id, id) DO UPDATE SET
+            reviewer_name = EXCLUDED.reviewer_name,
+            rating = EXCLUDED.rating,
+            comment = EXCLUDED.comment,
+            updated_at = EXCLUDED.updated_at;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS reviews_mirror ON reviews;
+CREATE TRIGGER reviews_mirror AFTER INSERT OR UPDATE OR DELETE ON reviews
+    FOR EACH ROW EXECUTE FUNCTION reviews_mirror();
+
+-- Copy the rows that existed before the trigger, 50k ids per transaction.  Rows the trigger
+-- has already copied are left alone, as its copy is at least as new.
+DO $$
+DECLARE
+    batch CONSTANT INTEGER := 50000;
+    last_id INTEGER := 0;
+    max_id INTEGER;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM reviews;
+    WHILE last_id < max_id LOOP
+        INSERT INTO reviews_partitioned (id, book_id, reviewer_name, rating, comment, updated_at, created_at)
+        SELECT id, book_id, reviewer_name, rating, comment, updated_at, created_at
+        FROM reviews
+        WHERE id > last_id AND id <= last_id + batch
+        ON CONFLICT (book_id, id) DO NOTHING;
+        last_id := last_id + batch;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- A row deleted, or moved to another book, after a batch read it but before that batch
+-- committed is copied anyway: the trigger's DELETE ran first and found nothing to remove.
+-- Drop every copy with no matching row left.  Writes from here on find their rows already
+-- copied, so the trigger keeps the tables in step until the swap.
+DELETE FROM reviews_partitioned p
+WHERE NOT EXISTS (SELECT 1 FROM reviews r WHERE r.id = p.id AND r.book_id = p.book_id);
+
+ANALYZE reviews_partitioned;
+
+-- Swap the tables.  Writes wait on the lock only for the renames and the drop.
+DO $$
+BEGIN
+    LOCK TABLE reviews IN ACCESS EXCLUSIVE MODE;
+    ALTER SEQUENCE reviews_id_seq OWNED BY NONE;
+    DROP TABLE reviews;
+    DROP FUNCTION reviews_mirror();
+    ALTER TABLE reviews_partitioned RENAME TO reviews;
+    ALTER SEQUENCE reviews_id_seq OWNED BY reviews.id;
+    ALTER INDEX idx_reviews_partitioned_book_id RENAME TO idx_reviews_book_id;
+    ALTER INDEX idx_reviews_partitioned_created_at RENAME TO idx_reviews_created_at;
+    ALTER INDEX idx_reviews_partitioned_id RENAME TO idx_reviews_id;
+END
+$$;
@@ -0,0 +1,8 @@
+-- Books whose reviews are being deleted after the book was deleted in book-service.
+-- A row stays until every review is gone, so an interrupted purge resumes where it stopped.
+CREATE TABLE review_purges (
+    book_id INTEGER PRIMARY KEY,
+    requested_at TIMESTAMPTZ NOT NULL,
+    deleted BIGINT NOT NULL DEFAULT 0,    -- reviews deleted so far
+    claimed_until TIMESTAMPTZ             -- lease of the pod working on it, if any
+);
@@ -0,0 +1,184 @@
+package com.example.bookcatalog.reviewservice.bench;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Per-book read, stats and insert latency on the reviews table before and after the
+ * hash-partitioning migration (V5), at 10M reviews over 100k books by default.
+ *
+ * Needs Postgres, as H2 has no partitioning: the migrations run into a scratch
+ * reviews_bench schema up to V4, the table is filled server-side, latencies are sampled,
+ * then V5 runs against the full table (its duration is reported too) and they are sampled
+ * again.  The queries are the SQL Hibernate generates for ReviewDAO.findByBook (the entity
+ * read behind GET /reviews/book/{bookId}),
+ * ReviewDAO.statsByBook and ReviewDAO.create.
+ *
+ * Run with:
+ *   BENCH_DATABASE_URL=jdbc:postgresql://localhost:5432/catalogdb BENCH_DATABASE_USER=cataloguser \
+ *   BENCH_DATABASE_PASSWORD=catalogpass mvn -pl review-service test -Pbenchmark \
+ *   -Dtest=ReviewPartitioningBenchmark [-Dbench.reviews=10000000] [-Dbench.partitions=16]
+ */
+@Tag("benchmark")
+class ReviewPartitioningBenchmark {
+
+    private static final String SCHEMA = "reviews_bench";
+    private static final int REVIEWS = Integer.getInteger("bench.reviews", 10_000_000);
+    private static final int BOOKS = Integer.getInteger("bench.books", 100_000);
+    private static final int PARTITIONS = Integer.getInteger("bench.partitions", 16);
+    private static final int WARMUP_SAMPLES = 2_000;
+    private static final int SAMPLES = 10_000;
+    private static final int STATS_BATCH = 100;
+
+    private static final String FIND_BY_BOOK =
+            "SELECT id, book_id, reviewer_name, rating, comment, created_at, updated_at FROM reviews WHERE book_id = ?";
+    private static final String INSERT =
+            "INSERT INTO reviews (book_id, reviewer_name, rating, comment, created_at, updated_at)"
+                    + " VALUES (?, ?, ?, ?, now(), now())";
+
+    @Test
+    void benchmarkPerBookLatency() throws SQLException {
+        String url = System.getenv("BENCH_DATABASE_URL");
+        assumeTrue(url != null, "BENCH_DATABASE_URL is not set");
+        String user = System.getenv("BENCH_DATABASE_USER");
+        String password = System.getenv("BENCH_DATABASE_PASSWORD");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            migrate(url, user, password, "4");
+            connection.setSchema(SCHEMA);
+            load(connection);
+
+            System.out.printf("reviews of %d books, %d reviews, %d samples, latency in ms%n", BOOKS, REVIEWS, SAMPLES);
+            System.out.printf("%-14s %12s %8s %8s %8s%n", "table", "query", "mean", "p50", "p99");
+            report("heap", connection);
+
+            long start = System.nanoTime();
+            migrate(url, user, password, "latest");
+            System.out.printf("V5 migration of %d reviews: %.1f s%n", REVIEWS, (System.nanoTime() - start) / 1e9);
+            execute(connection, "ANALYZE reviews");
+            assertThat(count(connection)).isGreaterThanOrEqualTo(REVIEWS);
+
+            report("hash x " + PARTITIONS, connection);
+        } finally {
+            try (Connection connection = DriverManager.getConnection(url, user, password)) {
+                execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            }
+        }
+    }
+
+    private static void migrate(String url, String user, String password, String target) {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db")
+                .table("flyway_schema_history_reviews")
+                .createSchemas(true)
+                .placeholders(Map.of("reviewPartitions", String.valueOf(PARTITIONS)))
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    // Book ids are uniform over 1..BOOKS, about REVIEWS / BOOKS reviews each.
+    private static void load(Connection connection) throws SQLException {
+        execute(connection, "INSERT INTO reviews (book_id, reviewer_name, rating, comment, created_at, updated_at)"
+                + " SELECT 1 + (random() * (" + BOOKS + " - 1))::int, 'Reviewer ' || n, 1 + n % 5,"
+                + " 'A review comment long enough to look like a real one, number ' || n,"
+                + " now() - (n % 1000) * interval '1 hour', now()"
+                + " FROM generate_series(1, " + REVIEWS + ") AS n");
+        execute(connection, "VACUUM ANALYZE reviews");
+    }
+
+    private static void report(String table, Connection connection) throws SQLException {
+        print(table, "findByBook", sample(connection, FIND_BY_BOOK, (statement, random) -> {
+            statement.setInt(1, 1 + random.nextInt(BOOKS));
+            drain(statement.executeQuery());
+        }));
+        print(table, "statsByBook", sample(connection, statsByBook(), (statement, random) -> {
+            for (int i = 1; i <= STATS_BATCH; i++) {
+                statement.setInt(i, 1 + random.nextInt(BOOKS));
+            }
+            drain(statement.executeQuery());
+        }));
+        print(table, "insert", sample(connection, INSERT, (statement, random) -> {
+            statement.setInt(1, 1 + random.nextInt(BOOKS));
+            statement.setString(2, "Bench");
+            statement.setInt(3, 1 + random.nextInt(5));
+            statement.setString(4, "Inserted while benchmarking");
+            statement.executeUpdate();
+        }));
+    }
+
+    // Each sample is its own autocommit transaction, so inserts include their commit.
+    private static long[] sample(Connection connection, String sql, Operation operation) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] nanos = new long[SAMPLES];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < WARMUP_SAMPLES; i++) {
+                operation.run(statement, random);
+            }
+            for (int i = 0; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                operation.run(statement, random);
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private static void print(String table, String query, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-14s %12s %8.3f %8.3f %8.3f%n", table, query,
+                Arrays.stream(nanos).average().orElse(0) / 1e6,
+                nanos[nanos.length / 2] / 1e6,
+                nanos[(int) (nanos.length * 0.99)] / 1e6);
+    }
+
+    private static String statsByBook() {
+        return "SELECT book_id, count(*), avg(rating), max(updated_at) FROM reviews WHERE book_id IN ("
+                + String.join(", ", Collections.nCopies(STATS_BATCH, "?")) + ") GROUP BY book_id";
+    }
+
+    private static void drain(ResultSet rs) throws SQLException {
+        try (rs) {
+            while (rs.next()) {
+                rs.getInt(1);
+            }
+        }
+    }
+
+    private static long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM reviews")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(PreparedStatement statement, ThreadLocalRandom random) throws SQLException;
+    }
+}
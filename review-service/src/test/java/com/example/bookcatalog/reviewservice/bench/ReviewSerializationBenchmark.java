@@ -0,0 +1,71 @@
+package com.example.bookcatalog.reviewservice.bench;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.dropwizard.jackson.Jackson;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares serializing a GET /reviews sized list with the default Dropwizard ObjectMapper
+ * and with the Blackbird module registered (jacksonBlackbird: true).
+ *
+ * Run with: mvn -pl review-service test -Pbenchmark
+ */
+@Tag("benchmark")
+class ReviewSerializationBenchmark {
+
+    private static final int REVIEWS = 10_000;
+    private static final int WARMUP_ITERATIONS = 30;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void benchmarkReviewListSerialization() throws Exception {
+        List<Review> reviews = new ArrayList<>(REVIEWS);
+        for (int i = 0; i < REVIEWS; i++) {
+            reviews.add(new Review(i % 1000, "Reviewer " + i, 1 + i % 5,
+                    "A review comment long enough to look like a real one, number " + i));
+        }
+
+        ObjectMapper plain = Jackson.newObjectMapper();
+        ObjectMapper blackbird = Jackson.newObjectMapper().registerModule(new BlackbirdModule());
+
+        assertThat(blackbird.writeValueAsString(reviews)).isEqualTo(plain.writeValueAsString(reviews));
+
+        System.out.printf("Review list of %d, ms per operation%n", REVIEWS);
+        System.out.printf("%-10s %12s %12s%n", "mapper", "serialize", "deserialize");
+        report("default", plain, reviews);
+        report("blackbird", blackbird, reviews);
+    }
+
+    private static void report(String name, ObjectMapper mapper, List<Review> reviews) throws Exception {
+        byte[] json = mapper.writeValueAsBytes(reviews);
+        TypeReference<List<Review>> type = new TypeReference<>() { };
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(reviews);
+            mapper.readValue(json, type);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(reviews);
+        }
+        double serializeMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(json, type);
+        }
+        double deserializeMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+
+        System.out.printf("%-10s %12.2f %12.2f%n", name, serializeMs, deserializeMs);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewBatchWriterTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(Review.class)
+            .build();
+
+    @Test
+    void testInsertWritesAllRows() {
+        ReviewBatchWriter writer = new ReviewBatchWriter(daoTestRule.getSessionFactory());
+
+        int inserted = writer.insert(List.of(
+                new Review(1, "Alice", 5, "Great"),
+                new Review(1, "Bob", 3, "Fine")));
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(new ReviewDAO(daoTestRule.getSessionFactory()).findAll())
+                .extracting(Review::getReviewerName)
+                .containsExactlyInAnyOrder("Alice", "Bob");
+    }
+
+    @Test
+    void testInsertReturningIdsSetsGeneratedIds() {
+        ReviewBatchWriter writer = new ReviewBatchWriter(daoTestRule.getSessionFactory());
+        Review alice = new Review(1, "Alice", 5, "Great");
+        Review bob = new Review(1, "Bob", 3, "Fine");
+
+        writer.insertReturningIds(List.of(alice, bob));
+
+        ReviewDAO dao = new ReviewDAO(daoTestRule.getSessionFactory());
+        assertThat(dao.findById(alice.getId())).get().extracting(Review::getReviewerName).isEqualTo("Alice");
+        assertThat(dao.findById(bob.getId())).get().extracting(Review::getReviewerName).isEqualTo("Bob");
+    }
+
+    @Test
+    void testFailedBatchWritesNothing() {
+        ReviewBatchWriter writer = new ReviewBatchWriter(daoTestRule.getSessionFactory());
+
+        // reviewer_name is NOT NULL, so the second row fails the whole batch.
+        assertThatThrownBy(() -> writer.insert(List.of(
+                new Review(1, "Alice", 5, "Great"),
+                new Review(1, null, 3, "Fine"))))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(new ReviewDAO(daoTestRule.getSessionFactory()).findAll()).isEmpty();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bookcatalog.reviewservice.db;
+
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.core.ReviewBulkUpdate;
+import com.example.bookcatalog.reviewservice.core.ReviewStats;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewDAOTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(Review.class)
+            .build();
+
+    private ReviewDAO dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new ReviewDAO(daoTestRule.getSessionFactory());
+    }
+
+    @Test
+    void testStatsByBookAggregatesPerBook() {
+        daoTestRule.inTransaction(() -> {
+            dao.create(new Review(1, "Alice", 5, "Great"));
+            dao.create(new Review(1, "Bob", 2, "Meh"));
+            dao.create(new Review(2, "Carol", 4, "Good"));
+            dao.create(new Review(3, "Dan", 1, "Not for me"));
+        });
+
+        List<ReviewStats> stats = daoTestRule.inTransaction(() -> dao.statsByBook(List.of(1, 2, 99)));
+
+        assertThat(stats).hasSize(2);
+        ReviewStats book1 = stats.stream().filter(s -> s.getBookId() == 1).findFirst().orElseThrow();
+        assertThat(book1.getCount()).isEqualTo(2);
+        assertThat(book1.getAverageRating()).isEqualTo(3.5);
+        assertThat(book1.getLastUpdated()).isNotNull();
+    }
+
+    @Test
+    void testUpdateMovesLastUpdated() throws InterruptedException {
+        Review review = daoTestRule.inTransaction(() -> dao.create(new Review(1, "Alice", 5, "Great")));
+        Instant created = review.getUpdatedAt();
+        Thread.sleep(5);
+
+        daoTestRule.inTransaction(() -> {
+            Review loaded = dao.findById(review.getId()).orElseThrow();
+            loaded.setRating(4);
+        });
+
+        ReviewStats stats = daoTestRule.inTransaction(() -> dao.statsByBook(List.of(1))).get(0);
+        assertThat(stats.getLastUpdated()).isAfter(created);
+    }
+
+    @Test
+    void testRatingScannerStreamsEveryReview() {
+        daoTestRule.inTransaction(() -> {
+            dao.create(new Review(1, "Alice", 5, "Great"));
+            dao.create(new Review(2, "Bob", 2, "Meh"));
+        });
+        List<String> seen = new ArrayList<>();
+
+        new ReviewRatingScanner(daoTestRule.getSessionFactory(), 1)
+                .scan((bookId, rating, createdAt) -> seen.add(bookId + ":" + rating + ":" + (createdAt != null)));
+
+        assertThat(seen).containsExactlyInAnyOrder("1:5:true", "2:2:true");
+    }
+
+    @Test
+    void testFindByBookReturnsOnlyThatBooksReviews() {
+        daoTestRule.inTransaction(() -> {
+            dao.create(new Review(1, "Alice", 5, "Great"));
+            dao.create(new Review(2, "Bob", 2, "Meh"));
+            dao.create(new Review(1, "Carol", 4, "Good"));
+        });
+
+        List<Review> reviews = daoTestRule.inTransaction(() -> dao.findByBook(1));
+
+        assertThat(reviews).extracting(Review::getReviewerName).containsExactlyInAnyOrder("Alice", "Carol");
+    }
+
+    @Test
+    void testFindByBookAfterReturnsTheNewestInIdOrder() {
+        List<Long> ids = daoTestRule.inTransaction(() -> List.of(
+                dao.create(new Review(1, "Alice", 5, "Great")).getId(),
+                dao.create(new Review(1, "Bob", 2, "Meh")).getId(),
+                dao.create(new Review(2, "Carol", 4, "Good")).getId(),
+                dao.create(new Review(1, "Dan", 1, "Not for me")).getId(),
+                dao.create(new Review(1, "Erin", 3, "Fine")).getId()));
+
+        List<Review> missed = daoTestRule.inTransaction(() -> dao.findByBookAfter(1, ids.get(0), 2));
+
+        assertThat(missed).extracting(Review::getReviewerName).containsExactly("Dan", "Erin");
+    }
+
+    @Test
+    void testBulkDeleteOnlyTouchesTheGivenBook() {
+        List<Long> ids = daoTestRule.inTransaction(() -> List.of(
+                dao.create(new Review(1, "Alice", 5, "Great")).getId(),
+                dao.create(new Review(2, "Bob", 2, "Meh")).getId(),
+                dao.create(new Review(1, "Carol", 4, "Good")).getId()));
+
+        List<Long> ofBook = daoTestRule.inTransaction(() -> dao.idsOfBook(1, Long.MIN_VALUE, 10));
+        int deleted = daoTestRule.inTransaction(() -> dao.deleteByIds(ids, 1));
+
+        assertThat(ofBook).containsExactly(ids.get(0), ids.get(2));
+        assertThat(deleted).isEqualTo(2);
+        assertThat(daoTestRule.inTransaction(() -> dao.findAll())).extracting(Review::getBookId).containsExactly(2);
+    }
+
+    @Test
+    void testBulkUpdateSetsOnlyGivenFieldsAndLastUpdated() throws InterruptedException {
+        Review review = daoTestRule.inTransaction(() -> dao.create(new Review(1, "Alice", 5, "Great")));
+        Instant created = review.getUpdatedAt();
+        Thread.sleep(5);
+        ReviewBulkUpdate.Changes set = new ReviewBulkUpdate.Changes();
+        set.setBookId(7);
+        set.setComment("[removed]");
+
+        int updated = daoTestRule.inTransaction(() -> dao.updateByIds(List.of(review.getId()), 1, set));
+
+        Review loaded = daoTestRule.inTransaction(() -> {
+            daoTestRule.getSessionFactory().getCurrentSession().clear();
+            return dao.findById(review.getId()).orElseThrow();
+        });
+        assertThat(updated).isEqualTo(1);
+        assertThat(loaded.getBookId()).isEqualTo(7);
+        assertThat(loaded.getComment()).isEqualTo("[removed]");
+        assertThat(loaded.getReviewerName()).isEqualTo("Alice");
+        assertThat(loaded.getUpdatedAt()).isAfter(created);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewBatchWriter;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ReviewBulkIngesterTest {
+
+    private ReviewBatchWriter writer;
+    private BulkIngestConfiguration config;
+
+    @BeforeEach
+    void setup() {
+        writer = mock(ReviewBatchWriter.class);
+        when(writer.insert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        config = new BulkIngestConfiguration();
+        config.setBatchSize(2);
+    }
+
+    private BulkIngestResult ingest(String body) throws Exception {
+        ReviewBulkIngester ingester = new ReviewBulkIngester(writer, Jackson.newObjectMapper(),
+                Validators.newValidator(), config, new MetricRegistry(), reviews -> { });
+        return ingester.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String line(int bookId, String name, int rating, String comment) {
+        return String.format("{\"bookId\":%d,\"reviewerName\":\"%s\",\"rating\":%d,\"comment\":\"%s\"}%n",
+                bookId, name, rating, comment);
+    }
+
+    @Test
+    void testValidLinesAreInsertedInBatches() throws Exception {
+        String body = line(1, "A", 5, "x") + line(1, "B", 4, "y") + line(2, "C", 3, "z");
+
+        BulkIngestResult result = ingest(body);
+
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getBatches()).isEqualTo(2);
+        verify(writer, times(2)).insert(anyList());
+    }
+
+    @Test
+    void testInvalidLinesAreReportedWithoutAbortingTheUpload() throws Exception {
+        String body = line(1, "A", 5, "x")
+                + "not json\n"
+                + line(1, "B", 9, "rating too high")
+                + "\n"
+                + line(1, "C", 3, "z");
+
+        BulkIngestResult result = ingest(body);
+
+        assertThat(result.getLinesRead()).isEqualTo(5);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkIngestResult.LineError::getLine).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(1).getMessage()).contains("rating cannot be more than 5");
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRowByRow() throws Exception {
+        when(writer.insert(argThat(list -> list != null && list.size() > 1)))
+                .thenThrow(new IllegalStateException("batch rejected"));
+        when(writer.insert(argThat(list -> list != null && list.size() == 1
+                && "Bad".equals(((Review) list.get(0)).getReviewerName()))))
+                .thenThrow(new IllegalStateException("row rejected"));
+
+        BulkIngestResult result = ingest(line(1, "Good", 5, "x") + line(1, "Bad", 4, "y"));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getMessage()).contains("row rejected");
+    }
+
+    @Test
+    void testReportedErrorsAreCapped() throws Exception {
+        config.setMaxReportedErrors(1);
+
+        BulkIngestResult result = ingest("bad\nworse\n");
+
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.isErrorsTruncated()).isTrue();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bookcatalog.reviewservice.ingest;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewBatchWriter;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ReviewGroupCommitterTest {
+
+    private ReviewBatchWriter writer;
+    private GroupCommitConfiguration config;
+    private MetricRegistry metrics;
+    private List<Runnable> writers;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        writer = mock(ReviewBatchWriter.class);
+        config = new GroupCommitConfiguration();
+        config.setQueueCapacity(3);
+        config.setMaxBatchSize(10);
+        config.setMaxDelay(Duration.milliseconds(1));
+        metrics = new MetricRegistry();
+        // Writers are only started when the test says so, so the queue fills up first
+        writers = new ArrayList<>();
+        executor = mock(ExecutorService.class);
+        doAnswer(invocation -> writers.add(invocation.getArgument(0))).when(executor).execute(any());
+    }
+
+    @Test
+    void testQueuedReviewsAreWrittenInOneBatch() throws Exception {
+        long[] nextId = {100};
+        when(writer.insertReturningIds(anyList())).thenAnswer(invocation -> {
+            List<Review> reviews = invocation.getArgument(0);
+            reviews.forEach(review -> review.setId(nextId[0]++));
+            return reviews.size();
+        });
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+        committer.start();
+
+        CompletableFuture<Review> first = committer.submit(new Review(1, "A", 5, "x"));
+        CompletableFuture<Review> second = committer.submit(new Review(2, "B", 4, "y"));
+        runWritersUntilStopped(committer);
+
+        assertThat(first.get().getId()).isEqualTo(100L);
+        assertThat(second.get().getId()).isEqualTo(101L);
+        verify(writer, times(1)).insertReturningIds(anyList());
+        assertThat(metrics.histogram("com.example.bookcatalog.reviewservice.ingest.ReviewGroupCommitter.batch-size")
+                .getSnapshot().getMax()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectedReviewFailsAloneWhenBatchIsRetried() throws Exception {
+        RuntimeException rejected = new RuntimeException("violates check constraint");
+        when(writer.insertReturningIds(anyList())).thenAnswer(invocation -> {
+            List<Review> reviews = invocation.getArgument(0);
+            if (reviews.stream().anyMatch(review -> review.getRating() == 9)) {
+                throw rejected;
+            }
+            return reviews.size();
+        });
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+        committer.start();
+
+        CompletableFuture<Review> good = committer.submit(new Review(1, "A", 5, "x"));
+        CompletableFuture<Review> bad = committer.submit(new Review(1, "B", 9, "y"));
+        runWritersUntilStopped(committer);
+
+        assertThat(good.get().getReviewerName()).isEqualTo("A");
+        assertThat(bad).isCompletedExceptionally();
+        assertThatThrownBy(bad::join).hasCause(rejected);
+        // The batch, then each review on its own
+        verify(writer, times(3)).insertReturningIds(anyList());
+        verify(writer).insertReturningIds(argThat(reviews -> reviews.size() == 1 && reviews.get(0).getRating() == 5));
+    }
+
+    @Test
+    void testFullQueueIsRefused() {
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+        committer.start();
+        for (int i = 0; i < config.getQueueCapacity(); i++) {
+            committer.submit(new Review(1, "A", 5, "x"));
+        }
+
+        assertThatThrownBy(() -> committer.submit(new Review(1, "B", 4, "y")))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(metrics.meter("com.example.bookcatalog.reviewservice.ingest.ReviewGroupCommitter.rejected")
+                .getCount()).isEqualTo(1);
+        verifyNoInteractions(writer);
+    }
+
+    @Test
+    void testNothingIsAcceptedBeforeStart() {
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+
+        assertThatThrownBy(() -> committer.submit(new Review(1, "A", 5, "x")))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void testWriterKilledByAnErrorFailsItsBatchAndIsReplaced() throws Exception {
+        when(writer.insertReturningIds(anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer(invocation -> invocation.<List<Review>>getArgument(0).size());
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+        committer.start();
+
+        CompletableFuture<Review> lost = committer.submit(new Review(1, "A", 5, "x"));
+        assertThatThrownBy(writers.get(0)::run).isInstanceOf(StackOverflowError.class);
+
+        assertThatThrownBy(lost::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(writers).hasSize(2);
+        CompletableFuture<Review> next = committer.submit(new Review(1, "B", 4, "y"));
+        new Thread(writers.get(1)).start();
+        committer.stop();
+        assertThat(next.get().getReviewerName()).isEqualTo("B");
+    }
+
+    @Test
+    void testWaitIsBoundedByMaxWait() {
+        config.setMaxWait(Duration.milliseconds(10));
+        ReviewGroupCommitter committer = new ReviewGroupCommitter(writer, config, executor, metrics);
+        committer.start();
+
+        CompletableFuture<Review> waiting = committer.submit(new Review(1, "A", 5, "x"));
+
+        assertThatThrownBy(waiting::join).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    // Everything is queued before the writers start, so it all goes out in the first batch.
+    private void runWritersUntilStopped(ReviewGroupCommitter committer) throws InterruptedException {
+        writers.forEach(runnable -> new Thread(runnable).start());
+        committer.stop();
+    }
+}
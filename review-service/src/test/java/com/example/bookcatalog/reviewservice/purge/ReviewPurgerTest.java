@@ -0,0 +1,131 @@
+package com.example.bookcatalog.reviewservice.purge;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import io.dropwizard.testing.junit5.DAOTestExtension;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.util.Duration;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewPurgerTest {
+
+    private DAOTestExtension daoTestRule = DAOTestExtension.newBuilder()
+            .addEntityClass(Review.class)
+            .addEntityClass(ReviewPurge.class)
+            .build();
+
+    private ReviewDAO reviewDAO;
+    private ScheduledExecutorService scheduler;
+    private MetricRegistry metrics;
+    private List<Integer> purged;
+    private ReviewPurger purger;
+
+    @BeforeEach
+    void setup() {
+        reviewDAO = new ReviewDAO(daoTestRule.getSessionFactory());
+        ReviewPurgeConfiguration config = new ReviewPurgeConfiguration();
+        config.setBatchSize(2);
+        config.setBatchDelay(Duration.milliseconds(0));
+        scheduler = mock(ScheduledExecutorService.class);
+        metrics = new MetricRegistry();
+        purged = new ArrayList<>();
+        purger = new ReviewPurger(daoTestRule.getSessionFactory(), config, scheduler, metrics, purged::add);
+        purger.start();
+    }
+
+    @Test
+    void testDeletesOnlyThatBooksReviewsInBatches() {
+        addReviews(1, 5);
+        addReviews(2, 1);
+
+        purger.request(1);
+        verify(scheduler).execute(any());
+        purger.runPending();
+
+        assertThat(reviewsOf(1)).isZero();
+        assertThat(reviewsOf(2)).isEqualTo(1);
+        assertThat(purger.pending()).isEmpty();
+        assertThat(purged).containsExactly(1);
+        // 2 + 2 + 1, the short batch showing there are none left
+        assertThat(metrics.timer("com.example.bookcatalog.reviewservice.purge.ReviewPurger.batch").getCount())
+                .isEqualTo(3);
+        assertThat(metrics.meter("com.example.bookcatalog.reviewservice.purge.ReviewPurger.deleted").getCount())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void testRequestingTwiceQueuesOnce() {
+        purger.request(1);
+        purger.request(1);
+
+        assertThat(purger.pending()).extracting(ReviewPurge::getBookId).containsExactly(1);
+    }
+
+    @Test
+    void testInterruptedPurgeIsResumed() {
+        addReviews(1, 3);
+        // Left behind by a pod that stopped after its first batch and whose lease has run out
+        daoTestRule.inTransaction(() -> {
+            Session session = daoTestRule.getSessionFactory().getCurrentSession();
+            session.persist(new ReviewPurge(1, Instant.now()));
+            session.flush();
+            session.createMutationQuery("UPDATE ReviewPurge p SET p.deleted = 2, p.claimedUntil = :past")
+                    .setParameter("past", Instant.now().minusSeconds(600))
+                    .executeUpdate();
+        });
+
+        purger.runPending();
+
+        assertThat(reviewsOf(1)).isZero();
+        assertThat(purger.pending()).isEmpty();
+        assertThat(purged).containsExactly(1);
+    }
+
+    @Test
+    void testPurgeLeasedByAnotherPodIsLeftAlone() {
+        addReviews(1, 3);
+        daoTestRule.inTransaction(() -> {
+            Session session = daoTestRule.getSessionFactory().getCurrentSession();
+            session.persist(new ReviewPurge(1, Instant.now()));
+            session.flush();
+            session.createMutationQuery("UPDATE ReviewPurge p SET p.claimedUntil = :future")
+                    .setParameter("future", Instant.now().plusSeconds(60))
+                    .executeUpdate();
+        });
+
+        purger.runPending();
+
+        assertThat(reviewsOf(1)).isEqualTo(3);
+        assertThat(purged).isEmpty();
+    }
+
+    private void addReviews(int bookId, int count) {
+        daoTestRule.inTransaction(() -> {
+            for (int i = 0; i < count; i++) {
+                reviewDAO.create(new Review(bookId, "Reviewer " + i, 4, "Fine"));
+            }
+        });
+    }
+
+    private long reviewsOf(int bookId) {
+        return daoTestRule.inTransaction(() -> daoTestRule.getSessionFactory().getCurrentSession()
+                .createQuery("SELECT count(r) FROM Review r WHERE r.bookId = :bookId", Long.class)
+                .setParameter("bookId", bookId)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.bookcatalog.reviewservice.ranking;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.ReviewRatingScanner;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ReviewRankingsTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+
+    private ReviewRatingScanner scanner;
+    private ReviewRankings rankings;
+
+    @BeforeEach
+    void setup() {
+        RankingConfiguration config = new RankingConfiguration();
+        config.setTopK(3);
+        config.setPriorWeight(2);
+        config.setTrendingHalfLife(Duration.days(1));
+        scanner = mock(ReviewRatingScanner.class);
+        rankings = new ReviewRankings(config, scanner, mock(ScheduledExecutorService.class),
+                new MetricRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testBayesianAveragePullsFewReviewsTowardsTheMean() {
+        // Prior mean 3.0 (no rebuild yet), weight 2
+        rankings.added(review(1, 5, NOW));
+        rankings.added(review(2, 4, NOW));
+        rankings.added(review(2, 4, NOW));
+        rankings.added(review(2, 4, NOW));
+        rankings.added(review(2, 4, NOW));
+        rankings.added(review(2, 4, NOW));
+
+        List<RankedBook> topRated = rankings.rankings().getTopRated();
+
+        // Book 1: (2*3 + 5) / 3 = 3.67; book 2: (2*3 + 20) / 7 = 3.71
+        assertThat(topRated).extracting(RankedBook::getBookId).containsExactly(2, 1);
+        assertThat(topRated.get(0).getScore()).isCloseTo(26.0 / 7, within(1e-9));
+        assertThat(topRated.get(1).getScore()).isCloseTo(11.0 / 3, within(1e-9));
+        assertThat(topRated.get(0).getAverageRating()).isEqualTo(4.0);
+    }
+
+    @Test
+    void testTrendingFavoursRecentReviews() {
+        Instant twoDaysAgo = NOW.minus(java.time.Duration.ofDays(2));
+        rankings.added(review(1, 5, twoDaysAgo));
+        rankings.added(review(1, 5, twoDaysAgo));
+        rankings.added(review(1, 5, twoDaysAgo));
+        rankings.added(review(2, 3, NOW));
+
+        List<RankedBook> trending = rankings.rankings().getTrending();
+
+        // Three reviews two half-lives old count 3/4; one new review counts 1
+        assertThat(trending).extracting(RankedBook::getBookId).containsExactly(2, 1);
+        assertThat(trending.get(1).getScore()).isCloseTo(0.75, within(1e-6));
+    }
+
+    @Test
+    void testUpdatesAndDeletesMoveBooks() {
+        Review first = review(1, 5, NOW);
+        rankings.added(first);
+        rankings.added(review(2, 3, NOW));
+        assertThat(rankings.rankings().getTopRated()).extracting(RankedBook::getBookId).containsExactly(1, 2);
+
+        first.setRating(1);
+        rankings.updated(1, 5, first);
+        assertThat(rankings.rankings().getTopRated()).extracting(RankedBook::getBookId).containsExactly(2, 1);
+
+        rankings.removed(first);
+        assertThat(rankings.rankings().getTopRated()).extracting(RankedBook::getBookId).containsExactly(2);
+    }
+
+    @Test
+    void testShelvesHoldTopK() {
+        for (int bookId = 1; bookId <= 5; bookId++) {
+            rankings.added(review(bookId, bookId, NOW));
+        }
+
+        Rankings shelves = rankings.rankings();
+
+        assertThat(shelves.getTopRated()).extracting(RankedBook::getBookId).containsExactly(5, 4, 3);
+        assertThat(shelves.limit(2).getTopRated()).extracting(RankedBook::getBookId).containsExactly(5, 4);
+        // Served from cache until something changes
+        assertThat(rankings.rankings()).isSameAs(shelves);
+    }
+
+    @Test
+    void testRebuildReplacesShelvesAndPrior() {
+        rankings.added(review(9, 5, NOW));
+        doAnswer(invocation -> {
+            ReviewRatingScanner.Visitor visitor = invocation.getArgument(0);
+            visitor.visit(1, 2, NOW);
+            visitor.visit(1, 2, NOW);
+            visitor.visit(2, 5, NOW);
+            visitor.visit(2, 3, NOW);
+            return null;
+        }).when(scanner).scan(any());
+
+        rankings.rebuild();
+
+        List<RankedBook> topRated = rankings.rankings().getTopRated();
+        assertThat(topRated).extracting(RankedBook::getBookId).containsExactly(2, 1);
+        // Mean of all ratings is 3.0: book 2 = (2*3 + 8) / 4
+        assertThat(topRated.get(0).getScore()).isCloseTo(3.5, within(1e-9));
+    }
+
+    private static Review review(int bookId, int rating, Instant createdAt) {
+        Review review = new Review(bookId, "Reader", rating, "Comment");
+        review.setCreatedAt(createdAt);
+        return review;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.BulkResult;
+import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.core.ReviewBulkUpdate;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.example.bookcatalog.reviewservice.db.SingleFlight;
+import com.example.bookcatalog.reviewservice.ranking.ReviewRankings;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamHub;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewCleanupResourceTest {
+
+    private static final ReviewDAO dao = mock(ReviewDAO.class);
+
+    // Registered with ReviewResource, which shares its /reviews path, as in the application
+    private static final ResourceExtension resources = ResourceExtension.builder()
+            .addResource(new ReviewCleanupResource(dao, 2))
+            .addResource(new ReviewResource(dao, mock(Client.class), "http://localhost:8080",
+                    mock(ReviewStreamHub.class), new SingleFlight("reviews", true, new MetricRegistry()),
+                    mock(ReviewRankings.class), null, null))
+            .addProvider(new RoleFromHeader())
+            .build();
+
+    // Stands in for JwtAuthFilter, which sets userRole from the token's role claim
+    static class RoleFromHeader implements ContainerRequestFilter {
+        @Override
+        public void filter(ContainerRequestContext request) {
+            request.setProperty("userRole", request.getHeaderString("X-Test-Role"));
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        when(dao.inTransaction(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(dao.deleteByIds(anyCollection(), any())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        when(dao.updateByIds(anyCollection(), any(), any())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(dao);
+    }
+
+    @Test
+    void testDeleteByBookWalksIdsAfterTheLastChunk() {
+        // Arrange
+        when(dao.idsOfBook(42, Long.MIN_VALUE, 2)).thenReturn(List.of(4L, 7L));
+        when(dao.idsOfBook(42, 7L, 2)).thenReturn(List.of());
+
+        // Act
+        BulkResult result = resources.target("/reviews/bulk-delete").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"bookId\": 42}"), BulkResult.class);
+
+        // Assert
+        assertThat(result.getRows()).isEqualTo(2);
+        assertThat(result.getChunks()).isEqualTo(1);
+        verify(dao).deleteByIds(List.of(4L, 7L), 42);
+        verify(dao).idsOfBook(42, 7L, 2);
+    }
+
+    @Test
+    void testUpdateByIdsGoesInSortedChunks() {
+        // Act
+        BulkResult result = resources.target("/reviews/bulk-update").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"where\": {\"ids\": [9, 3, 5]}, \"set\": {\"comment\": \"[removed]\"}}"),
+                        BulkResult.class);
+
+        // Assert
+        ArgumentCaptor<ReviewBulkUpdate.Changes> set = ArgumentCaptor.forClass(ReviewBulkUpdate.Changes.class);
+        verify(dao).updateByIds(eq(List.of(3L, 5L)), isNull(), set.capture());
+        verify(dao).updateByIds(eq(List.of(9L)), isNull(), any());
+        assertThat(set.getValue().getComment()).isEqualTo("[removed]");
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getChunks()).isEqualTo(2);
+    }
+
+    @Test
+    void testInvalidRequestsChangeNothing() {
+        // Act
+        Response noFilter = resources.target("/reviews/bulk-delete").request().header("X-Test-Role", "admin").post(Entity.json("{}"));
+        Response noChanges = resources.target("/reviews/bulk-update").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"where\": {\"bookId\": 42}, \"set\": {}}"));
+        Response blankName = resources.target("/reviews/bulk-update").request().header("X-Test-Role", "admin")
+                .post(Entity.json("{\"where\": {\"bookId\": 42}, \"set\": {\"reviewerName\": \" \"}}"));
+
+        // Assert
+        assertThat(noFilter.getStatus()).isEqualTo(422);
+        assertThat(noChanges.getStatus()).isEqualTo(422);
+        assertThat(blankName.getStatus()).isEqualTo(422);
+        verify(dao, never()).idsOfBook(anyInt(), anyLong(), anyInt());
+        verify(dao, never()).inTransaction(any());
+    }
+
+    @Test
+    void testSinglePathsStillReachReviewResource() {
+        // Arrange
+        when(dao.findById(1L)).thenReturn(Optional.of(new Review(1, "Reviewer", 5, "Great")));
+
+        // Act
+        Response response = resources.target("/reviews/1").request().get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testNonAdminIsForbiddenOnEveryPathForm() {
+        // Act
+        Response delete = resources.target("/reviews/bulk-delete/").request().header("X-Test-Role", "user")
+                .post(Entity.json("{\"bookId\": 42}"));
+        Response update = resources.target("/reviews/bulk-update/").request().header("X-Test-Role", "user")
+                .post(Entity.json("{\"where\": {\"bookId\": 42}, \"set\": {\"comment\": \"removed\"}}"));
+        Response noRole = resources.target("/reviews/bulk-delete").request()
+                .post(Entity.json("{\"bookId\": 42}"));
+
+        // Assert
+        assertThat(delete.getStatus()).isEqualTo(403);
+        assertThat(update.getStatus()).isEqualTo(403);
+        assertThat(noRole.getStatus()).isEqualTo(403);
+        verify(dao, never()).idsOfBook(anyInt(), anyLong(), anyInt());
+        verify(dao, never()).deleteByIds(anyCollection(), any());
+        verify(dao, never()).updateByIds(anyCollection(), any(), any());
+    }
+}
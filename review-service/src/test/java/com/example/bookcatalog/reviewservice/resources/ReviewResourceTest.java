@@ -1,23 +1,47 @@
 package com.example.bookcatalog.reviewservice.resources;
 
+import com.codahale.metrics.MetricRegistry;
 import com.example.bookcatalog.reviewservice.core.Review;
+import com.example.bookcatalog.reviewservice.db.FieldProjection;
 import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import com.example.bookcatalog.reviewservice.db.ReplicaRoutingDataSource;
+import com.example.bookcatalog.reviewservice.db.SingleFlight;
+import com.example.bookcatalog.reviewservice.idempotency.IdempotencyStore;
+import com.example.bookcatalog.reviewservice.ingest.ReviewGroupCommitter;
+import com.example.bookcatalog.reviewservice.ranking.ReviewRankings;
+import com.example.bookcatalog.reviewservice.stream.ReviewStreamHub;
+import com.fasterxml.jackson.jakarta.rs.smile.SmileMediaTypes;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(DropwizardExtensionsSupport.class)
@@ -26,9 +50,19 @@ class ReviewResourceTest {
     private static final ReviewDAO dao = mock(ReviewDAO.class);
     private static final Client client = mock(Client.class);
     private static final String bookServiceUrl = "http://localhost:8080";
+    private static final ReviewStreamHub streamHub = mock(ReviewStreamHub.class);
+    private static final ReviewRankings rankings = mock(ReviewRankings.class);
+    private static final ReviewGroupCommitter groupCommitter = mock(ReviewGroupCommitter.class);
+    private static final IdempotencyStore idempotency = mock(IdempotencyStore.class);
 
     private static final ResourceExtension resources = ResourceExtension.builder()
-            .addResource(new ReviewResource(dao, client, bookServiceUrl))
+            .addResource(new ReviewResource(dao, client, bookServiceUrl, streamHub,
+                    new SingleFlight("reviews", true, new MetricRegistry()), rankings, null, null))
+            .build();
+
+    private static final ResourceExtension groupCommitResources = ResourceExtension.builder()
+            .addResource(new ReviewResource(dao, client, bookServiceUrl, streamHub,
+                    new SingleFlight("reviews", true, new MetricRegistry()), rankings, groupCommitter, idempotency))
             .build();
 
     private Review testReview;
@@ -40,7 +74,7 @@ class ReviewResourceTest {
 
     @AfterEach
     void tearDown() {
-        reset(dao, client);
+        reset(dao, client, streamHub, rankings, groupCommitter, idempotency);
     }
 
     @Test
@@ -77,6 +111,7 @@ class ReviewResourceTest {
     void testAddReview() {
         // Arrange
         Review newReview = new Review(1, "New Reviewer", 4, "Good book");
+        when(dao.inTransaction(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
         when(dao.create(any(Review.class))).thenReturn(newReview);
 
         // Act
@@ -87,6 +122,97 @@ class ReviewResourceTest {
         // Assert
         assertThat(response.getStatus()).isEqualTo(201);
         verify(dao).create(any(Review.class));
+        verify(dao).afterCommit(any(Runnable.class));
+    }
+
+    @Test
+    void testAddReviewWithGroupCommit() {
+        // Arrange
+        Review created = new Review(1, "New Reviewer", 4, "Good book");
+        created.setId(42L);
+        when(groupCommitter.submit(any(Review.class))).thenReturn(CompletableFuture.completedFuture(created));
+
+        // Act
+        Response response = groupCommitResources.target("/reviews")
+                .request()
+                .post(Entity.entity(created, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.readEntity(Review.class).getId()).isEqualTo(42L);
+        verify(streamHub).publish(created);
+        verify(rankings).added(created);
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testAddReviewWithGroupCommitQueueFullReturns503() {
+        // Arrange
+        when(groupCommitter.submit(any(Review.class))).thenThrow(new RejectedExecutionException("full"));
+
+        // Act
+        Response response = groupCommitResources.target("/reviews")
+                .request()
+                .post(Entity.entity(testReview, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeaderString("Retry-After")).isEqualTo("1");
+        verifyNoInteractions(streamHub, rankings);
+    }
+
+    @Test
+    void testAddReviewWithGroupCommitTimeoutReturns503() {
+        // Arrange
+        when(groupCommitter.submit(any(Review.class))).thenReturn(CompletableFuture.failedFuture(
+                new java.util.concurrent.TimeoutException()));
+
+        // Act
+        Response response = groupCommitResources.target("/reviews")
+                .request()
+                .post(Entity.entity(testReview, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeaderString("Retry-After")).isEqualTo("1");
+        verifyNoInteractions(streamHub, rankings);
+    }
+
+    @Test
+    void testAddReviewWithGroupCommitRejectedRowReturns400() {
+        // Arrange
+        when(groupCommitter.submit(any(Review.class))).thenReturn(CompletableFuture.failedFuture(
+                new org.hibernate.exception.ConstraintViolationException("insert failed",
+                        new java.sql.SQLException("violates check constraint", "23514"), "reviews_rating_check")));
+
+        // Act
+        Response response = groupCommitResources.target("/reviews")
+                .request()
+                .post(Entity.entity(testReview, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.readEntity(String.class)).contains("violates check constraint");
+        verifyNoInteractions(streamHub, rankings);
+    }
+
+    @Test
+    void testAddReviewWithIdempotencyKeySkipsGroupCommit() {
+        // Arrange
+        when(dao.inTransaction(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(idempotency.execute(any(), eq("key-1"), any(), eq(Review.class), any()))
+                .thenReturn(Response.status(Response.Status.CREATED).entity(testReview).build());
+
+        // Act
+        Response response = groupCommitResources.target("/reviews")
+                .request()
+                .header(IdempotencyStore.HEADER, "key-1")
+                .post(Entity.entity(testReview, MediaType.APPLICATION_JSON));
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(201);
+        verify(dao).inTransaction(any());
+        verifyNoInteractions(groupCommitter);
     }
 
     @Test
@@ -104,4 +230,140 @@ class ReviewResourceTest {
         assertThat(response.getStatus()).isEqualTo(200);
         verify(dao).delete(testReview);
     }
+
+    @Test
+    void testGetBooksFromBookServiceStreamsUpstreamBody() {
+        // Arrange
+        String booksJson = "[{\"id\":1,\"title\":\"The Hobbit\"}]";
+        Response upstream = mockUpstream(Response.Status.OK);
+        when(upstream.readEntity(InputStream.class))
+                .thenReturn(new ByteArrayInputStream(booksJson.getBytes(StandardCharsets.UTF_8)));
+
+        // Act
+        Response response = resources.target("/reviews/books")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.readEntity(String.class)).isEqualTo(booksJson);
+        verify(upstream).close();
+    }
+
+    @Test
+    void testGetBooksFromBookServicePassesSmileThrough() {
+        // Arrange
+        byte[] smileBody = {':', ')', '\n', 0x05};
+        Response upstream = mockUpstream(Response.Status.OK);
+        when(upstream.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream(smileBody));
+
+        // Act
+        Response response = resources.target("/reviews/books")
+                .request(SmileMediaTypes.APPLICATION_JACKSON_SMILE)
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getMediaType().toString()).isEqualTo(SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+        assertThat(response.readEntity(byte[].class)).isEqualTo(smileBody);
+        verify(client.target(bookServiceUrl).path("/books"))
+                .request(MediaType.valueOf(SmileMediaTypes.APPLICATION_JACKSON_SMILE));
+    }
+
+    @Test
+    void testGetBooksFromBookServiceUpstreamError() {
+        // Arrange
+        Response upstream = mockUpstream(Response.Status.INTERNAL_SERVER_ERROR);
+
+        // Act
+        Response response = resources.target("/reviews/books")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(502);
+        verify(upstream).close();
+    }
+
+    private Response mockUpstream(Response.Status status) {
+        WebTarget target = mock(WebTarget.class);
+        Invocation.Builder builder = mock(Invocation.Builder.class);
+        Response upstream = mock(Response.class);
+        when(client.target(bookServiceUrl)).thenReturn(target);
+        when(target.path("/books")).thenReturn(target);
+        when(target.request(any(MediaType.class))).thenReturn(builder);
+        when(builder.get()).thenReturn(upstream);
+        when(upstream.getStatusInfo()).thenReturn(status);
+        when(upstream.getStatus()).thenReturn(status.getStatusCode());
+        return upstream;
+    }
+
+    @Test
+    void testGetReviewsByBookQueriesOnlyThatBook() {
+        // Arrange
+        when(dao.findByBook(1)).thenReturn(List.of(testReview));
+
+        // Act
+        List<?> reviews = resources.target("/reviews/book/1").request().get(List.class);
+
+        // Assert
+        assertThat(reviews).hasSize(1);
+        verify(dao).findByBook(1);
+        verify(dao, never()).findAll();
+    }
+
+    @Test
+    void testGetReviewsByBookWithFieldsQueriesOnlyThoseColumns() {
+        // Arrange
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 7);
+        row.put("rating", 4);
+        when(dao.findByBook(eq(1), any(FieldProjection.class))).thenReturn(List.of(row));
+
+        // Act
+        String json = resources.target("/reviews/book/1")
+                .queryParam("fields", "id,rating")
+                .request(MediaType.APPLICATION_JSON)
+                .get(String.class);
+
+        // Assert
+        assertThat(json).isEqualTo("[{\"id\":7,\"rating\":4}]");
+        ArgumentCaptor<FieldProjection> projection = ArgumentCaptor.forClass(FieldProjection.class);
+        verify(dao).findByBook(eq(1), projection.capture());
+        assertThat(projection.getValue().getFields()).containsExactly("id", "rating");
+        verify(dao, never()).findAll();
+    }
+
+    @Test
+    void testUnknownFieldReturns400() {
+        // Act
+        Response response = resources.target("/reviews")
+                .queryParam("fields", "id,title")
+                .request()
+                .get();
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.readEntity(String.class)).contains("Unknown field 'title'");
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testReadsOnDifferentRoutesDoNotShareAFlight() {
+        // Arrange
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPath()).thenReturn("reviews/book/1");
+        when(uriInfo.getQueryParameters()).thenReturn(new MultivaluedHashMap<>());
+        try {
+            // Act
+            ReplicaRoutingDataSource.readFromReplica(true);
+            String replicaKey = ReviewResource.flightKey(uriInfo);
+            ReplicaRoutingDataSource.readFromReplica(false);
+
+            // Assert
+            assertThat(ReviewResource.flightKey(uriInfo)).isNotEqualTo(replicaKey);
+        } finally {
+            ReplicaRoutingDataSource.clearRoute();
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.bookcatalog.reviewservice.resources;
+
+import com.example.bookcatalog.reviewservice.core.ReviewStats;
+import com.example.bookcatalog.reviewservice.db.ReviewDAO;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import io.dropwizard.testing.junit5.ResourceExtension;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DropwizardExtensionsSupport.class)
+class ReviewStatsResourceTest {
+
+    private static final ReviewDAO dao = mock(ReviewDAO.class);
+
+    private static final ResourceExtension resources = ResourceExtension.builder()
+            .addResource(new ReviewStatsResource(dao, 3))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        reset(dao);
+    }
+
+    @Test
+    void testReturnsOneEntryPerBookInRequestOrder() {
+        Instant updated = Instant.parse("2026-10-01T12:00:00Z");
+        when(dao.statsByBook(any())).thenReturn(List.of(
+                new ReviewStats(1, 2, 4.5, updated),
+                new ReviewStats(7, 1, 3.0, updated)));
+
+        Response response = post("{\"bookIds\":[7,2,1,7]}");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        List<Map<String, Object>> stats = response.readEntity(new GenericType<>() {});
+        assertThat(stats).extracting(s -> s.get("bookId")).containsExactly(7, 2, 1);
+        assertThat(stats.get(0)).containsEntry("count", 1).containsEntry("averageRating", 3.0)
+                .containsEntry("lastUpdated", "2026-10-01T12:00:00Z");
+        // No reviews: zero count rather than a missing entry
+        assertThat(stats.get(1)).containsEntry("count", 0).containsEntry("averageRating", null);
+        // Duplicates are only queried once
+        verify(dao).statsByBook(argThat(ids -> ids.size() == 3));
+    }
+
+    @Test
+    void testRejectsMoreBooksThanTheBatchSize() {
+        Response response = post("{\"bookIds\":[1,2,3,4]}");
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.readEntity(String.class)).contains("At most 3");
+        verifyNoInteractions(dao);
+    }
+
+    @Test
+    void testRejectsEmptyList() {
+        Response response = post("{\"bookIds\":[]}");
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        verifyNoInteractions(dao);
+    }
+
+    private static Response post(String json) {
+        return resources.target("/reviews/stats")
+                .request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(json, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.bookcatalog.reviewservice.stream;
+
+import com.codahale.metrics.MetricRegistry;
+import com.example.bookcatalog.reviewservice.core.Review;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewStreamHubTest {
+
+    private ScheduledExecutorService scheduler;
+    private ReviewStreamConfiguration config;
+    private long nextReviewId = 100;
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        config = new ReviewStreamConfiguration();
+        config.setBufferSize(2);
+        config.setReplaySize(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ReviewStreamHub newHub() {
+        // Run sends inline so the tests are deterministic.
+        return new ReviewStreamHub(config, scheduler, Runnable::run, new MetricRegistry());
+    }
+
+    @Test
+    void testPublishReachesSubscribersOfThatBookOnly() {
+        ReviewStreamHub hub = newHub();
+        RecordingSink book1 = new RecordingSink(true);
+        RecordingSink book2 = new RecordingSink(true);
+        hub.subscribe(1, null, book1);
+        hub.subscribe(2, null, book2);
+
+        hub.publish(review(1, "Alice"));
+
+        assertThat(book1.received).hasSize(1);
+        assertThat(book1.received.get(0).getReview().getReviewerName()).isEqualTo("Alice");
+        assertThat(book2.received).isEmpty();
+    }
+
+    @Test
+    void testLastEventIdReplaysMissedEvents() {
+        ReviewStreamHub hub = newHub();
+        RecordingSink first = new RecordingSink(true);
+        hub.subscribe(1, null, first);
+        hub.publish(review(1, "A"));
+        hub.publish(review(1, "B"));
+        hub.publish(review(1, "C"));
+        long seenUpTo = first.received.get(0).getId();
+
+        RecordingSink reconnected = new RecordingSink(true);
+        hub.subscribe(1, seenUpTo, reconnected);
+
+        assertThat(reconnected.received).extracting(e -> e.getReview().getReviewerName())
+                .containsExactly("B", "C");
+    }
+
+    @Test
+    void testLastEventIdFromBeforeARestartDoesNotHideNewEvents() {
+        ReviewStreamHub hub = newHub();
+        RecordingSink reconnected = new RecordingSink(true);
+        hub.subscribe(1, 500L, reconnected);
+
+        nextReviewId = 501;
+        hub.publish(review(1, "A"));
+
+        assertThat(reconnected.received).extracting(ReviewEvent::getId).containsExactly(501L);
+    }
+
+    @Test
+    void testMissedReviewsAreSentBeforeNewerReplayedOnesWithoutRepeats() {
+        ReviewStreamHub hub = newHub();
+        hub.subscribe(1, null, new RecordingSink(true));
+        Review a = review(1, "A");
+        Review b = review(1, "B");
+        Review c = review(1, "C");
+        List.of(a, b, c).forEach(hub::publish);
+
+        // The database (a lagging replica, say) had B but not yet C
+        RecordingSink reconnected = new RecordingSink(true);
+        hub.subscribe(1, a.getId(), List.of(b), reconnected);
+
+        assertThat(reconnected.received).extracting(e -> e.getReview().getReviewerName())
+                .containsExactly("B", "C");
+    }
+
+    @Test
+    void testSlowConsumerDropsOldestEvents() {
+        ReviewStreamHub hub = newHub();
+        RecordingSink slow = new RecordingSink(false);
+        hub.subscribe(1, null, slow);
+
+        // First event is in flight, the next two fill the buffer, the fourth pushes out the second.
+        for (int i = 1; i <= 4; i++) {
+            hub.publish(review(1, "R" + i));
+        }
+        slow.completeAll();
+
+        assertThat(slow.received).extracting(e -> e.getReview().getReviewerName())
+                .containsExactly("R1", "R3", "R4");
+        assertThat(slow.closed).isFalse();
+    }
+
+    @Test
+    void testSlowConsumerIsDisconnectedWhenConfigured() {
+        config.setSlowConsumerPolicy(ReviewStreamConfiguration.SlowConsumerPolicy.DISCONNECT);
+        ReviewStreamHub hub = newHub();
+        RecordingSink slow = new RecordingSink(false);
+        hub.subscribe(1, null, slow);
+
+        for (int i = 1; i <= 4; i++) {
+            hub.publish(review(1, "R" + i));
+        }
+
+        assertThat(slow.closed).isTrue();
+        assertThat(hub.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void testSubscribeRejectedAtCapacity() {
+        config.setMaxSubscribers(1);
+        ReviewStreamHub hub = newHub();
+
+        assertThat(hub.subscribe(1, null, new RecordingSink(true))).isTrue();
+        assertThat(hub.subscribe(2, null, new RecordingSink(true))).isFalse();
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testHeartbeatRemovesClosedSinks() {
+        ReviewStreamHub hub = newHub();
+        RecordingSink sink = new RecordingSink(true);
+        hub.subscribe(1, null, sink);
+        sink.closed = true;
+
+        hub.heartbeat();
+
+        assertThat(hub.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void testSendBlockedPastTimeoutDisconnectsWithoutStallingOthers() throws InterruptedException {
+        config.setSendTimeoutSeconds(1);
+        ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+        try {
+            ReviewStreamHub hub = new ReviewStreamHub(config, scheduler, dispatcher, new MetricRegistry());
+            BlockingSink stuck = new BlockingSink();
+            CountingSink other = new CountingSink();
+            hub.subscribe(1, null, stuck);
+            hub.publish(review(1, "A"));
+            assertThat(stuck.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // The only dispatch thread is blocked in the first sink until the timeout frees it
+            hub.subscribe(2, null, other);
+            hub.publish(review(2, "B"));
+
+            assertThat(other.received.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(stuck.closed).isTrue();
+            assertThat(hub.getSubscriberCount()).isEqualTo(1);
+        } finally {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    // A saved review, with the id the database would have given it
+    private Review review(int bookId, String reviewerName) {
+        Review review = new Review(bookId, reviewerName, 5, "c");
+        review.setId(nextReviewId++);
+        return review;
+    }
+
+    // A client that has stopped reading: the write never returns on its own.
+    private static final class BlockingSink implements ReviewStreamHub.Sink {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile boolean closed;
+
+        @Override
+        public CompletionStage<?> send(ReviewEvent event) {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<?> heartbeat() {
+            return send(null);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class CountingSink implements ReviewStreamHub.Sink {
+        private final CountDownLatch received = new CountDownLatch(1);
+
+        @Override
+        public CompletionStage<?> send(ReviewEvent event) {
+            received.countDown();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<?> heartbeat() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class RecordingSink implements ReviewStreamHub.Sink {
+        private final boolean completeImmediately;
+        private final List<ReviewEvent> received = new ArrayList<>();
+        private final List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        private boolean closed;
+
+        RecordingSink(boolean completeImmediately) {
+            this.completeImmediately = completeImmediately;
+        }
+
+        @Override
+        public CompletionStage<?> send(ReviewEvent event) {
+            received.add(event);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (completeImmediately) {
+                future.complete(null);
+            } else {
+                inFlight.add(future);
+            }
+            return future;
+        }
+
+        @Override
+        public CompletionStage<?> heartbeat() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        void completeAll() {
+            while (!inFlight.isEmpty()) {
+                inFlight.remove(0).complete(null);
+            }
+        }
+    }
+}
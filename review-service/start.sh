@@ -19,5 +19,10 @@ fi
 
 echo "Using DATABASE_URL: ${DATABASE_URL}"
 
-# Start the application
-exec java -jar review-service.jar server config.yaml
+# Class data sharing archive written by the image build; the JVM ignores it if it doesn't match
+if [ -f review-service.jsa ]; then
+  JAVA_OPTS="-XX:SharedArchiveFile=review-service.jsa -Xlog:cds=error ${JAVA_OPTS:-}"
+fi
+
+# Start the application, or run another command such as `migrate` when one is given
+exec java ${JAVA_OPTS:-} -jar review-service.jar "${1:-server}" config.yaml